@@ -206,7 +206,8 @@ class BufferedInputStream extends FilterInputStream {
     /**
      * Fills the buffer with more data, taking into account
      * shuffling and other tricks for dealing with marks.
-     * Assumes that it is being called by a synchronized method.
+     * Assumes that it is being called by a synchronized method, or by
+     * a method of UnsyncBufferedInputStream.
      * This method also assumes that all data has already been read in,
      * hence pos > count.
      */
@@ -261,6 +262,13 @@ class BufferedInputStream extends FilterInputStream {
      * @see        java.io.FilterInputStream#in
      */
     public synchronized int read() throws IOException {
+        return implRead();
+    }
+
+    // The implementations of the public methods, without synchronization,
+    // shared with UnsyncBufferedInputStream
+
+    final int implRead() throws IOException {
         if (pos >= count) {
             fill();
             if (pos >= count)
@@ -333,6 +341,10 @@ class BufferedInputStream extends FilterInputStream {
     public synchronized int read(byte b[], int off, int len)
         throws IOException
     {
+        return implRead(b, off, len);
+    }
+
+    final int implRead(byte b[], int off, int len) throws IOException {
         getBufIfOpen(); // Check for closed stream
         if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
             throw new IndexOutOfBoundsException();
@@ -365,6 +377,10 @@ class BufferedInputStream extends FilterInputStream {
      *                          I/O error occurs.
      */
     public synchronized long skip(long n) throws IOException {
+        return implSkip(n);
+    }
+
+    final long implSkip(long n) throws IOException {
         getBufIfOpen(); // Check for closed stream
         if (n <= 0) {
             return 0;
@@ -406,6 +422,10 @@ class BufferedInputStream extends FilterInputStream {
      *                          or an I/O error occurs.
      */
     public synchronized int available() throws IOException {
+        return implAvailable();
+    }
+
+    final int implAvailable() throws IOException {
         int n = count - pos;
         int avail = getInIfOpen().available();
         return n > (Integer.MAX_VALUE - avail)
@@ -422,6 +442,10 @@ class BufferedInputStream extends FilterInputStream {
      * @see     java.io.BufferedInputStream#reset()
      */
     public synchronized void mark(int readlimit) {
+        implMark(readlimit);
+    }
+
+    final void implMark(int readlimit) {
         marklimit = readlimit;
         markpos = pos;
     }
@@ -443,6 +467,10 @@ class BufferedInputStream extends FilterInputStream {
      * @see        java.io.BufferedInputStream#mark(int)
      */
     public synchronized void reset() throws IOException {
+        implReset();
+    }
+
+    final void implReset() throws IOException {
         getBufIfOpen(); // Cause exception if closed
         if (markpos < 0)
             throw new IOException("Resetting to invalid mark");
@@ -25,17 +25,28 @@
 
 package java.io;
 
+import java.nio.ByteBuffer;
+
 /**
  * The class implements a buffered output stream. By setting up such
  * an output stream, an application can write bytes to the underlying
  * output stream without necessarily causing a call to the underlying
  * system for each byte written.
  *
+ * <p> If the underlying output stream is a file output stream, a socket
+ * output stream or a stream returned by {@link
+ * java.nio.channels.Channels#newOutputStream(java.nio.channels.WritableByteChannel)
+ * Channels.newOutputStream}, and not a subclass of one, then bytes that
+ * bypass the buffer are written together with the buffered bytes in one
+ * gathering write, rather than after a separate flush.
+ *
  * @author  Arthur van Hoff
  * @since   JDK1.0
  */
 public
-class BufferedOutputStream extends FilterOutputStream {
+class BufferedOutputStream extends FilterOutputStream
+    implements GatheringOutputStream
+{
     /**
      * The internal buffer where data is stored.
      */
@@ -49,6 +60,13 @@ class BufferedOutputStream extends FilterOutputStream {
      */
     protected int count;
 
+    /*
+     * The most bytes from arrays that are written with one gathering
+     * write.  The underlying stream copies them into a temporary direct
+     * buffer, which is kept small by writing larger arrays as before.
+     */
+    private static final int MAX_GATHER_ARRAY_BYTES = 256 * 1024;
+
     /**
      * Creates a new buffered output stream to write data to the
      * specified underlying output stream.
@@ -84,6 +102,27 @@ class BufferedOutputStream extends FilterOutputStream {
         }
     }
 
+    /*
+     * Returns the underlying stream if bytes may be written to it with a
+     * gathering write in place of write(byte[],int,int), or null.  Only the
+     * platform's own streams are trusted, by their exact class, as the
+     * gathering write of a subclass would bypass any override of its
+     * write(byte[],int,int).
+     */
+    private GatheringOutputStream gatheringOut() {
+        OutputStream out = this.out;
+        if (out == null)
+            return null;
+        Class<?> c = out.getClass();
+        if (c == FileOutputStream.class
+            || c == sun.nio.ch.ChannelOutputStream.class
+            || (c.getSuperclass() == FileOutputStream.class
+                && c.getClassLoader() == null
+                && c.getName().equals("java.net.SocketOutputStream")))
+            return (GatheringOutputStream)out;
+        return null;
+    }
+
     /**
      * Writes the specified byte to this buffered output stream.
      *
@@ -107,6 +146,9 @@ class BufferedOutputStream extends FilterOutputStream {
      * buffer, however, then this method will flush the buffer and write the
      * bytes directly to the underlying output stream.  Thus redundant
      * <code>BufferedOutputStream</code>s will not copy data unnecessarily.
+     * If the underlying output stream is a file, socket or channel output
+     * stream then the buffer and the bytes may be written in a single
+     * operation.
      *
      * @param      b     the data.
      * @param      off   the start offset in the data.
@@ -118,6 +160,15 @@ class BufferedOutputStream extends FilterOutputStream {
             /* If the request length exceeds the size of the output buffer,
                flush the output buffer and then write the data directly.
                In this way buffered streams will cascade harmlessly. */
+            GatheringOutputStream gout;
+            if (count > 0 && len <= MAX_GATHER_ARRAY_BYTES - count
+                    && (gout = gatheringOut()) != null) {
+                ByteBuffer[] bufs = { ByteBuffer.wrap(buf, 0, count),
+                                      ByteBuffer.wrap(b, off, len) };
+                gout.write(bufs, 0, 2);
+                count = 0;
+                return;
+            }
             flushBuffer();
             out.write(b, off, len);
             return;
@@ -129,6 +180,77 @@ class BufferedOutputStream extends FilterOutputStream {
         count += len;
     }
 
+    /**
+     * Writes the remaining bytes of a subsequence of the given buffers to
+     * this buffered output stream.
+     *
+     * <p> Bytes that fit in this stream's buffer are copied into it. If they
+     * do not fit, and the underlying output stream is a file, socket or
+     * channel output stream, then the buffered bytes and the given buffers
+     * are written to it together in a single operation, unless the buffers
+     * that are not direct hold many bytes; otherwise the buffer is flushed as
+     * needed and the bytes of each given buffer are written as by {@link
+     * #write(byte[],int,int) write}.
+     *
+     * @param      srcs     the buffers from which bytes are to be retrieved.
+     * @param      offset   the offset within the buffer array of the first
+     *                      buffer.
+     * @param      length   the number of buffers to be accessed.
+     * @exception  IndexOutOfBoundsException  if the preconditions on
+     *             <code>offset</code> and <code>length</code> do not hold.
+     * @exception  IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    public synchronized void write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > srcs.length - length))
+            throw new IndexOutOfBoundsException();
+        int end = offset + length;
+        long total = 0;
+        long arrayBytes = count;
+        for (int i = offset; i < end; i++) {
+            ByteBuffer src = srcs[i];
+            int rem = src.remaining();
+            total += rem;
+            if (!src.isDirect())
+                arrayBytes += rem;
+        }
+
+        GatheringOutputStream gout;
+        if (total > buf.length - count && arrayBytes <= MAX_GATHER_ARRAY_BYTES
+                && (gout = gatheringOut()) != null) {
+            if (count > 0) {
+                ByteBuffer[] bufs = new ByteBuffer[length + 1];
+                bufs[0] = ByteBuffer.wrap(buf, 0, count);
+                System.arraycopy(srcs, offset, bufs, 1, length);
+                gout.write(bufs, 0, bufs.length);
+                count = 0;
+            } else {
+                gout.write(srcs, offset, length);
+            }
+            return;
+        }
+
+        for (int i = offset; i < end; i++) {
+            ByteBuffer src = srcs[i];
+            if (src.hasArray()) {
+                int pos = src.position();
+                int rem = src.limit() - pos;
+                write(src.array(), src.arrayOffset() + pos, rem);
+                src.position(pos + rem);
+            } else {
+                while (src.hasRemaining()) {
+                    if (count >= buf.length)
+                        flushBuffer();
+                    int n = Math.min(buf.length - count, src.remaining());
+                    src.get(buf, count, n);
+                    count += n;
+                }
+            }
+        }
+    }
+
     /**
      * Flushes this buffered output stream. This forces any buffered
      * output bytes to be written out to the underlying output stream.
@@ -26,10 +26,13 @@
 package java.io;
 
 
+import java.nio.CharBuffer;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -179,22 +182,29 @@ public class BufferedReader extends Reader {
      */
     public int read() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            for (;;) {
-                if (nextChar >= nChars) {
-                    fill();
-                    if (nextChar >= nChars)
-                        return -1;
-                }
-                if (skipLF) {
-                    skipLF = false;
-                    if (cb[nextChar] == '\n') {
-                        nextChar++;
-                        continue;
-                    }
+            return implRead();
+        }
+    }
+
+    // The implementations of the public methods, without locking, shared
+    // with UnsyncBufferedReader
+
+    final int implRead() throws IOException {
+        ensureOpen();
+        for (;;) {
+            if (nextChar >= nChars) {
+                fill();
+                if (nextChar >= nChars)
+                    return -1;
+            }
+            if (skipLF) {
+                skipLF = false;
+                if (cb[nextChar] == '\n') {
+                    nextChar++;
+                    continue;
                 }
-                return cb[nextChar++];
             }
+            return cb[nextChar++];
         }
     }
 
@@ -278,23 +288,27 @@ public class BufferedReader extends Reader {
      */
     public int read(char cbuf[], int off, int len) throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            if ((off < 0) || (off > cbuf.length) || (len < 0) ||
-                ((off + len) > cbuf.length) || ((off + len) < 0)) {
-                throw new IndexOutOfBoundsException();
-            } else if (len == 0) {
-                return 0;
-            }
+            return implRead(cbuf, off, len);
+        }
+    }
 
-            int n = read1(cbuf, off, len);
-            if (n <= 0) return n;
-            while ((n < len) && in.ready()) {
-                int n1 = read1(cbuf, off + n, len - n);
-                if (n1 <= 0) break;
-                n += n1;
-            }
-            return n;
+    final int implRead(char cbuf[], int off, int len) throws IOException {
+        ensureOpen();
+        if ((off < 0) || (off > cbuf.length) || (len < 0) ||
+            ((off + len) > cbuf.length) || ((off + len) < 0)) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        }
+
+        int n = read1(cbuf, off, len);
+        if (n <= 0) return n;
+        while ((n < len) && in.ready()) {
+            int n1 = read1(cbuf, off + n, len - n);
+            if (n1 <= 0) break;
+            n += n1;
         }
+        return n;
     }
 
     /**
@@ -313,65 +327,66 @@ public class BufferedReader extends Reader {
      * @exception  IOException  If an I/O error occurs
      */
     String readLine(boolean ignoreLF) throws IOException {
-        StringBuffer s = null;
+        synchronized (lock) {
+            return implReadLine(ignoreLF);
+        }
+    }
+
+    final String implReadLine(boolean ignoreLF) throws IOException {
+        StringBuilder s = null;
         int startChar;
 
-        synchronized (lock) {
-            ensureOpen();
-            boolean omitLF = ignoreLF || skipLF;
+        ensureOpen();
+        boolean omitLF = ignoreLF || skipLF;
 
-        bufferLoop:
-            for (;;) {
+    bufferLoop:
+        for (;;) {
 
-                if (nextChar >= nChars)
-                    fill();
-                if (nextChar >= nChars) { /* EOF */
-                    if (s != null && s.length() > 0)
-                        return s.toString();
-                    else
-                        return null;
-                }
-                boolean eol = false;
-                char c = 0;
-                int i;
+            if (nextChar >= nChars)
+                fill();
+            if (nextChar >= nChars) { /* EOF */
+                if (s != null && s.length() > 0)
+                    return s.toString();
+                else
+                    return null;
+            }
+            boolean eol = false;
+            char c = 0;
+            int i;
 
-                /* Skip a leftover '\n', if necessary */
-                if (omitLF && (cb[nextChar] == '\n'))
-                    nextChar++;
-                skipLF = false;
-                omitLF = false;
-
-            charLoop:
-                for (i = nextChar; i < nChars; i++) {
-                    c = cb[i];
-                    if ((c == '\n') || (c == '\r')) {
-                        eol = true;
-                        break charLoop;
-                    }
-                }
+            /* Skip a leftover '\n', if necessary */
+            if (omitLF && (cb[nextChar] == '\n'))
+                nextChar++;
+            skipLF = false;
+            omitLF = false;
 
-                startChar = nextChar;
-                nextChar = i;
+            i = indexOfEOL(cb, nextChar, nChars);
+            if (i < nChars) {
+                c = cb[i];
+                eol = true;
+            }
 
-                if (eol) {
-                    String str;
-                    if (s == null) {
-                        str = new String(cb, startChar, i - startChar);
-                    } else {
-                        s.append(cb, startChar, i - startChar);
-                        str = s.toString();
-                    }
-                    nextChar++;
-                    if (c == '\r') {
-                        skipLF = true;
-                    }
-                    return str;
-                }
+            startChar = nextChar;
+            nextChar = i;
 
-                if (s == null)
-                    s = new StringBuffer(defaultExpectedLineLength);
-                s.append(cb, startChar, i - startChar);
+            if (eol) {
+                String str;
+                if (s == null) {
+                    str = new String(cb, startChar, i - startChar);
+                } else {
+                    s.append(cb, startChar, i - startChar);
+                    str = s.toString();
+                }
+                nextChar++;
+                if (c == '\r') {
+                    skipLF = true;
+                }
+                return str;
             }
+
+            if (s == null)
+                s = new StringBuilder(defaultExpectedLineLength);
+            s.append(cb, startChar, i - startChar);
         }
     }
 
@@ -395,6 +410,150 @@ public class BufferedReader extends Reader {
         return readLine(false);
     }
 
+    /**
+     * Reads the remaining lines of text, passing each to the given action,
+     * until the end of the stream is reached.  Lines are terminated as for
+     * {@link #readLine()}, and are passed to the action without their
+     * line-termination characters.
+     *
+     * <p> Unlike {@code readLine}, this method does not create a {@code
+     * String} for each line.  A line that lies wholly within the buffer is
+     * passed as a read-only view of the buffer, and a line that spans more
+     * than one fill of the buffer is passed as a builder that is reused for
+     * the next such line.  The {@code CharSequence} passed to the action is
+     * therefore only valid until the action returns; an action that needs
+     * to retain the line must copy it, for example by invoking {@code
+     * toString}.  The action must not read from, mark, reset or close this
+     * reader.
+     *
+     * <p> If the action throws an exception then it is relayed to the
+     * caller, and the reader is positioned after the line that was passed
+     * to the action.
+     *
+     * @param  action  the action to be performed for each line
+     *
+     * @exception  IOException  If an I/O error occurs
+     * @exception  NullPointerException  If {@code action} is {@code null}
+     *
+     * @since 1.8
+     */
+    public void lines(Consumer<? super CharSequence> action)
+        throws IOException
+    {
+        Objects.requireNonNull(action);
+        synchronized (lock) {
+            implLines(action);
+        }
+    }
+
+    final void implLines(Consumer<? super CharSequence> action)
+        throws IOException
+    {
+        ensureOpen();
+        StringBuilder s = null;         // holds a line that spans fills
+        char[] viewed = null;           // the array that view wraps
+        CharBuffer view = null;
+
+        for (;;) {
+            if (nextChar >= nChars)
+                fill();
+            if (nextChar >= nChars) { /* EOF */
+                if (s != null && s.length() > 0)
+                    action.accept(s);
+                return;
+            }
+
+            /* Skip a leftover '\n', if necessary */
+            if (skipLF) {
+                skipLF = false;
+                if (cb[nextChar] == '\n') {
+                    nextChar++;
+                    continue;
+                }
+            }
+
+            int start = nextChar;
+            int i = indexOfEOL(cb, start, nChars);
+            if (i >= nChars) {
+                if (s == null)
+                    s = new StringBuilder(defaultExpectedLineLength);
+                s.append(cb, start, i - start);
+                nextChar = i;
+                continue;
+            }
+
+            nextChar = i + 1;
+            if (cb[i] == '\r')
+                skipLF = true;
+            if (s != null && s.length() > 0) {
+                s.append(cb, start, i - start);
+                action.accept(s);
+                s.setLength(0);
+            } else {
+                if (viewed != cb) {
+                    // fill replaces the array when a mark needs more room
+                    viewed = cb;
+                    view = CharBuffer.wrap(cb).asReadOnlyBuffer();
+                }
+                view.limit(i).position(start);
+                action.accept(view);
+            }
+        }
+    }
+
+    // -- line terminator search --
+
+    private static final sun.misc.Unsafe UNSAFE = sun.misc.Unsafe.getUnsafe();
+    private static final long CHAR_BASE =
+        UNSAFE.arrayBaseOffset(char[].class);
+    private static final boolean SWAR =
+        UNSAFE.arrayIndexScale(char[].class) == 2;
+
+    // Each long read from a char[] holds four 16-bit lanes
+    private static final long LANE_LOWS  = 0x0001000100010001L;
+    private static final long LANE_HIGHS = 0x8000800080008000L;
+    private static final long LANE_LFS   = 0x000A000A000A000AL;
+    private static final long LANE_CRS   = 0x000D000D000D000DL;
+
+    /**
+     * Returns the index of the first '\n' or '\r' in a[from, to), or to if
+     * there is none.
+     *
+     * The middle of the range is searched four chars at a time.  A long is
+     * read from the array and XORed with each terminator repeated in every
+     * lane, so that a lane holding that terminator becomes zero, and the
+     * presence of a zero lane is tested with the usual "has zero byte"
+     * expression widened to 16-bit lanes.  That test is exact as to whether
+     * some lane is zero, though not as to which; the word that matched is
+     * therefore searched again a char at a time, which also makes the
+     * search independent of byte order.  Words are read at 8-byte aligned
+     * addresses only, so unaligned access is never needed.
+     */
+    static int indexOfEOL(char[] a, int from, int to) {
+        int i = from;
+        if (SWAR) {
+            for (; i < to && ((CHAR_BASE + ((long)i << 1)) & 7) != 0; i++) {
+                char c = a[i];
+                if (c == '\n' || c == '\r')
+                    return i;
+            }
+            for (; i <= to - 4; i += 4) {
+                long w = UNSAFE.getLong(a, CHAR_BASE + ((long)i << 1));
+                long lf = w ^ LANE_LFS;
+                long cr = w ^ LANE_CRS;
+                if (((((lf - LANE_LOWS) & ~lf) |
+                      ((cr - LANE_LOWS) & ~cr)) & LANE_HIGHS) != 0)
+                    break;
+            }
+        }
+        for (; i < to; i++) {
+            char c = a[i];
+            if (c == '\n' || c == '\r')
+                return i;
+        }
+        return to;
+    }
+
     /**
      * Skips characters.
      *
@@ -410,32 +569,36 @@ public class BufferedReader extends Reader {
             throw new IllegalArgumentException("skip value is negative");
         }
         synchronized (lock) {
-            ensureOpen();
-            long r = n;
-            while (r > 0) {
-                if (nextChar >= nChars)
-                    fill();
-                if (nextChar >= nChars) /* EOF */
-                    break;
-                if (skipLF) {
-                    skipLF = false;
-                    if (cb[nextChar] == '\n') {
-                        nextChar++;
-                    }
-                }
-                long d = nChars - nextChar;
-                if (r <= d) {
-                    nextChar += r;
-                    r = 0;
-                    break;
-                }
-                else {
-                    r -= d;
-                    nextChar = nChars;
+            return implSkip(n);
+        }
+    }
+
+    final long implSkip(long n) throws IOException {
+        ensureOpen();
+        long r = n;
+        while (r > 0) {
+            if (nextChar >= nChars)
+                fill();
+            if (nextChar >= nChars) /* EOF */
+                break;
+            if (skipLF) {
+                skipLF = false;
+                if (cb[nextChar] == '\n') {
+                    nextChar++;
                 }
             }
-            return n - r;
+            long d = nChars - nextChar;
+            if (r <= d) {
+                nextChar += r;
+                r = 0;
+                break;
+            }
+            else {
+                r -= d;
+                nextChar = nChars;
+            }
         }
+        return n - r;
     }
 
     /**
@@ -447,27 +610,31 @@ public class BufferedReader extends Reader {
      */
     public boolean ready() throws IOException {
         synchronized (lock) {
-            ensureOpen();
+            return implReady();
+        }
+    }
+
+    final boolean implReady() throws IOException {
+        ensureOpen();
 
-            /*
-             * If newline needs to be skipped and the next char to be read
-             * is a newline character, then just skip it right away.
+        /*
+         * If newline needs to be skipped and the next char to be read
+         * is a newline character, then just skip it right away.
+         */
+        if (skipLF) {
+            /* Note that in.ready() will return true if and only if the next
+             * read on the stream will not block.
              */
-            if (skipLF) {
-                /* Note that in.ready() will return true if and only if the next
-                 * read on the stream will not block.
-                 */
-                if (nextChar >= nChars && in.ready()) {
-                    fill();
-                }
-                if (nextChar < nChars) {
-                    if (cb[nextChar] == '\n')
-                        nextChar++;
-                    skipLF = false;
-                }
+            if (nextChar >= nChars && in.ready()) {
+                fill();
+            }
+            if (nextChar < nChars) {
+                if (cb[nextChar] == '\n')
+                    nextChar++;
+                skipLF = false;
             }
-            return (nextChar < nChars) || in.ready();
         }
+        return (nextChar < nChars) || in.ready();
     }
 
     /**
@@ -498,13 +665,17 @@ public class BufferedReader extends Reader {
             throw new IllegalArgumentException("Read-ahead limit < 0");
         }
         synchronized (lock) {
-            ensureOpen();
-            this.readAheadLimit = readAheadLimit;
-            markedChar = nextChar;
-            markedSkipLF = skipLF;
+            implMark(readAheadLimit);
         }
     }
 
+    final void implMark(int readAheadLimit) throws IOException {
+        ensureOpen();
+        this.readAheadLimit = readAheadLimit;
+        markedChar = nextChar;
+        markedSkipLF = skipLF;
+    }
+
     /**
      * Resets the stream to the most recent mark.
      *
@@ -513,16 +684,20 @@ public class BufferedReader extends Reader {
      */
     public void reset() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            if (markedChar < 0)
-                throw new IOException((markedChar == INVALIDATED)
-                                      ? "Mark invalid"
-                                      : "Stream not marked");
-            nextChar = markedChar;
-            skipLF = markedSkipLF;
+            implReset();
         }
     }
 
+    final void implReset() throws IOException {
+        ensureOpen();
+        if (markedChar < 0)
+            throw new IOException((markedChar == INVALIDATED)
+                                  ? "Mark invalid"
+                                  : "Stream not marked");
+        nextChar = markedChar;
+        skipLF = markedSkipLF;
+    }
+
     public void close() throws IOException {
         synchronized (lock) {
             if (in == null)
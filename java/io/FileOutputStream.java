@@ -25,8 +25,10 @@
 
 package java.io;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import sun.nio.ch.FileChannelImpl;
+import sun.nio.ch.IOUtil;
 
 
 /**
@@ -50,7 +52,7 @@ import sun.nio.ch.FileChannelImpl;
  * @since   JDK1.0
  */
 public
-class FileOutputStream extends OutputStream
+class FileOutputStream extends OutputStream implements GatheringOutputStream
 {
     /**
      * The system dependent file descriptor.
@@ -326,6 +328,30 @@ class FileOutputStream extends OutputStream
         writeBytes(b, off, len, append);
     }
 
+    /**
+     * Writes the remaining bytes of a subsequence of the given buffers to
+     * this file output stream, with as few gathering writes to the file as
+     * possible.
+     *
+     * @param      srcs     the buffers from which bytes are to be retrieved.
+     * @param      offset   the offset within the buffer array of the first
+     *                      buffer.
+     * @param      length   the number of buffers to be accessed.
+     * @exception  IndexOutOfBoundsException  if the preconditions on
+     *             <code>offset</code> and <code>length</code> do not hold.
+     * @exception  IOException  if an I/O error occurs.
+     * @since 1.8
+     */
+    public void write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > srcs.length - length))
+            throw new IndexOutOfBoundsException();
+        if (!fd.valid())
+            throw new IOException("Stream Closed");
+        IOUtil.writeFully(fd, srcs, offset, length, false);
+    }
+
     /**
      * Closes this file output stream and releases any system resources
      * associated with this stream. This file output stream may no longer
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An output stream that can write a sequence of bytes from several buffers
+ * in a single operation.
+ *
+ * <p> A <i>gathering</i> write writes the remaining bytes of each buffer of
+ * a sequence, in order, as if the buffers had first been concatenated. Where
+ * the stream is backed by a file or a socket, the bytes are written with a
+ * single gathering system call, such as {@code writev}, where possible, so
+ * that a protocol encoder can write a header and a large payload without
+ * first copying them into one contiguous array. This works best with direct
+ * buffers, which are passed to the operating system in place.
+ *
+ * @see java.nio.channels.GatheringByteChannel
+ * @since 1.8
+ */
+public interface GatheringOutputStream {
+
+    /**
+     * Writes the remaining bytes of a subsequence of the given buffers to
+     * this stream.
+     *
+     * <p> This method blocks until all of the remaining bytes have been
+     * written. The position of each buffer is advanced by the number of
+     * bytes written from it, which on normal completion is all of its
+     * remaining bytes.
+     *
+     * @param  srcs
+     *         The buffers from which bytes are to be retrieved
+     *
+     * @param  offset
+     *         The offset within the buffer array of the first buffer from
+     *         which bytes are to be retrieved; must be non-negative and no
+     *         larger than <tt>srcs.length</tt>
+     *
+     * @param  length
+     *         The maximum number of buffers to be accessed; must be
+     *         non-negative and no larger than
+     *         <tt>srcs.length</tt>&nbsp;-&nbsp;<tt>offset</tt>
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the <tt>offset</tt> and
+     *          <tt>length</tt> parameters do not hold
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     */
+    void write(ByteBuffer[] srcs, int offset, int length) throws IOException;
+
+    /**
+     * Writes the remaining bytes of the given buffers to this stream.
+     *
+     * <p> An invocation of this method of the form <tt>s.write(srcs)</tt>
+     * behaves in exactly the same manner as the invocation
+     *
+     * <blockquote><pre>
+     * s.write(srcs, 0, srcs.length);</pre></blockquote>
+     *
+     * @param  srcs
+     *         The buffers from which bytes are to be retrieved
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     */
+    default void write(ByteBuffer[] srcs) throws IOException {
+        write(srcs, 0, srcs.length);
+    }
+}
@@ -25,6 +25,8 @@
 
 package java.io;
 
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * A buffered character-input stream that keeps track of line numbers.  This
@@ -206,6 +208,33 @@ public class LineNumberReader extends BufferedReader {
         }
     }
 
+    /**
+     * Reads the remaining lines of text, passing each to the given action,
+     * until the end of the stream is reached.  The current line number is
+     * incremented for each line, as by {@link #readLine()}, and each line
+     * is passed to the action as a {@code String}.
+     *
+     * @param  action  the action to be performed for each line
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     * @throws  NullPointerException
+     *          If {@code action} is {@code null}
+     *
+     * @since 1.8
+     */
+    @Override
+    public void lines(Consumer<? super CharSequence> action)
+        throws IOException
+    {
+        Objects.requireNonNull(action);
+        synchronized (lock) {
+            String l;
+            while ((l = readLine()) != null)
+                action.accept(l);
+        }
+    }
+
     /** Maximum skip-buffer size */
     private static final int maxSkipBufferSize = 8192;
 
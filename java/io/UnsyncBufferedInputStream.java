@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+/**
+ * A {@link BufferedInputStream} whose methods do not synchronize.
+ *
+ * <p> The methods of {@code BufferedInputStream} are {@code synchronized},
+ * so that every {@code read} of a single byte from the buffer acquires the
+ * stream's monitor.  An {@code UnsyncBufferedInputStream} performs the same
+ * buffering, marking and skipping without acquiring any lock, and is
+ * intended for streams that are confined to a single thread, such as a
+ * stream opened, parsed and closed by one method.
+ *
+ * <p> <b>This class is not safe for use by multiple threads.</b>  If a
+ * stream is shared between threads then the threads must synchronize
+ * externally, or a {@code BufferedInputStream} should be used instead.
+ * As with {@code BufferedInputStream}, {@link #close} may be invoked
+ * asynchronously.
+ *
+ * @see BufferedInputStream
+ * @since 1.8
+ */
+public class UnsyncBufferedInputStream extends BufferedInputStream {
+
+    /**
+     * Creates an {@code UnsyncBufferedInputStream} with the default buffer
+     * size.
+     *
+     * @param   in   the underlying input stream
+     */
+    public UnsyncBufferedInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Creates an {@code UnsyncBufferedInputStream} with the specified
+     * buffer size.
+     *
+     * @param   in     the underlying input stream
+     * @param   size   the buffer size
+     * @exception IllegalArgumentException if {@code size <= 0}
+     */
+    public UnsyncBufferedInputStream(InputStream in, int size) {
+        super(in, size);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return implRead();
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) throws IOException {
+        return implRead(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        return implSkip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return implAvailable();
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        implMark(readlimit);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        implReset();
+    }
+}
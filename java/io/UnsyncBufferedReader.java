@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A {@link BufferedReader} whose methods do not lock.
+ *
+ * <p> Each method of {@code BufferedReader} that reads from the buffer
+ * synchronizes on the reader's {@link #lock lock} object, so that reading a
+ * file one character or one line at a time acquires a monitor per call.  An
+ * {@code UnsyncBufferedReader} performs the same buffering and line
+ * splitting without acquiring the lock, and is intended for readers that
+ * are confined to a single thread.  Readers of this class may be obtained
+ * from {@link java.nio.file.Files#newBufferedReader(java.nio.file.Path,
+ * java.nio.charset.Charset, boolean) Files.newBufferedReader}.
+ *
+ * <p> <b>This class is not safe for use by multiple threads.</b>  If a
+ * reader is shared between threads then the threads must synchronize
+ * externally, or a {@code BufferedReader} should be used instead.  Only
+ * {@link #close} still acquires the lock.
+ *
+ * @see BufferedReader
+ * @since 1.8
+ */
+public class UnsyncBufferedReader extends BufferedReader {
+
+    /**
+     * Creates an unsynchronized buffering character-input stream that uses
+     * an input buffer of the specified size.
+     *
+     * @param  in   A Reader
+     * @param  sz   Input-buffer size
+     *
+     * @exception  IllegalArgumentException  If {@code sz <= 0}
+     */
+    public UnsyncBufferedReader(Reader in, int sz) {
+        super(in, sz);
+    }
+
+    /**
+     * Creates an unsynchronized buffering character-input stream that uses
+     * a default-sized input buffer.
+     *
+     * @param  in   A Reader
+     */
+    public UnsyncBufferedReader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return implRead();
+    }
+
+    @Override
+    public int read(char cbuf[], int off, int len) throws IOException {
+        return implRead(cbuf, off, len);
+    }
+
+    @Override
+    String readLine(boolean ignoreLF) throws IOException {
+        return implReadLine(ignoreLF);
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        return implReadLine(false);
+    }
+
+    @Override
+    public void lines(Consumer<? super CharSequence> action)
+        throws IOException
+    {
+        Objects.requireNonNull(action);
+        implLines(action);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n < 0L) {
+            throw new IllegalArgumentException("skip value is negative");
+        }
+        return implSkip(n);
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return implReady();
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        if (readAheadLimit < 0) {
+            throw new IllegalArgumentException("Read-ahead limit < 0");
+        }
+        implMark(readAheadLimit);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        implReset();
+    }
+}
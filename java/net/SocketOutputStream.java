@@ -28,6 +28,7 @@ package java.net;
 import java.io.FileDescriptor;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
 /**
@@ -155,6 +156,37 @@ class SocketOutputStream extends FileOutputStream
         socketWrite(b, off, len);
     }
 
+    /**
+     * Writes the remaining bytes of a subsequence of the given buffers to
+     * the socket, with as few gathering writes as possible.
+     * @param srcs the buffers from which bytes are to be retrieved
+     * @param offset the offset within the buffer array of the first buffer
+     * @param length the number of buffers to be accessed
+     * @exception SocketException If an I/O error has occurred.
+     */
+    public void write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > srcs.length - length))
+            throw new IndexOutOfBoundsException();
+
+        FileDescriptor fd = impl.acquireFD();
+        try {
+            // null once the socket is closed, as socketWrite0 also checks
+            if (fd == null)
+                throw new SocketException("Socket closed");
+            sun.nio.ch.IOUtil.writeFully(fd, srcs, offset, length, true);
+        } catch (IOException ioe) {
+            if (impl.isClosedOrPending()) {
+                throw new SocketException("Socket closed");
+            } else {
+                throw ioe;
+            }
+        } finally {
+            impl.releaseFD();
+        }
+    }
+
     /**
      * Closes the stream.
      */
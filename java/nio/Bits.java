@@ -739,25 +739,45 @@ class Bits {                            // package-private
                         public String getName() {
                             return "direct";
                         }
+                        // arenas are reported by the pooled pool only
                         @Override
                         public long getCount() {
-                            return Bits.count.get();
+                            return Math.max(0L, Bits.count.get()
+                                            - ByteBufferPool.arenaCount());
                         }
                         @Override
                         public long getTotalCapacity() {
-                            return Bits.totalCapacity.get();
+                            return Math.max(0L, Bits.totalCapacity.get()
+                                            - ByteBufferPool.arenaMemory());
                         }
                         @Override
                         public long getMemoryUsed() {
-                            return Bits.reservedMemory.get();
+                            return Math.max(0L, Bits.reservedMemory.get()
+                                            - ByteBufferPool.arenaMemory());
                         }
                     };
                 }
                 @Override
+                public sun.misc.JavaNioAccess.BufferPool getPooledBufferPool() {
+                    return ByteBufferPool.bufferPool();
+                }
+                @Override
                 public ByteBuffer newDirectByteBuffer(long addr, int cap, Object ob) {
                     return new DirectByteBuffer(addr, cap, ob);
                 }
                 @Override
+                public MappedMemorySegment newMappedMemorySegment(long addr, long size,
+                                                                  boolean readOnly,
+                                                                  java.io.FileDescriptor fd,
+                                                                  Runnable unmapper) {
+                    return new MappedMemorySegment(addr, size, readOnly, fd, unmapper);
+                }
+                @Override
+                public ByteBuffer newMappedMemorySegmentView(MappedMemorySegment seg,
+                                                             long offset, int length) {
+                    return seg.view(offset, length);
+                }
+                @Override
                 public void truncate(Buffer buf) {
                     buf.truncate();
                 }
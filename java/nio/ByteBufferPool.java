@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.security.AccessController;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.misc.Cleaner;
+import sun.misc.JavaNioAccess;
+import sun.misc.Unsafe;
+import sun.misc.VM;
+import sun.nio.ch.DirectBuffer;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * A global pool of direct byte buffers for short-lived use, such as the
+ * native copy of a heap buffer passed to a channel read or write.
+ *
+ * <p>Requests are rounded up to a power-of-two size class between
+ * {@code 512} bytes and a maximum pooled size, which defaults to one
+ * megabyte and may be lowered with the {@code jdk.nio.maxCachedBufferSize}
+ * system property.  Buffers of a class are carved from arenas of at least
+ * {@code 64} kilobytes, each a single native allocation, so that pooled
+ * buffers need no {@code Cleaner} of their own.  The total size of all
+ * arenas is bounded by the {@code jdk.nio.bufferPool.maxMemory} system
+ * property, which defaults to a quarter of the maximum direct memory but
+ * at most {@code 64} megabytes.  Requests larger than the maximum pooled
+ * size, or made while the pool is at its bound and has no free buffer of
+ * the right class, are served by a plain {@link ByteBuffer#allocateDirect
+ * allocateDirect}, whose memory is freed by the garbage collector as for
+ * any other direct buffer.  Only pooled buffers returned by {@link
+ * #acquire} are taken back by {@link #release}; any other buffer, and a
+ * buffer that has already been released, is ignored.
+ *
+ * <p>Each thread keeps a small magazine of free buffers per size class,
+ * so that an {@link #acquire} and {@link #release} pair on one thread
+ * touches no shared state.  When a magazine fills, it is moved as a whole
+ * to a shared depot for its class; when it empties, a full one is taken
+ * from the depot, or a new arena is carved.  The magazines of a thread
+ * that terminates are not returned to the depot; an arena is freed, and
+ * its size no longer counts against the bound, once none of its buffers
+ * is reachable.
+ *
+ * <p>The pool is reported by the {@link
+ * java.lang.management.BufferPoolMXBean} named {@code "pooled"}.  The
+ * arenas count against the maximum direct memory, but are not included
+ * in the figures of the {@code "direct"} pool.
+ *
+ * @since 1.8
+ */
+public final class ByteBufferPool {
+
+    private ByteBufferPool() { }
+
+    static final int MIN_SHIFT = 9;                 // 512 bytes
+    static final int MAX_SHIFT = 20;                // 1 megabyte
+    static final int ARENA_SIZE = 64 * 1024;
+    static final int MAGAZINE_BYTES = 128 * 1024;
+    static final int MAX_MAGAZINE = 16;
+
+    private static final Unsafe unsafe = Bits.unsafe();
+
+    // Number of size classes, and the bound on the total size of arenas
+    private static final int CLASSES;
+    private static final long MAX_MEMORY;
+
+    static {
+        long maxBuffer = 1L << MAX_SHIFT;
+        String s = AccessController.doPrivileged(
+            new GetPropertyAction("jdk.nio.maxCachedBufferSize"));
+        if (s != null) {
+            try {
+                long m = Long.parseLong(s);
+                if (m >= 0)
+                    maxBuffer = Math.min(m, maxBuffer);
+            } catch (NumberFormatException e) {
+                // ignore the system property if it is not well formed
+            }
+        }
+        int n = 0;
+        while (n <= MAX_SHIFT - MIN_SHIFT && (1L << (MIN_SHIFT + n)) <= maxBuffer)
+            n++;
+        CLASSES = n;
+
+        long maxMemory = Math.min(VM.maxDirectMemory() / 4, 64L << 20);
+        s = AccessController.doPrivileged(
+            new GetPropertyAction("jdk.nio.bufferPool.maxMemory"));
+        if (s != null) {
+            try {
+                long m = Long.parseLong(s);
+                if (m >= 0)
+                    maxMemory = m;
+            } catch (NumberFormatException e) {
+                // ignore the system property if it is not well formed
+            }
+        }
+        MAX_MEMORY = maxMemory;
+    }
+
+    // Total size, and numbers of arenas and of their buffers, of the
+    // arenas currently allocated
+    private static final AtomicLong arenaMemory = new AtomicLong();
+    private static final AtomicLong arenaCount = new AtomicLong();
+    private static final AtomicLong arenaBuffers = new AtomicLong();
+
+    private static final Depot[] depots = new Depot[CLASSES];
+    static {
+        for (int c = 0; c < CLASSES; c++)
+            depots[c] = new Depot();
+    }
+
+    private static final ThreadLocal<Magazines> magazines =
+        new ThreadLocal<Magazines>() {
+            @Override
+            protected Magazines initialValue() {
+                return new Magazines();
+            }
+        };
+
+    /**
+     * A block of native memory from which the buffers of one size class
+     * are carved.
+     */
+    static final class Arena {
+        final int sizeClass;
+        Arena(int sizeClass) { this.sizeClass = sizeClass; }
+    }
+
+    /**
+     * The attachment of a buffer carved from an arena, which identifies it
+     * as pooled, keeps the arena's memory alive, and records whether the
+     * buffer is free, so that a buffer released twice is not put in a
+     * magazine twice.
+     */
+    static final class Slot {
+        final Arena arena;
+        volatile int free = 1;
+
+        Slot(Arena arena) { this.arena = arena; }
+
+        // Marks the buffer free, returning false if it already was
+        boolean release() {
+            return unsafe.compareAndSwapInt(this, FREE, 0, 1);
+        }
+
+        private static final long FREE;
+        static {
+            try {
+                FREE = unsafe.objectFieldOffset(Slot.class.getDeclaredField("free"));
+            } catch (Exception e) {
+                throw new Error(e);
+            }
+        }
+    }
+
+
+    private static final class Deallocator implements Runnable {
+        private long address;
+        private final long size;
+        private final int count;
+
+        Deallocator(long address, long size, int count) {
+            this.address = address;
+            this.size = size;
+            this.count = count;
+        }
+
+        public void run() {
+            if (address == 0)
+                return;
+            unsafe.freeMemory(address);
+            address = 0;
+            Bits.unreserveMemory(size, (int)size);
+            arenaMemory.addAndGet(-size);
+            arenaCount.decrementAndGet();
+            arenaBuffers.addAndGet(-count);
+        }
+    }
+
+    /**
+     * The full magazines of one size class that no thread holds.
+     */
+    static final class Depot {
+        private final ArrayList<ByteBuffer[]> full = new ArrayList<>();
+
+        synchronized ByteBuffer[] take() {
+            int n = full.size();
+            return (n == 0) ? null : full.remove(n - 1);
+        }
+
+        synchronized void put(ByteBuffer[] m) {
+            full.add(m);
+        }
+    }
+
+    /**
+     * The per-thread magazines, one stack of free buffers per size class.
+     */
+    static final class Magazines {
+        final ByteBuffer[][] stacks = new ByteBuffer[CLASSES][];
+        final int[] counts = new int[CLASSES];
+    }
+
+    private static int sizeOf(int sizeClass) {
+        return 1 << (MIN_SHIFT + sizeClass);
+    }
+
+    private static int magazineSize(int sizeClass) {
+        return Math.max(1, Math.min(MAX_MAGAZINE, MAGAZINE_BYTES >>> (MIN_SHIFT + sizeClass)));
+    }
+
+    /**
+     * Returns the size class for a request, or -1 if the request is
+     * too large to be pooled.
+     */
+    private static int sizeClass(int size) {
+        int c = (size <= (1 << MIN_SHIFT)) ? 0
+            : 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+        return (c < CLASSES) ? c : -1;
+    }
+
+    /**
+     * Allocates a new arena for the given class, if the bound allows,
+     * and returns its buffers.
+     */
+    private static ByteBuffer[] carve(int sizeClass) {
+        int size = sizeOf(sizeClass);
+        int count = Math.max(1, ARENA_SIZE / size);
+        long bytes = (long)size * count;
+        long m;
+        do {
+            if ((m = arenaMemory.get()) + bytes > MAX_MEMORY)
+                return null;
+        } while (!arenaMemory.compareAndSet(m, m + bytes));
+
+        long base;
+        try {
+            Bits.reserveMemory(bytes, (int)bytes);
+        } catch (OutOfMemoryError x) {
+            arenaMemory.addAndGet(-bytes);
+            throw x;
+        }
+        try {
+            base = unsafe.allocateMemory(bytes);
+        } catch (OutOfMemoryError x) {
+            Bits.unreserveMemory(bytes, (int)bytes);
+            arenaMemory.addAndGet(-bytes);
+            throw x;
+        }
+        unsafe.setMemory(base, bytes, (byte) 0);
+        arenaCount.incrementAndGet();
+        arenaBuffers.addAndGet(count);
+
+        Arena arena = new Arena(sizeClass);
+        ByteBuffer[] bufs = new ByteBuffer[count];
+        for (int i = 0; i < count; i++)
+            bufs[i] = new DirectByteBuffer(base + (long)i * size, size,
+                                           new Slot(arena));
+        Cleaner.create(arena, new Deallocator(base, bytes, count));
+        return bufs;
+    }
+
+    /**
+     * Returns a direct buffer with at least the given capacity.  Its
+     * position is zero, its limit is {@code size} and its byte order is
+     * {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}; its content is undefined.
+     * The buffer should be passed to {@link #release} when it is no
+     * longer needed.
+     *
+     * @param  size the number of bytes required
+     * @return a direct byte buffer
+     * @throws IllegalArgumentException if {@code size} is negative
+     */
+    public static ByteBuffer acquire(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Negative size: " + size);
+        int c = sizeClass(size);
+        if (c < 0)
+            return ByteBuffer.allocateDirect(size);
+
+        Magazines mags = magazines.get();
+        ByteBuffer[] stack = mags.stacks[c];
+        int n = mags.counts[c];
+        ByteBuffer bb;
+        if (n > 0) {
+            bb = stack[--n];
+            stack[n] = null;
+        } else {
+            ByteBuffer[] m = depots[c].take();
+            if (m == null && (m = carve(c)) == null)
+                return ByteBuffer.allocateDirect(size);
+            n = m.length - 1;
+            bb = m[n];
+            m[n] = null;
+            int cap = magazineSize(c);
+            if (m.length > cap) {
+                // an arena's worth of buffers: keep one magazine and
+                // pass the rest to the depot
+                stack = new ByteBuffer[cap];
+                for (int i = 0; i < cap && n > 0; i++)
+                    stack[i] = m[--n];
+                while (n > 0) {
+                    int k = Math.min(cap, n);
+                    ByteBuffer[] full = new ByteBuffer[k];
+                    for (int i = 0; i < k; i++)
+                        full[i] = m[--n];
+                    depots[c].put(full);
+                }
+                n = Math.min(cap, m.length - 1);
+            } else {
+                stack = m;
+            }
+            mags.stacks[c] = stack;
+        }
+        mags.counts[c] = n;
+        ((Slot)((DirectBuffer)bb).attachment()).free = 0;
+        bb.clear();
+        bb.limit(size);
+        bb.order(ByteOrder.BIG_ENDIAN);
+        return bb;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquire} to the pool.  The
+     * buffer, and any view of it, must not be used afterwards.  If the
+     * buffer was not pooled, was not obtained from {@code acquire}, or has
+     * already been released, then this method has no effect; the memory of
+     * a buffer that was not pooled is freed once it is unreachable.
+     *
+     * @param  bb the buffer
+     * @throws IllegalArgumentException if the buffer is not direct
+     */
+    public static void release(ByteBuffer bb) {
+        if (!bb.isDirect())
+            throw new IllegalArgumentException("Not a direct buffer");
+        Object att = ((DirectBuffer)bb).attachment();
+        if (!(att instanceof Slot) || !((Slot)att).release())
+            return;
+        int c = ((Slot)att).arena.sizeClass;
+        Magazines mags = magazines.get();
+        ByteBuffer[] stack = mags.stacks[c];
+        int n = mags.counts[c];
+        int cap = magazineSize(c);
+        if (stack == null) {
+            stack = mags.stacks[c] = new ByteBuffer[cap];
+        } else if (n == stack.length) {
+            depots[c].put(stack);
+            stack = mags.stacks[c] = new ByteBuffer[cap];
+            n = 0;
+        }
+        stack[n] = bb;
+        mags.counts[c] = n + 1;
+    }
+
+    /**
+     * Returns the number of arenas currently allocated, each of which is
+     * one reservation in {@link Bits}.
+     */
+    static long arenaCount() {
+        return arenaCount.get();
+    }
+
+    /**
+     * Returns the total size of the arenas currently allocated.
+     */
+    static long arenaMemory() {
+        return arenaMemory.get();
+    }
+
+    /**
+     * Invoked via {@link JavaNioAccess} to create the management interface
+     * for pooled buffers.  The count and capacity are those of the buffers
+     * carved from arenas, whether free or in use.
+     */
+    static JavaNioAccess.BufferPool bufferPool() {
+        return new JavaNioAccess.BufferPool() {
+            @Override
+            public String getName() {
+                return "pooled";
+            }
+            @Override
+            public long getCount() {
+                return arenaBuffers.get();
+            }
+            @Override
+            public long getTotalCapacity() {
+                return arenaMemory.get();
+            }
+            @Override
+            public long getMemoryUsed() {
+                return arenaMemory.get();
+            }
+        };
+    }
+}
@@ -220,6 +220,8 @@ public abstract class MappedByteBuffer
     }
 
     private native boolean isLoaded0(long address, long length, int pageCount);
-    private native void load0(long address, long length);
-    private native void force0(FileDescriptor fd, long address, long length);
+
+    // package-private for use by MappedMemorySegment
+    native void load0(long address, long length);
+    native void force0(FileDescriptor fd, long address, long length);
 }
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+
+/**
+ * A persistent hash map from byte-string keys to byte-string values,
+ * stored off-heap in a memory-mapped file.
+ *
+ * <p>Because the table lives in the file mapping rather than in the Java
+ * heap, it adds nothing to garbage collection work no matter how many
+ * mappings it holds, and {@link #open opening} an existing file costs
+ * the same whatever its size: only the header is read, and pages are
+ * faulted in by the operating system as lookups touch them.
+ * {@link #get} returns a read-only {@link ByteBuffer} that shares the
+ * mapping, so values are never copied onto the heap.
+ *
+ * <p>The number of slots and the size of the record area are fixed when
+ * the file is {@link #create created}, and the whole file must fit in a
+ * single mapping of at most {@code Integer.MAX_VALUE} bytes; larger data
+ * sets are sharded across several files.  Records are appended, so
+ * replacing or removing a value leaves the old record as garbage in the
+ * file until the map compacts its record area, which it does once the
+ * garbage makes up half of the area or a write would not otherwise fit.
+ * Compaction moves the live records, after which a buffer returned by an
+ * earlier {@link #get} no longer holds its value; copy values that must
+ * outlive later writes to the file.
+ *
+ * <p>Any number of threads and processes may map the same file.  Reads
+ * are lock-free.  Writes are serialized by the map's monitor within a
+ * VM and by an exclusive {@link FileLock} across processes.  File locks
+ * are held on behalf of the whole VM, so a VM should open a given file at
+ * most once for writing: if two maps over the same file in one VM write
+ * at the same time, one of them fails with {@link
+ * java.nio.channels.OverlappingFileLockException}.
+ *
+ * @see MappedLongHashMap
+ * @since 1.8
+ */
+public final class MappedHashMap extends MappedHashTable {
+
+    static final int KIND = 1;
+
+    private MappedHashMap(FileChannel ch, MappedByteBuffer buf,
+                          boolean readOnly) throws IOException {
+        super(ch, buf, KIND, readOnly);
+    }
+
+    /**
+     * Creates a new, empty map in the given file, which must not exist.
+     *
+     * @param  file the file to create
+     * @param  capacity the number of slots, rounded up to a power of two;
+     *         the map holds at most {@code capacity - 1} keys
+     * @param  dataSize the number of bytes to reserve for records; each
+     *         mapping takes {@code 8 + key.length + value.length} bytes
+     * @return the new map, open for reading and writing
+     * @throws IllegalArgumentException if the file would exceed
+     *         {@code Integer.MAX_VALUE} bytes
+     * @throws IOException if an I/O error occurs or the file exists
+     */
+    public static MappedHashMap create(Path file, int capacity, long dataSize)
+        throws IOException
+    {
+        FileChannel[] chp = new FileChannel[1];
+        MappedByteBuffer mb = create(file, KIND, capacity, dataSize, chp);
+        return new MappedHashMap(chp[0], mb, false);
+    }
+
+    /**
+     * Opens a map previously created in the given file.
+     *
+     * @param  file the file
+     * @param  readOnly whether to map the file read-only
+     * @return the map
+     * @throws IOException if an I/O error occurs or the file does not
+     *         hold a {@code MappedHashMap}
+     */
+    public static MappedHashMap open(Path file, boolean readOnly)
+        throws IOException
+    {
+        FileChannel[] chp = new FileChannel[1];
+        MappedByteBuffer mb = open(file, readOnly, chp);
+        try {
+            return new MappedHashMap(chp[0], mb, readOnly);
+        } catch (IOException x) {
+            chp[0].close();
+            throw x;
+        }
+    }
+
+    static int hash(byte[] key) {
+        int h = 1;
+        for (byte b : key)
+            h = 31 * h + b;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private boolean keyEquals(int off, byte[] key) {
+        if (buf.getInt(off) != key.length)
+            return false;
+        int p = off + 8;
+        for (int j = 0; j < key.length; j++) {
+            if (buf.get(p + j) != key[j])
+                return false;
+        }
+        return true;
+    }
+
+    int recordLength(int offset) {
+        return 8 + buf.getInt(offset) + buf.getInt(offset + 4);
+    }
+
+    /**
+     * Returns the live slot for the key, or 0 if there is none.
+     */
+    private long find(byte[] key, int h) {
+        for (int n = 0, i = h & mask; n < capacity; ++n, i = (i + 1) & mask) {
+            long s = slotAt(i);
+            int off = slotOffset(s);
+            if (off == 0)
+                break;
+            if (off != DELETED && slotHash(s) == h && keyEquals(off, key))
+                return s;
+        }
+        return 0L;
+    }
+
+    /**
+     * Returns a read-only buffer over the value mapped to the given key,
+     * or {@code null} if there is none.  The buffer shares the file
+     * mapping; its position is zero and its limit the value's length.
+     * Its content is only defined until the map is next compacted.
+     *
+     * @param  key the key
+     * @return the value, or {@code null}
+     */
+    public ByteBuffer get(byte[] key) {
+        int h = hash(key);
+        for (;;) {
+            long v = beginRead();
+            try {
+                long s = find(key, h);
+                ByteBuffer value = null;
+                if (s != 0L) {
+                    int off = slotOffset(s);
+                    value = slice(off + 8 + buf.getInt(off), buf.getInt(off + 4));
+                }
+                if (validate(v))
+                    return value;
+            } catch (IndexOutOfBoundsException | IllegalArgumentException x) {
+                if (validate(v))
+                    throw x;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the map holds a value for the given key.
+     *
+     * @param  key the key
+     * @return whether the key is present
+     */
+    public boolean containsKey(byte[] key) {
+        int h = hash(key);
+        for (;;) {
+            long v = beginRead();
+            try {
+                boolean found = find(key, h) != 0L;
+                if (validate(v))
+                    return found;
+            } catch (IndexOutOfBoundsException x) {
+                if (validate(v))
+                    throw x;
+            }
+        }
+    }
+
+    /**
+     * Associates the given value with the given key.
+     *
+     * @param  key the key
+     * @param  value the value
+     * @return {@code true} if the key was not previously present
+     * @throws ReadOnlyBufferException if the map was opened read-only
+     * @throws BufferOverflowException if the record area is full
+     * @throws IllegalStateException if every slot is in use
+     * @throws IOException if the write lock cannot be acquired
+     * @throws java.nio.channels.OverlappingFileLockException if another
+     *         map over the same file in this VM is writing
+     */
+    public synchronized boolean put(byte[] key, byte[] value)
+        throws IOException
+    {
+        int h = hash(key);
+        int length = 8 + key.length + value.length;
+        FileLock lock = lockForWrite();
+        try {
+            compactIfNeeded(length);
+            int i = h & mask, free = -1;
+            boolean live = false;
+            for (int n = 0; n < capacity; ++n, i = (i + 1) & mask) {
+                long s = slotAt(i);
+                int off = slotOffset(s);
+                if (off == 0)
+                    break;
+                if (off == DELETED) {
+                    if (free < 0)
+                        free = i;
+                } else if (slotHash(s) == h && keyEquals(off, key)) {
+                    live = true;
+                    break;
+                }
+            }
+            if (!live && free >= 0)
+                i = free;
+            checkSlot(i);
+            int rec = reserve(length);
+            buf.putInt(rec, key.length);
+            buf.putInt(rec + 4, value.length);
+            ByteBuffer b = buf.duplicate();
+            b.position(rec + 8);
+            b.put(key).put(value);
+            publish(i, h, rec, live);
+            return !live;
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Removes the mapping for the given key, if present.
+     *
+     * @param  key the key
+     * @return {@code true} if the key was present
+     * @throws ReadOnlyBufferException if the map was opened read-only
+     * @throws IOException if the write lock cannot be acquired
+     * @throws java.nio.channels.OverlappingFileLockException if another
+     *         map over the same file in this VM is writing
+     */
+    public synchronized boolean remove(byte[] key) throws IOException {
+        int h = hash(key);
+        FileLock lock = lockForWrite();
+        try {
+            for (int n = 0, i = h & mask; n < capacity; ++n, i = (i + 1) & mask) {
+                long s = slotAt(i);
+                int off = slotOffset(s);
+                if (off == 0)
+                    break;
+                if (off != DELETED && slotHash(s) == h && keyEquals(off, key)) {
+                    unpublish(i);
+                    compactIfNeeded(0);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.release();
+        }
+    }
+}
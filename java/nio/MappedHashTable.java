@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import sun.misc.Unsafe;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * The file format and slot machinery shared by {@link MappedHashMap} and
+ * {@link MappedLongHashMap}.
+ *
+ * <p>A table file is laid out as a fixed header, an open-addressed array
+ * of slots, and an append-only record area:
+ *
+ * <pre>
+ *   0  int   magic
+ *   4  int   kind            (which key format the records use)
+ *   8  int   capacity        (number of slots, a power of two)
+ *  12  int   used            (slots that are live or deleted)
+ *  16  long  count           (live mappings)
+ *  24  long  dataEnd         (offset of the next record)
+ *  32  long  deadBytes       (bytes of records no longer mapped)
+ *  40  long  version         (odd while the table is compacted)
+ *  48  ...   reserved up to HEADER_SIZE
+ *  HEADER_SIZE               capacity 8-byte slots
+ *  dataStart                 records
+ * </pre>
+ *
+ * Each slot packs the key's 32-bit hash in its high word and the record
+ * offset in its low word; an offset of zero marks an empty slot and
+ * {@code DELETED} a removed one.  Since the whole file is a single
+ * mapping, offsets always fit in an int.  All fields are in native byte
+ * order, so that slots can be read and written atomically through
+ * {@code Unsafe}.
+ *
+ * <p>Opening a table only reads and validates the header, so its cost
+ * does not depend on the number of mappings.  Writers publish a record
+ * by storing its slot with a volatile write after the record bytes, so
+ * readers in this or any other process that maps the file see either
+ * the old or the new value, never a partial record.  Writers within one
+ * VM are serialized on the table's monitor and writers in different
+ * processes by an exclusive {@link FileLock} on the header.
+ *
+ * <p>Removed slots are reused by later inserts.  Once they make up a
+ * quarter of the slots, or the dead records half of the record area, or
+ * a write would otherwise fail for want of a slot or of space, the writer
+ * compacts the table: it slides the live records down over the dead
+ * ones and rehashes the slots.  The version is odd while it does so;
+ * lookups read it before and after, and retry if it was odd or changed.
+ */
+abstract class MappedHashTable implements Closeable {
+
+    static final int MAGIC = 0x4D484D31;          // "MHM1"
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 8;
+    static final int DELETED = 1;                 // never a record offset
+
+    static final int CAPACITY_OFFSET = 8;
+    static final int USED_OFFSET = 12;
+    static final int COUNT_OFFSET = 16;
+    static final int DATA_END_OFFSET = 24;
+    static final int DEAD_BYTES_OFFSET = 32;
+    static final int VERSION_OFFSET = 40;
+
+    static final Unsafe unsafe = Bits.unsafe();
+
+    final FileChannel channel;
+    final MappedByteBuffer buf;
+    final long address;
+    final int capacity;
+    final int mask;
+    final int dataStart;
+    final boolean readOnly;
+
+    MappedHashTable(FileChannel channel, MappedByteBuffer buf, int kind,
+                    boolean readOnly) throws IOException {
+        if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC)
+            throw new IOException("Not a mapped hash table");
+        if (buf.getInt(4) != kind)
+            throw new IOException("Mapped hash table has a different key type");
+        int cap = buf.getInt(CAPACITY_OFFSET);
+        if (cap <= 0 || (cap & (cap - 1)) != 0 ||
+            HEADER_SIZE + (long)cap * SLOT_SIZE > buf.limit())
+            throw new IOException("Corrupt mapped hash table header");
+        int start = HEADER_SIZE + cap * SLOT_SIZE;
+        long end = buf.getLong(DATA_END_OFFSET);
+        int used = buf.getInt(USED_OFFSET);
+        if (end < start || end > buf.limit() || used < 0 || used >= cap)
+            throw new IOException("Corrupt mapped hash table header");
+        if ((buf.getLong(VERSION_OFFSET) & 1L) != 0L) {
+            // compacting, or a compaction was interrupted; a writer holds
+            // the header lock for as long as it compacts
+            channel.lock(0, HEADER_SIZE, true).release();
+            if ((buf.getLong(VERSION_OFFSET) & 1L) != 0L)
+                throw new IOException("Mapped hash table compaction was interrupted");
+        }
+        this.channel = channel;
+        this.buf = buf;
+        this.address = ((DirectBuffer)buf).address();
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.dataStart = start;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Returns the length of the record at {@code offset}.
+     */
+    abstract int recordLength(int offset);
+
+    /**
+     * Creates a new, empty table file and returns a channel and mapping
+     * for it.
+     */
+    static MappedByteBuffer create(Path file, int kind, int capacity,
+                                   long dataSize, FileChannel[] chp)
+        throws IOException
+    {
+        if (capacity <= 0 || dataSize < 0)
+            throw new IllegalArgumentException();
+        int cap = 1;
+        while (cap < capacity) {
+            if ((cap <<= 1) <= 0)
+                throw new IllegalArgumentException("Capacity too large");
+        }
+        long size = HEADER_SIZE + (long)cap * SLOT_SIZE + dataSize;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE");
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                                          StandardOpenOption.READ,
+                                          StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer mb = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mb.order(ByteOrder.nativeOrder());
+            mb.putInt(4, kind);
+            mb.putInt(CAPACITY_OFFSET, cap);
+            mb.putLong(DATA_END_OFFSET, HEADER_SIZE + (long)cap * SLOT_SIZE);
+            mb.force();
+            mb.putInt(0, MAGIC);       // written last: marks the file valid
+            chp[0] = ch;
+            return mb;
+        } catch (IOException | RuntimeException x) {
+            ch.close();
+            throw x;
+        }
+    }
+
+    /**
+     * Opens an existing table file and maps it in its entirety.
+     */
+    static MappedByteBuffer open(Path file, boolean readOnly, FileChannel[] chp)
+        throws IOException
+    {
+        FileChannel ch = readOnly
+            ? FileChannel.open(file, StandardOpenOption.READ)
+            : FileChannel.open(file, StandardOpenOption.READ,
+                               StandardOpenOption.WRITE);
+        try {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Mapped hash table too large");
+            MappedByteBuffer mb = ch.map(readOnly ? FileChannel.MapMode.READ_ONLY
+                                                  : FileChannel.MapMode.READ_WRITE,
+                                         0, size);
+            mb.order(ByteOrder.nativeOrder());
+            chp[0] = ch;
+            return mb;
+        } catch (IOException | RuntimeException x) {
+            ch.close();
+            throw x;
+        }
+    }
+
+    // -- slots --
+
+    final long slotAt(int i) {
+        return unsafe.getLongVolatile(null, address + HEADER_SIZE +
+                                      (long)i * SLOT_SIZE);
+    }
+
+    final void setSlotAt(int i, int hash, int offset) {
+        unsafe.putLongVolatile(null, address + HEADER_SIZE + (long)i * SLOT_SIZE,
+                               ((long)hash << 32) | (offset & 0xFFFFFFFFL));
+    }
+
+    static int slotHash(long slot) {
+        return (int)(slot >>> 32);
+    }
+
+    static int slotOffset(long slot) {
+        return (int)slot;
+    }
+
+    // -- lookups --
+
+    /**
+     * Returns the version of the table at the start of a lookup, waiting
+     * while a writer compacts it.
+     */
+    final long beginRead() {
+        long v;
+        while (((v = unsafe.getLongVolatile(null, address + VERSION_OFFSET))
+                & 1L) != 0L)
+            Thread.yield();
+        return v;
+    }
+
+    /**
+     * Returns {@code true} if the table has not been compacted since
+     * {@link #beginRead} returned {@code v}, so that what the lookup read
+     * is consistent.  A lookup that fails with an exception after a
+     * compaction may have read records being moved, and is also retried.
+     */
+    final boolean validate(long v) {
+        unsafe.loadFence();
+        return unsafe.getLongVolatile(null, address + VERSION_OFFSET) == v;
+    }
+
+    /**
+     * Returns a read-only view of {@code length} bytes at
+     * {@code offset}, sharing the mapping.
+     */
+    final ByteBuffer slice(int offset, int length) {
+        ByteBuffer b = buf.duplicate();
+        b.limit(offset + length).position(offset);
+        return b.slice().asReadOnlyBuffer();
+    }
+
+    // -- writes --
+
+    /**
+     * Acquires the cross-process write lock.  Callers hold this table's
+     * monitor.
+     */
+    final FileLock lockForWrite() throws IOException {
+        if (readOnly)
+            throw new ReadOnlyBufferException();
+        return channel.lock(0, HEADER_SIZE, false);
+    }
+
+    /**
+     * Reserves {@code length} bytes at the end of the record area and
+     * returns their offset.  Callers hold the write lock.
+     *
+     * @throws BufferOverflowException if the record area is full
+     */
+    final int reserve(int length) {
+        long end = buf.getLong(DATA_END_OFFSET);
+        if (end + length > buf.limit())
+            throw new BufferOverflowException();
+        buf.putLong(DATA_END_OFFSET, end + length);
+        return (int)end;
+    }
+
+    /**
+     * Checks that slot {@code i} may receive a record before any space
+     * is reserved for it.  One slot is always left empty so that probing
+     * terminates.  Callers hold the write lock.
+     *
+     * @throws IllegalStateException if every slot is in use
+     */
+    final void checkSlot(int i) {
+        if (slotOffset(slotAt(i)) == 0 &&
+            buf.getInt(USED_OFFSET) >= capacity - 1)
+            throw new IllegalStateException("Mapped hash table is full");
+    }
+
+    /**
+     * Installs a record offset in slot {@code i}, updating the counts.
+     * Callers hold the write lock and have called {@link #checkSlot}.
+     *
+     * @param wasLive whether the slot held a live mapping for the key
+     */
+    final void publish(int i, int hash, int offset, boolean wasLive) {
+        int old = slotOffset(slotAt(i));
+        if (old == 0)
+            buf.putInt(USED_OFFSET, buf.getInt(USED_OFFSET) + 1);
+        setSlotAt(i, hash, offset);
+        if (wasLive)
+            addDeadBytes(recordLength(old));
+        else
+            buf.putLong(COUNT_OFFSET, buf.getLong(COUNT_OFFSET) + 1);
+    }
+
+    /**
+     * Marks slot {@code i} as deleted.  Callers hold the write lock.
+     */
+    final void unpublish(int i) {
+        long s = slotAt(i);
+        setSlotAt(i, slotHash(s), DELETED);
+        buf.putLong(COUNT_OFFSET, buf.getLong(COUNT_OFFSET) - 1);
+        addDeadBytes(recordLength(slotOffset(s)));
+    }
+
+    private void addDeadBytes(int n) {
+        buf.putLong(DEAD_BYTES_OFFSET, buf.getLong(DEAD_BYTES_OFFSET) + n);
+    }
+
+    /**
+     * Compacts the table if removed slots or dead records have passed
+     * their share of it, or if a write of a record of {@code length}
+     * bytes would otherwise fail for want of a slot or of space.  Callers
+     * hold the write lock, and probe for the key's slot afterwards.
+     */
+    final void compactIfNeeded(int length) {
+        int used = buf.getInt(USED_OFFSET);
+        long deleted = used - buf.getLong(COUNT_OFFSET);
+        long end = buf.getLong(DATA_END_OFFSET);
+        long dead = buf.getLong(DEAD_BYTES_OFFSET);
+        boolean records = dead > 0 &&
+            (dead > (end - dataStart) >>> 1 || end + length > buf.limit());
+        if (records || (deleted > 0 &&
+                        (deleted > capacity >>> 2 || used >= capacity - 1)))
+            compact(records);
+    }
+
+    /**
+     * Rehashes the live slots, dropping removed ones, and if
+     * {@code records} is set first slides the live records down over the
+     * dead ones, in file order.  Callers hold the write lock.
+     */
+    private void compact(boolean records) {
+        long v = buf.getLong(VERSION_OFFSET);
+        unsafe.putLongVolatile(null, address + VERSION_OFFSET, v + 1);
+        try {
+            // the live slots, as record offset and hash
+            long[] live = new long[buf.getInt(USED_OFFSET)];
+            int n = 0;
+            for (int i = 0; i < capacity; i++) {
+                long s = slotAt(i);
+                int off = slotOffset(s);
+                if (off != 0 && off != DELETED)
+                    live[n++] = ((long)off << 32) | (s >>> 32);
+            }
+            if (records) {
+                Arrays.sort(live, 0, n);
+                long end = dataStart;
+                for (int j = 0; j < n; j++) {
+                    int off = (int)(live[j] >>> 32);
+                    int len = recordLength(off);
+                    if (off != end)
+                        unsafe.copyMemory(address + off, address + end, len);
+                    live[j] = (end << 32) | (live[j] & 0xFFFFFFFFL);
+                    end += len;
+                }
+                buf.putLong(DATA_END_OFFSET, end);
+                buf.putLong(DEAD_BYTES_OFFSET, 0L);
+            }
+            unsafe.setMemory(address + HEADER_SIZE, (long)capacity * SLOT_SIZE,
+                             (byte)0);
+            for (int j = 0; j < n; j++) {
+                int h = (int)live[j];
+                int i = h & mask;
+                while (slotOffset(slotAt(i)) != 0)
+                    i = (i + 1) & mask;
+                setSlotAt(i, h, (int)(live[j] >>> 32));
+            }
+            buf.putInt(USED_OFFSET, n);
+        } finally {
+            unsafe.putLongVolatile(null, address + VERSION_OFFSET, v + 2);
+        }
+    }
+
+    // -- public operations common to both maps --
+
+    /**
+     * Returns the number of mappings.  The count is read from the shared
+     * header and so reflects writes made by other processes.
+     *
+     * @return the number of mappings
+     */
+    public long size() {
+        return unsafe.getLongVolatile(null, address + COUNT_OFFSET);
+    }
+
+    /**
+     * Returns the number of bytes still available for records.
+     *
+     * @return the free space in the record area
+     */
+    public long remaining() {
+        return buf.limit() -
+            unsafe.getLongVolatile(null, address + DATA_END_OFFSET);
+    }
+
+    /**
+     * Forces any changes made to this table to be written to the storage
+     * device containing the file.
+     *
+     * @see MappedByteBuffer#force()
+     */
+    public void force() {
+        buf.force();
+    }
+
+    /**
+     * Closes the channel used to write this table.  The mapping itself,
+     * and any buffers returned by lookups, remain mapped until they are
+     * garbage collected.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+}
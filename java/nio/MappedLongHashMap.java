@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+
+/**
+ * A persistent hash map from {@code long} keys to byte-string values,
+ * stored off-heap in a memory-mapped file.  This is the long-keyed
+ * counterpart of {@link MappedHashMap}, with the same file layout,
+ * sharing and durability properties; keys are stored inline in each
+ * record, so lookups allocate nothing but the returned value buffer.
+ *
+ * @see MappedHashMap
+ * @since 1.8
+ */
+public final class MappedLongHashMap extends MappedHashTable {
+
+    static final int KIND = 2;
+
+    private MappedLongHashMap(FileChannel ch, MappedByteBuffer buf,
+                              boolean readOnly) throws IOException {
+        super(ch, buf, KIND, readOnly);
+    }
+
+    /**
+     * Creates a new, empty map in the given file, which must not exist.
+     *
+     * @param  file the file to create
+     * @param  capacity the number of slots, rounded up to a power of two;
+     *         the map holds at most {@code capacity - 1} keys
+     * @param  dataSize the number of bytes to reserve for records; each
+     *         mapping takes {@code 12 + value.length} bytes
+     * @return the new map, open for reading and writing
+     * @throws IllegalArgumentException if the file would exceed
+     *         {@code Integer.MAX_VALUE} bytes
+     * @throws IOException if an I/O error occurs or the file exists
+     */
+    public static MappedLongHashMap create(Path file, int capacity,
+                                           long dataSize)
+        throws IOException
+    {
+        FileChannel[] chp = new FileChannel[1];
+        MappedByteBuffer mb = create(file, KIND, capacity, dataSize, chp);
+        return new MappedLongHashMap(chp[0], mb, false);
+    }
+
+    /**
+     * Opens a map previously created in the given file.
+     *
+     * @param  file the file
+     * @param  readOnly whether to map the file read-only
+     * @return the map
+     * @throws IOException if an I/O error occurs or the file does not
+     *         hold a {@code MappedLongHashMap}
+     */
+    public static MappedLongHashMap open(Path file, boolean readOnly)
+        throws IOException
+    {
+        FileChannel[] chp = new FileChannel[1];
+        MappedByteBuffer mb = open(file, readOnly, chp);
+        try {
+            return new MappedLongHashMap(chp[0], mb, readOnly);
+        } catch (IOException x) {
+            chp[0].close();
+            throw x;
+        }
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    int recordLength(int offset) {
+        return 12 + buf.getInt(offset + 8);
+    }
+
+    /**
+     * Returns the live slot for the key, or 0 if there is none.
+     */
+    private long find(long key, int h) {
+        for (int n = 0, i = h & mask; n < capacity; ++n, i = (i + 1) & mask) {
+            long s = slotAt(i);
+            int off = slotOffset(s);
+            if (off == 0)
+                break;
+            if (off != DELETED && slotHash(s) == h && buf.getLong(off) == key)
+                return s;
+        }
+        return 0L;
+    }
+
+    /**
+     * Returns a read-only buffer over the value mapped to the given key,
+     * or {@code null} if there is none.  The buffer shares the file
+     * mapping; its position is zero and its limit the value's length.
+     * Its content is only defined until the map is next compacted.
+     *
+     * @param  key the key
+     * @return the value, or {@code null}
+     */
+    public ByteBuffer get(long key) {
+        int h = hash(key);
+        for (;;) {
+            long v = beginRead();
+            try {
+                long s = find(key, h);
+                ByteBuffer value = null;
+                if (s != 0L) {
+                    int off = slotOffset(s);
+                    value = slice(off + 12, buf.getInt(off + 8));
+                }
+                if (validate(v))
+                    return value;
+            } catch (IndexOutOfBoundsException | IllegalArgumentException x) {
+                if (validate(v))
+                    throw x;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the map holds a value for the given key.
+     *
+     * @param  key the key
+     * @return whether the key is present
+     */
+    public boolean containsKey(long key) {
+        int h = hash(key);
+        for (;;) {
+            long v = beginRead();
+            try {
+                boolean found = find(key, h) != 0L;
+                if (validate(v))
+                    return found;
+            } catch (IndexOutOfBoundsException x) {
+                if (validate(v))
+                    throw x;
+            }
+        }
+    }
+
+    /**
+     * Associates the given value with the given key.
+     *
+     * @param  key the key
+     * @param  value the value
+     * @return {@code true} if the key was not previously present
+     * @throws ReadOnlyBufferException if the map was opened read-only
+     * @throws BufferOverflowException if the record area is full
+     * @throws IllegalStateException if every slot is in use
+     * @throws IOException if the write lock cannot be acquired
+     * @throws java.nio.channels.OverlappingFileLockException if another
+     *         map over the same file in this VM is writing
+     */
+    public synchronized boolean put(long key, byte[] value)
+        throws IOException
+    {
+        int h = hash(key);
+        int length = 12 + value.length;
+        FileLock lock = lockForWrite();
+        try {
+            compactIfNeeded(length);
+            int i = h & mask, free = -1;
+            boolean live = false;
+            for (int n = 0; n < capacity; ++n, i = (i + 1) & mask) {
+                long s = slotAt(i);
+                int off = slotOffset(s);
+                if (off == 0)
+                    break;
+                if (off == DELETED) {
+                    if (free < 0)
+                        free = i;
+                } else if (slotHash(s) == h && buf.getLong(off) == key) {
+                    live = true;
+                    break;
+                }
+            }
+            if (!live && free >= 0)
+                i = free;
+            checkSlot(i);
+            int rec = reserve(length);
+            buf.putLong(rec, key);
+            buf.putInt(rec + 8, value.length);
+            ByteBuffer b = buf.duplicate();
+            b.position(rec + 12);
+            b.put(value);
+            publish(i, h, rec, live);
+            return !live;
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Removes the mapping for the given key, if present.
+     *
+     * @param  key the key
+     * @return {@code true} if the key was present
+     * @throws ReadOnlyBufferException if the map was opened read-only
+     * @throws IOException if the write lock cannot be acquired
+     * @throws java.nio.channels.OverlappingFileLockException if another
+     *         map over the same file in this VM is writing
+     */
+    public synchronized boolean remove(long key) throws IOException {
+        int h = hash(key);
+        FileLock lock = lockForWrite();
+        try {
+            for (int n = 0, i = h & mask; n < capacity; ++n, i = (i + 1) & mask) {
+                long s = slotAt(i);
+                int off = slotOffset(s);
+                if (off == 0)
+                    break;
+                if (off != DELETED && slotHash(s) == h && buf.getLong(off) == key) {
+                    unpublish(i);
+                    compactIfNeeded(0);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.release();
+        }
+    }
+}
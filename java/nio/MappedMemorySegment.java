@@ -0,0 +1,1091 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import sun.misc.Cleaner;
+import sun.misc.Unsafe;
+
+
+/**
+ * A memory-mapped region of a file that may be larger than 2GB and that may
+ * be unmapped explicitly.
+ *
+ * <p> Mapped memory segments are created via the {@link
+ * java.nio.channels.FileChannel#mapSegment FileChannel.mapSegment} method.
+ * Unlike a {@link MappedByteBuffer}, a segment has no position or limit; its
+ * content is addressed by a {@code long} byte offset from the start of the
+ * segment, and multi-byte values are read and written in the byte order
+ * given to each access.
+ *
+ * <p> The mapping is released when the segment is {@link #close closed}, or
+ * otherwise when the segment is garbage-collected. Closing a segment is safe
+ * with respect to other threads: each access marks the segment as in use for
+ * its duration, and {@code close} waits for the accesses in progress to
+ * complete before it unmaps the region. An access that starts after the
+ * segment has been closed throws {@link IllegalStateException}. As every
+ * access pays for this bookkeeping, large amounts of data are best
+ * transferred with the bulk {@code get} and {@code put} methods.
+ *
+ * <p> As with mapped byte buffers, the content of a segment may change at any
+ * time, and all or part of it may become <a
+ * href="MappedByteBuffer.html#inaccess">inaccessible</a> if the mapped file is
+ * truncated.
+ *
+ * <p> Mapped memory segments are safe for use by multiple concurrent threads,
+ * though concurrent writes to overlapping ranges are not coordinated.
+ *
+ * @since 1.8
+ */
+
+public final class MappedMemorySegment implements Closeable {
+
+    private static final Unsafe unsafe = Bits.unsafe();
+
+    // Cached unaligned-access capability
+    private static final boolean unaligned = Bits.unaligned();
+
+    private static final boolean nativeBigEndian =
+        (Bits.byteOrder() == ByteOrder.BIG_ENDIAN);
+
+    // The force0 and load0 natives take the region as arguments and do not
+    // use the buffer on which they are invoked
+    private static final MappedByteBuffer natives =
+        new DirectByteBuffer(0, 0L, new FileDescriptor(), null);
+
+    /**
+     * Hints on how the content of a segment will be accessed.
+     *
+     * @see MappedMemorySegment#advise
+     * @since 1.8
+     */
+    public static enum Advice {
+        /**
+         * The content will be accessed sequentially, so read-ahead may be
+         * aggressive and pages may be released soon after they are accessed.
+         */
+        SEQUENTIAL,
+        /**
+         * The content will be accessed in random order, so read-ahead is of
+         * little use.
+         */
+        RANDOM,
+        /**
+         * The content will be accessed soon, so reading it in ahead of time
+         * is worthwhile.
+         */
+        WILLNEED;
+    }
+
+    // bit of state set once the segment is closed, the remaining bits
+    // count the accesses in progress
+    private static final int CLOSED = 0x80000000;
+
+    private final long address;
+    private final long size;
+    private final boolean readOnly;
+    private final FileDescriptor fd;
+    private final Cleaner cleaner;
+    private volatile int state;
+
+    // Invoked by FileChannelImpl via SharedSecrets
+    MappedMemorySegment(long addr, long size, boolean readOnly,
+                        FileDescriptor fd, Runnable unmapper)
+    {
+        this.address = addr;
+        this.size = size;
+        this.readOnly = readOnly;
+        this.fd = fd;
+        this.cleaner = Cleaner.create(this, unmapper);
+    }
+
+    /**
+     * Returns the size of this segment in bytes.
+     *
+     * @return  The size of this segment
+     */
+    public long byteSize() {
+        return size;
+    }
+
+    /**
+     * Tells whether or not this segment is read-only.
+     *
+     * @return  <tt>true</tt> if, and only if, this segment is read-only
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Tells whether or not this segment is open.
+     *
+     * @return  <tt>true</tt> if, and only if, this segment has not been
+     *          closed
+     */
+    public boolean isOpen() {
+        return state >= 0;
+    }
+
+    /**
+     * Unmaps this segment.
+     *
+     * <p> Accesses to this segment that are in progress in other threads
+     * complete before the region is unmapped; later accesses throw {@link
+     * IllegalStateException}. Changes made to the content of a segment mapped
+     * in read/write mode are not lost, but are only guaranteed to have been
+     * written to the storage device if {@link #force} has been invoked.
+     *
+     * <p> If this segment is already closed then invoking this method has no
+     * effect.
+     */
+    @Override
+    public void close() {
+        int s;
+        do {
+            s = state;
+            if (s < 0)
+                return;
+        } while (!unsafe.compareAndSwapInt(this, stateOffset, s, s | CLOSED));
+
+        // wait for accesses in progress
+        while (state != CLOSED)
+            Thread.yield();
+        if (cleaner != null)
+            cleaner.clean();
+    }
+
+    // -- Access bookkeeping --
+
+    private void acquire() {
+        int s;
+        do {
+            s = state;
+            if (s < 0)
+                throw new IllegalStateException("Segment is closed");
+        } while (!unsafe.compareAndSwapInt(this, stateOffset, s, s + 1));
+    }
+
+    private void release() {
+        unsafe.getAndAddInt(this, stateOffset, -1);
+    }
+
+    private long checkIndex(long offset, long length) {
+        if ((offset | length) < 0 || length > size - offset)
+            throw new IndexOutOfBoundsException();
+        return address + offset;
+    }
+
+    private static void checkBounds(int off, int len, int size) {
+        if ((off | len | (off + len) | (size - (off + len))) < 0)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private void checkWritable() {
+        if (readOnly)
+            throw new ReadOnlyBufferException();
+    }
+
+    // -- Single values --
+
+    /**
+     * Reads the byte at the given offset.
+     *
+     * @param  offset
+     *         The offset from which the byte will be read
+     *
+     * @return  The byte at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public byte get(long offset) {
+        long a = checkIndex(offset, 1);
+        acquire();
+        try {
+            return unsafe.getByte(a);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Writes the given byte at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the byte will be written
+     *
+     * @param  b
+     *         The byte value to be written
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void put(long offset, byte b) {
+        checkWritable();
+        long a = checkIndex(offset, 1);
+        acquire();
+        try {
+            unsafe.putByte(a, b);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Reads the short value at the given offset, composing two bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @return  The short value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus one
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public short getShort(long offset, ByteOrder order) {
+        boolean bigEndian = (order == ByteOrder.BIG_ENDIAN);
+        long a = checkIndex(offset, 2);
+        acquire();
+        try {
+            if (unaligned) {
+                short x = unsafe.getShort(a);
+                return (bigEndian == nativeBigEndian) ? x : Bits.swap(x);
+            }
+            return Bits.getShort(a, bigEndian);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Writes the given short value at the given offset, as two bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The short value to be written
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus one
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void putShort(long offset, short value, ByteOrder order) {
+        checkWritable();
+        boolean bigEndian = (order == ByteOrder.BIG_ENDIAN);
+        long a = checkIndex(offset, 2);
+        acquire();
+        try {
+            if (unaligned) {
+                unsafe.putShort(a, (bigEndian == nativeBigEndian) ? value : Bits.swap(value));
+            } else {
+                Bits.putShort(a, value, bigEndian);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Reads the int value at the given offset, composing four bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @return  The int value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus three
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public int getInt(long offset, ByteOrder order) {
+        boolean bigEndian = (order == ByteOrder.BIG_ENDIAN);
+        long a = checkIndex(offset, 4);
+        acquire();
+        try {
+            if (unaligned) {
+                int x = unsafe.getInt(a);
+                return (bigEndian == nativeBigEndian) ? x : Bits.swap(x);
+            }
+            return Bits.getInt(a, bigEndian);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Writes the given int value at the given offset, as four bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The int value to be written
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus three
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void putInt(long offset, int value, ByteOrder order) {
+        checkWritable();
+        boolean bigEndian = (order == ByteOrder.BIG_ENDIAN);
+        long a = checkIndex(offset, 4);
+        acquire();
+        try {
+            if (unaligned) {
+                unsafe.putInt(a, (bigEndian == nativeBigEndian) ? value : Bits.swap(value));
+            } else {
+                Bits.putInt(a, value, bigEndian);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Reads the long value at the given offset, composing eight bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @return  The long value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus seven
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public long getLong(long offset, ByteOrder order) {
+        boolean bigEndian = (order == ByteOrder.BIG_ENDIAN);
+        long a = checkIndex(offset, 8);
+        acquire();
+        try {
+            if (unaligned) {
+                long x = unsafe.getLong(a);
+                return (bigEndian == nativeBigEndian) ? x : Bits.swap(x);
+            }
+            return Bits.getLong(a, bigEndian);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Writes the given long value at the given offset, as eight bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The long value to be written
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus seven
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void putLong(long offset, long value, ByteOrder order) {
+        checkWritable();
+        boolean bigEndian = (order == ByteOrder.BIG_ENDIAN);
+        long a = checkIndex(offset, 8);
+        acquire();
+        try {
+            if (unaligned) {
+                unsafe.putLong(a, (bigEndian == nativeBigEndian) ? value : Bits.swap(value));
+            } else {
+                Bits.putLong(a, value, bigEndian);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Reads the float value at the given offset, composing four bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @return  The float value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus three
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public float getFloat(long offset, ByteOrder order) {
+        return Float.intBitsToFloat(getInt(offset, order));
+    }
+
+    /**
+     * Writes the given float value at the given offset, as four bytes in the
+     * given byte order.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The float value to be written
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus three
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void putFloat(long offset, float value, ByteOrder order) {
+        putInt(offset, Float.floatToRawIntBits(value), order);
+    }
+
+    /**
+     * Reads the double value at the given offset, composing eight bytes in
+     * the given byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @return  The double value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus seven
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public double getDouble(long offset, ByteOrder order) {
+        return Double.longBitsToDouble(getLong(offset, order));
+    }
+
+    /**
+     * Writes the given double value at the given offset, as eight bytes in
+     * the given byte order.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The double value to be written
+     *
+     * @param  order
+     *         The byte order of the value
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the size of
+     *          this segment, minus seven
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void putDouble(long offset, double value, ByteOrder order) {
+        putLong(offset, Double.doubleToRawLongBits(value), order);
+    }
+
+    // -- Bulk transfers --
+
+    /**
+     * Copies {@code length} elements of {@code scale} bytes each from the
+     * segment into an array, swapping bytes unless the order is native.
+     */
+    private void copyTo(long offset, Object dst, int off, int length,
+                        int scale, ByteOrder order)
+    {
+        long bytes = (long)length << Integer.numberOfTrailingZeros(scale);
+        long a = checkIndex(offset, bytes);
+        acquire();
+        try {
+            if (scale == 1 || (order == ByteOrder.BIG_ENDIAN) == nativeBigEndian) {
+                Bits.copyToArray(a, dst, unsafe.arrayBaseOffset(dst.getClass()),
+                                 (long)off * scale, bytes);
+            } else if (scale == 2) {
+                Bits.copyToShortArray(a, dst, (long)off << 1, bytes);
+            } else if (scale == 4) {
+                Bits.copyToIntArray(a, dst, (long)off << 2, bytes);
+            } else {
+                Bits.copyToLongArray(a, dst, (long)off << 3, bytes);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Copies {@code length} elements of {@code scale} bytes each from an
+     * array into the segment, swapping bytes unless the order is native.
+     */
+    private void copyFrom(long offset, Object src, int off, int length,
+                          int scale, ByteOrder order)
+    {
+        checkWritable();
+        long bytes = (long)length << Integer.numberOfTrailingZeros(scale);
+        long a = checkIndex(offset, bytes);
+        acquire();
+        try {
+            if (scale == 1 || (order == ByteOrder.BIG_ENDIAN) == nativeBigEndian) {
+                Bits.copyFromArray(src, unsafe.arrayBaseOffset(src.getClass()),
+                                   (long)off * scale, a, bytes);
+            } else if (scale == 2) {
+                Bits.copyFromShortArray(src, (long)off << 1, a, bytes);
+            } else if (scale == 4) {
+                Bits.copyFromIntArray(src, (long)off << 2, a, bytes);
+            } else {
+                Bits.copyFromLongArray(src, (long)off << 3, a, bytes);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Copies bytes from this segment into the given array.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which bytes are to be written
+     *
+     * @param  off
+     *         The offset within the array of the first byte to be written
+     *
+     * @param  length
+     *         The number of bytes to be copied
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void get(long offset, byte[] dst, int off, int length) {
+        checkBounds(off, length, dst.length);
+        copyTo(offset, dst, off, length, 1, null);
+    }
+
+    /**
+     * Copies short values from this segment into the given array, composing
+     * each value from two bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which values are to be written
+     *
+     * @param  off
+     *         The offset within the array of the first value to be written
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void get(long offset, short[] dst, int off, int length, ByteOrder order) {
+        checkBounds(off, length, dst.length);
+        copyTo(offset, dst, off, length, 2, order);
+    }
+
+    /**
+     * Copies int values from this segment into the given array, composing
+     * each value from four bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which values are to be written
+     *
+     * @param  off
+     *         The offset within the array of the first value to be written
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void get(long offset, int[] dst, int off, int length, ByteOrder order) {
+        checkBounds(off, length, dst.length);
+        copyTo(offset, dst, off, length, 4, order);
+    }
+
+    /**
+     * Copies long values from this segment into the given array, composing
+     * each value from eight bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which values are to be written
+     *
+     * @param  off
+     *         The offset within the array of the first value to be written
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void get(long offset, long[] dst, int off, int length, ByteOrder order) {
+        checkBounds(off, length, dst.length);
+        copyTo(offset, dst, off, length, 8, order);
+    }
+
+    /**
+     * Copies float values from this segment into the given array, composing
+     * each value from four bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which values are to be written
+     *
+     * @param  off
+     *         The offset within the array of the first value to be written
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void get(long offset, float[] dst, int off, int length, ByteOrder order) {
+        checkBounds(off, length, dst.length);
+        copyTo(offset, dst, off, length, 4, order);
+    }
+
+    /**
+     * Copies double values from this segment into the given array, composing
+     * each value from eight bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which values are to be written
+     *
+     * @param  off
+     *         The offset within the array of the first value to be written
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void get(long offset, double[] dst, int off, int length, ByteOrder order) {
+        checkBounds(off, length, dst.length);
+        copyTo(offset, dst, off, length, 8, order);
+    }
+
+    /**
+     * Copies bytes from the given array into this segment.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be written
+     *
+     * @param  src
+     *         The array from which bytes are to be read
+     *
+     * @param  off
+     *         The offset within the array of the first byte to be read
+     *
+     * @param  length
+     *         The number of bytes to be copied
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void put(long offset, byte[] src, int off, int length) {
+        checkBounds(off, length, src.length);
+        copyFrom(offset, src, off, length, 1, null);
+    }
+
+    /**
+     * Copies short values from the given array into this segment, writing
+     * each value as two bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be written
+     *
+     * @param  src
+     *         The array from which values are to be read
+     *
+     * @param  off
+     *         The offset within the array of the first value to be read
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void put(long offset, short[] src, int off, int length, ByteOrder order) {
+        checkBounds(off, length, src.length);
+        copyFrom(offset, src, off, length, 2, order);
+    }
+
+    /**
+     * Copies int values from the given array into this segment, writing
+     * each value as four bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be written
+     *
+     * @param  src
+     *         The array from which values are to be read
+     *
+     * @param  off
+     *         The offset within the array of the first value to be read
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void put(long offset, int[] src, int off, int length, ByteOrder order) {
+        checkBounds(off, length, src.length);
+        copyFrom(offset, src, off, length, 4, order);
+    }
+
+    /**
+     * Copies long values from the given array into this segment, writing
+     * each value as eight bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be written
+     *
+     * @param  src
+     *         The array from which values are to be read
+     *
+     * @param  off
+     *         The offset within the array of the first value to be read
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void put(long offset, long[] src, int off, int length, ByteOrder order) {
+        checkBounds(off, length, src.length);
+        copyFrom(offset, src, off, length, 8, order);
+    }
+
+    /**
+     * Copies float values from the given array into this segment, writing
+     * each value as four bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be written
+     *
+     * @param  src
+     *         The array from which values are to be read
+     *
+     * @param  off
+     *         The offset within the array of the first value to be read
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void put(long offset, float[] src, int off, int length, ByteOrder order) {
+        checkBounds(off, length, src.length);
+        copyFrom(offset, src, off, length, 4, order);
+    }
+
+    /**
+     * Copies double values from the given array into this segment, writing
+     * each value as eight bytes in the given byte order.
+     *
+     * @param  offset
+     *         The offset in this segment of the first byte to be written
+     *
+     * @param  src
+     *         The array from which values are to be read
+     *
+     * @param  off
+     *         The offset within the array of the first value to be read
+     *
+     * @param  length
+     *         The number of values to be copied
+     *
+     * @param  order
+     *         The byte order of the values in this segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range in the array or in this segment is out of bounds
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void put(long offset, double[] src, int off, int length, ByteOrder order) {
+        checkBounds(off, length, src.length);
+        copyFrom(offset, src, off, length, 8, order);
+    }
+
+    // -- Paging --
+
+    /**
+     * Gives the operating system a hint about how a range of this segment
+     * will be accessed.
+     *
+     * <p> The hint may be ignored. In this implementation only {@link
+     * Advice#WILLNEED WILLNEED} has an effect: it asks for the pages of the
+     * range to be read in ahead of time, as does the first step of {@link
+     * MappedByteBuffer#load}.
+     *
+     * @param  offset
+     *         The offset in this segment of the start of the range
+     *
+     * @param  length
+     *         The length of the range
+     *
+     * @param  advice
+     *         The hint
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void advise(long offset, long length, Advice advice) {
+        if (advice == null)
+            throw new NullPointerException();
+        long a = checkIndex(offset, length);
+        acquire();
+        try {
+            if (length == 0 || advice != Advice.WILLNEED)
+                return;
+            long pageOffset = pageOffset(a);
+            natives.load0(a - pageOffset, length + pageOffset);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Forces any changes made to the content of a range of this segment to
+     * be written to the storage device containing the mapped file.
+     *
+     * <p> The guarantees are those of {@link MappedByteBuffer#force}. If this
+     * segment was not mapped in read/write mode then invoking this method has
+     * no effect.
+     *
+     * @param  offset
+     *         The offset in this segment of the start of the range
+     *
+     * @param  length
+     *         The length of the range
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the range is out of bounds
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void force(long offset, long length) {
+        long a = checkIndex(offset, length);
+        acquire();
+        try {
+            if (length == 0 || readOnly)
+                return;
+            long pageOffset = pageOffset(a);
+            natives.force0(fd, a - pageOffset, length + pageOffset);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Forces any changes made to the content of this segment to be written
+     * to the storage device containing the mapped file.
+     *
+     * <p> Invoking this method is equivalent to invoking {@link
+     * #force(long,long) force(0, byteSize())}.
+     *
+     * @throws  IllegalStateException
+     *          If this segment is closed
+     */
+    public void force() {
+        force(0L, size);
+    }
+
+    // Returns a read-only buffer over a range of this segment, for use by
+    // the platform via SharedSecrets. Accesses through the buffer are not
+    // tracked, so the caller must ensure that the segment is not closed
+    // while the buffer is in use.
+    ByteBuffer view(long offset, int length) {
+        long a = checkIndex(offset, length);
+        if (state < 0)
+            throw new IllegalStateException("Segment is closed");
+        return new DirectByteBuffer(a, length, this).asReadOnlyBuffer();
+    }
+
+    // Returns the distance of the given address from the start of its page
+    private static long pageOffset(long a) {
+        int ps = Bits.pageSize();
+        long offset = a % ps;
+        return (offset >= 0) ? offset : (ps + offset);
+    }
+
+    private static final long stateOffset;
+    static {
+        try {
+            stateOffset = unsafe.objectFieldOffset
+                (MappedMemorySegment.class.getDeclaredField("state"));
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -67,41 +67,6 @@ public final class Channels {
             throw new NullPointerException("\"" + name + "\" is null!");
     }
 
-    /**
-     * Write all remaining bytes in buffer to the given channel.
-     * If the channel is selectable then it must be configured blocking.
-     */
-    private static void writeFullyImpl(WritableByteChannel ch, ByteBuffer bb)
-        throws IOException
-    {
-        while (bb.remaining() > 0) {
-            int n = ch.write(bb);
-            if (n <= 0)
-                throw new RuntimeException("no bytes written");
-        }
-    }
-
-    /**
-     * Write all remaining bytes in buffer to the given channel.
-     *
-     * @throws  IllegalBlockingModeException
-     *          If the channel is selectable and configured non-blocking.
-     */
-    private static void writeFully(WritableByteChannel ch, ByteBuffer bb)
-        throws IOException
-    {
-        if (ch instanceof SelectableChannel) {
-            SelectableChannel sc = (SelectableChannel)ch;
-            synchronized (sc.blockingLock()) {
-                if (!sc.isBlocking())
-                    throw new IllegalBlockingModeException();
-                writeFullyImpl(ch, bb);
-            }
-        } else {
-            writeFullyImpl(ch, bb);
-        }
-    }
-
     // -- Byte streams from channels --
 
     /**
@@ -134,51 +99,18 @@ public final class Channels {
      * stream will be safe for access by multiple concurrent threads.  Closing
      * the stream will in turn cause the channel to be closed.  </p>
      *
+     * <p> The resulting stream is a {@link java.io.GatheringOutputStream};
+     * if the channel is a {@link GatheringByteChannel} then buffers written
+     * to the stream together are written to the channel together.  </p>
+     *
      * @param  ch
      *         The channel to which bytes will be written
      *
      * @return  A new output stream
      */
-    public static OutputStream newOutputStream(final WritableByteChannel ch) {
+    public static OutputStream newOutputStream(WritableByteChannel ch) {
         checkNotNull(ch, "ch");
-
-        return new OutputStream() {
-
-                private ByteBuffer bb = null;
-                private byte[] bs = null;       // Invoker's previous array
-                private byte[] b1 = null;
-
-                public synchronized void write(int b) throws IOException {
-                   if (b1 == null)
-                        b1 = new byte[1];
-                    b1[0] = (byte)b;
-                    this.write(b1);
-                }
-
-                public synchronized void write(byte[] bs, int off, int len)
-                    throws IOException
-                {
-                    if ((off < 0) || (off > bs.length) || (len < 0) ||
-                        ((off + len) > bs.length) || ((off + len) < 0)) {
-                        throw new IndexOutOfBoundsException();
-                    } else if (len == 0) {
-                        return;
-                    }
-                    ByteBuffer bb = ((this.bs == bs)
-                                     ? this.bb
-                                     : ByteBuffer.wrap(bs));
-                    bb.limit(Math.min(off + len, bb.capacity()));
-                    bb.position(off);
-                    this.bb = bb;
-                    this.bs = bs;
-                    Channels.writeFully(ch, bb);
-                }
-
-                public void close() throws IOException {
-                    ch.close();
-                }
-
-            };
+        return new sun.nio.ch.ChannelOutputStream(ch);
     }
 
     /**
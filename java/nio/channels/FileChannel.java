@@ -28,6 +28,7 @@ package java.nio.channels;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.MappedMemorySegment;
 import java.nio.channels.spi.AbstractInterruptibleChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.FileAttribute;
@@ -749,6 +750,79 @@ public abstract class FileChannel
      */
     public abstract int read(ByteBuffer dst, long position) throws IOException;
 
+    /**
+     * Reads sequences of bytes from this channel into the given buffers,
+     * each starting at its own file position.
+     *
+     * <p> This method works as if {@link #read(ByteBuffer,long)
+     * read(dsts[i],&nbsp;positions[i])} were invoked once for each buffer,
+     * except that an implementation may reorder the reads or combine
+     * reads of nearby regions of the file, so that a batch of small random
+     * reads needs fewer operations on the underlying file.  This method
+     * does not modify this channel's position.  The position of each
+     * buffer is advanced by the number of bytes read into it; no bytes are
+     * read into a buffer whose file position is at or beyond the end of the
+     * file.  As the reads may be reordered, the buffers must not share
+     * content with one another, as views of the same buffer or array
+     * may.  </p>
+     *
+     * <p> If an exception is thrown, some of the buffers may have received
+     * bytes.  </p>
+     *
+     * @param  dsts
+     *         The buffers into which bytes are to be transferred
+     *
+     * @param  positions
+     *         The file positions at which the transfers are to begin, one
+     *         for each buffer; each must be non-negative
+     *
+     * @return  The total number of bytes read, possibly zero
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays differ in length, a position is negative,
+     *          or the remaining content of two of the buffers overlaps
+     *
+     * @throws  NonReadableChannelException
+     *          If this channel was not opened for reading
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the read operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the read operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 1.8
+     */
+    public long readBatch(ByteBuffer[] dsts, long[] positions)
+        throws IOException
+    {
+        if (dsts.length != positions.length)
+            throw new IllegalArgumentException("Length mismatch");
+        for (long position : positions) {
+            if (position < 0)
+                throw new IllegalArgumentException("Negative position");
+        }
+        if (sun.nio.ch.Util.overlaps(dsts))
+            throw new IllegalArgumentException("Overlapping buffers");
+        long total = 0;
+        for (int i = 0; i < dsts.length; i++) {
+            int n = read(dsts[i], positions[i]);
+            if (n > 0)
+                total += n;
+        }
+        return total;
+    }
+
     /**
      * Writes a sequence of bytes to this channel from the given buffer,
      * starting at the given file position.
@@ -942,6 +1016,63 @@ public abstract class FileChannel
                                          long position, long size)
         throws IOException;
 
+    /**
+     * Maps a region of this channel's file into a memory segment that may
+     * be larger than {@link java.lang.Integer#MAX_VALUE} bytes.
+     *
+     * <p> This method works in the same manner as the {@link #map map}
+     * method, with the same modes and the same requirements on how this
+     * channel was opened, except that the region is accessed through a
+     * {@link MappedMemorySegment} addressed by {@code long} offsets, and that
+     * the mapping is released as soon as the segment is {@link
+     * MappedMemorySegment#close closed} rather than when it is
+     * garbage-collected.
+     *
+     * @implSpec The default implementation throws {@code
+     * UnsupportedOperationException}.
+     *
+     * @param  mode
+     *         One of the constants {@link MapMode#READ_ONLY READ_ONLY}, {@link
+     *         MapMode#READ_WRITE READ_WRITE}, or {@link MapMode#PRIVATE
+     *         PRIVATE} defined in the {@link MapMode} class
+     *
+     * @param  position
+     *         The position within the file at which the mapped region
+     *         is to start; must be non-negative
+     *
+     * @param  size
+     *         The size of the region to be mapped; must be non-negative
+     *
+     * @return  The mapped memory segment
+     *
+     * @throws NonReadableChannelException
+     *         If the <tt>mode</tt> is {@link MapMode#READ_ONLY READ_ONLY} but
+     *         this channel was not opened for reading
+     *
+     * @throws NonWritableChannelException
+     *         If the <tt>mode</tt> is {@link MapMode#READ_WRITE READ_WRITE} or
+     *         {@link MapMode#PRIVATE PRIVATE} but this channel was not opened
+     *         for both reading and writing
+     *
+     * @throws IllegalArgumentException
+     *         If the preconditions on the parameters do not hold
+     *
+     * @throws UnsupportedOperationException
+     *         If this channel does not support mapping into segments
+     *
+     * @throws IOException
+     *         If some other I/O error occurs
+     *
+     * @see java.nio.MappedMemorySegment
+     * @since 1.8
+     */
+    public MappedMemorySegment mapSegment(MapMode mode,
+                                          long position, long size)
+        throws IOException
+    {
+        throw new UnsupportedOperationException();
+    }
+
 
     // -- Locks --
 
@@ -30,6 +30,7 @@ import java.net.Socket;
 import java.net.SocketOption;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.ByteBufferPool;
 import java.nio.channels.spi.AbstractSelectableChannel;
 import java.nio.channels.spi.SelectorProvider;
 
@@ -505,6 +506,92 @@ public abstract class SocketChannel
         return write(srcs, 0, srcs.length);
     }
 
+    /**
+     * Transfers bytes from this channel to the given socket channel.
+     *
+     * <p> An attempt is made to read up to <tt>count</tt> bytes from this
+     * channel and write them to the target channel.  Every byte read is
+     * written before this method returns.  If this channel is in blocking
+     * mode then the transfer continues until <tt>count</tt> bytes have been
+     * transferred or this channel reaches end-of-stream; otherwise it stops
+     * as soon as a read finds no bytes available.
+     *
+     * <p> This method is potentially much more efficient than a loop that
+     * reads from this channel and writes to the target channel, as an
+     * implementation may relay the bytes without copying them through the
+     * Java heap.  </p>
+     *
+     * @implSpec The default implementation relays the bytes through a
+     * direct buffer obtained from {@link java.nio.ByteBufferPool}.  It
+     * requires the target channel to be in blocking mode.
+     *
+     * @param  target
+     *         The target channel
+     *
+     * @param  count
+     *         The maximum number of bytes to be transferred; must be
+     *         non-negative
+     *
+     * @return  The number of bytes transferred, possibly zero, or
+     *          <tt>-1</tt> if this channel has reached end-of-stream and no
+     *          bytes were transferred
+     *
+     * @throws  IllegalArgumentException
+     *          If <tt>count</tt> is negative
+     *
+     * @throws  IllegalBlockingModeException
+     *          If the target channel is in non-blocking mode and the
+     *          implementation cannot wait for it to accept bytes
+     *
+     * @throws  NotYetConnectedException
+     *          If either channel is not yet connected
+     *
+     * @throws  ClosedChannelException
+     *          If either channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes either channel
+     *          while the transfer is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread while the
+     *          transfer is in progress, thereby closing both channels and
+     *          setting the current thread's interrupt status
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 1.8
+     */
+    public long transferTo(SocketChannel target, long count)
+        throws IOException
+    {
+        if (count < 0)
+            throw new IllegalArgumentException("Negative count");
+        if (!target.isBlocking())
+            throw new IllegalBlockingModeException();
+        ByteBuffer bb = ByteBufferPool.acquire((int)Math.min(count, 8192));
+        try {
+            long tw = 0;
+            while (tw < count) {
+                bb.clear();
+                bb.limit((int)Math.min(count - tw, bb.capacity()));
+                int nr = read(bb);
+                if (nr < 0 && tw == 0)
+                    return -1;
+                if (nr <= 0)
+                    break;
+                bb.flip();
+                while (bb.hasRemaining())
+                    target.write(bb);
+                tw += nr;
+            }
+            return tw;
+        } finally {
+            ByteBufferPool.release(bb);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileTreeWalker.Event;
+import java.nio.file.FileTreeWalker.EventType;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import sun.nio.fs.BasicFileAttributesHolder;
+
+/**
+ * A {@code Spliterator} over the nodes of a file tree, used by {@link
+ * Files#walk(Path,int,FileVisitOption...) Files.walk} and {@link Files#find
+ * Files.find}.
+ *
+ * <p> Unlike {@link FileTreeWalker}, which keeps a directory stream open for
+ * each level of the tree, a directory is read in full and closed when it is
+ * visited, and its entries are pushed onto a stack of files still to be
+ * visited. Popping from the top of the stack gives the same depth-first
+ * order as {@code FileTreeWalker}. {@link #trySplit} hands the bottom half of
+ * the stack, the not yet visited siblings nearest the root and so usually the
+ * largest subtrees, to a new spliterator. A parallel stream therefore splits
+ * the walk at subdirectories and reads the attributes of each file on the
+ * thread that visits it.
+ *
+ * <p> As with {@code FileTreeIterator}, an I/O error after the starting file
+ * has been visited is thrown as an {@link UncheckedIOException}, and files
+ * that the security manager denies access to are silently skipped.
+ */
+
+class FileTreeSpliterator implements Spliterator<Event> {
+
+    /**
+     * State shared by a spliterator and those split from it.
+     */
+    private static class Walk {
+        final boolean followLinks;
+        final LinkOption[] linkOptions;
+        final int maxDepth;
+        volatile boolean closed;
+
+        Walk(boolean followLinks, int maxDepth) {
+            this.followLinks = followLinks;
+            this.linkOptions = (followLinks) ? new LinkOption[0] :
+                new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+            this.maxDepth = maxDepth;
+        }
+    }
+
+    /**
+     * A directory that is an ancestor of pending files, used to detect
+     * cycles when following links.
+     */
+    private static class Ancestor {
+        final Path dir;
+        final Object key;
+        final Ancestor parent;
+
+        Ancestor(Path dir, Object key, Ancestor parent) {
+            this.dir = dir;
+            this.key = key;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * A file still to be visited, or an error reading a directory that is
+     * thrown after the entries that were read before it.
+     */
+    private static class Pending {
+        final Path file;
+        final int depth;
+        final Ancestor parent;
+        final IOException ioe;
+
+        Pending(Path file, int depth, Ancestor parent) {
+            this.file = file;
+            this.depth = depth;
+            this.parent = parent;
+            this.ioe = null;
+        }
+
+        Pending(IOException ioe) {
+            this.file = null;
+            this.depth = 0;
+            this.parent = null;
+            this.ioe = ioe;
+        }
+    }
+
+    private final Walk walk;
+    private final ArrayDeque<Pending> stack;
+
+    // the event for the starting file, not yet consumed
+    private Event first;
+
+    private FileTreeSpliterator(Walk walk, ArrayDeque<Pending> stack) {
+        this.walk = walk;
+        this.stack = stack;
+    }
+
+    /**
+     * Creates a new spliterator to walk the file tree starting at the given
+     * file. The starting file, and the directory if it is one, are read by
+     * this constructor.
+     *
+     * @throws  IllegalArgumentException
+     *          if {@code maxDepth} is negative
+     * @throws  IOException
+     *          if an I/O errors occurs opening the starting file
+     * @throws  SecurityException
+     *          if the security manager denies access to the starting file
+     * @throws  NullPointerException
+     *          if {@code start} or {@code options} is {@code null} or
+     *          the options array contains a {@code null} element
+     */
+    FileTreeSpliterator(Path start, int maxDepth, FileVisitOption... options)
+        throws IOException
+    {
+        boolean fl = false;
+        for (FileVisitOption option: options) {
+            // will throw NPE if options contains null
+            switch (option) {
+                case FOLLOW_LINKS : fl = true; break;
+                default:
+                    throw new AssertionError("Should not get here");
+            }
+        }
+        if (maxDepth < 0)
+            throw new IllegalArgumentException("'maxDepth' is negative");
+
+        this.walk = new Walk(fl, maxDepth);
+        this.stack = new ArrayDeque<>();
+        try {
+            this.first = visit(new Pending(start, 0, null),
+                               false,   // ignoreSecurityException
+                               false);  // canUseCached
+        } catch (UncheckedIOException x) {
+            throw x.getCause();
+        }
+        assert first != null;
+    }
+
+    /**
+     * Returns the attributes of the given file, taking into account whether
+     * the walk is following sym links is not.
+     */
+    private BasicFileAttributes getAttributes(Path file, boolean canUseCached)
+        throws IOException
+    {
+        // if attributes are cached then use them if possible
+        if (canUseCached &&
+            (file instanceof BasicFileAttributesHolder) &&
+            (System.getSecurityManager() == null))
+        {
+            BasicFileAttributes cached = ((BasicFileAttributesHolder)file).get();
+            if (cached != null && (!walk.followLinks || !cached.isSymbolicLink())) {
+                return cached;
+            }
+        }
+
+        // attempt to get attributes of file. If fails and we are following
+        // links then a link target might not exist so get attributes of link
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class,
+                                         walk.linkOptions);
+        } catch (IOException ioe) {
+            if (!walk.followLinks)
+                throw ioe;
+            attrs = Files.readAttributes(file,
+                                         BasicFileAttributes.class,
+                                         LinkOption.NOFOLLOW_LINKS);
+        }
+        return attrs;
+    }
+
+    /**
+     * Returns true if walking into the given directory would result in a
+     * file system loop/cycle.
+     */
+    private static boolean wouldLoop(Path dir, Object key, Ancestor ancestor) {
+        for (; ancestor != null; ancestor = ancestor.parent) {
+            if (key != null && ancestor.key != null) {
+                if (key.equals(ancestor.key))
+                    return true;
+            } else {
+                try {
+                    if (Files.isSameFile(dir, ancestor.dir))
+                        return true;
+                } catch (IOException | SecurityException x) {
+                    // ignore
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits the given file, returning its event. If the file is a directory
+     * below the maximum depth then its entries are pushed onto the stack.
+     * Returns {@code null} if a SecurityException is thrown and ignored.
+     *
+     * @throws  UncheckedIOException
+     *          if an I/O error occurs
+     */
+    private Event visit(Pending p, boolean ignoreSecurityException,
+                        boolean canUseCached)
+    {
+        Path file = p.file;
+
+        // need the file attributes
+        BasicFileAttributes attrs;
+        try {
+            attrs = getAttributes(file, canUseCached);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        } catch (SecurityException se) {
+            if (ignoreSecurityException)
+                return null;
+            throw se;
+        }
+
+        // at maximum depth or file is not a directory
+        if (p.depth >= walk.maxDepth || !attrs.isDirectory())
+            return new Event(EventType.ENTRY, file, attrs);
+
+        // check for cycles when following links
+        if (walk.followLinks && wouldLoop(file, attrs.fileKey(), p.parent)) {
+            throw new UncheckedIOException(
+                new FileSystemLoopException(file.toString()));
+        }
+
+        // file is a directory, attempt to open it
+        DirectoryStream<Path> stream;
+        try {
+            stream = Files.newDirectoryStream(file);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        } catch (SecurityException se) {
+            if (ignoreSecurityException)
+                return null;
+            throw se;
+        }
+
+        // read all entries and close it
+        List<Path> entries = new ArrayList<>();
+        IOException ioe = null;
+        try {
+            for (Path entry: stream)
+                entries.add(entry);
+        } catch (DirectoryIteratorException x) {
+            ioe = x.getCause();
+        }
+        try {
+            stream.close();
+        } catch (IOException x) {
+            if (ioe == null) {
+                ioe = x;
+            } else {
+                ioe.addSuppressed(x);
+            }
+        }
+
+        // push the entries so that the first entry is on top, with any
+        // error reading the directory beneath them
+        if (ioe != null)
+            stack.push(new Pending(ioe));
+        int depth = p.depth + 1;
+        Ancestor parent = (walk.followLinks) ?
+            new Ancestor(file, attrs.fileKey(), p.parent) : null;
+        for (int i = entries.size() - 1; i >= 0; i--)
+            stack.push(new Pending(entries.get(i), depth, parent));
+
+        return new Event(EventType.START_DIRECTORY, file, attrs);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+        if (action == null)
+            throw new NullPointerException();
+        if (walk.closed)
+            throw new IllegalStateException();
+        Event ev = first;
+        if (ev != null) {
+            first = null;
+        } else {
+            do {
+                Pending p = stack.poll();
+                if (p == null)
+                    return false;
+                if (p.ioe != null)
+                    throw new UncheckedIOException(p.ioe);
+                ev = visit(p,
+                           true,   // ignoreSecurityException
+                           true);  // canUseCached
+            } while (ev == null);
+        }
+        action.accept(ev);
+        return true;
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+        // the event for the starting file, if not yet consumed, stays with
+        // this spliterator; the entries of the starting directory are
+        // already on the stack and can be split off
+        int n = stack.size();
+        if (n < 2)
+            return null;
+        ArrayDeque<Pending> split = new ArrayDeque<>();
+        for (int i = n >>> 1; i > 0; i--)
+            split.addFirst(stack.pollLast());
+        return new FileTreeSpliterator(walk, split);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+
+    /**
+     * Closes the walk. As directories are closed once read this only
+     * prevents further traversal.
+     */
+    void close() {
+        walk.closed = true;
+    }
+}
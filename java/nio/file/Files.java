@@ -36,6 +36,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.io.UnsyncBufferedReader;
 import java.io.Writer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
@@ -2785,6 +2786,48 @@ public final class Files {
         return new BufferedReader(reader);
     }
 
+    /**
+     * Opens a file for reading, returning a {@code BufferedReader} that may be
+     * used to read text from the file in an efficient manner, optionally
+     * without locking. Bytes from the file are decoded into characters using
+     * the specified charset. Reading commences at the beginning of the file.
+     *
+     * <p> If {@code unsynchronized} is {@code true} then the reader is an
+     * {@link java.io.UnsyncBufferedReader}, whose methods do not lock and
+     * which is not safe for use by multiple threads. Otherwise this method
+     * is equivalent to {@link #newBufferedReader(Path,Charset)}.
+     *
+     * @param   path
+     *          the path to the file
+     * @param   cs
+     *          the charset to use for decoding
+     * @param   unsynchronized
+     *          {@code true} if the reader will only be used by one thread
+     *          at a time
+     *
+     * @return  a new buffered reader, with default buffer size, to read text
+     *          from the file
+     *
+     * @throws  IOException
+     *          if an I/O error occurs opening the file
+     * @throws  SecurityException
+     *          In the case of the default provider, and a security manager is
+     *          installed, the {@link SecurityManager#checkRead(String) checkRead}
+     *          method is invoked to check read access to the file.
+     *
+     * @since 1.8
+     */
+    public static BufferedReader newBufferedReader(Path path, Charset cs,
+                                                   boolean unsynchronized)
+        throws IOException
+    {
+        if (!unsynchronized)
+            return newBufferedReader(path, cs);
+        CharsetDecoder decoder = cs.newDecoder();
+        Reader reader = new InputStreamReader(newInputStream(path), decoder);
+        return new UnsyncBufferedReader(reader);
+    }
+
     /**
      * Opens a file for reading, returning a {@code BufferedReader} to read text
      * from the file in an efficient manner. Bytes from the file are decoded into
@@ -3199,7 +3242,8 @@ public final class Files {
      * @see #newBufferedReader
      */
     public static List<String> readAllLines(Path path, Charset cs) throws IOException {
-        try (BufferedReader reader = newBufferedReader(path, cs)) {
+        // the reader does not escape this method
+        try (BufferedReader reader = newBufferedReader(path, cs, true)) {
             List<String> result = new ArrayList<>();
             for (;;) {
                 String line = reader.readLine();
@@ -3534,6 +3578,12 @@ public final class Files {
      * <p> When a security manager is installed and it denies access to a file
      * (or directory), then it is ignored and not included in the stream.
      *
+     * <p> The returned stream may be made {@link Stream#parallel parallel}.
+     * A parallel stream splits the traversal at the entries of directories
+     * that have been read but not yet visited, so that separate subtrees,
+     * and the attributes of the files in them, are read concurrently. The
+     * depth-first order of the elements is then not preserved.
+     *
      * <p> The returned stream encapsulates one or more {@link DirectoryStream}s.
      * If timely disposal of file system resources is required, the
      * {@code try}-with-resources construct should be used to ensure that the
@@ -3571,15 +3621,11 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
-        try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
-                                .map(entry -> entry.file());
-        } catch (Error|RuntimeException e) {
-            iterator.close();
-            throw e;
-        }
+        FileTreeSpliterator spliterator =
+            new FileTreeSpliterator(start, maxDepth, options);
+        return StreamSupport.stream(spliterator, false)
+                            .onClose(spliterator::close)
+                            .map(entry -> entry.file());
     }
 
     /**
@@ -3684,16 +3730,12 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
-        try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
-                                .filter(entry -> matcher.test(entry.file(), entry.attributes()))
-                                .map(entry -> entry.file());
-        } catch (Error|RuntimeException e) {
-            iterator.close();
-            throw e;
-        }
+        FileTreeSpliterator spliterator =
+            new FileTreeSpliterator(start, maxDepth, options);
+        return StreamSupport.stream(spliterator, false)
+                            .onClose(spliterator::close)
+                            .filter(entry -> matcher.test(entry.file(), entry.attributes()))
+                            .map(entry -> entry.file());
     }
 
     /**
@@ -27,6 +27,8 @@ package java.nio.file;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -171,4 +173,64 @@ public interface WatchService
      *          if interrupted while waiting
      */
     WatchKey take() throws InterruptedException;
+
+    /**
+     * Retrieves and removes all watch keys that are present.
+     *
+     * @implSpec The default implementation invokes {@link #poll() poll}
+     * until it returns {@code null}.
+     *
+     * @return  the keys, in the order in which they were queued; an empty
+     *          list if none are present
+     *
+     * @throws  ClosedWatchServiceException
+     *          if this watch service is closed
+     *
+     * @since 1.8
+     */
+    default List<WatchKey> pollAll() {
+        List<WatchKey> keys = new ArrayList<>();
+        WatchKey key;
+        while ((key = poll()) != null)
+            keys.add(key);
+        return keys;
+    }
+
+    /**
+     * Retrieves and removes all watch keys that are present, waiting if
+     * necessary up to the specified wait time for the first key if none are
+     * yet present.
+     *
+     * @implSpec The default implementation invokes {@link
+     * #poll(long,TimeUnit) poll(timeout, unit)} for the first key and then
+     * {@link #poll() poll} until it returns {@code null}.
+     *
+     * @param   timeout
+     *          how to wait before giving up, in units of unit
+     * @param   unit
+     *          a {@code TimeUnit} determining how to interpret the timeout
+     *          parameter
+     *
+     * @return  the keys, in the order in which they were queued; an empty
+     *          list if the wait time elapsed before a key was present
+     *
+     * @throws  ClosedWatchServiceException
+     *          if this watch service is closed, or it is closed while waiting
+     *          for the first key
+     * @throws  InterruptedException
+     *          if interrupted while waiting
+     *
+     * @since 1.8
+     */
+    default List<WatchKey> pollAll(long timeout, TimeUnit unit)
+        throws InterruptedException
+    {
+        List<WatchKey> keys = new ArrayList<>();
+        WatchKey key = poll(timeout, unit);
+        while (key != null) {
+            keys.add(key);
+            key = poll();
+        }
+        return keys;
+    }
 }
@@ -0,0 +1,655 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An open-addressing hash map from {@code int} keys to {@code int} values.
+ * Keys and values are held in parallel primitive arrays, so unlike a
+ * <tt>HashMap&lt;Integer,Integer&gt;</tt> no boxing is performed and no
+ * per-entry node is allocated: once the table has grown to its working
+ * size, <tt>get</tt>, <tt>put</tt>, <tt>merge</tt> and <tt>remove</tt>
+ * allocate nothing.
+ *
+ * <p>Collisions are resolved by linear probing and removals use backward
+ * shift deletion, so there are no tombstones and lookup cost does not
+ * degrade after many removals.  The key {@code 0} is used internally to
+ * mark empty slots and is therefore stored out of line; it is nevertheless
+ * a perfectly valid key.
+ *
+ * <p>Since there is no way to distinguish an absent mapping from a mapping
+ * to {@code 0} through {@link #get}, callers that care should use
+ * {@link #containsKey} or {@link #getOrDefault}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * The spliterators returned by {@link #keySpliterator} and
+ * {@link #valueSpliterator} are <em>fail-fast</em> on a best-effort basis.
+ *
+ * @see HashMap
+ * @since 1.8
+ */
+public class IntIntHashMap {
+
+    /**
+     * The default initial capacity, in mappings.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The maximum table length.  One slot is always kept empty so that
+     * probing terminates.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor used when none specified in constructor.  Linear
+     * probing degrades quickly above about 0.7, so this is lower than
+     * the <tt>HashMap</tt> default.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    /**
+     * The keys, indexed by slot.  A zero entry marks an empty slot.
+     * Length is always a power of two.
+     */
+    transient int[] keys;
+
+    /**
+     * The values, indexed by slot.
+     */
+    transient int[] vals;
+
+    /**
+     * Whether the key {@code 0} is present, and its value.
+     */
+    transient boolean hasZeroKey;
+    transient int zeroValue;
+
+    /**
+     * The number of key-value mappings contained in this map.
+     */
+    transient int size;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The size at which the table is doubled.
+     */
+    int threshold;
+
+    /**
+     * The load factor for the hash table.
+     */
+    final float loadFactor;
+
+    /**
+     * Constructs an empty map with the specified initial capacity and
+     * load factor.
+     *
+     * @param  initialCapacity the number of mappings the map should hold
+     *         without resizing
+     * @param  loadFactor      the load factor, strictly between 0 and 1
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not in range
+     */
+    public IntIntHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor((int)Math.min(MAXIMUM_CAPACITY,
+                                            (long)Math.ceil(initialCapacity / (double)loadFactor) + 1)));
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and
+     * the default load factor (0.5).
+     *
+     * @param  initialCapacity the number of mappings the map should hold
+     *         without resizing
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IntIntHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and
+     * the default load factor (0.5).
+     */
+    public IntIntHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Spreads the key over the table.  Multiplication by the golden ratio
+     * followed by folding the high bits down keeps sequential keys from
+     * forming long probe runs.
+     */
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns a power of two size for the given target capacity.
+     */
+    static int tableSizeFor(int cap) {
+        int n = HashMap.tableSizeFor(cap);
+        return (n < 2) ? 2 : n;
+    }
+
+    private void allocate(int n) {
+        keys = new int[n];
+        vals = new int[n];
+        threshold = (n == MAXIMUM_CAPACITY) ? n - 1 : (int)(n * loadFactor);
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or -1.
+     */
+    final int indexOf(int key) {
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int k = ks[i];
+            if (k == key)
+                return i;
+            if (k == 0)
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains no key-value mappings.
+     *
+     * @return <tt>true</tt> if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains a mapping for the
+     * specified key.
+     *
+     * @param  key the key whose presence in this map is to be tested
+     * @return <tt>true</tt> if this map contains a mapping for the key
+     */
+    public boolean containsKey(int key) {
+        return (key == 0) ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code 0} if this map contains no mapping for the key.
+     *
+     * @param  key the key whose associated value is to be returned
+     * @return the mapped value, or {@code 0}
+     */
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param  key the key whose associated value is to be returned
+     * @param  defaultValue the value to return if there is no mapping
+     * @return the mapped value, or {@code defaultValue}
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : defaultValue;
+        int i = indexOf(key);
+        return (i < 0) ? defaultValue : vals[i];
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing any previous value.
+     *
+     * @param  key key with which the specified value is to be associated
+     * @param  value value to be associated with the specified key
+     * @return the previous value associated with <tt>key</tt>, or
+     *         {@code 0} if there was no mapping for <tt>key</tt>
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++modCount;
+                ++size;
+            }
+            return old;
+        }
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int k = ks[i];
+            if (k == key) {
+                int old = vals[i];
+                vals[i] = value;
+                return old;
+            }
+            if (k == 0) {
+                // keep a free slot so that probes always terminate
+                if (size >= threshold && ks.length == MAXIMUM_CAPACITY)
+                    throw new IllegalStateException("Map is full");
+                ks[i] = key;
+                vals[i] = value;
+                ++modCount;
+                if (++size > threshold)
+                    resize();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return the previous value associated with <tt>key</tt>, or
+     *         {@code 0} if there was no mapping for <tt>key</tt>
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return 0;
+            int old = zeroValue;
+            hasZeroKey = false;
+            zeroValue = 0;
+            ++modCount;
+            --size;
+            return old;
+        }
+        int i = indexOf(key);
+        if (i < 0)
+            return 0;
+        int old = vals[i];
+        removeAt(i);
+        return old;
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.  Otherwise, replaces the
+     * associated value with the result of the given remapping function.
+     * A typical use is counting: {@code map.merge(k, 1, Integer::sum)}.
+     *
+     * @param  key key with which the resulting value is to be associated
+     * @param  value the value to use if absent
+     * @param  remappingFunction the function to recompute a value if present
+     * @return the new value associated with the specified key
+     * @throws NullPointerException if the remapping function is null
+     */
+    public int merge(int key, int value, IntBinaryOperator remappingFunction) {
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        if (key == 0) {
+            int v = hasZeroKey ? remappingFunction.applyAsInt(zeroValue, value)
+                               : value;
+            put(0, v);
+            return v;
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            put(key, value);
+            return value;
+        }
+        int v = remappingFunction.applyAsInt(vals[i], value);
+        vals[i] = v;
+        return v;
+    }
+
+    /**
+     * Computes a new value for the specified key from its current value,
+     * or from {@code 0} if there is no current mapping, and stores it.
+     *
+     * @param  key key with which the resulting value is to be associated
+     * @param  remappingFunction the function to compute a value
+     * @return the new value associated with the specified key
+     * @throws NullPointerException if the remapping function is null
+     */
+    public int compute(int key, IntUnaryOperator remappingFunction) {
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        int i;
+        if (key != 0 && (i = indexOf(key)) >= 0) {
+            int v = remappingFunction.applyAsInt(vals[i]);
+            vals[i] = v;
+            return v;
+        }
+        int v = remappingFunction.applyAsInt(key == 0 ? zeroValue : 0);
+        put(key, v);
+        return v;
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * computes its value using the given mapping function and enters it
+     * into this map.
+     *
+     * @param  key key with which the specified value is to be associated
+     * @param  mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the specified key
+     * @throws NullPointerException if the mapping function is null
+     */
+    public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        if (key == 0) {
+            if (hasZeroKey)
+                return zeroValue;
+        } else {
+            int i = indexOf(key);
+            if (i >= 0)
+                return vals[i];
+        }
+        int v = mappingFunction.applyAsInt(key);
+        put(key, v);
+        return v;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            ++modCount;
+            Arrays.fill(keys, 0);
+            Arrays.fill(vals, 0);
+            hasZeroKey = false;
+            zeroValue = 0;
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs the given action for each mapping in this map.
+     *
+     * @param  action the action to be performed for each mapping
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified during iteration
+     */
+    public void forEach(EntryConsumer action) {
+        if (action == null)
+            throw new NullPointerException();
+        int mc = modCount;
+        if (hasZeroKey)
+            action.accept(0, zeroValue);
+        int[] ks = keys, vs = vals;
+        for (int i = 0; i < ks.length && mc == modCount; ++i) {
+            if (ks[i] != 0)
+                action.accept(ks[i], vs[i]);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfInt} over the keys in this map.
+     *
+     * @return a spliterator over the keys in this map
+     */
+    public Spliterator.OfInt keySpliterator() {
+        return new IntIntSpliterator(this, false, 0, -1, 0);
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfInt} over the values in this map.
+     *
+     * @return a spliterator over the values in this map
+     */
+    public Spliterator.OfInt valueSpliterator() {
+        return new IntIntSpliterator(this, true, 0, -1, 0);
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} of the keys in this map.
+     *
+     * @return a stream of the keys in this map
+     */
+    public IntStream keyStream() {
+        return StreamSupport.intStream(keySpliterator(), false);
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} of the values in this map.
+     *
+     * @return a stream of the values in this map
+     */
+    public IntStream valueStream() {
+        return StreamSupport.intStream(valueSpliterator(), false);
+    }
+
+    /**
+     * Returns a string representation of this map in the same form
+     * as {@link AbstractMap#toString}.
+     */
+    public String toString() {
+        if (size == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder().append('{');
+        forEach((k, v) -> {
+            if (sb.length() > 1)
+                sb.append(',').append(' ');
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Doubles the table and reinserts all non-zero keys.
+     */
+    final void resize() {
+        int[] oldKeys = keys, oldVals = vals;
+        int oldCap = oldKeys.length;
+        if (oldCap >= MAXIMUM_CAPACITY) {
+            return;                 // add refuses before the table fills
+        }
+        allocate(oldCap << 1);
+        int[] ks = keys, vs = vals;
+        int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; ++j) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = hash(k) & mask;
+                while (ks[i] != 0)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldVals[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at slot i, shifting later members of the probe
+     * run back so that lookups never need to skip deleted slots.
+     */
+    final void removeAt(int i) {
+        int[] ks = keys, vs = vals;
+        int mask = ks.length - 1;
+        int gap = i;
+        for (int j = (i + 1) & mask;; j = (j + 1) & mask) {
+            int k = ks[j];
+            if (k == 0)
+                break;
+            // move k into the gap unless its home slot lies after the gap
+            if (((j - (hash(k) & mask)) & mask) >= ((j - gap) & mask)) {
+                ks[gap] = k;
+                vs[gap] = vs[j];
+                gap = j;
+            }
+        }
+        ks[gap] = 0;
+        vs[gap] = 0;
+        ++modCount;
+        --size;
+    }
+
+    /**
+     * An operation that accepts a key and its value.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(int key, int value);
+    }
+
+    /**
+     * Spliterator over keys or values.  Slot indices range over
+     * [0, keys.length]; the extra index keys.length stands for the
+     * out-of-line zero key.
+     */
+    static final class IntIntSpliterator implements Spliterator.OfInt {
+        final IntIntHashMap map;
+        final boolean values;       // report values rather than keys
+        int[] tab;                  // key table, bound on first use
+        int index;                  // current index, modified on advance/split
+        int fence;                  // one past last index
+        int est;                    // size estimate
+        int expectedModCount;       // for comodification checks
+
+        IntIntSpliterator(IntIntHashMap map, boolean values, int origin,
+                          int fence, int est) {
+            this.map = map;
+            this.values = values;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+        }
+
+        final int getFence() { // initialize fence and size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                IntIntHashMap m = map;
+                est = m.size;
+                expectedModCount = m.modCount;
+                tab = m.keys;
+                hi = fence = tab.length + 1;
+            }
+            return hi;
+        }
+
+        public IntIntSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            IntIntSpliterator s =
+                new IntIntSpliterator(map, values, lo, index = mid, est >>>= 1);
+            s.tab = tab;
+            s.expectedModCount = expectedModCount;
+            return s;
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence();
+            IntIntHashMap m = map;
+            int[] ks = tab;
+            while (index < hi) {
+                int i = index++;
+                if (i == ks.length) {
+                    if (!m.hasZeroKey)
+                        continue;
+                    action.accept(values ? m.zeroValue : 0);
+                } else if (ks[i] != 0) {
+                    action.accept(values ? m.vals[i] : ks[i]);
+                } else {
+                    continue;
+                }
+                if (m.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence();
+            IntIntHashMap m = map;
+            int[] ks = tab, vs = m.vals;
+            int i = index;
+            index = hi;
+            for (; i < hi; ++i) {
+                if (i == ks.length) {
+                    if (m.hasZeroKey)
+                        action.accept(values ? m.zeroValue : 0);
+                } else if (ks[i] != 0) {
+                    action.accept(values ? vs[i] : ks[i]);
+                }
+            }
+            if (m.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+                (values ? 0 : Spliterator.DISTINCT);
+        }
+    }
+}
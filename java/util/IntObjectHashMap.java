@@ -0,0 +1,617 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An open-addressing hash map from {@code int} keys to object values.
+ * Keys are held in a primitive array parallel to the value array, so
+ * unlike a <tt>HashMap&lt;Integer,V&gt;</tt> no key is ever boxed and no
+ * per-entry node is allocated: once the table has grown to its working
+ * size, <tt>get</tt>, <tt>put</tt> and <tt>remove</tt> allocate nothing.
+ *
+ * <p>Collisions are resolved by linear probing and removals use backward
+ * shift deletion, so there are no tombstones.  The key {@code 0} is used
+ * internally to mark empty slots and is therefore stored out of line; it
+ * is nevertheless a perfectly valid key.
+ *
+ * <p>Like {@link java.util.concurrent.ConcurrentHashMap}, this class does
+ * <em>not</em> allow {@code null} to be used as a value, so that
+ * {@link #get} returning {@code null} unambiguously means there is no
+ * mapping, and a {@code null} result from {@link #merge} or
+ * {@link #compute} removes the mapping.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * The spliterator returned by {@link #keySpliterator} is <em>fail-fast</em>
+ * on a best-effort basis.
+ *
+ * @param <V> the type of mapped values
+ * @see HashMap
+ * @see IntIntHashMap
+ * @since 1.8
+ */
+public class IntObjectHashMap<V> {
+
+    /**
+     * The default initial capacity, in mappings.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The maximum table length.  One slot is always kept empty so that
+     * probing terminates.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor used when none specified in constructor.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    /**
+     * The keys, indexed by slot.  A zero entry marks an empty slot.
+     * Length is always a power of two.
+     */
+    transient int[] keys;
+
+    /**
+     * The values, indexed by slot; null exactly where the key is empty.
+     */
+    transient Object[] vals;
+
+    /**
+     * The value of the key {@code 0}, or null if it is absent.
+     */
+    transient V zeroValue;
+
+    /**
+     * The number of key-value mappings contained in this map.
+     */
+    transient int size;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The size at which the table is doubled.
+     */
+    int threshold;
+
+    /**
+     * The load factor for the hash table.
+     */
+    final float loadFactor;
+
+    /**
+     * Constructs an empty map with the specified initial capacity and
+     * load factor.
+     *
+     * @param  initialCapacity the number of mappings the map should hold
+     *         without resizing
+     * @param  loadFactor      the load factor, strictly between 0 and 1
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not in range
+     */
+    public IntObjectHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(IntIntHashMap.tableSizeFor((int)Math.min(MAXIMUM_CAPACITY,
+                                            (long)Math.ceil(initialCapacity / (double)loadFactor) + 1)));
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and
+     * the default load factor (0.5).
+     *
+     * @param  initialCapacity the number of mappings the map should hold
+     *         without resizing
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IntObjectHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and
+     * the default load factor (0.5).
+     */
+    public IntObjectHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    private void allocate(int n) {
+        keys = new int[n];
+        vals = new Object[n];
+        threshold = (n == MAXIMUM_CAPACITY) ? n - 1 : (int)(n * loadFactor);
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or -1.
+     */
+    final int indexOf(int key) {
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = IntIntHashMap.hash(key) & mask;; i = (i + 1) & mask) {
+            int k = ks[i];
+            if (k == key)
+                return i;
+            if (k == 0)
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains no key-value mappings.
+     *
+     * @return <tt>true</tt> if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains a mapping for the
+     * specified key.
+     *
+     * @param  key the key whose presence in this map is to be tested
+     * @return <tt>true</tt> if this map contains a mapping for the key
+     */
+    public boolean containsKey(int key) {
+        return (key == 0) ? zeroValue != null : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code null} if this map contains no mapping for the key.
+     *
+     * @param  key the key whose associated value is to be returned
+     * @return the mapped value, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == 0)
+            return zeroValue;
+        int i = indexOf(key);
+        return (i < 0) ? null : (V)vals[i];
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param  key the key whose associated value is to be returned
+     * @param  defaultValue the value to return if there is no mapping
+     * @return the mapped value, or {@code defaultValue}
+     */
+    public V getOrDefault(int key, V defaultValue) {
+        V v;
+        return ((v = get(key)) == null) ? defaultValue : v;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing any previous value.
+     *
+     * @param  key key with which the specified value is to be associated
+     * @param  value value to be associated with the specified key
+     * @return the previous value associated with <tt>key</tt>, or
+     *         {@code null} if there was no mapping for <tt>key</tt>
+     * @throws NullPointerException if the value is null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        if (key == 0) {
+            V old = zeroValue;
+            zeroValue = value;
+            if (old == null) {
+                ++modCount;
+                ++size;
+            }
+            return old;
+        }
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = IntIntHashMap.hash(key) & mask;; i = (i + 1) & mask) {
+            int k = ks[i];
+            if (k == key) {
+                V old = (V)vals[i];
+                vals[i] = value;
+                return old;
+            }
+            if (k == 0) {
+                // keep a free slot so that probes always terminate
+                if (size >= threshold && ks.length == MAXIMUM_CAPACITY)
+                    throw new IllegalStateException("Map is full");
+                ks[i] = key;
+                vals[i] = value;
+                ++modCount;
+                if (++size > threshold)
+                    resize();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return the previous value associated with <tt>key</tt>, or
+     *         {@code null} if there was no mapping for <tt>key</tt>
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == 0) {
+            V old = zeroValue;
+            if (old != null) {
+                zeroValue = null;
+                ++modCount;
+                --size;
+            }
+            return old;
+        }
+        int i = indexOf(key);
+        if (i < 0)
+            return null;
+        V old = (V)vals[i];
+        removeAt(i);
+        return old;
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.  Otherwise, replaces the
+     * associated value with the result of the given remapping function,
+     * or removes it if the result is {@code null}.
+     *
+     * @param  key key with which the resulting value is to be associated
+     * @param  value the value to use if absent
+     * @param  remappingFunction the function to recompute a value if present
+     * @return the new value associated with the specified key, or null if
+     *         no value is associated with the key
+     * @throws NullPointerException if the value or remapping function is
+     *         null
+     */
+    @SuppressWarnings("unchecked")
+    public V merge(int key, V value,
+                   BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null || remappingFunction == null)
+            throw new NullPointerException();
+        V old = get(key);
+        V v = (old == null) ? value : remappingFunction.apply(old, value);
+        if (v == null)
+            remove(key);
+        else
+            put(key, v);
+        return v;
+    }
+
+    /**
+     * Computes a new value for the specified key from its current value,
+     * or from {@code null} if there is no current mapping.  If the result
+     * is {@code null} the mapping is removed.
+     *
+     * @param  key key with which the resulting value is to be associated
+     * @param  remappingFunction the function to compute a value
+     * @return the new value associated with the specified key, or null if
+     *         none
+     * @throws NullPointerException if the remapping function is null
+     */
+    public V compute(int key,
+                     Function<? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        V v = remappingFunction.apply(get(key));
+        if (v == null)
+            remove(key);
+        else
+            put(key, v);
+        return v;
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * computes its value using the given mapping function and enters it
+     * into this map unless {@code null}.
+     *
+     * @param  key key with which the specified value is to be associated
+     * @param  mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the specified key, or null if the computed value is null
+     * @throws NullPointerException if the mapping function is null
+     */
+    public V computeIfAbsent(int key,
+                             IntFunction<? extends V> mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        V v;
+        if ((v = get(key)) == null &&
+            (v = mappingFunction.apply(key)) != null)
+            put(key, v);
+        return v;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            ++modCount;
+            Arrays.fill(keys, 0);
+            Arrays.fill(vals, null);
+            zeroValue = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs the given action for each mapping in this map.
+     *
+     * @param  action the action to be performed for each mapping
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified during iteration
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (action == null)
+            throw new NullPointerException();
+        int mc = modCount;
+        if (zeroValue != null)
+            action.accept(0, zeroValue);
+        int[] ks = keys;
+        Object[] vs = vals;
+        for (int i = 0; i < ks.length && mc == modCount; ++i) {
+            if (ks[i] != 0)
+                action.accept(ks[i], (V)vs[i]);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfInt} over the keys in this map.
+     *
+     * @return a spliterator over the keys in this map
+     */
+    public Spliterator.OfInt keySpliterator() {
+        return new KeySpliterator(this, 0, -1, 0);
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} of the keys in this map.
+     *
+     * @return a stream of the keys in this map
+     */
+    public IntStream keyStream() {
+        return StreamSupport.intStream(keySpliterator(), false);
+    }
+
+    /**
+     * Returns a string representation of this map in the same form
+     * as {@link AbstractMap#toString}.
+     */
+    public String toString() {
+        if (size == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder().append('{');
+        forEach((k, v) -> {
+            if (sb.length() > 1)
+                sb.append(',').append(' ');
+            sb.append(k).append('=').append(v == this ? "(this Map)" : v);
+        });
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Doubles the table and reinserts all non-zero keys.
+     */
+    final void resize() {
+        int[] oldKeys = keys;
+        Object[] oldVals = vals;
+        int oldCap = oldKeys.length;
+        if (oldCap >= MAXIMUM_CAPACITY) {
+            return;                 // add refuses before the table fills
+        }
+        allocate(oldCap << 1);
+        int[] ks = keys;
+        Object[] vs = vals;
+        int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; ++j) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = IntIntHashMap.hash(k) & mask;
+                while (ks[i] != 0)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldVals[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at slot i, shifting later members of the probe
+     * run back so that lookups never need to skip deleted slots.
+     */
+    final void removeAt(int i) {
+        int[] ks = keys;
+        Object[] vs = vals;
+        int mask = ks.length - 1;
+        int gap = i;
+        for (int j = (i + 1) & mask;; j = (j + 1) & mask) {
+            int k = ks[j];
+            if (k == 0)
+                break;
+            // move k into the gap unless its home slot lies after the gap
+            if (((j - (IntIntHashMap.hash(k) & mask)) & mask) >= ((j - gap) & mask)) {
+                ks[gap] = k;
+                vs[gap] = vs[j];
+                gap = j;
+            }
+        }
+        ks[gap] = 0;
+        vs[gap] = null;
+        ++modCount;
+        --size;
+    }
+
+    /**
+     * An operation that accepts a key and its value.
+     *
+     * @param <V> the type of mapped values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(int key, V value);
+    }
+
+    /**
+     * Spliterator over keys.  Slot indices range over [0, keys.length];
+     * the extra index keys.length stands for the out-of-line zero key.
+     */
+    static final class KeySpliterator implements Spliterator.OfInt {
+        final IntObjectHashMap<?> map;
+        int[] tab;                  // key table, bound on first use
+        int index;                  // current index, modified on advance/split
+        int fence;                  // one past last index
+        int est;                    // size estimate
+        int expectedModCount;       // for comodification checks
+
+        KeySpliterator(IntObjectHashMap<?> map, int origin, int fence,
+                       int est) {
+            this.map = map;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+        }
+
+        final int getFence() { // initialize fence and size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                IntObjectHashMap<?> m = map;
+                est = m.size;
+                expectedModCount = m.modCount;
+                tab = m.keys;
+                hi = fence = tab.length + 1;
+            }
+            return hi;
+        }
+
+        public KeySpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            KeySpliterator s = new KeySpliterator(map, lo, index = mid,
+                                                  est >>>= 1);
+            s.tab = tab;
+            s.expectedModCount = expectedModCount;
+            return s;
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence();
+            int[] ks = tab;
+            while (index < hi) {
+                int i = index++;
+                if (i == ks.length) {
+                    if (map.zeroValue == null)
+                        continue;
+                    action.accept(0);
+                } else if (ks[i] != 0) {
+                    action.accept(ks[i]);
+                } else {
+                    continue;
+                }
+                if (map.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence();
+            int[] ks = tab;
+            int i = index;
+            index = hi;
+            for (; i < hi; ++i) {
+                if (i == ks.length) {
+                    if (map.zeroValue != null)
+                        action.accept(0);
+                } else if (ks[i] != 0) {
+                    action.accept(ks[i]);
+                }
+            }
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT;
+        }
+    }
+}
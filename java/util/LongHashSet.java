@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An open-addressing hash set of {@code long} values.  This is the set
+ * counterpart of {@link LongLongHashMap}: elements are stored unboxed in a
+ * single primitive array, probed linearly, and removed by backward shift
+ * deletion, so <tt>add</tt>, <tt>contains</tt> and <tt>remove</tt>
+ * allocate nothing once the table has grown to its working size.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * The spliterator returned by {@link #spliterator} is <em>fail-fast</em>
+ * on a best-effort basis.
+ *
+ * @see HashSet
+ * @since 1.8
+ */
+public class LongHashSet {
+
+    /**
+     * The elements, indexed by slot.  A zero entry marks an empty slot;
+     * the element {@code 0} itself is tracked by {@code hasZero}.
+     */
+    transient long[] elements;
+    transient boolean hasZero;
+    transient int size;
+    transient int modCount;
+    int threshold;
+    final float loadFactor;
+
+    /**
+     * Constructs an empty set with the specified initial capacity and
+     * load factor.
+     *
+     * @param  initialCapacity the number of elements the set should hold
+     *         without resizing
+     * @param  loadFactor      the load factor, strictly between 0 and 1
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not in range
+     */
+    public LongHashSet(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (!(loadFactor > 0.0f && loadFactor < 1.0f))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(LongLongHashMap.tableSizeFor((int)Math.min(LongLongHashMap.MAXIMUM_CAPACITY,
+                                            (long)Math.ceil(initialCapacity / (double)loadFactor) + 1)));
+    }
+
+    /**
+     * Constructs an empty set with the specified initial capacity and
+     * the default load factor (0.5).
+     *
+     * @param  initialCapacity the number of elements the set should hold
+     *         without resizing
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public LongHashSet(int initialCapacity) {
+        this(initialCapacity, LongLongHashMap.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty set with the default initial capacity (16) and
+     * the default load factor (0.5).
+     */
+    public LongHashSet() {
+        this(LongLongHashMap.DEFAULT_INITIAL_CAPACITY,
+             LongLongHashMap.DEFAULT_LOAD_FACTOR);
+    }
+
+    private void allocate(int n) {
+        elements = new long[n];
+        threshold = (n == LongLongHashMap.MAXIMUM_CAPACITY) ? n - 1
+            : (int)(n * loadFactor);
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains no elements.
+     *
+     * @return <tt>true</tt> if this set contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains the specified element.
+     *
+     * @param  e element whose presence in this set is to be tested
+     * @return <tt>true</tt> if this set contains the specified element
+     */
+    public boolean contains(long e) {
+        if (e == 0)
+            return hasZero;
+        long[] es = elements;
+        int mask = es.length - 1;
+        for (int i = LongLongHashMap.hash(e) & mask;; i = (i + 1) & mask) {
+            long x = es[i];
+            if (x == e)
+                return true;
+            if (x == 0)
+                return false;
+        }
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     *
+     * @param  e element to be added to this set
+     * @return <tt>true</tt> if this set did not already contain the element
+     */
+    public boolean add(long e) {
+        if (e == 0) {
+            if (hasZero)
+                return false;
+            hasZero = true;
+        } else {
+            long[] es = elements;
+            int mask = es.length - 1;
+            int i = LongLongHashMap.hash(e) & mask;
+            for (long x; (x = es[i]) != 0; i = (i + 1) & mask) {
+                if (x == e)
+                    return false;
+            }
+            // keep a free slot so that probes always terminate
+            if (size >= threshold && es.length == LongLongHashMap.MAXIMUM_CAPACITY)
+                throw new IllegalStateException("Set is full");
+            es[i] = e;
+        }
+        ++modCount;
+        if (++size > threshold)
+            resize();
+        return true;
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param  e element to be removed from this set, if present
+     * @return <tt>true</tt> if the set contained the specified element
+     */
+    public boolean remove(long e) {
+        if (e == 0) {
+            if (!hasZero)
+                return false;
+            hasZero = false;
+            ++modCount;
+            --size;
+            return true;
+        }
+        long[] es = elements;
+        int mask = es.length - 1;
+        int i = LongLongHashMap.hash(e) & mask;
+        for (long x; (x = es[i]) != e; i = (i + 1) & mask) {
+            if (x == 0)
+                return false;
+        }
+        int gap = i;
+        for (int j = (i + 1) & mask;; j = (j + 1) & mask) {
+            long x = es[j];
+            if (x == 0)
+                break;
+            // move x into the gap unless its home slot lies after the gap
+            if (((j - (LongLongHashMap.hash(x) & mask)) & mask) >= ((j - gap) & mask)) {
+                es[gap] = x;
+                gap = j;
+            }
+        }
+        es[gap] = 0;
+        ++modCount;
+        --size;
+        return true;
+    }
+
+    /**
+     * Removes all of the elements from this set.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            ++modCount;
+            Arrays.fill(elements, 0);
+            hasZero = false;
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs the given action for each element of this set.
+     *
+     * @param  action the action to be performed for each element
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the set is structurally
+     *         modified during iteration
+     */
+    public void forEach(LongConsumer action) {
+        spliterator().forEachRemaining(action);
+    }
+
+    /**
+     * Returns the elements of this set in a new array.
+     *
+     * @return an array containing all the elements in this set
+     */
+    public long[] toArray() {
+        long[] a = new long[size];
+        int n = 0;
+        if (hasZero)
+            n++;
+        for (long x : elements) {
+            if (x != 0)
+                a[n++] = x;
+        }
+        return a;
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfLong} over the elements in this set.
+     *
+     * @return a spliterator over the elements in this set
+     */
+    public Spliterator.OfLong spliterator() {
+        return new SetSpliterator(this, 0, -1, 0);
+    }
+
+    /**
+     * Returns a sequential {@code LongStream} with this set as its source.
+     *
+     * @return a sequential stream over the elements in this set
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a string representation of this set in the same form
+     * as {@link AbstractCollection#toString}.
+     */
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Doubles the table and reinserts all non-zero elements.
+     */
+    final void resize() {
+        long[] old = elements;
+        int oldCap = old.length;
+        if (oldCap >= LongLongHashMap.MAXIMUM_CAPACITY) {
+            return;                 // add refuses before the table fills
+        }
+        allocate(oldCap << 1);
+        long[] es = elements;
+        int mask = es.length - 1;
+        for (long x : old) {
+            if (x != 0) {
+                int i = LongLongHashMap.hash(x) & mask;
+                while (es[i] != 0)
+                    i = (i + 1) & mask;
+                es[i] = x;
+            }
+        }
+    }
+
+    /**
+     * Spliterator over elements.  Slot indices range over
+     * [0, elements.length]; the extra index elements.length stands for
+     * the out-of-line zero element.
+     */
+    static final class SetSpliterator implements Spliterator.OfLong {
+        final LongHashSet set;
+        long[] tab;                  // element table, bound on first use
+        int index;                  // current index, modified on advance/split
+        int fence;                  // one past last index
+        int est;                    // size estimate
+        int expectedModCount;       // for comodification checks
+
+        SetSpliterator(LongHashSet set, int origin, int fence, int est) {
+            this.set = set;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+        }
+
+        final int getFence() { // initialize fence and size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                LongHashSet s = set;
+                est = s.size;
+                expectedModCount = s.modCount;
+                tab = s.elements;
+                hi = fence = tab.length + 1;
+            }
+            return hi;
+        }
+
+        public SetSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            SetSpliterator s = new SetSpliterator(set, lo, index = mid,
+                                                  est >>>= 1);
+            s.tab = tab;
+            s.expectedModCount = expectedModCount;
+            return s;
+        }
+
+        public boolean tryAdvance(LongConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence();
+            long[] es = tab;
+            while (index < hi) {
+                int i = index++;
+                if (i == es.length) {
+                    if (!set.hasZero)
+                        continue;
+                    action.accept(0L);
+                } else if (es[i] != 0) {
+                    action.accept(es[i]);
+                } else {
+                    continue;
+                }
+                if (set.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(LongConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence();
+            long[] es = tab;
+            int i = index;
+            index = hi;
+            for (; i < hi; ++i) {
+                if (i == es.length) {
+                    if (set.hasZero)
+                        action.accept(0L);
+                } else if (es[i] != 0) {
+                    action.accept(es[i]);
+                }
+            }
+            if (set.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == set.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT;
+        }
+    }
+}
@@ -37,12 +37,14 @@ package java.util.concurrent;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.AbstractQueue;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.lang.ref.WeakReference;
 import java.util.Spliterators;
 import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * A bounded {@linkplain BlockingQueue blocking queue} backed by an
@@ -165,6 +167,29 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         notEmpty.signal();
     }
 
+    /**
+     * Inserts {@code k} elements of {@code a}, starting at {@code from},
+     * at the current put position, and signals as many waiting takers
+     * as there are new elements.  Call only when holding lock and when
+     * there is space for all of them.
+     */
+    private void enqueueAll(Object[] a, int from, int k) {
+        // assert lock.getHoldCount() == 1;
+        // assert items.length - count >= k;
+        final Object[] items = this.items;
+        int put = putIndex;
+        int n = Math.min(k, items.length - put);
+        System.arraycopy(a, from, items, put, n);
+        if (n < k)
+            System.arraycopy(a, from + n, items, 0, k - n);
+        if ((put += k) >= items.length)
+            put -= items.length;
+        putIndex = put;
+        count += k;
+        for (; k > 0 && lock.hasWaiters(notEmpty); k--)
+            notEmpty.signal();
+    }
+
     /**
      * Extracts element at current take position, advances, and signals.
      * Call only when holding lock.
@@ -753,6 +778,132 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, waiting up to the specified wait time in total for space to
+     * become available.  Each run of elements for which there is space
+     * is inserted under a single acquisition of the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return insertAll(c, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, waiting if necessary for space to become available.  Each
+     * run of elements for which there is space is inserted under a
+     * single acquisition of the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public void putAll(Collection<? extends E> c) throws InterruptedException {
+        insertAll(c, false, 0L);
+    }
+
+    /**
+     * Common implementation of offerAll and putAll.
+     */
+    private int insertAll(Collection<? extends E> c, boolean timed, long nanos)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            checkNotNull(e);
+        if (a.length == 0)
+            return 0;
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int i = 0;
+            while (i < a.length) {
+                int k = Math.min(a.length - i, items.length - count);
+                if (k > 0) {
+                    enqueueAll(a, i, k);
+                    i += k;
+                } else if (!timed) {
+                    notFull.await();
+                } else if (nanos <= 0) {
+                    break;
+                } else {
+                    nanos = notFull.awaitNanos(nanos);
+                }
+            }
+            return i;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes up to {@code maxElements} elements from the
+     * head of this queue under a single acquisition of the lock, waiting
+     * up to the specified wait time for one to become available, and
+     * then performs the given action on each of them outside the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @since 1.8
+     */
+    public int poll(int maxElements, long timeout, TimeUnit unit,
+                    Consumer<? super E> action) throws InterruptedException {
+        if (action == null)
+            throw new NullPointerException();
+        if (maxElements <= 0)
+            return 0;
+        long nanos = unit.toNanos(timeout);
+        final Object[] items = this.items;
+        final Object[] a;
+        int n;
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0)
+                    return 0;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            n = Math.min(maxElements, count);
+            a = new Object[n];
+            int take = takeIndex;
+            int k = Math.min(n, items.length - take);
+            System.arraycopy(items, take, a, 0, k);
+            Arrays.fill(items, take, take + k, null);
+            if (k < n) {
+                System.arraycopy(items, 0, a, k, n - k);
+                Arrays.fill(items, 0, n - k, null);
+            }
+            if ((take += n) >= items.length)
+                take -= items.length;
+            takeIndex = take;
+            count -= n;
+            if (itrs != null) {
+                if (count == 0)
+                    itrs.queueIsEmpty();
+                else if (n > take)
+                    itrs.takeIndexWrapped();
+            }
+            for (int i = n; i > 0 && lock.hasWaiters(notFull); i--)
+                notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") E x = (E) a[i];
+            action.accept(x);
+        }
+        return n;
+    }
+
     /**
      * Returns an iterator over the elements in this queue in proper sequence.
      * The elements will be returned in order from first (head) to last (tail).
@@ -35,8 +35,10 @@
 
 package java.util.concurrent;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Queue;
+import java.util.function.Consumer;
 
 /**
  * A {@link java.util.Queue} that additionally supports operations
@@ -373,4 +375,138 @@ public interface BlockingQueue<E> extends Queue<E> {
      *         it from being added to the specified collection
      */
     int drainTo(Collection<? super E> c, int maxElements);
+
+    /**
+     * Inserts the elements of the given collection into this queue, in
+     * the order returned by the collection's iterator, waiting up to the
+     * specified wait time in total if necessary for space to become
+     * available.  Returns the number of elements inserted, which is less
+     * than the size of the collection only if the wait time elapsed;
+     * elements not inserted are the trailing elements of the collection.
+     *
+     * <p>Implementations may insert each run of elements for which space
+     * is available while holding their lock once, and signal waiting
+     * consumers once per run rather than once per element.  The default
+     * implementation invokes {@link #offer(Object, long, TimeUnit)} for
+     * each element in turn with the time remaining.
+     *
+     * @param c the elements to insert
+     * @param timeout how long to wait in total before giving up, in units
+     *        of {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @return the number of elements inserted
+     * @throws InterruptedException if interrupted while waiting; elements
+     *         inserted before the interrupt remain in the queue
+     * @throws ClassCastException if the class of an element of the
+     *         collection prevents it from being added to this queue
+     * @throws NullPointerException if the collection or any of its
+     *         elements is null; in the latter case no element is inserted
+     * @throws IllegalArgumentException if the collection is this queue,
+     *         or some property of an element prevents it from being added
+     *         to this queue
+     * @since 1.8
+     */
+    default int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        int n = 0;
+        for (Object e : a) {
+            @SuppressWarnings("unchecked") E x = (E) e;
+            if (!offer(x, nanos, TimeUnit.NANOSECONDS))
+                break;
+            ++n;
+            nanos = deadline - System.nanoTime();
+        }
+        return n;
+    }
+
+    /**
+     * Inserts the elements of the given collection into this queue, in
+     * the order returned by the collection's iterator, waiting if
+     * necessary for space to become available.
+     *
+     * <p>The default implementation invokes {@link #put} for each
+     * element in turn.
+     *
+     * @param c the elements to insert
+     * @throws InterruptedException if interrupted while waiting; elements
+     *         inserted before the interrupt remain in the queue
+     * @throws ClassCastException if the class of an element of the
+     *         collection prevents it from being added to this queue
+     * @throws NullPointerException if the collection or any of its
+     *         elements is null; in the latter case no element is inserted
+     * @throws IllegalArgumentException if the collection is this queue,
+     *         or some property of an element prevents it from being added
+     *         to this queue
+     * @since 1.8
+     */
+    default void putAll(Collection<? extends E> c) throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        for (Object e : a) {
+            @SuppressWarnings("unchecked") E x = (E) e;
+            put(x);
+        }
+    }
+
+    /**
+     * Retrieves and removes up to {@code maxElements} elements from the
+     * head of this queue, waiting up to the specified wait time if
+     * necessary for at least one element to become available, and
+     * performs the given action on each of them in order.  The action is
+     * performed after the elements have been removed, so it may block or
+     * operate on this queue without holding up producers.
+     *
+     * <p>Unlike {@link #drainTo(Collection, int)}, this method waits when
+     * the queue is empty, making it suitable as the main loop of a
+     * consumer that processes elements in batches.  The default
+     * implementation waits for the first element with
+     * {@link #poll(long, TimeUnit)} and then removes further elements
+     * with {@link #poll()} while they are immediately available.
+     *
+     * @param maxElements the maximum number of elements to remove
+     * @param timeout how long to wait before giving up, in units of
+     *        {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @param action the action to perform on each element
+     * @return the number of elements removed, or zero if the specified
+     *         waiting time elapses before an element is available
+     * @throws InterruptedException if interrupted while waiting
+     * @throws NullPointerException if the action is null
+     * @since 1.8
+     */
+    default int poll(int maxElements, long timeout, TimeUnit unit,
+                     Consumer<? super E> action) throws InterruptedException {
+        if (action == null)
+            throw new NullPointerException();
+        if (maxElements <= 0)
+            return 0;
+        E e = poll(timeout, unit);
+        if (e == null)
+            return 0;
+        Object[] a = new Object[Math.min(maxElements, 64)];
+        a[0] = e;
+        int n = 1;
+        while (n < maxElements && (e = poll()) != null) {
+            if (n == a.length)
+                a = Arrays.copyOf(a, Math.min(maxElements, n << 1));
+            a[n++] = e;
+        }
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") E x = (E) a[i];
+            action.accept(x);
+        }
+        return n;
+    }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Common methods of the array-backed queues {@link SpscArrayQueue},
+ * {@link MpscArrayQueue} and {@link MpscUnboundedArrayQueue}.
+ *
+ * <p>Each subclass keeps a producer index and a consumer index that
+ * only ever increase, the difference being the number of elements.
+ * Waiting is by retrying {@code offer} or {@code poll} under a
+ * {@link WaitStrategy}, so that the non-blocking methods stay free of
+ * any signalling.
+ *
+ * @param <E> the type of elements held in this queue
+ */
+abstract class ConcurrentArrayQueue<E> extends AbstractQueue<E> {
+
+    final WaitStrategy waitStrategy;
+
+    ConcurrentArrayQueue(WaitStrategy waitStrategy) {
+        if (waitStrategy == null)
+            throw new NullPointerException();
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns the smallest power of two not less than {@code capacity}.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is less than
+     *         {@code min} or greater than {@code 1 << 30}
+     */
+    static int roundCapacity(int capacity, int min) {
+        if (capacity < min || capacity > (1 << 30))
+            throw new IllegalArgumentException();
+        return capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /** Returns the consumer index with a volatile read. */
+    abstract long consumerIndex();
+
+    /** Returns the producer index with a volatile read. */
+    abstract long producerIndex();
+
+    /**
+     * Returns the element at the given index if it is still in the
+     * queue, otherwise (or if it is not yet visible) {@code null}.
+     * Used only by iterators.
+     */
+    abstract Object elementAt(long index);
+
+    /**
+     * Inserts the specified element, waiting if necessary for space to
+     * become available.
+     *
+     * @param e the element to add
+     * @throws InterruptedException if interrupted while waiting
+     * @throws NullPointerException if the specified element is null
+     */
+    public void put(E e) throws InterruptedException {
+        for (int n = 0; !offer(e); ++n) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            waitStrategy.idle(n);
+        }
+    }
+
+    /**
+     * Inserts the specified element, waiting up to the specified wait
+     * time if necessary for space to become available.
+     *
+     * @param e the element to add
+     * @param timeout how long to wait before giving up, in units of
+     *        {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @return {@code true} if successful, or {@code false} if
+     *         the specified waiting time elapses before space is available
+     * @throws InterruptedException if interrupted while waiting
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (offer(e))
+            return true;
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int n = 0; !offer(e); ++n) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (deadline - System.nanoTime() <= 0L)
+                return false;
+            waitStrategy.idle(n);
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if necessary
+     * until an element becomes available.
+     *
+     * @return the head of this queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public E take() throws InterruptedException {
+        E e;
+        for (int n = 0; (e = poll()) == null; ++n) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            waitStrategy.idle(n);
+        }
+        return e;
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, waiting up to the
+     * specified wait time if necessary for an element to become
+     * available.
+     *
+     * @param timeout how long to wait before giving up, in units of
+     *        {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @return the head of this queue, or {@code null} if the
+     *         specified waiting time elapses before an element is available
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e;
+        if ((e = poll()) != null)
+            return e;
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int n = 0; (e = poll()) == null; ++n) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (deadline - System.nanoTime() <= 0L)
+                return null;
+            waitStrategy.idle(n);
+        }
+        return e;
+    }
+
+    /**
+     * Removes up to {@code maxElements} available elements and performs
+     * the given action on each, without waiting.  May be called only by
+     * the consumer thread.
+     *
+     * @param action the action to perform on each element
+     * @param maxElements the maximum number of elements to remove
+     * @return the number of elements removed
+     * @throws NullPointerException if the action is null
+     */
+    public int drain(Consumer<? super E> action, int maxElements) {
+        if (action == null)
+            throw new NullPointerException();
+        int n = 0;
+        E e;
+        while (n < maxElements && (e = poll()) != null) {
+            action.accept(e);
+            ++n;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the number of elements in this queue.  The value is
+     * exact only when no other thread is using the queue.
+     *
+     * @return the number of elements in this queue
+     */
+    public int size() {
+        long c = consumerIndex(), before, p;
+        do {
+            before = c;
+            p = producerIndex();
+            c = consumerIndex();
+        } while (before != c);
+        long n = p - c;
+        return (n <= 0L) ? 0 : (n >= Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int)n;
+    }
+
+    public boolean isEmpty() {
+        return consumerIndex() >= producerIndex();
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the elements in this
+     * queue, in order.  The iterator does not support {@code remove},
+     * so neither does {@link #remove(Object)}.
+     *
+     * @return an iterator over the elements in this queue
+     */
+    public Iterator<E> iterator() {
+        return new Itr(consumerIndex(), producerIndex());
+    }
+
+    private class Itr implements Iterator<E> {
+        private long index;
+        private final long end;
+        private Object next;
+
+        Itr(long start, long end) {
+            this.index = start;
+            this.end = end;
+            advance();
+        }
+
+        private void advance() {
+            Object e = null;
+            while (e == null && index < end)
+                e = elementAt(index++);
+            next = e;
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            Object e = next;
+            if (e == null)
+                throw new NoSuchElementException();
+            advance();
+            return (E) e;
+        }
+    }
+}
@@ -0,0 +1,998 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A bounded, concurrent cache backed by a {@link ConcurrentHashMap}.
+ * Reads and writes go straight to the map and never take a global lock;
+ * the bookkeeping needed to choose eviction victims is deferred and
+ * applied in batches by whichever thread gets to do it.
+ *
+ * <p><b>Design.</b> Every read that hits records the entry in one of
+ * several small ring buffers, selected by the thread's probe as in
+ * {@link java.util.concurrent.atomic.LongAdder}, so that concurrent
+ * readers rarely touch the same memory.  A full ring buffer simply drops
+ * the record: access order is a hint, not a contract.  Writes add a task
+ * to an unbounded queue and request an asynchronous drain on
+ * {@link ForkJoinPool#commonPool()}; if writers outrun the drain by a
+ * wide margin, the writing thread performs it itself.  Draining happens
+ * under a lock that readers never wait for.
+ *
+ * <p>The eviction policy is W-TinyLFU.  New entries enter a small LRU
+ * <em>window</em> (about 1% of the maximum size).  Entries leaving the
+ * window compete for a place in the <em>main</em> region, an SLRU split
+ * into probation and protected segments, against the main region's
+ * least-recently used entry; the one with the higher estimated access
+ * frequency stays.  Frequencies are kept in a 4-bit count-min sketch
+ * that is periodically halved, so the estimate favours recent history
+ * and the sketch uses a few bits per entry.  This admits recency-biased
+ * bursts through the window while protecting frequently used entries
+ * from being flushed by one-hit scans, which plain LRU does not.
+ *
+ * <p>Entries may optionally expire a fixed duration after they were
+ * written, or after they were last read or written.  Expired entries
+ * are never returned and are removed during the next drain.
+ *
+ * <p>Because policy updates are applied asynchronously, the cache may
+ * briefly hold more than its maximum size, and {@link #estimatedSize}
+ * may briefly differ from the number of visible entries.  Neither keys
+ * nor values may be {@code null}.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @since 1.8
+ */
+public class ConcurrentCache<K,V> {
+
+    /*
+     * Nodes move through three states: alive (mapped), retired (removed
+     * from the map, possibly still linked into the policy queues), and
+     * unlinked.  Only the map is touched by user threads; the policy
+     * queues, sizes and the sketch are confined to the thread holding
+     * evictionLock.  Since write tasks from different threads may reach
+     * the write buffer in either order, an add task for a node that is
+     * already retired is ignored, and a remove task for a node that is
+     * not linked does nothing.
+     */
+
+    static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /** Number of entries in each read buffer; a power of two. */
+    static final int READ_BUFFER_SIZE = 16;
+
+    /** Maximum number of read buffers; a power of two. */
+    static final int MAX_READ_BUFFERS = 64;
+
+    /**
+     * Pending write tasks beyond which a writer drains the buffer
+     * itself instead of waiting for the asynchronous drain.
+     */
+    static final int WRITE_BUFFER_LIMIT = 128 * Math.max(2, NCPU);
+
+    /** Share of the maximum size given to the admission window. */
+    static final double WINDOW_PERCENT = 0.01d;
+
+    /** Share of the main region given to the protected segment. */
+    static final double PROTECTED_PERCENT = 0.80d;
+
+    // queue types
+    static final int UNLINKED  = 0;
+    static final int WINDOW    = 1;
+    static final int PROBATION = 2;
+    static final int PROTECTED = 3;
+
+    final ConcurrentHashMap<K,Node<K,V>> map;
+    final ReadBuffer[] readBuffers;
+    final ConcurrentLinkedQueue<Runnable> writeBuffer;
+    final AtomicInteger pendingWrites;
+    final AtomicBoolean drainScheduled;
+    final ReentrantLock evictionLock;
+    final Executor executor;
+    final Runnable drainTask;
+
+    volatile long maximumSize;
+    volatile long expireAfterWriteNanos;
+    volatile long expireAfterAccessNanos;
+
+    // Policy state, guarded by evictionLock
+    final AccessQueue<K,V> window;
+    final AccessQueue<K,V> probation;
+    final AccessQueue<K,V> protectedQueue;
+    final WriteQueue<K,V> writeOrder;
+    final FrequencySketch sketch;
+    long size;
+    long windowSize;
+    long protectedSize;
+
+    /**
+     * Creates a cache holding at most the given number of entries and
+     * whose entries never expire.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public ConcurrentCache(long maximumSize) {
+        this(maximumSize, 0L, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of entries, with
+     * the given expiration policy.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param expireAfterWrite how long after it was created or last
+     *        replaced an entry expires, or zero if never
+     * @param expireAfterAccess how long after it was last read or
+     *        written an entry expires, or zero if never
+     * @param unit the unit of both durations
+     * @throws IllegalArgumentException if any argument is negative
+     * @throws NullPointerException if the unit is null
+     */
+    public ConcurrentCache(long maximumSize, long expireAfterWrite,
+                           long expireAfterAccess, TimeUnit unit) {
+        if (maximumSize < 0L || expireAfterWrite < 0L ||
+            expireAfterAccess < 0L)
+            throw new IllegalArgumentException();
+        if (unit == null)
+            throw new NullPointerException();
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        this.map = new ConcurrentHashMap<K,Node<K,V>>();
+        int n = 1;
+        while (n < NCPU && n < MAX_READ_BUFFERS)
+            n <<= 1;
+        this.readBuffers = new ReadBuffer[n];
+        for (int i = 0; i < n; ++i)
+            readBuffers[i] = new ReadBuffer();
+        this.writeBuffer = new ConcurrentLinkedQueue<Runnable>();
+        this.pendingWrites = new AtomicInteger();
+        this.drainScheduled = new AtomicBoolean();
+        this.evictionLock = new ReentrantLock();
+        this.executor = ForkJoinPool.commonPool();
+        this.drainTask = new DrainTask();
+        this.window = new AccessQueue<K,V>();
+        this.probation = new AccessQueue<K,V>();
+        this.protectedQueue = new AccessQueue<K,V>();
+        this.writeOrder = new WriteQueue<K,V>();
+        this.sketch = new FrequencySketch();
+        sketch.ensureCapacity(Math.min(maximumSize, 16L));
+    }
+
+    // ---------------- Public operations ----------------
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code null} if there is no unexpired mapping for the key.
+     *
+     * @param key the key
+     * @return the value, or {@code null}
+     * @throws NullPointerException if the specified key is null
+     */
+    public V get(Object key) {
+        Node<K,V> node = map.get(key);
+        if (node == null)
+            return null;
+        V v = node.value;
+        if (v == null)
+            return null;
+        if (hasExpiration()) {
+            long now = System.nanoTime();
+            if (hasExpired(node, now)) {
+                scheduleDrain();
+                return null;
+            }
+            if (expireAfterAccessNanos > 0L)
+                node.accessTime = now;
+        }
+        afterRead(node);
+        return v;
+    }
+
+    /**
+     * Returns {@code true} if there is an unexpired mapping for the key.
+     * This does not count as an access.
+     *
+     * @param key the key
+     * @return whether the key is present
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean containsKey(Object key) {
+        Node<K,V> node = map.get(key);
+        return node != null && node.value != null &&
+            !(hasExpiration() && hasExpired(node, System.nanoTime()));
+    }
+
+    /**
+     * Maps the key to the value, replacing any existing value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous unexpired value, or {@code null} if none
+     * @throws NullPointerException if the key or value is null
+     */
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * Maps the key to the value unless there is already an unexpired
+     * mapping for the key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the existing value, or {@code null} if the value was added
+     * @throws NullPointerException if the key or value is null
+     */
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * Returns the value for the key, computing and caching it with the
+     * given function if there is no unexpired mapping.  The function is
+     * invoked at most once per call, while the key's bin in the backing
+     * map is locked, so it should be short and must not access this
+     * cache.
+     *
+     * @param key the key
+     * @param mappingFunction the function to compute a value
+     * @return the current or computed value, or {@code null} if the
+     *         function returned {@code null}
+     * @throws NullPointerException if the key or function is null
+     */
+    public V computeIfAbsent(K key,
+                             Function<? super K, ? extends V> mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        V v = get(key);
+        if (v != null)
+            return v;
+        // stamp writes even without expiration, so that enabling it
+        // later does not expire every existing entry at once
+        long now = System.nanoTime();
+        Object[] result = new Object[3]; // {value, added, replaced}
+        Node<K,V> node = map.compute(key, (k, n) -> {
+            V cur;
+            if (n != null && (cur = n.value) != null && !hasExpired(n, now)) {
+                result[0] = cur;
+                return n;
+            }
+            V nv = mappingFunction.apply(k);
+            if (nv == null)
+                return n;
+            if (n != null) {
+                n.retire();
+                result[2] = n;
+            }
+            result[0] = nv;
+            result[1] = Boolean.TRUE;
+            return new Node<K,V>(k, nv, now);
+        });
+        if (result[1] != null)
+            afterAdd(node, result[2]);
+        @SuppressWarnings("unchecked") V r = (V)result[0];
+        return r;
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key
+     * @return the previous unexpired value, or {@code null} if none
+     * @throws NullPointerException if the specified key is null
+     */
+    public V remove(Object key) {
+        Node<K,V> node = map.remove(key);
+        if (node == null)
+            return null;
+        V v = node.value;
+        node.retire();
+        afterWrite(new RemovalTask(node));
+        return (v == null ||
+                (hasExpiration() && hasExpired(node, System.nanoTime())))
+            ? null : v;
+    }
+
+    /**
+     * Removes the mapping for the key only if it is currently mapped to
+     * the given value.
+     *
+     * @param key the key
+     * @param value the value expected to be associated with the key
+     * @return {@code true} if the mapping was removed
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean remove(Object key, Object value) {
+        Node<K,V> node = map.get(key);
+        V v;
+        if (node == null || value == null || (v = node.value) == null ||
+            !value.equals(v) || !map.remove(key, node))
+            return false;
+        node.retire();
+        afterWrite(new RemovalTask(node));
+        return true;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            for (Node<K,V> node : map.values()) {
+                if (map.remove(node.key, node)) {
+                    node.retire();
+                    unlink(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the approximate number of entries.  This may include
+     * expired entries and, until the next drain, entries in excess of
+     * the maximum size.
+     *
+     * @return the estimated number of entries
+     */
+    public long estimatedSize() {
+        return map.mappingCount();
+    }
+
+    /**
+     * Performs the given action for each unexpired entry.  This does not
+     * count as an access.  Traversal is weakly consistent, as for
+     * {@link ConcurrentHashMap#forEach(BiConsumer)}.
+     *
+     * @param action the action
+     * @throws NullPointerException if the action is null
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null)
+            throw new NullPointerException();
+        long now = System.nanoTime();
+        for (Node<K,V> node : map.values()) {
+            V v = node.value;
+            if (v != null && !hasExpired(node, now))
+                action.accept(node.key, v);
+        }
+    }
+
+    /**
+     * Applies pending policy updates, removes expired entries and evicts
+     * down to the maximum size, on the calling thread.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum number of entries.  If the cache is larger
+     * than the new maximum, entries are evicted before returning.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public void setMaximumSize(long maximumSize) {
+        if (maximumSize < 0L)
+            throw new IllegalArgumentException();
+        evictionLock.lock();
+        try {
+            this.maximumSize = maximumSize;
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return the maximum number of entries
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Changes the duration after its last write at which an entry
+     * expires.  The new duration applies to all entries, measured from
+     * their last write whether or not they expired at the time.
+     *
+     * @param duration the duration, or zero if entries never expire
+     * @param unit the unit of the duration
+     * @throws IllegalArgumentException if the duration is negative
+     */
+    public void setExpireAfterWrite(long duration, TimeUnit unit) {
+        if (duration < 0L)
+            throw new IllegalArgumentException();
+        expireAfterWriteNanos = unit.toNanos(duration);
+        scheduleDrain();
+    }
+
+    /**
+     * Changes the duration after its last read or write at which an
+     * entry expires.  The new duration applies to all entries.  Reads
+     * are not recorded while entries do not expire after access, so
+     * enabling it counts every entry as read now.
+     *
+     * @param duration the duration, or zero if entries never expire
+     * @param unit the unit of the duration
+     * @throws IllegalArgumentException if the duration is negative
+     */
+    public void setExpireAfterAccess(long duration, TimeUnit unit) {
+        if (duration < 0L)
+            throw new IllegalArgumentException();
+        evictionLock.lock();
+        try {
+            if (expireAfterAccessNanos == 0L) {
+                long now = System.nanoTime();
+                for (Node<K,V> node : map.values())
+                    node.accessTime = now;
+            }
+            expireAfterAccessNanos = unit.toNanos(duration);
+        } finally {
+            evictionLock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    // ---------------- Internal write paths ----------------
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        long now = System.nanoTime();       // see computeIfAbsent
+        Object[] result = new Object[3]; // {old value, added, replaced}
+        Node<K,V> node = map.compute(key, (k, n) -> {
+            V cur;
+            if (n != null && (cur = n.value) != null && !hasExpired(n, now)) {
+                result[0] = cur;
+                if (!onlyIfAbsent) {
+                    n.value = value;
+                    n.writeTime = now;
+                    n.accessTime = now;
+                }
+                return n;
+            }
+            if (n != null) {
+                n.retire();
+                result[2] = n;
+            }
+            result[1] = Boolean.TRUE;
+            return new Node<K,V>(k, value, now);
+        });
+        if (result[1] != null)
+            afterAdd(node, result[2]);
+        else if (!onlyIfAbsent)
+            afterWrite(new UpdateTask(node));
+        else
+            afterRead(node);
+        @SuppressWarnings("unchecked") V old = (V)result[0];
+        return old;
+    }
+
+    /**
+     * Queues the policy updates for a newly mapped node and for the
+     * expired node it replaced, if any.
+     */
+    @SuppressWarnings("unchecked")
+    private void afterAdd(Node<K,V> node, Object replaced) {
+        if (replaced != null) {
+            writeBuffer.add(new RemovalTask((Node<K,V>)replaced));
+            pendingWrites.incrementAndGet();
+        }
+        afterWrite(new AddTask(node));
+    }
+
+    /**
+     * Records a hit in the calling thread's read buffer, requesting a
+     * drain if the buffer is full.
+     */
+    final void afterRead(Node<K,V> node) {
+        int h;
+        if ((h = ThreadLocalRandom.getProbe()) == 0) {
+            ThreadLocalRandom.localInit();
+            h = ThreadLocalRandom.getProbe();
+        }
+        ReadBuffer rb = readBuffers[h & (readBuffers.length - 1)];
+        if (!rb.offer(node))
+            scheduleDrain();
+    }
+
+    /**
+     * Queues a policy update and arranges for it to be applied.
+     */
+    final void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        if (pendingWrites.incrementAndGet() > WRITE_BUFFER_LIMIT) {
+            // the asynchronous drain is falling behind; help it
+            cleanUp();
+        } else {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Submits a drain to the executor unless one is already pending.
+     */
+    final void scheduleDrain() {
+        if (!drainScheduled.get() && drainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(drainTask);
+            } catch (RejectedExecutionException ex) {
+                drainScheduled.set(false);
+                if (evictionLock.tryLock()) {
+                    try {
+                        maintenance();
+                    } finally {
+                        evictionLock.unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    final class DrainTask implements Runnable {
+        public void run() {
+            // clear first, so that updates made during this drain
+            // schedule another one
+            drainScheduled.set(false);
+            cleanUp();
+        }
+    }
+
+    final class AddTask implements Runnable {
+        final Node<K,V> node;
+        AddTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            if (node.retired || node.queue != UNLINKED)
+                return;
+            window.addLast(node);
+            node.queue = WINDOW;
+            ++windowSize;
+            if (++size > sketch.table.length && size <= maximumSize)
+                sketch.ensureCapacity(Math.min(maximumSize, size << 1));
+            // linked even without expiration, so that it can be enabled later
+            writeOrder.addLast(node);
+            sketch.increment(node.key);
+        }
+    }
+
+    final class UpdateTask implements Runnable {
+        final Node<K,V> node;
+        UpdateTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            if (node.queue == UNLINKED)
+                return;
+            onAccess(node);
+            if (writeOrder.contains(node)) {
+                writeOrder.remove(node);
+                writeOrder.addLast(node);
+            }
+        }
+    }
+
+    final class RemovalTask implements Runnable {
+        final Node<K,V> node;
+        RemovalTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            unlink(node);
+        }
+    }
+
+    // ---------------- Policy, guarded by evictionLock ----------------
+
+    final boolean hasExpiration() {
+        return expireAfterWriteNanos > 0L || expireAfterAccessNanos > 0L;
+    }
+
+    final boolean hasExpired(Node<K,V> node, long now) {
+        long d;
+        return ((d = expireAfterWriteNanos) > 0L && now - node.writeTime >= d) ||
+            ((d = expireAfterAccessNanos) > 0L && now - node.accessTime >= d);
+    }
+
+    final void maintenance() {
+        drainReadBuffers();
+        drainWriteBuffer();
+        expireEntries();
+        evictEntries();
+    }
+
+    final void drainReadBuffers() {
+        for (ReadBuffer rb : readBuffers)
+            rb.drain(this);
+    }
+
+    final void drainWriteBuffer() {
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+    }
+
+    /**
+     * Moves an accessed entry within the policy and counts the access.
+     */
+    final void onAccess(Node<K,V> node) {
+        switch (node.queue) {
+        case WINDOW:
+            window.moveToBack(node);
+            break;
+        case PROBATION:
+            probation.remove(node);
+            protectedQueue.addLast(node);
+            node.queue = PROTECTED;
+            long max = protectedMaximum();
+            if (++protectedSize > max) {
+                Node<K,V> demoted = protectedQueue.peekFirst();
+                protectedQueue.remove(demoted);
+                probation.addLast(demoted);
+                demoted.queue = PROBATION;
+                --protectedSize;
+            }
+            break;
+        case PROTECTED:
+            protectedQueue.moveToBack(node);
+            break;
+        default:
+            return;                 // already removed
+        }
+        sketch.increment(node.key);
+    }
+
+    final long windowMaximum() {
+        return Math.max(1L, (long)(maximumSize * WINDOW_PERCENT));
+    }
+
+    final long protectedMaximum() {
+        return (long)((maximumSize - windowMaximum()) * PROTECTED_PERCENT);
+    }
+
+    final void expireEntries() {
+        if (!hasExpiration())
+            return;
+        long now = System.nanoTime();
+        if (expireAfterAccessNanos > 0L) {
+            expireAccessOrder(window, now);
+            expireAccessOrder(probation, now);
+            expireAccessOrder(protectedQueue, now);
+        }
+        if (expireAfterWriteNanos > 0L) {
+            Node<K,V> node;
+            while ((node = writeOrder.peekFirst()) != null &&
+                   hasExpired(node, now))
+                evict(node);
+        }
+    }
+
+    private void expireAccessOrder(AccessQueue<K,V> q, long now) {
+        // reads may have been dropped, so access order is approximate;
+        // stop at the first live entry rather than scanning everything
+        Node<K,V> node;
+        while ((node = q.peekFirst()) != null && hasExpired(node, now))
+            evict(node);
+    }
+
+    /**
+     * Shrinks the window into probation, then evicts until the cache is
+     * within its maximum, letting the frequency sketch decide between
+     * the newest arrival on probation and its least recently used entry.
+     */
+    final void evictEntries() {
+        long windowMax = windowMaximum();
+        while (windowSize > windowMax) {
+            Node<K,V> node = window.peekFirst();
+            window.remove(node);
+            --windowSize;
+            probation.addLast(node);
+            node.queue = PROBATION;
+        }
+        while (size > maximumSize) {
+            Node<K,V> victim = probation.peekFirst();
+            Node<K,V> candidate = probation.peekLast();
+            if (victim == null) {
+                if ((victim = protectedQueue.peekFirst()) == null)
+                    victim = window.peekFirst();
+                evict(victim);
+            } else if (victim == candidate) {
+                evict(victim);
+            } else if (sketch.frequency(candidate.key) >
+                       sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        }
+    }
+
+    final void evict(Node<K,V> node) {
+        if (map.remove(node.key, node))
+            node.retire();
+        unlink(node);
+    }
+
+    final void unlink(Node<K,V> node) {
+        switch (node.queue) {
+        case WINDOW:
+            window.remove(node);
+            --windowSize;
+            break;
+        case PROBATION:
+            probation.remove(node);
+            break;
+        case PROTECTED:
+            protectedQueue.remove(node);
+            --protectedSize;
+            break;
+        default:
+            return;
+        }
+        node.queue = UNLINKED;
+        --size;
+        if (writeOrder.contains(node))
+            writeOrder.remove(node);
+    }
+
+    // ---------------- Nested classes ----------------
+
+    /**
+     * A cache entry.  The value and times are written by user threads;
+     * the links and queue type only under the eviction lock.
+     */
+    static final class Node<K,V> {
+        final K key;
+        volatile V value;
+        volatile long writeTime;
+        volatile long accessTime;
+        volatile boolean retired;
+        Node<K,V> prev, next;           // access order
+        Node<K,V> prevW, nextW;         // write order
+        int queue;
+
+        Node(K key, V value, long now) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+
+        void retire() {
+            retired = true;
+            value = null;
+        }
+    }
+
+    /**
+     * An intrusive doubly-linked list in access order.
+     */
+    static final class AccessQueue<K,V> {
+        Node<K,V> first, last;
+
+        Node<K,V> peekFirst() { return first; }
+        Node<K,V> peekLast()  { return last; }
+
+        void addLast(Node<K,V> n) {
+            Node<K,V> l = last;
+            n.prev = l;
+            n.next = null;
+            last = n;
+            if (l == null)
+                first = n;
+            else
+                l.next = n;
+        }
+
+        void remove(Node<K,V> n) {
+            Node<K,V> p = n.prev, s = n.next;
+            if (p == null)
+                first = s;
+            else
+                p.next = s;
+            if (s == null)
+                last = p;
+            else
+                s.prev = p;
+            n.prev = n.next = null;
+        }
+
+        void moveToBack(Node<K,V> n) {
+            if (n != last) {
+                remove(n);
+                addLast(n);
+            }
+        }
+    }
+
+    /**
+     * An intrusive doubly-linked list in write order.
+     */
+    static final class WriteQueue<K,V> {
+        Node<K,V> first, last;
+
+        Node<K,V> peekFirst() { return first; }
+
+        boolean contains(Node<K,V> n) {
+            return n.prevW != null || n.nextW != null || first == n;
+        }
+
+        void addLast(Node<K,V> n) {
+            Node<K,V> l = last;
+            n.prevW = l;
+            n.nextW = null;
+            last = n;
+            if (l == null)
+                first = n;
+            else
+                l.nextW = n;
+        }
+
+        void remove(Node<K,V> n) {
+            Node<K,V> p = n.prevW, s = n.nextW;
+            if (p == null)
+                first = s;
+            else
+                p.nextW = s;
+            if (s == null)
+                last = p;
+            else
+                s.prevW = p;
+            n.prevW = n.nextW = null;
+        }
+    }
+
+    /**
+     * A lossy single-consumer ring buffer of recent hits.  Producers
+     * claim a slot by CAS on the write counter; when the buffer is full
+     * the hit is dropped.
+     */
+    static final class ReadBuffer {
+        static final int MASK = READ_BUFFER_SIZE - 1;
+        final AtomicReferenceArray<Node<?,?>> buffer =
+            new AtomicReferenceArray<Node<?,?>>(READ_BUFFER_SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        volatile long readCounter;      // written only by the drainer
+
+        boolean offer(Node<?,?> node) {
+            long w = writeCounter.get();
+            if (w - readCounter >= READ_BUFFER_SIZE)
+                return false;
+            if (writeCounter.compareAndSet(w, w + 1))
+                buffer.lazySet((int)w & MASK, node);
+            return true;    // lost CAS races are simply dropped
+        }
+
+        @SuppressWarnings("unchecked")
+        <K,V> void drain(ConcurrentCache<K,V> cache) {
+            long r = readCounter, w = writeCounter.get();
+            for (; r < w; ++r) {
+                int i = (int)r & MASK;
+                Node<?,?> node = buffer.get(i);
+                if (node == null)
+                    break;              // claimed but not yet published
+                buffer.lazySet(i, null);
+                cache.onAccess((Node<K,V>)node);
+            }
+            readCounter = r;
+        }
+    }
+
+    /**
+     * A count-min sketch of access frequencies with four 4-bit counters
+     * per key, packed sixteen to a long.  When the number of increments
+     * reaches ten times the table length, every counter is halved, which
+     * ages out stale popularity.  The table starts small and is regrown
+     * (losing its counts) as the cache fills, so that an effectively
+     * unbounded cache does not pay for a sketch sized to its bound.
+     */
+    static final class FrequencySketch {
+        static final long[] SEEDS = {
+            0x8C3B7F2A91D46E05L, 0x5D27E4A9C1B3F867L,
+            0xE6A1D4F27B9C3058L, 0x3F95C2E8A7D14B6DL
+        };
+        static final long HALF_MASK = 0x7777777777777777L;
+
+        long[] table;
+        int mask;
+        int sampleSize;
+        int additions;
+
+        void ensureCapacity(long expectedSize) {
+            int max = (int)Math.min(Math.max(expectedSize, 1L), 1 << 26);
+            int n = 1;
+            while (n < max)
+                n <<= 1;
+            if (table != null && table.length >= n)
+                return;
+            table = new long[n];
+            mask = n - 1;
+            sampleSize = 10 * n;
+            additions = 0;
+        }
+
+        static long hash(Object key) {
+            long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 29);
+        }
+
+        int indexOf(long h, int row) {
+            long x = (h + SEEDS[row]) * SEEDS[row];
+            return (int)(x ^ (x >>> 32)) & mask;
+        }
+
+        /** The bit offset of the row's counter within its long. */
+        static int shiftOf(long h, int row) {
+            return ((((int)(h >>> 60)) + (row << 2)) & 15) << 2;
+        }
+
+        int frequency(Object key) {
+            long h = hash(key);
+            int f = 15;
+            for (int row = 0; row < 4; ++row) {
+                int c = (int)(table[indexOf(h, row)] >>> shiftOf(h, row)) & 15;
+                if (c < f)
+                    f = c;
+            }
+            return f;
+        }
+
+        void increment(Object key) {
+            long h = hash(key);
+            boolean added = false;
+            for (int row = 0; row < 4; ++row) {
+                int i = indexOf(h, row), s = shiftOf(h, row);
+                if (((table[i] >>> s) & 15L) != 15L) {
+                    table[i] += 1L << s;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; ++i)
+                    table[i] = (table[i] >>> 1) & HALF_MASK;
+                additions >>>= 1;
+            }
+        }
+    }
+}
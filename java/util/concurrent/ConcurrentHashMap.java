@@ -2138,6 +2138,38 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
             (new ConcurrentHashMap<K,Boolean>(initialCapacity), Boolean.TRUE);
     }
 
+    /**
+     * Creates a new {@link LongAdderMap} backed by a ConcurrentHashMap
+     * from the given type to {@link java.util.concurrent.atomic.LongAdder}.
+     * Use this instead of {@code merge(key, 1L, Long::sum)} on a
+     * {@code ConcurrentHashMap<K,Long>} when a few keys receive most of
+     * the updates: each update then goes to the key's striped cells
+     * rather than replacing the value under its bin lock.
+     *
+     * @param <K> the key type of the returned map
+     * @return the new map
+     * @since 1.8
+     */
+    public static <K> LongAdderMap<K> newFrequencyMap() {
+        return new LongAdderMap<K>();
+    }
+
+    /**
+     * Creates a new {@link LongAdderMap} with an initial table size
+     * accommodating the specified number of keys.
+     *
+     * @param initialCapacity The implementation performs internal
+     * sizing to accommodate this many keys.
+     * @param <K> the key type of the returned map
+     * @return the new map
+     * @throws IllegalArgumentException if the initial capacity of
+     * elements is negative
+     * @since 1.8
+     */
+    public static <K> LongAdderMap<K> newFrequencyMap(int initialCapacity) {
+        return new LongAdderMap<K>(initialCapacity);
+    }
+
     /**
      * Returns a {@link Set} view of the keys in this map, using the
      * given common mapped value for any additions (i.e., {@link
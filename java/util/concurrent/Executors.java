@@ -128,6 +128,47 @@ public class Executors {
              null, true);
     }
 
+    /**
+     * Creates a work-stealing pool for tasks that block in socket I/O,
+     * such as per-connection handlers, that keeps the given number of
+     * threads running tasks.  When a task blocks in a blocking-mode
+     * {@code SocketChannel} read, write or connect, or in a {@code
+     * ServerSocketChannel} accept, the pool is informed as by {@link
+     * ForkJoinPool#managedBlock} and may activate or create a spare
+     * thread to keep the targeted parallelism.  Other blocking operations
+     * are not detected; tasks should perform them through
+     * {@code managedBlock} to get the same behavior.
+     *
+     * <p>Unlike {@link #newCachedThreadPool}, threads are created with a
+     * small stack (256 kilobytes), and idle spare threads are retired by
+     * the pool.  A blocked task still occupies a thread, so the number of
+     * tasks that may block at once is limited by the pool's maximum of
+     * 32767 threads.
+     *
+     * @param parallelism the targeted number of threads running tasks
+     * @return the newly created thread pool
+     * @throws IllegalArgumentException if {@code parallelism <= 0}
+     * @since 1.8
+     */
+    public static ExecutorService newManagedBlockingPool(int parallelism) {
+        return new ForkJoinPool
+            (parallelism, new ManagedBlockingWorkerThreadFactory(), null, true);
+    }
+
+    /**
+     * Creates a pool as by {@link #newManagedBlockingPool(int)}, using all
+     * {@link Runtime#availableProcessors available processors} as its
+     * target parallelism level.
+     *
+     * @return the newly created thread pool
+     * @see #newManagedBlockingPool(int)
+     * @since 1.8
+     */
+    public static ExecutorService newManagedBlockingPool() {
+        return newManagedBlockingPool
+            (Runtime.getRuntime().availableProcessors());
+    }
+
     /**
      * Creates a thread pool that reuses a fixed number of threads
      * operating off a shared unbounded queue, using the provided
@@ -154,6 +195,49 @@ public class Executors {
                                       threadFactory);
     }
 
+    /**
+     * Creates a thread pool that reuses a fixed number of threads
+     * operating off a sharded unbounded queue.  The pool has the same
+     * lifecycle, rejection and hook behavior as one created by {@link
+     * #newFixedThreadPool(int)}, but its queue is split into lock-free
+     * shards, one per thread: submitters add to a shard chosen by their
+     * thread, and workers take from their own shard before stealing
+     * batches from the others.  This removes the single queue's locks
+     * as a limit on task throughput when many threads submit short
+     * tasks.  Tasks are executed in submission order only among tasks
+     * that were placed in the same shard.
+     *
+     * @param nThreads the number of threads in the pool
+     * @return the newly created thread pool
+     * @throws IllegalArgumentException if {@code nThreads <= 0}
+     * @since 1.8
+     */
+    public static ExecutorService newShardedThreadPool(int nThreads) {
+        return new ThreadPoolExecutor(nThreads, nThreads,
+                                      0L, TimeUnit.MILLISECONDS,
+                                      new ShardedTaskQueue<Runnable>(nThreads));
+    }
+
+    /**
+     * Creates a thread pool that reuses a fixed number of threads
+     * operating off a sharded unbounded queue, using the provided
+     * ThreadFactory to create new threads when needed.  See {@link
+     * #newShardedThreadPool(int)}.
+     *
+     * @param nThreads the number of threads in the pool
+     * @param threadFactory the factory to use when creating new threads
+     * @return the newly created thread pool
+     * @throws NullPointerException if threadFactory is null
+     * @throws IllegalArgumentException if {@code nThreads <= 0}
+     * @since 1.8
+     */
+    public static ExecutorService newShardedThreadPool(int nThreads, ThreadFactory threadFactory) {
+        return new ThreadPoolExecutor(nThreads, nThreads,
+                                      0L, TimeUnit.MILLISECONDS,
+                                      new ShardedTaskQueue<Runnable>(nThreads),
+                                      threadFactory);
+    }
+
     /**
      * Creates an Executor that uses a single worker thread operating
      * off an unbounded queue. (Note however that if this single
@@ -590,6 +674,19 @@ public class Executors {
         }
     }
 
+    /**
+     * Worker thread factory for newManagedBlockingPool
+     */
+    static final class ManagedBlockingWorkerThreadFactory
+        implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        /** Requested stack size of each worker thread, in bytes */
+        static final long STACK_SIZE = 256L * 1024L;
+
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            return new ForkJoinWorkerThread(pool, STACK_SIZE);
+        }
+    }
+
     /**
      * The default thread factory
      */
@@ -86,6 +86,16 @@ public class ForkJoinWorkerThread extends Thread {
         this.workQueue = pool.registerWorker(this);
     }
 
+    /**
+     * Version for threads with a requested stack size, used by
+     * Executors.newManagedBlockingPool
+     */
+    ForkJoinWorkerThread(ForkJoinPool pool, long stackSize) {
+        super(null, null, "aForkJoinWorkerThread", stackSize);
+        this.pool = pool;
+        this.workQueue = pool.registerWorker(this);
+    }
+
     /**
      * Version for InnocuousForkJoinWorkerThread
      */
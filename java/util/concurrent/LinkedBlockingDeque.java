@@ -760,6 +760,140 @@ public class LinkedBlockingDeque<E>
         }
     }
 
+    /**
+     * Inserts the elements of the given collection at the end of this
+     * deque, waiting up to the specified wait time in total for space to
+     * become available.  Each run of elements for which there is space
+     * is linked under a single acquisition of the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return linkAllLast(c, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Inserts the elements of the given collection at the end of this
+     * deque, waiting if necessary for space to become available.  Each
+     * run of elements for which there is space is linked under a single
+     * acquisition of the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public void putAll(Collection<? extends E> c) throws InterruptedException {
+        linkAllLast(c, false, 0L);
+    }
+
+    /**
+     * Common implementation of offerAll and putAll.
+     */
+    private int linkAllLast(Collection<? extends E> c, boolean timed, long nanos)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        if (a.length == 0)
+            return 0;
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int i = 0;
+            while (i < a.length) {
+                int k = Math.min(a.length - i, capacity - count);
+                if (k > 0) {
+                    for (int j = k; j > 0; j--) {
+                        @SuppressWarnings("unchecked") E x = (E) a[i++];
+                        Node<E> node = new Node<E>(x);
+                        Node<E> l = last;
+                        node.prev = l;
+                        last = node;
+                        if (first == null)
+                            first = node;
+                        else
+                            l.next = node;
+                    }
+                    count += k;
+                    for (; k > 0 && lock.hasWaiters(notEmpty); k--)
+                        notEmpty.signal();
+                } else if (!timed) {
+                    notFull.await();
+                } else if (nanos <= 0) {
+                    break;
+                } else {
+                    nanos = notFull.awaitNanos(nanos);
+                }
+            }
+            return i;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes up to {@code maxElements} elements from the
+     * head of the queue represented by this deque under a single
+     * acquisition of the lock, waiting up to the specified wait time for
+     * one to become available, and then performs the given action on
+     * each of them outside the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @since 1.8
+     */
+    public int poll(int maxElements, long timeout, TimeUnit unit,
+                    Consumer<? super E> action) throws InterruptedException {
+        if (action == null)
+            throw new NullPointerException();
+        if (maxElements <= 0)
+            return 0;
+        long nanos = unit.toNanos(timeout);
+        final Object[] a;
+        int n;
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0)
+                    return 0;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            n = Math.min(maxElements, count);
+            a = new Object[n];
+            Node<E> f = first;
+            for (int i = 0; i < n; i++) {
+                Node<E> next = f.next;
+                a[i] = f.item;
+                f.item = null;
+                f.next = f; // help GC
+                f = next;
+            }
+            first = f;
+            if (f == null)
+                last = null;
+            else
+                f.prev = null;
+            count -= n;
+            for (int i = n; i > 0 && lock.hasWaiters(notFull); i--)
+                notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") E x = (E) a[i];
+            action.accept(x);
+        }
+        return n;
+    }
+
     // Stack methods
 
     /**
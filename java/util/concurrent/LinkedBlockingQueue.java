@@ -762,6 +762,132 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, waiting up to the specified wait time in total for space to
+     * become available.  Each run of elements for which there is space
+     * is linked under a single acquisition of the put lock, and waiting
+     * takers are signalled once per run.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return insertAll(c, true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, waiting if necessary for space to become available.  Each
+     * run of elements for which there is space is linked under a single
+     * acquisition of the put lock, and waiting takers are signalled once
+     * per run.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 1.8
+     */
+    public void putAll(Collection<? extends E> c) throws InterruptedException {
+        insertAll(c, false, 0L);
+    }
+
+    /**
+     * Common implementation of offerAll and putAll.
+     */
+    private int insertAll(Collection<? extends E> c, boolean timed, long nanos)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        if (a.length == 0)
+            return 0;
+        final ReentrantLock putLock = this.putLock;
+        final AtomicInteger count = this.count;
+        int i = 0;
+        putLock.lockInterruptibly();
+        try {
+            while (i < a.length) {
+                int k = Math.min(a.length - i, capacity - count.get());
+                if (k > 0) {
+                    for (int j = 0; j < k; j++) {
+                        @SuppressWarnings("unchecked") E x = (E) a[i + j];
+                        enqueue(new Node<E>(x));
+                    }
+                    i += k;
+                    int n = count.getAndAdd(k);
+                    if (n + k < capacity)
+                        notFull.signal();
+                    // Lock order putLock -> takeLock is as in fullyLock
+                    if (n == 0)
+                        signalNotEmpty();
+                } else if (!timed) {
+                    notFull.await();
+                } else if (nanos <= 0) {
+                    break;
+                } else {
+                    nanos = notFull.awaitNanos(nanos);
+                }
+            }
+        } finally {
+            putLock.unlock();
+        }
+        return i;
+    }
+
+    /**
+     * Retrieves and removes up to {@code maxElements} elements from the
+     * head of this queue under a single acquisition of the take lock,
+     * waiting up to the specified wait time for one to become available,
+     * and then performs the given action on each of them outside the
+     * lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @since 1.8
+     */
+    public int poll(int maxElements, long timeout, TimeUnit unit,
+                    Consumer<? super E> action) throws InterruptedException {
+        if (action == null)
+            throw new NullPointerException();
+        if (maxElements <= 0)
+            return 0;
+        long nanos = unit.toNanos(timeout);
+        final AtomicInteger count = this.count;
+        final ReentrantLock takeLock = this.takeLock;
+        final Object[] a;
+        int n, c;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                if (nanos <= 0)
+                    return 0;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            n = Math.min(maxElements, count.get());
+            a = new Object[n];
+            for (int i = 0; i < n; i++)
+                a[i] = dequeue();
+            c = count.getAndAdd(-n);
+            if (c > n)
+                notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity)
+            signalNotFull();
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") E x = (E) a[i];
+            action.accept(x);
+        }
+        return n;
+    }
+
     /**
      * Returns an iterator over the elements in this queue in proper sequence.
      * The elements will be returned in order from first (head) to last (tail).
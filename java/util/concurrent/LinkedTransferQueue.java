@@ -1197,6 +1197,45 @@ public class LinkedTransferQueue<E> extends AbstractQueue<E>
         return true;
     }
 
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, in the order returned by the collection's iterator.  Each
+     * element is handed directly to a waiting consumer if there is one.
+     * As the queue is unbounded, this method will never block.
+     *
+     * @return the number of elements in the collection
+     * @throws NullPointerException if the collection or any of its
+     *         elements is null; in the latter case no element is inserted
+     * @throws IllegalArgumentException if the collection is this queue
+     * @since 1.8
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        for (Object e : a)
+            if (e == null) throw new NullPointerException();
+        for (Object e : a) {
+            @SuppressWarnings("unchecked") E x = (E) e;
+            xfer(x, true, ASYNC, 0);
+        }
+        return a.length;
+    }
+
+    /**
+     * Inserts the elements of the given collection at the tail of this
+     * queue, in the order returned by the collection's iterator.
+     * As the queue is unbounded, this method will never block.
+     *
+     * @throws NullPointerException if the collection or any of its
+     *         elements is null; in the latter case no element is inserted
+     * @throws IllegalArgumentException if the collection is this queue
+     * @since 1.8
+     */
+    public void putAll(Collection<? extends E> c) {
+        offerAll(c, 0L, TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Inserts the specified element at the tail of this queue.
      * As the queue is unbounded, this method will never throw
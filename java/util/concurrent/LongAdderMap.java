@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A concurrent map from keys to {@code long} counters, each of which is
+ * a {@link LongAdder}.  This is the structure to use for frequency maps
+ * and other per-key statistics that are updated far more often than they
+ * are read.
+ *
+ * <p>With a plain {@code ConcurrentHashMap<K,Long>}, every
+ * {@code merge(key, 1L, Long::sum)} replaces the value in the key's bin
+ * under the bin lock, so threads updating a popular key all serialize on
+ * one node.  Here the mapping from key to adder is established once; all
+ * later updates are lock-free {@code LongAdder.add} calls that spread
+ * across {@code Striped64} cells as contention on the key grows.  An
+ * update to an existing key allocates nothing and never writes to the
+ * underlying table.
+ *
+ * <p>As with {@link LongAdder#sum}, the value read for a key is not an
+ * atomic snapshot when updates are in progress.  Removing a key while
+ * other threads are adding to it may lose those concurrent updates.
+ *
+ * <p>Instances are most conveniently obtained through
+ * {@link ConcurrentHashMap#newFrequencyMap()}.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @since 1.8
+ */
+public class LongAdderMap<K> {
+
+    /** Creates new adders; non-capturing so that it is a single instance. */
+    private static final Function<Object,LongAdder> NEW_ADDER =
+        k -> new LongAdder();
+
+    private final ConcurrentHashMap<K,LongAdder> map;
+
+    /**
+     * Creates a new, empty map with the default initial table size (16).
+     */
+    public LongAdderMap() {
+        map = new ConcurrentHashMap<K,LongAdder>();
+    }
+
+    /**
+     * Creates a new, empty map with an initial table size accommodating
+     * the specified number of keys without the need to dynamically resize.
+     *
+     * @param initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public LongAdderMap(int initialCapacity) {
+        map = new ConcurrentHashMap<K,LongAdder>(initialCapacity);
+    }
+
+    /**
+     * Returns the adder for the given key, creating it if absent.  The
+     * common case of an existing key is a single lock-free {@code get}.
+     */
+    private LongAdder adder(K key) {
+        LongAdder a;
+        if ((a = map.get(key)) == null)
+            a = map.computeIfAbsent(key, NEW_ADDER);
+        return a;
+    }
+
+    /**
+     * Adds the given value to the counter for the given key, creating a
+     * zero counter first if there is none.
+     *
+     * @param key the key
+     * @param x the value to add
+     * @throws NullPointerException if the specified key is null
+     */
+    public void add(K key, long x) {
+        adder(key).add(x);
+    }
+
+    /**
+     * Equivalent to {@code add(key, 1)}.
+     *
+     * @param key the key
+     * @throws NullPointerException if the specified key is null
+     */
+    public void increment(K key) {
+        adder(key).increment();
+    }
+
+    /**
+     * Equivalent to {@code add(key, -1)}.
+     *
+     * @param key the key
+     * @throws NullPointerException if the specified key is null
+     */
+    public void decrement(K key) {
+        adder(key).decrement();
+    }
+
+    /**
+     * Returns the current sum for the given key, or zero if there is no
+     * counter for it.
+     *
+     * @param key the key
+     * @return the sum
+     * @throws NullPointerException if the specified key is null
+     */
+    public long sum(K key) {
+        LongAdder a = map.get(key);
+        return (a == null) ? 0L : a.sum();
+    }
+
+    /**
+     * Returns the current sum for the given key and resets its counter
+     * to zero, keeping the mapping.  The result is not an atomic snapshot
+     * if there are concurrent updates.
+     *
+     * @param key the key
+     * @return the sum before the reset
+     * @throws NullPointerException if the specified key is null
+     */
+    public long sumThenReset(K key) {
+        LongAdder a = map.get(key);
+        return (a == null) ? 0L : a.sumThenReset();
+    }
+
+    /**
+     * Removes the counter for the given key.
+     *
+     * @param key the key
+     * @return the sum of the removed counter, or zero if there was none
+     * @throws NullPointerException if the specified key is null
+     */
+    public long remove(K key) {
+        LongAdder a = map.remove(key);
+        return (a == null) ? 0L : a.sum();
+    }
+
+    /**
+     * Returns {@code true} if there is a counter for the given key.
+     *
+     * @param key the key
+     * @return {@code true} if there is a counter for the key
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Returns the number of keys with counters.  As with
+     * {@link ConcurrentHashMap#mappingCount}, this reads the map's
+     * striped size cells rather than traversing the table, so it is
+     * cheap but only an estimate under concurrent insertion or removal.
+     *
+     * @return the number of keys
+     */
+    public long mappingCount() {
+        return map.mappingCount();
+    }
+
+    /**
+     * Returns {@code true} if there are no counters.
+     *
+     * @return {@code true} if there are no counters
+     */
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns the total over all counters.  This traverses the map and
+     * is not an atomic snapshot under concurrent updates.
+     *
+     * @return the sum of all counters
+     */
+    public long sum() {
+        long sum = 0L;
+        for (LongAdder a : map.values())
+            sum += a.sum();
+        return sum;
+    }
+
+    /**
+     * Removes all counters.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * Returns a {@link Set} view of the keys with counters.  The view's
+     * iterators and spliterators are weakly consistent, as those of
+     * {@link ConcurrentHashMap#keySet()}.
+     *
+     * @return the set view
+     */
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    /**
+     * Performs the given action for each key and its current sum.
+     *
+     * @param action the action
+     * @throws NullPointerException if the action is null
+     */
+    public void forEach(ObjLongConsumer<? super K> action) {
+        if (action == null)
+            throw new NullPointerException();
+        map.forEach((k, a) -> action.accept(k, a.sum()));
+    }
+
+    /**
+     * Returns a new map holding the current sum of each counter.
+     *
+     * @return a snapshot of this map's sums
+     */
+    public Map<K,Long> toMap() {
+        ConcurrentHashMap<K,Long> m =
+            new ConcurrentHashMap<K,Long>(Math.max(map.size(), 16));
+        map.forEach((k, a) -> m.put(k, a.sum()));
+        return m;
+    }
+
+    /**
+     * Returns a string representation of the current sums, in the form
+     * of {@link java.util.AbstractMap#toString}.
+     */
+    public String toString() {
+        return toMap().toString();
+    }
+}
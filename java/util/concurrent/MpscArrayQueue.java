@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+/**
+ * A bounded queue backed by an array, for use by any number of producer
+ * threads and a single consumer thread.  Any thread may call the
+ * insertion methods ({@code offer}, {@code add}, {@code put}), but only
+ * one thread at a time may call the removal and examination methods
+ * ({@code poll}, {@code take}, {@code peek}, {@code drain},
+ * {@code remove}, {@code element}).  This suits the common case of many
+ * threads handing work to one, where {@link ConcurrentLinkedQueue}
+ * would allocate a node for each element and {@link ArrayBlockingQueue}
+ * would serialize producers and consumer on one lock.
+ *
+ * <p>Producers claim a slot with a single compare-and-set of the
+ * producer index and then store the element with an ordered write.
+ * They read the consumer index only when their cached bound suggests
+ * the queue may be full.  The consumer takes elements with no atomic
+ * read-modify-write instructions, publishing its index with an ordered
+ * write.  The indices are padded onto separate cache lines, and the
+ * queue allocates nothing after construction.
+ *
+ * <p>The capacity is rounded up to a power of two, with a minimum of
+ * two.  Null elements are not permitted.  Iterators are weakly
+ * consistent and do not support removal.  Methods that block retry
+ * under the queue's {@link WaitStrategy} rather than waiting for a
+ * signal.
+ *
+ * @param <E> the type of elements held in this queue
+ * @see SpscArrayQueue
+ * @see MpscUnboundedArrayQueue
+ * @since 1.8
+ */
+public class MpscArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+
+    /** Next index to claim; CASed by producers. */
+    @sun.misc.Contended("producer") private volatile long producerIndex;
+
+    /**
+     * Cached bound below which slots are known to be free.  Producers
+     * refresh it from the consumer index; a racing producer may store
+     * a stale, smaller value, which only causes another refresh.
+     */
+    @sun.misc.Contended("producer") private volatile long producerLimit;
+
+    /** Next index to read; written only by the consumer. */
+    @sun.misc.Contended("consumer") private volatile long consumerIndex;
+
+    /**
+     * Creates a queue with at least the given capacity, whose blocking
+     * methods use {@link WaitStrategy#PARK}.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     * @throws IllegalArgumentException if {@code capacity} is less than 2
+     *         or greater than {@code 1 << 30}
+     */
+    public MpscArrayQueue(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    /**
+     * Creates a queue with at least the given capacity and the given
+     * wait strategy.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     * @param waitStrategy how blocking methods wait
+     * @throws IllegalArgumentException if {@code capacity} is less than 2
+     *         or greater than {@code 1 << 30}
+     * @throws NullPointerException if {@code waitStrategy} is null
+     */
+    public MpscArrayQueue(int capacity, WaitStrategy waitStrategy) {
+        super(waitStrategy);
+        int n = roundCapacity(capacity, 2);
+        buffer = new Object[n];
+        mask = n - 1;
+        producerLimit = n;
+    }
+
+    private static long slotOffset(long index, int mask) {
+        return ((index & mask) << ASHIFT) + ABASE;
+    }
+
+    /**
+     * Returns the capacity of this queue.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if there
+     * is space.
+     *
+     * @return {@code true} if the element was added, else {@code false}
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        if (e == null)
+            throw new NullPointerException();
+        final int capacity = mask + 1;
+        long limit = producerLimit;
+        long p;
+        do {
+            p = producerIndex;
+            if (p >= limit) {
+                limit = consumerIndex + capacity;
+                if (p >= limit)
+                    return false;
+                U.putOrderedLong(this, PLIMIT, limit);
+            }
+        } while (!U.compareAndSwapLong(this, PINDEX, p, p + 1L));
+        U.putOrderedObject(buffer, slotOffset(p, mask), e);
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, or returns
+     * {@code null} if it is empty.  May be called only by the consumer
+     * thread.
+     *
+     * <p>If a producer has claimed the head slot but not yet stored its
+     * element, this method spins until it does.
+     *
+     * @return the head of this queue, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        final Object[] buffer = this.buffer;
+        final long c = U.getLong(this, CINDEX);     // own index: plain read
+        final long offset = slotOffset(c, mask);
+        Object e = U.getObjectVolatile(buffer, offset);
+        if (e == null) {
+            if (c == producerIndex)
+                return null;
+            do {
+                e = U.getObjectVolatile(buffer, offset);
+            } while (e == null);
+        }
+        U.putOrderedObject(buffer, offset, null);
+        U.putOrderedLong(this, CINDEX, c + 1L);
+        return (E) e;
+    }
+
+    /**
+     * Retrieves, but does not remove, the head of this queue, or returns
+     * {@code null} if it is empty.  May be called only by the consumer
+     * thread.
+     *
+     * @return the head of this queue, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        final Object[] buffer = this.buffer;
+        final long c = U.getLong(this, CINDEX);
+        final long offset = slotOffset(c, mask);
+        Object e = U.getObjectVolatile(buffer, offset);
+        if (e == null && c != producerIndex) {
+            do {
+                e = U.getObjectVolatile(buffer, offset);
+            } while (e == null);
+        }
+        return (E) e;
+    }
+
+    long consumerIndex() {
+        return consumerIndex;
+    }
+
+    long producerIndex() {
+        return producerIndex;
+    }
+
+    Object elementAt(long index) {
+        Object e = U.getObjectVolatile(buffer, slotOffset(index, mask));
+        return (consumerIndex <= index) ? e : null;
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long PINDEX;
+    private static final long PLIMIT;
+    private static final long CINDEX;
+    private static final long ABASE;
+    private static final int ASHIFT;
+
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            Class<?> k = MpscArrayQueue.class;
+            PINDEX = U.objectFieldOffset
+                (k.getDeclaredField("producerIndex"));
+            PLIMIT = U.objectFieldOffset
+                (k.getDeclaredField("producerLimit"));
+            CINDEX = U.objectFieldOffset
+                (k.getDeclaredField("consumerIndex"));
+            Class<?> ak = Object[].class;
+            ABASE = U.arrayBaseOffset(ak);
+            int scale = U.arrayIndexScale(ak);
+            if ((scale & (scale - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            ASHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
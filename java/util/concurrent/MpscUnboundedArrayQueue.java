@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+/**
+ * An unbounded queue made of linked array chunks, for use by any number
+ * of producer threads and a single consumer thread.  Any thread may
+ * call the insertion methods, which never fail or block, but only one
+ * thread at a time may call the removal and examination methods
+ * ({@code poll}, {@code take}, {@code peek}, {@code drain},
+ * {@code remove}, {@code element}).
+ *
+ * <p>Producers claim an index with a single atomic increment of the
+ * producer index, find the chunk holding that index, and store the
+ * element with an ordered write; the producer that first needs a new
+ * chunk allocates and links it.  The consumer walks the chunks in order
+ * with no atomic read-modify-write instructions, clearing each slot as
+ * it goes.  Unlike {@link ConcurrentLinkedQueue}, which allocates a node
+ * per element, this queue allocates one array per {@code chunkSize}
+ * elements, and chunks that the consumer has finished with become
+ * garbage as a whole.
+ *
+ * <p>Null elements are not permitted.  Iterators are weakly consistent
+ * and do not support removal.  {@link #take} and the timed
+ * {@code poll} retry under the queue's {@link WaitStrategy} rather than
+ * waiting for a signal.
+ *
+ * @param <E> the type of elements held in this queue
+ * @see MpscArrayQueue
+ * @since 1.8
+ */
+public class MpscUnboundedArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    /**
+     * A chunk of slots holding the elements with indices
+     * {@code base} to {@code base + slots.length - 1}.
+     */
+    static final class Chunk {
+        final Object[] slots;
+        final long base;
+        volatile Chunk next;
+
+        Chunk(int size, long base) {
+            this.slots = new Object[size];
+            this.base = base;
+        }
+
+        final boolean casNext(Chunk cmp, Chunk val) {
+            return U.compareAndSwapObject(this, NEXT, cmp, val);
+        }
+    }
+
+    private final int chunkMask;
+
+    /** Next index to claim; incremented by producers. */
+    @sun.misc.Contended("producer") private volatile long producerIndex;
+
+    /**
+     * A chunk whose base is at most any index not yet claimed.  Only
+     * advanced, so it may lag behind the chunk of the last claim.
+     */
+    @sun.misc.Contended("producer") private volatile Chunk producerChunk;
+
+    /** Next index to read; written only by the consumer. */
+    @sun.misc.Contended("consumer") private volatile long consumerIndex;
+
+    /** The chunk holding consumerIndex; written only by the consumer. */
+    @sun.misc.Contended("consumer") private volatile Chunk consumerChunk;
+
+    /**
+     * Creates a queue with chunks of 1024 elements whose blocking
+     * methods use {@link WaitStrategy#PARK}.
+     */
+    public MpscUnboundedArrayQueue() {
+        this(1024, WaitStrategy.PARK);
+    }
+
+    /**
+     * Creates a queue with chunks of at least the given size and the
+     * given wait strategy.
+     *
+     * @param chunkSize the number of elements per chunk, rounded up to a
+     *        power of two
+     * @param waitStrategy how blocking methods wait
+     * @throws IllegalArgumentException if {@code chunkSize} is less than 2
+     *         or greater than {@code 1 << 30}
+     * @throws NullPointerException if {@code waitStrategy} is null
+     */
+    public MpscUnboundedArrayQueue(int chunkSize, WaitStrategy waitStrategy) {
+        super(waitStrategy);
+        int n = roundCapacity(chunkSize, 2);
+        chunkMask = n - 1;
+        Chunk c = new Chunk(n, 0L);
+        producerChunk = c;
+        consumerChunk = c;
+    }
+
+    private static long slotOffset(long index, int mask) {
+        return ((index & mask) << ASHIFT) + ABASE;
+    }
+
+    /**
+     * Returns the chunk holding {@code index}, starting the search at
+     * {@code c} and linking new chunks as needed.
+     */
+    private Chunk chunkFor(Chunk c, long index) {
+        final int size = chunkMask + 1;
+        while (index - c.base >= size) {
+            Chunk n = c.next;
+            if (n == null) {
+                Chunk nc = new Chunk(size, c.base + size);
+                n = c.casNext(null, nc) ? nc : c.next;
+            }
+            c = n;
+        }
+        return c;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue.  As the
+     * queue is unbounded, this method never returns {@code false}.
+     *
+     * @return {@code true} (as specified by {@link java.util.Queue#offer})
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        if (e == null)
+            throw new NullPointerException();
+        Chunk pc = producerChunk;         // must be read before claiming p
+        long p = U.getAndAddLong(this, PINDEX, 1L);
+        Chunk c = chunkFor(pc, p);
+        if (c != pc) {
+            while (pc.base < c.base && !U.compareAndSwapObject(this, PCHUNK, pc, c))
+                pc = producerChunk;
+        }
+        U.putOrderedObject(c.slots, slotOffset(p, chunkMask), e);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue.  As the
+     * queue is unbounded, this method never blocks.
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    public void put(E e) {
+        offer(e);
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue.  As the
+     * queue is unbounded, this method never blocks or returns
+     * {@code false}.
+     *
+     * @return {@code true}
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit) {
+        return offer(e);
+    }
+
+    /**
+     * Returns the chunk holding consumer index {@code c}, moving the
+     * consumer to the next chunk when the current one is used up, or
+     * {@code null} if that chunk is not needed because the queue is
+     * empty.
+     */
+    private Chunk consumerChunkFor(long c) {
+        Chunk ch = consumerChunk;
+        if (c - ch.base > chunkMask) {
+            Chunk n = ch.next;
+            if (n == null) {
+                if (c == producerIndex)
+                    return null;
+                // a producer has claimed c and is linking its chunk
+                while ((n = ch.next) == null)
+                    ;
+            }
+            U.putOrderedObject(this, CCHUNK, n);
+            ch = n;
+        }
+        return ch;
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, or returns
+     * {@code null} if it is empty.  May be called only by the consumer
+     * thread.
+     *
+     * <p>If a producer has claimed the head slot but not yet stored its
+     * element, this method spins until it does.
+     *
+     * @return the head of this queue, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        final long c = U.getLong(this, CINDEX);     // own index: plain read
+        Chunk ch = consumerChunkFor(c);
+        if (ch == null)
+            return null;
+        final Object[] slots = ch.slots;
+        final long offset = slotOffset(c, chunkMask);
+        Object e = U.getObjectVolatile(slots, offset);
+        if (e == null) {
+            if (c == producerIndex)
+                return null;
+            do {
+                e = U.getObjectVolatile(slots, offset);
+            } while (e == null);
+        }
+        U.putOrderedObject(slots, offset, null);
+        U.putOrderedLong(this, CINDEX, c + 1L);
+        return (E) e;
+    }
+
+    /**
+     * Retrieves, but does not remove, the head of this queue, or returns
+     * {@code null} if it is empty.  May be called only by the consumer
+     * thread.
+     *
+     * @return the head of this queue, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        final long c = U.getLong(this, CINDEX);
+        Chunk ch = consumerChunkFor(c);
+        if (ch == null)
+            return null;
+        final Object[] slots = ch.slots;
+        final long offset = slotOffset(c, chunkMask);
+        Object e = U.getObjectVolatile(slots, offset);
+        if (e == null && c != producerIndex) {
+            do {
+                e = U.getObjectVolatile(slots, offset);
+            } while (e == null);
+        }
+        return (E) e;
+    }
+
+    long consumerIndex() {
+        return consumerIndex;
+    }
+
+    long producerIndex() {
+        return producerIndex;
+    }
+
+    Object elementAt(long index) {
+        Chunk ch = consumerChunk;
+        if (index < ch.base)
+            return null;
+        while (index - ch.base > chunkMask) {
+            if ((ch = ch.next) == null)
+                return null;
+        }
+        Object e = U.getObjectVolatile(ch.slots, slotOffset(index, chunkMask));
+        return (consumerIndex <= index) ? e : null;
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long PINDEX;
+    private static final long PCHUNK;
+    private static final long CINDEX;
+    private static final long CCHUNK;
+    private static final long NEXT;
+    private static final long ABASE;
+    private static final int ASHIFT;
+
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            Class<?> k = MpscUnboundedArrayQueue.class;
+            PINDEX = U.objectFieldOffset
+                (k.getDeclaredField("producerIndex"));
+            PCHUNK = U.objectFieldOffset
+                (k.getDeclaredField("producerChunk"));
+            CINDEX = U.objectFieldOffset
+                (k.getDeclaredField("consumerIndex"));
+            CCHUNK = U.objectFieldOffset
+                (k.getDeclaredField("consumerChunk"));
+            NEXT = U.objectFieldOffset
+                (Chunk.class.getDeclaredField("next"));
+            Class<?> ak = Object[].class;
+            ABASE = U.arrayBaseOffset(ak);
+            int scale = U.arrayIndexScale(ak);
+            if ((scale & (scale - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            ASHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An unbounded {@link BlockingQueue} split into several lock-free shards,
+ * used as the work queue of {@link Executors#newShardedThreadPool}.
+ *
+ * <p>A single {@link LinkedBlockingQueue} makes every submission and
+ * every take contend for one pair of locks.  Here each thread is assigned
+ * a home shard from its {@link ThreadLocalRandom} probe: producers offer
+ * to their home shard, and consumers poll their own home shard first.  A
+ * consumer whose home shard is empty scans the others and, on finding
+ * work, moves a small batch from that shard to its own, in the manner of
+ * {@code ForkJoinPool} work stealing, so that a busy shard is drained by
+ * several workers without repeated scans.  Moving a batch signals a
+ * waiter, as an insertion does, since a consumer that scanned while the
+ * batch was in transit may have found every shard empty.
+ *
+ * <p>Consumers that find every shard empty push themselves onto a
+ * Treiber stack of waiters and park; a producer pops and unparks one
+ * waiter after each insertion, and does nothing beyond a volatile read
+ * when no consumer is waiting.  A waiter re-scans the shards after
+ * registering, and a waiter that gives up (timeout, interrupt, or
+ * finding work) but has already been signalled passes the signal on, so
+ * no wakeup is lost.
+ *
+ * <p>Ordering is FIFO within a shard only; there is no ordering between
+ * elements in different shards.  As with {@link ConcurrentLinkedQueue},
+ * {@link #size} traverses the queue.
+ *
+ * @param <E> the type of elements held in this queue
+ */
+class ShardedTaskQueue<E> extends AbstractQueue<E>
+        implements BlockingQueue<E> {
+
+    /** Maximum number of elements moved to the stealer's shard at once. */
+    static final int STEAL_BATCH = 8;
+
+    /** Waiter states */
+    static final int WAITING   = 0;
+    static final int SIGNALLED = 1;
+    static final int CANCELLED = 2;
+
+    static final class Waiter {
+        final Thread thread;
+        final AtomicInteger state = new AtomicInteger();
+        Waiter next;
+        Waiter(Thread thread) { this.thread = thread; }
+    }
+
+    private final ConcurrentLinkedQueue<E>[] shards;
+    private final AtomicReference<Waiter> waiters = new AtomicReference<>();
+
+    /**
+     * Creates a queue with at least the given number of shards, rounded
+     * up to a power of two.
+     *
+     * @param shardCount the number of shards
+     * @throws IllegalArgumentException if {@code shardCount <= 0}
+     */
+    @SuppressWarnings("unchecked")
+    ShardedTaskQueue(int shardCount) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException();
+        int n = 1;
+        while (n < shardCount && n < (1 << 16))
+            n <<= 1;
+        shards = (ConcurrentLinkedQueue<E>[])new ConcurrentLinkedQueue<?>[n];
+        for (int i = 0; i < n; ++i)
+            shards[i] = new ConcurrentLinkedQueue<E>();
+    }
+
+    /** Returns the index of the calling thread's home shard. */
+    private int home() {
+        int h;
+        if ((h = ThreadLocalRandom.getProbe()) == 0) {
+            ThreadLocalRandom.localInit();
+            h = ThreadLocalRandom.getProbe();
+        }
+        return h & (shards.length - 1);
+    }
+
+    // -- signalling --
+
+    /**
+     * Wakes one waiting consumer, if any.
+     */
+    private void signal() {
+        Waiter w;
+        while ((w = waiters.get()) != null) {
+            if (waiters.compareAndSet(w, w.next) &&
+                w.state.compareAndSet(WAITING, SIGNALLED)) {
+                LockSupport.unpark(w.thread);
+                return;
+            }
+        }
+    }
+
+    private Waiter enqueueWaiter() {
+        Waiter w = new Waiter(Thread.currentThread());
+        for (;;) {
+            Waiter h = waiters.get();
+            if (h != null && h.state.get() == CANCELLED) {
+                // unlink cancelled waiters at the top while we are here
+                waiters.compareAndSet(h, h.next);
+                continue;
+            }
+            w.next = h;
+            if (waiters.compareAndSet(h, w))
+                return w;
+        }
+    }
+
+    /**
+     * Withdraws a waiter.  If it was signalled in the meantime, the
+     * signal is passed on, since the element that caused it may still
+     * be in the queue.
+     */
+    private void cancelWaiter(Waiter w) {
+        if (!w.state.compareAndSet(WAITING, CANCELLED))
+            signal();
+    }
+
+    /**
+     * Polls, waiting if necessary.  A negative {@code nanos} waits
+     * forever.
+     */
+    private E awaitPoll(boolean timed, long nanos) throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        for (;;) {
+            E e;
+            if ((e = poll()) != null)
+                return e;
+            if (timed && nanos <= 0L)
+                return null;
+            Waiter w = enqueueWaiter();
+            if ((e = poll()) != null) {
+                cancelWaiter(w);
+                return e;
+            }
+            while (w.state.get() == WAITING) {
+                if (Thread.interrupted()) {
+                    cancelWaiter(w);
+                    throw new InterruptedException();
+                }
+                if (timed) {
+                    if ((nanos = deadline - System.nanoTime()) <= 0L) {
+                        cancelWaiter(w);
+                        break;
+                    }
+                    LockSupport.parkNanos(this, nanos);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+        }
+    }
+
+    // -- BlockingQueue methods --
+
+    /**
+     * Inserts the specified element into the calling thread's shard.
+     * As the queue is unbounded, this method never returns
+     * {@code false}.
+     *
+     * @return {@code true} (as specified by {@link Queue#offer})
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        shards[home()].offer(e);
+        if (waiters.get() != null)
+            signal();
+        return true;
+    }
+
+    /**
+     * Inserts the specified element.  As the queue is unbounded, this
+     * method never blocks.
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    public void put(E e) {
+        offer(e);
+    }
+
+    /**
+     * Inserts the specified element.  As the queue is unbounded, this
+     * method never blocks or returns {@code false}.
+     *
+     * @return {@code true}
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit) {
+        return offer(e);
+    }
+
+    /**
+     * Retrieves and removes an element, preferring the calling thread's
+     * shard and otherwise stealing from another.
+     *
+     * @return an element, or {@code null} if every shard is empty
+     */
+    public E poll() {
+        ConcurrentLinkedQueue<E>[] ss = shards;
+        int n = ss.length, h = home();
+        ConcurrentLinkedQueue<E> mine = ss[h];
+        E e;
+        if ((e = mine.poll()) != null)
+            return e;
+        for (int i = 1; i < n; ++i) {
+            ConcurrentLinkedQueue<E> victim = ss[(h + i) & (n - 1)];
+            if ((e = victim.poll()) != null) {
+                E x;
+                int k = 1;
+                for (; k < STEAL_BATCH && (x = victim.poll()) != null; ++k)
+                    mine.offer(x);
+                // a consumer may have scanned while the batch was in
+                // transit and parked; the moved elements are new to it
+                if (k > 1 && waiters.get() != null)
+                    signal();
+                return e;
+            }
+        }
+        return null;
+    }
+
+    public E take() throws InterruptedException {
+        return awaitPoll(false, 0L);
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitPoll(true, unit.toNanos(timeout));
+    }
+
+    public E peek() {
+        E e;
+        for (ConcurrentLinkedQueue<E> q : shards) {
+            if ((e = q.peek()) != null)
+                return e;
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        for (ConcurrentLinkedQueue<E> q : shards) {
+            if (!q.isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of elements in this queue.  This requires a
+     * traversal of every shard, and the result is inaccurate if the
+     * queue is modified concurrently.
+     *
+     * @return the number of elements in this queue
+     */
+    public int size() {
+        long n = 0L;
+        for (ConcurrentLinkedQueue<E> q : shards)
+            n += q.size();
+        return (int)Math.min(n, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Always returns {@code Integer.MAX_VALUE} because the queue is
+     * unbounded.
+     *
+     * @return {@code Integer.MAX_VALUE}
+     */
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    public boolean remove(Object o) {
+        if (o != null) {
+            for (ConcurrentLinkedQueue<E> q : shards) {
+                if (q.remove(o))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(Object o) {
+        if (o != null) {
+            for (ConcurrentLinkedQueue<E> q : shards) {
+                if (q.contains(o))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        for (ConcurrentLinkedQueue<E> q : shards)
+            q.clear();
+    }
+
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        int n = 0;
+        for (ConcurrentLinkedQueue<E> q : shards) {
+            E e;
+            while (n < maxElements && (e = q.poll()) != null) {
+                c.add(e);
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the elements, visiting
+     * the shards in turn.
+     *
+     * @return an iterator over the elements in this queue
+     */
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    public Object[] toArray() {
+        ArrayList<E> al = new ArrayList<E>();
+        for (ConcurrentLinkedQueue<E> q : shards)
+            al.addAll(q);
+        return al.toArray();
+    }
+
+    public <T> T[] toArray(T[] a) {
+        ArrayList<E> al = new ArrayList<E>();
+        for (ConcurrentLinkedQueue<E> q : shards)
+            al.addAll(q);
+        return al.toArray(a);
+    }
+
+    private class Itr implements Iterator<E> {
+        int next;                       // index of the next shard
+        Iterator<E> it;                 // iterator over the current shard
+
+        public boolean hasNext() {
+            while (it == null || !it.hasNext()) {
+                if (next >= shards.length)
+                    return false;
+                it = shards[next++].iterator();
+            }
+            return true;
+        }
+
+        public E next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return it.next();
+        }
+
+        public void remove() {
+            if (it == null)
+                throw new IllegalStateException();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+/**
+ * A bounded queue backed by an array, for use by exactly one producer
+ * thread and one consumer thread.  Only the producer may call the
+ * insertion methods ({@code offer}, {@code add}, {@code put}), and only
+ * the consumer the removal and examination methods ({@code poll},
+ * {@code take}, {@code peek}, {@code drain}, {@code remove},
+ * {@code element}); other methods may be called by any thread.  With
+ * that restriction, the queue hands elements over with no locks and no
+ * atomic read-modify-write instructions, and allocates nothing after
+ * construction.
+ *
+ * <p>The producer and consumer indices are padded onto separate cache
+ * lines and published with ordered ("lazy") writes.  The producer
+ * rereads the consumer index only when its cached copy suggests the
+ * queue may be full, and the consumer never reads the producer index at
+ * all, instead detecting an empty queue by finding the next slot null.
+ * In steady state each thread therefore touches only its own cache
+ * lines and the slots themselves.
+ *
+ * <p>The capacity is rounded up to a power of two.  Null elements are
+ * not permitted.  Iterators are weakly consistent and do not support
+ * removal.  Methods that block retry under the queue's
+ * {@link WaitStrategy} rather than waiting for a signal.
+ *
+ * @param <E> the type of elements held in this queue
+ * @see MpscArrayQueue
+ * @since 1.8
+ */
+public class SpscArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+
+    /** Next index to write; written only by the producer. */
+    @sun.misc.Contended("producer") private volatile long producerIndex;
+
+    /** Producer's cached bound below which slots are known to be free. */
+    @sun.misc.Contended("producer") private long producerLimit;
+
+    /** Next index to read; written only by the consumer. */
+    @sun.misc.Contended("consumer") private volatile long consumerIndex;
+
+    /**
+     * Creates a queue with at least the given capacity, whose blocking
+     * methods use {@link WaitStrategy#PARK}.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     * @throws IllegalArgumentException if {@code capacity} is less than 1
+     *         or greater than {@code 1 << 30}
+     */
+    public SpscArrayQueue(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    /**
+     * Creates a queue with at least the given capacity and the given
+     * wait strategy.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     * @param waitStrategy how blocking methods wait
+     * @throws IllegalArgumentException if {@code capacity} is less than 1
+     *         or greater than {@code 1 << 30}
+     * @throws NullPointerException if {@code waitStrategy} is null
+     */
+    public SpscArrayQueue(int capacity, WaitStrategy waitStrategy) {
+        super(waitStrategy);
+        int n = roundCapacity(capacity, 1);
+        buffer = new Object[n];
+        mask = n - 1;
+        producerLimit = n;
+    }
+
+    private static long slotOffset(long index, int mask) {
+        return ((index & mask) << ASHIFT) + ABASE;
+    }
+
+    /**
+     * Returns the capacity of this queue.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if there
+     * is space.  May be called only by the producer thread.
+     *
+     * @return {@code true} if the element was added, else {@code false}
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        if (e == null)
+            throw new NullPointerException();
+        final Object[] buffer = this.buffer;
+        final long p = U.getLong(this, PINDEX);     // own index: plain read
+        if (p >= producerLimit) {
+            long limit = consumerIndex + buffer.length;
+            if (p >= limit)
+                return false;
+            producerLimit = limit;
+        }
+        U.putOrderedObject(buffer, slotOffset(p, mask), e);
+        U.putOrderedLong(this, PINDEX, p + 1L);
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, or returns
+     * {@code null} if it is empty.  May be called only by the consumer
+     * thread.
+     *
+     * @return the head of this queue, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        final Object[] buffer = this.buffer;
+        final long c = U.getLong(this, CINDEX);     // own index: plain read
+        final long offset = slotOffset(c, mask);
+        Object e = U.getObjectVolatile(buffer, offset);
+        if (e == null)
+            return null;
+        U.putOrderedObject(buffer, offset, null);
+        U.putOrderedLong(this, CINDEX, c + 1L);
+        return (E) e;
+    }
+
+    /**
+     * Retrieves, but does not remove, the head of this queue, or returns
+     * {@code null} if it is empty.  May be called only by the consumer
+     * thread.
+     *
+     * @return the head of this queue, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return (E) U.getObjectVolatile(buffer,
+                                       slotOffset(U.getLong(this, CINDEX), mask));
+    }
+
+    long consumerIndex() {
+        return consumerIndex;
+    }
+
+    long producerIndex() {
+        return producerIndex;
+    }
+
+    Object elementAt(long index) {
+        Object e = U.getObjectVolatile(buffer, slotOffset(index, mask));
+        return (consumerIndex <= index) ? e : null;
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long PINDEX;
+    private static final long CINDEX;
+    private static final long ABASE;
+    private static final int ASHIFT;
+
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            Class<?> k = SpscArrayQueue.class;
+            PINDEX = U.objectFieldOffset
+                (k.getDeclaredField("producerIndex"));
+            CINDEX = U.objectFieldOffset
+                (k.getDeclaredField("consumerIndex"));
+            Class<?> ak = Object[].class;
+            ABASE = U.arrayBaseOffset(ak);
+            int scale = U.arrayIndexScale(ak);
+            if ((scale & (scale - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            ASHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits in the blocking methods of {@link SpscArrayQueue},
+ * {@link MpscArrayQueue} and {@link MpscUnboundedArrayQueue}.
+ *
+ * <p>These queues keep no list of waiting threads, so that
+ * {@code offer} and {@code poll} never have to signal anyone.  A thread
+ * that must wait for an element or for space instead retries the
+ * operation, idling between attempts as chosen here.  The strategies
+ * trade latency against the processor time consumed while idle.
+ *
+ * @since 1.8
+ */
+public enum WaitStrategy {
+
+    /**
+     * Retries without pausing.  Gives the lowest latency, but keeps a
+     * processor busy for as long as the thread waits; suitable only when
+     * each waiting thread has a processor to itself.
+     */
+    SPIN {
+        void idle(int attempts) {
+        }
+    },
+
+    /**
+     * Spins briefly, then calls {@link Thread#yield} between retries.
+     */
+    YIELD {
+        void idle(int attempts) {
+            if (attempts >= SPINS)
+                Thread.yield();
+        }
+    },
+
+    /**
+     * Spins briefly, then yields, then parks for exponentially
+     * increasing periods of up to about a millisecond between retries.
+     * Consumes little processor time when the queue stays idle, at the
+     * cost of up to that much added latency.
+     */
+    PARK {
+        void idle(int attempts) {
+            if (attempts >= SPINS + YIELDS)
+                LockSupport.parkNanos(1L << Math.min(attempts - SPINS - YIELDS,
+                                                     MAX_PARK_SHIFT));
+            else if (attempts >= SPINS)
+                Thread.yield();
+        }
+    };
+
+    /** Number of retries before yielding */
+    static final int SPINS = 64;
+
+    /** Number of yielding retries before parking */
+    static final int YIELDS = 64;
+
+    /** Log2 of the longest park, in nanoseconds */
+    static final int MAX_PARK_SHIFT = 20;
+
+    /**
+     * Pauses after a failed attempt.
+     *
+     * @param attempts the number of failed attempts so far, starting at 0
+     */
+    abstract void idle(int attempts);
+}
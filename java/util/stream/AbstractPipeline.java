@@ -74,6 +74,12 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     private static final String MSG_STREAM_LINKED = "stream has already been operated upon or closed";
     private static final String MSG_CONSUMED = "source already consumed or closed";
 
+    /**
+     * Maximum number of primitive values collected from a source before they
+     * are pushed downstream together; see {@link #forEachBatched}.
+     */
+    static final int BATCH_SIZE = 1024;
+
     /**
      * Backlink to the head of the pipeline chain (self if this is the source
      * stage).
@@ -474,12 +480,19 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     final <P_IN> void copyInto(Sink<P_IN> wrappedSink, Spliterator<P_IN> spliterator) {
         Objects.requireNonNull(wrappedSink);
 
         if (!StreamOpFlag.SHORT_CIRCUIT.isKnown(getStreamAndOpFlags())) {
+            @SuppressWarnings({"rawtypes","unchecked"})
+            AbstractPipeline p = AbstractPipeline.this;
+            while (p.depth > 0) {
+                p = p.previousStage;
+            }
             wrappedSink.begin(spliterator.getExactSizeIfKnown());
-            spliterator.forEachRemaining(wrappedSink);
+            if (!p.forEachBatched(spliterator, wrappedSink))
+                spliterator.forEachRemaining(wrappedSink);
             wrappedSink.end();
         }
         else {
@@ -605,6 +618,23 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     abstract void forEachWithCancel(Spliterator<E_OUT> spliterator, Sink<E_OUT> sink);
 
+    /**
+     * Traverse the elements of a spliterator compatible with this stream shape,
+     * pushing them into a sink in batches, if the sink supports batches of
+     * this shape.  Primitive pipelines override this to collect elements into
+     * an array and deliver them through {@code acceptBatch}.
+     *
+     * @implSpec The default implementation returns false.
+     *
+     * @param spliterator the spliterator to pull elements from
+     * @param sink the sink to push elements to
+     * @return true if all elements were pushed, false if the caller should
+     *         traverse the spliterator itself
+     */
+    boolean forEachBatched(Spliterator<E_OUT> spliterator, Sink<E_OUT> sink) {
+        return false;
+    }
+
     /**
      * Make a node builder compatible with this stream shape.
      *
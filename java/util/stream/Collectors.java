@@ -46,6 +46,7 @@ import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -1061,14 +1062,19 @@ public final class Collectors {
         if (downstream.characteristics().contains(Collector.Characteristics.CONCURRENT)) {
             accumulator = (m, t) -> {
                 K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
-                A resultContainer = m.computeIfAbsent(key, k -> downstreamSupplier.get());
+                A resultContainer = m.get(key);
+                if (resultContainer == null)
+                    resultContainer = m.computeIfAbsent(key, k -> downstreamSupplier.get());
                 downstreamAccumulator.accept(resultContainer, t);
             };
         }
         else {
             accumulator = (m, t) -> {
                 K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
-                A resultContainer = m.computeIfAbsent(key, k -> downstreamSupplier.get());
+                // get first: computeIfAbsent locks the bin even if the key is present
+                A resultContainer = m.get(key);
+                if (resultContainer == null)
+                    resultContainer = m.computeIfAbsent(key, k -> downstreamSupplier.get());
                 synchronized (resultContainer) {
                     downstreamAccumulator.accept(resultContainer, t);
                 }
@@ -1091,6 +1097,148 @@ public final class Collectors {
         }
     }
 
+    /**
+     * Returns a concurrent {@code Collector} implementing a "group by"
+     * operation on input elements of type {@code T}, grouping elements
+     * according to a classification function, and returning the results in a
+     * {@code Map}.
+     *
+     * <p>This collector behaves like {@link #groupingBy(Function)}, but is
+     * {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered}, and is intended
+     * for parallel streams with many distinct keys.  See
+     * {@link #groupingByPartitioned(Function, Supplier, Collector)} for how it
+     * differs from {@code groupingBy} and {@code groupingByConcurrent}.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the keys
+     * @param classifier a classifier function mapping input elements to keys
+     * @return a concurrent, unordered {@code Collector} implementing the group-by operation
+     *
+     * @see #groupingBy(Function)
+     * @see #groupingByPartitioned(Function, Collector)
+     * @see #groupingByPartitioned(Function, Supplier, Collector)
+     * @since 1.8
+     */
+    public static <T, K>
+    Collector<T, ?, Map<K, List<T>>>
+    groupingByPartitioned(Function<? super T, ? extends K> classifier) {
+        return groupingByPartitioned(classifier, HashMap::new, toList());
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} implementing a cascaded "group by"
+     * operation on input elements of type {@code T}, grouping elements
+     * according to a classification function, and then performing a reduction
+     * operation on the values associated with a given key using the specified
+     * downstream {@code Collector}.
+     *
+     * <p>This collector behaves like {@link #groupingBy(Function, Collector)},
+     * but is {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered}.  See
+     * {@link #groupingByPartitioned(Function, Supplier, Collector)} for how it
+     * differs from {@code groupingBy} and {@code groupingByConcurrent}.
+     *
+     * <p>There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the keys
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code Collector} implementing the downstream reduction
+     * @return a concurrent, unordered {@code Collector} implementing the cascaded group-by operation
+     *
+     * @see #groupingBy(Function, Collector)
+     * @see #groupingByPartitioned(Function)
+     * @see #groupingByPartitioned(Function, Supplier, Collector)
+     * @since 1.8
+     */
+    public static <T, K, A, D>
+    Collector<T, ?, Map<K, D>> groupingByPartitioned(Function<? super T, ? extends K> classifier,
+                                                     Collector<? super T, A, D> downstream) {
+        return groupingByPartitioned(classifier, HashMap::new, downstream);
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} implementing a cascaded "group by"
+     * operation on input elements of type {@code T}, grouping elements
+     * according to a classification function, and then performing a reduction
+     * operation on the values associated with a given key using the specified
+     * downstream {@code Collector}.  The {@code Map} produced by the Collector
+     * is created with the supplied factory function.
+     *
+     * <p>This is a {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered} Collector.
+     *
+     * <p>In a parallel reduction, {@link #groupingBy(Function, Supplier, Collector)}
+     * builds a separate map in each subtask and merges those maps pairwise,
+     * so that each entry may be copied many times, while
+     * {@link #groupingByConcurrent(Function, Supplier, Collector)} has every
+     * thread update one shared map, synchronizing on the downstream
+     * container of each key.  This collector instead splits the key space
+     * into a fixed number of partitions, chosen by key hash and several
+     * times the {@link java.util.concurrent.ForkJoinPool#getCommonPoolParallelism()
+     * parallelism} of the common pool.  All threads accumulate into one set
+     * of partitions, each an ordinary hash map guarded by its own lock, so
+     * threads seldom contend and no intermediate maps are merged.  When the
+     * stream is exhausted the partitions are copied once into the map
+     * returned by {@code mapFactory}, applying the downstream finisher.
+     *
+     * <p>The downstream accumulator is invoked while holding the lock of the
+     * key's partition, so it need not be thread-safe, but it should not
+     * block.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the keys
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param <M> the type of the resulting {@code Map}
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code Collector} implementing the downstream reduction
+     * @param mapFactory a function which, when called, produces a new empty
+     *                   {@code Map} of the desired type
+     * @return a concurrent, unordered {@code Collector} implementing the cascaded group-by operation
+     *
+     * @see #groupingBy(Function, Supplier, Collector)
+     * @see #groupingByConcurrent(Function, Supplier, Collector)
+     * @see #toMapPartitioned(Function, Function, BinaryOperator, Supplier)
+     * @since 1.8
+     */
+    public static <T, K, A, D, M extends Map<K, D>>
+    Collector<T, ?, M> groupingByPartitioned(Function<? super T, ? extends K> classifier,
+                                             Supplier<M> mapFactory,
+                                             Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        BiConsumer<Stripes<K, A>, T> accumulator = (s, t) -> {
+            K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+            HashMap<K, A> m = s.mapFor(key);
+            synchronized (m) {
+                A container = m.get(key);
+                if (container == null)
+                    m.put(key, container = downstreamSupplier.get());
+                downstreamAccumulator.accept(container, t);
+            }
+        };
+        BinaryOperator<Stripes<K, A>> merger = (left, right) -> {
+            left.mergeAll(right, downstreamCombiner);
+            return left;
+        };
+        Function<Stripes<K, A>, M> finisher = s -> {
+            M result = mapFactory.get();
+            for (HashMap<K, A> m : s.maps) {
+                for (Map.Entry<K, A> e : m.entrySet())
+                    result.put(e.getKey(), downstreamFinisher.apply(e.getValue()));
+            }
+            return result;
+        };
+        return new CollectorImpl<>(Stripes::new, accumulator, merger, finisher, CH_CONCURRENT_NOID);
+    }
+
     /**
      * Returns a {@code Collector} which partitions the input elements according
      * to a {@code Predicate}, and organizes them into a
@@ -1474,6 +1622,138 @@ public final class Collectors {
         return new CollectorImpl<>(mapSupplier, accumulator, mapMerger(mergeFunction), CH_CONCURRENT_ID);
     }
 
+    /**
+     * Returns a concurrent {@code Collector} that accumulates elements into a
+     * {@code Map} whose keys and values are the result of applying the
+     * provided mapping functions to the input elements.
+     *
+     * <p>This collector behaves like {@link #toMap(Function, Function)},
+     * including throwing {@code IllegalStateException} on duplicate keys,
+     * but is {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered}.  See
+     * {@link #toMapPartitioned(Function, Function, BinaryOperator, Supplier)}
+     * for how it is evaluated.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the output type of the key mapping function
+     * @param <U> the output type of the value mapping function
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @return a concurrent, unordered {@code Collector} which collects elements
+     * into a {@code Map} whose keys and values are the result of applying
+     * mapping functions to the input elements
+     *
+     * @see #toMap(Function, Function)
+     * @see #toMapPartitioned(Function, Function, BinaryOperator)
+     * @since 1.8
+     */
+    public static <T, K, U>
+    Collector<T, ?, Map<K,U>> toMapPartitioned(Function<? super T, ? extends K> keyMapper,
+                                               Function<? super T, ? extends U> valueMapper) {
+        return toMapPartitioned(keyMapper, valueMapper, throwingMerger(), HashMap::new);
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} that accumulates elements into a
+     * {@code Map} whose keys and values are the result of applying the
+     * provided mapping functions to the input elements, merging the values
+     * of equal keys with the provided merging function.
+     *
+     * <p>This collector behaves like
+     * {@link #toMap(Function, Function, BinaryOperator)}, but is
+     * {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered}.  See
+     * {@link #toMapPartitioned(Function, Function, BinaryOperator, Supplier)}
+     * for how it is evaluated.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the output type of the key mapping function
+     * @param <U> the output type of the value mapping function
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @param mergeFunction a merge function, used to resolve collisions between
+     *                      values associated with the same key, as supplied
+     *                      to {@link Map#merge(Object, Object, BiFunction)}
+     * @return a concurrent, unordered {@code Collector} which collects elements
+     * into a {@code Map} whose keys are the result of applying a key mapping
+     * function to the input elements, and whose values are the result of
+     * applying a value mapping function to all input elements equal to the key
+     * and combining them using the merge function
+     *
+     * @see #toMap(Function, Function, BinaryOperator)
+     * @see #toMapPartitioned(Function, Function)
+     * @since 1.8
+     */
+    public static <T, K, U>
+    Collector<T, ?, Map<K,U>> toMapPartitioned(Function<? super T, ? extends K> keyMapper,
+                                               Function<? super T, ? extends U> valueMapper,
+                                               BinaryOperator<U> mergeFunction) {
+        return toMapPartitioned(keyMapper, valueMapper, mergeFunction, HashMap::new);
+    }
+
+    /**
+     * Returns a concurrent {@code Collector} that accumulates elements into a
+     * {@code Map} whose keys and values are the result of applying the
+     * provided mapping functions to the input elements, merging the values
+     * of equal keys with the provided merging function.  The {@code Map} is
+     * created by a provided supplier function.
+     *
+     * <p>This is a {@link Collector.Characteristics#CONCURRENT concurrent} and
+     * {@link Collector.Characteristics#UNORDERED unordered} Collector.  As
+     * with {@link #groupingByPartitioned(Function, Supplier, Collector)}, all
+     * threads accumulate into a fixed set of hash partitions of the key
+     * space, each guarded by its own lock, so that a parallel reduction
+     * builds no intermediate maps and never merges them.  The partitions
+     * are copied once into the map returned by {@code mapSupplier}.  The
+     * merge function is invoked while holding a partition lock.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the output type of the key mapping function
+     * @param <U> the output type of the value mapping function
+     * @param <M> the type of the resulting {@code Map}
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @param mergeFunction a merge function, used to resolve collisions between
+     *                      values associated with the same key, as supplied
+     *                      to {@link Map#merge(Object, Object, BiFunction)}
+     * @param mapSupplier a function which returns a new, empty {@code Map} into
+     *                    which the results will be inserted
+     * @return a concurrent, unordered {@code Collector} which collects elements
+     * into a {@code Map} whose keys are the result of applying a key mapping
+     * function to the input elements, and whose values are the result of
+     * applying a value mapping function to all input elements equal to the key
+     * and combining them using the merge function
+     *
+     * @see #toMap(Function, Function, BinaryOperator, Supplier)
+     * @see #toConcurrentMap(Function, Function, BinaryOperator, Supplier)
+     * @since 1.8
+     */
+    public static <T, K, U, M extends Map<K, U>>
+    Collector<T, ?, M> toMapPartitioned(Function<? super T, ? extends K> keyMapper,
+                                        Function<? super T, ? extends U> valueMapper,
+                                        BinaryOperator<U> mergeFunction,
+                                        Supplier<M> mapSupplier) {
+        BiConsumer<Stripes<K, U>, T> accumulator = (s, element) -> {
+            K key = keyMapper.apply(element);
+            U value = valueMapper.apply(element);
+            HashMap<K, U> m = s.mapFor(key);
+            synchronized (m) {
+                m.merge(key, value, mergeFunction);
+            }
+        };
+        BinaryOperator<Stripes<K, U>> merger = (left, right) -> {
+            left.mergeAll(right, mergeFunction);
+            return left;
+        };
+        Function<Stripes<K, U>, M> finisher = s -> {
+            M result = mapSupplier.get();
+            for (HashMap<K, U> m : s.maps)
+                result.putAll(m);
+            return result;
+        };
+        return new CollectorImpl<>(Stripes::new, accumulator, merger, finisher, CH_CONCURRENT_NOID);
+    }
+
     /**
      * Returns a {@code Collector} which applies an {@code int}-producing
      * mapping function to each input element, and returns summary statistics
@@ -1534,6 +1814,54 @@ public final class Collectors {
                 (l, r) -> { l.combine(r); return l; }, CH_ID);
     }
 
+    /**
+     * Intermediate container used by groupingByPartitioned and
+     * toMapPartitioned: a fixed array of hash maps, each holding the keys
+     * whose hash selects it and guarded by its own monitor.
+     */
+    private static final class Stripes<K, V> {
+        /** Partitions per unit of common pool parallelism */
+        static final int STRIPES_PER_THREAD = 8;
+
+        /** Upper bound on the number of partitions */
+        static final int MAX_STRIPES = 1 << 10;
+
+        final HashMap<K, V>[] maps;
+        final int shift;
+
+        @SuppressWarnings("unchecked")
+        Stripes() {
+            int want = Math.min(MAX_STRIPES, STRIPES_PER_THREAD *
+                                ForkJoinPool.getCommonPoolParallelism());
+            int bits = 32 - Integer.numberOfLeadingZeros(Math.max(want, 2) - 1);
+            maps = (HashMap<K, V>[]) new HashMap<?, ?>[1 << bits];
+            for (int i = 0; i < maps.length; i++)
+                maps[i] = new HashMap<>();
+            shift = 32 - bits;
+        }
+
+        /**
+         * Returns the partition for the given key.  Uses the high bits
+         * of a mixed hash, since each HashMap indexes by the low bits.
+         */
+        HashMap<K, V> mapFor(Object key) {
+            int h = (key == null) ? 0 : key.hashCode() * 0x9E3779B9;
+            return maps[h >>> shift];
+        }
+
+        /**
+         * Merges the contents of the given container, which was created
+         * with the same partitioning, into this one.
+         */
+        void mergeAll(Stripes<K, V> other, BinaryOperator<V> mergeFunction) {
+            for (int i = 0; i < maps.length; i++) {
+                HashMap<K, V> m = maps[i];
+                for (Map.Entry<K, V> e : other.maps[i].entrySet())
+                    m.merge(e.getKey(), e.getValue(), mergeFunction);
+            }
+        }
+    }
+
     /**
      * Implementation class used by partitioningBy.
      */
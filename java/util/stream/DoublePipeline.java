@@ -159,6 +159,58 @@ abstract class DoublePipeline<E_IN>
         do { } while (!sink.cancellationRequested() && spl.tryAdvance(adaptedSink));
     }
 
+    @Override
+    final boolean forEachBatched(Spliterator<Double> spliterator, Sink<Double> sink) {
+        if (!(spliterator instanceof Spliterator.OfDouble) || !batchable(sink))
+            return false;
+        long size = spliterator.getExactSizeIfKnown();
+        int n = (size >= 0 && size < BATCH_SIZE) ? Math.max((int) size, 1) : BATCH_SIZE;
+        DoubleBatcher b = new DoubleBatcher((Sink.OfDouble) sink, n);
+        ((Spliterator.OfDouble) spliterator).forEachRemaining(b);
+        b.flush();
+        return true;
+    }
+
+    /**
+     * Returns whether the given sink accepts batches of {@code double} values,
+     * as by {@link Sink.OfDouble#isBatchable}.
+     */
+    static boolean batchable(Sink<?> sink) {
+        return sink instanceof Sink.OfDouble && ((Sink.OfDouble) sink).isBatchable();
+    }
+
+    /**
+     * Collects {@code double} values from a source into an array and delivers
+     * them to a sink a batch at a time.
+     */
+    private static final class DoubleBatcher implements DoubleConsumer {
+        private final Sink.OfDouble sink;
+        private final double[] buf;
+        private int count;
+
+        DoubleBatcher(Sink.OfDouble sink, int size) {
+            this.sink = sink;
+            this.buf = new double[size];
+        }
+
+        @Override
+        public void accept(double value) {
+            buf[count++] = value;
+            if (count == buf.length) {
+                count = 0;
+                sink.acceptBatch(buf, 0, buf.length);
+            }
+        }
+
+        void flush() {
+            if (count > 0) {
+                int n = count;
+                count = 0;
+                sink.acceptBatch(buf, 0, n);
+            }
+        }
+    }
+
     @Override
     final  Node.Builder<Double> makeNodeBuilder(long exactSizeIfKnown, IntFunction<Double[]> generator) {
         return Nodes.doubleBuilder(exactSizeIfKnown);
@@ -196,6 +248,18 @@ abstract class DoublePipeline<E_IN>
                     public void accept(double t) {
                         downstream.accept(mapper.applyAsDouble(t));
                     }
+
+                    @Override
+                    public void acceptBatch(double[] a, int from, int to) {
+                        for (int i = from; i < to; i++)
+                            a[i] = mapper.applyAsDouble(a[i]);
+                        ((Sink.OfDouble) downstream).acceptBatch(a, from, to);
+                    }
+
+                    @Override
+                    public boolean isBatchable() {
+                        return batchable(downstream);
+                    }
                 };
             }
         };
@@ -308,6 +372,23 @@ abstract class DoublePipeline<E_IN>
                         if (predicate.test(t))
                             downstream.accept(t);
                     }
+
+                    @Override
+                    public void acceptBatch(double[] a, int from, int to) {
+                        int n = from;
+                        for (int i = from; i < to; i++) {
+                            double t = a[i];
+                            if (predicate.test(t))
+                                a[n++] = t;
+                        }
+                        if (n > from)
+                            ((Sink.OfDouble) downstream).acceptBatch(a, from, n);
+                    }
+
+                    @Override
+                    public boolean isBatchable() {
+                        return batchable(downstream);
+                    }
                 };
             }
         };
@@ -162,6 +162,58 @@ abstract class IntPipeline<E_IN>
         do { } while (!sink.cancellationRequested() && spl.tryAdvance(adaptedSink));
     }
 
+    @Override
+    final boolean forEachBatched(Spliterator<Integer> spliterator, Sink<Integer> sink) {
+        if (!(spliterator instanceof Spliterator.OfInt) || !batchable(sink))
+            return false;
+        long size = spliterator.getExactSizeIfKnown();
+        int n = (size >= 0 && size < BATCH_SIZE) ? Math.max((int) size, 1) : BATCH_SIZE;
+        IntBatcher b = new IntBatcher((Sink.OfInt) sink, n);
+        ((Spliterator.OfInt) spliterator).forEachRemaining(b);
+        b.flush();
+        return true;
+    }
+
+    /**
+     * Returns whether the given sink accepts batches of {@code int} values,
+     * as by {@link Sink.OfInt#isBatchable}.
+     */
+    static boolean batchable(Sink<?> sink) {
+        return sink instanceof Sink.OfInt && ((Sink.OfInt) sink).isBatchable();
+    }
+
+    /**
+     * Collects {@code int} values from a source into an array and delivers
+     * them to a sink a batch at a time.
+     */
+    private static final class IntBatcher implements IntConsumer {
+        private final Sink.OfInt sink;
+        private final int[] buf;
+        private int count;
+
+        IntBatcher(Sink.OfInt sink, int size) {
+            this.sink = sink;
+            this.buf = new int[size];
+        }
+
+        @Override
+        public void accept(int value) {
+            buf[count++] = value;
+            if (count == buf.length) {
+                count = 0;
+                sink.acceptBatch(buf, 0, buf.length);
+            }
+        }
+
+        void flush() {
+            if (count > 0) {
+                int n = count;
+                count = 0;
+                sink.acceptBatch(buf, 0, n);
+            }
+        }
+    }
+
     @Override
     final Node.Builder<Integer> makeNodeBuilder(long exactSizeIfKnown,
                                                 IntFunction<Integer[]> generator) {
@@ -232,6 +284,18 @@ abstract class IntPipeline<E_IN>
                     public void accept(int t) {
                         downstream.accept(mapper.applyAsInt(t));
                     }
+
+                    @Override
+                    public void acceptBatch(int[] a, int from, int to) {
+                        for (int i = from; i < to; i++)
+                            a[i] = mapper.applyAsInt(a[i]);
+                        ((Sink.OfInt) downstream).acceptBatch(a, from, to);
+                    }
+
+                    @Override
+                    public boolean isBatchable() {
+                        return batchable(downstream);
+                    }
                 };
             }
         };
@@ -262,10 +326,28 @@ abstract class IntPipeline<E_IN>
             @Override
             Sink<Integer> opWrapSink(int flags, Sink<Long> sink) {
                 return new Sink.ChainedInt<Long>(sink) {
+                    private long[] buf;
+
                     @Override
                     public void accept(int t) {
                         downstream.accept(mapper.applyAsLong(t));
                     }
+
+                    @Override
+                    public void acceptBatch(int[] a, int from, int to) {
+                        int n = to - from;
+                        long[] b = buf;
+                        if (b == null || b.length < n)
+                            buf = b = new long[n];
+                        for (int i = 0; i < n; i++)
+                            b[i] = mapper.applyAsLong(a[from + i]);
+                        ((Sink.OfLong) downstream).acceptBatch(b, 0, n);
+                    }
+
+                    @Override
+                    public boolean isBatchable() {
+                        return LongPipeline.batchable(downstream);
+                    }
                 };
             }
         };
@@ -344,6 +426,23 @@ abstract class IntPipeline<E_IN>
                         if (predicate.test(t))
                             downstream.accept(t);
                     }
+
+                    @Override
+                    public void acceptBatch(int[] a, int from, int to) {
+                        int n = from;
+                        for (int i = from; i < to; i++) {
+                            int t = a[i];
+                            if (predicate.test(t))
+                                a[n++] = t;
+                        }
+                        if (n > from)
+                            ((Sink.OfInt) downstream).acceptBatch(a, from, n);
+                    }
+
+                    @Override
+                    public boolean isBatchable() {
+                        return batchable(downstream);
+                    }
                 };
             }
         };
@@ -160,6 +160,58 @@ abstract class LongPipeline<E_IN>
         do { } while (!sink.cancellationRequested() && spl.tryAdvance(adaptedSink));
     }
 
+    @Override
+    final boolean forEachBatched(Spliterator<Long> spliterator, Sink<Long> sink) {
+        if (!(spliterator instanceof Spliterator.OfLong) || !batchable(sink))
+            return false;
+        long size = spliterator.getExactSizeIfKnown();
+        int n = (size >= 0 && size < BATCH_SIZE) ? Math.max((int) size, 1) : BATCH_SIZE;
+        LongBatcher b = new LongBatcher((Sink.OfLong) sink, n);
+        ((Spliterator.OfLong) spliterator).forEachRemaining(b);
+        b.flush();
+        return true;
+    }
+
+    /**
+     * Returns whether the given sink accepts batches of {@code long} values,
+     * as by {@link Sink.OfLong#isBatchable}.
+     */
+    static boolean batchable(Sink<?> sink) {
+        return sink instanceof Sink.OfLong && ((Sink.OfLong) sink).isBatchable();
+    }
+
+    /**
+     * Collects {@code long} values from a source into an array and delivers
+     * them to a sink a batch at a time.
+     */
+    private static final class LongBatcher implements LongConsumer {
+        private final Sink.OfLong sink;
+        private final long[] buf;
+        private int count;
+
+        LongBatcher(Sink.OfLong sink, int size) {
+            this.sink = sink;
+            this.buf = new long[size];
+        }
+
+        @Override
+        public void accept(long value) {
+            buf[count++] = value;
+            if (count == buf.length) {
+                count = 0;
+                sink.acceptBatch(buf, 0, buf.length);
+            }
+        }
+
+        void flush() {
+            if (count > 0) {
+                int n = count;
+                count = 0;
+                sink.acceptBatch(buf, 0, n);
+            }
+        }
+    }
+
     @Override
     final Node.Builder<Long> makeNodeBuilder(long exactSizeIfKnown, IntFunction<Long[]> generator) {
         return Nodes.longBuilder(exactSizeIfKnown);
@@ -213,6 +265,18 @@ abstract class LongPipeline<E_IN>
                     public void accept(long t) {
                         downstream.accept(mapper.applyAsLong(t));
                     }
+
+                    @Override
+                    public void acceptBatch(long[] a, int from, int to) {
+                        for (int i = from; i < to; i++)
+                            a[i] = mapper.applyAsLong(a[i]);
+                        ((Sink.OfLong) downstream).acceptBatch(a, from, to);
+                    }
+
+                    @Override
+                    public boolean isBatchable() {
+                        return batchable(downstream);
+                    }
                 };
             }
         };
@@ -325,6 +389,23 @@ abstract class LongPipeline<E_IN>
                         if (predicate.test(t))
                             downstream.accept(t);
                     }
+
+                    @Override
+                    public void acceptBatch(long[] a, int from, int to) {
+                        int n = from;
+                        for (int i = from; i < to; i++) {
+                            long t = a[i];
+                            if (predicate.test(t))
+                                a[n++] = t;
+                        }
+                        if (n > from)
+                            ((Sink.OfLong) downstream).acceptBatch(a, from, n);
+                    }
+
+                    @Override
+                    public boolean isBatchable() {
+                        return batchable(downstream);
+                    }
                 };
             }
         };
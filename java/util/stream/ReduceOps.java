@@ -258,6 +258,19 @@ final class ReduceOps {
                 state = operator.applyAsInt(state, t);
             }
 
+            @Override
+            public void acceptBatch(int[] a, int from, int to) {
+                int s = state;
+                for (int i = from; i < to; i++)
+                    s = operator.applyAsInt(s, a[i]);
+                state = s;
+            }
+
+            @Override
+            public boolean isBatchable() {
+                return true;
+            }
+
             @Override
             public Integer get() {
                 return state;
@@ -307,6 +320,29 @@ final class ReduceOps {
                 }
             }
 
+            @Override
+            public void acceptBatch(int[] a, int from, int to) {
+                if (from >= to)
+                    return;
+                int i = from;
+                int s;
+                if (empty) {
+                    empty = false;
+                    s = a[i++];
+                }
+                else {
+                    s = state;
+                }
+                for (; i < to; i++)
+                    s = operator.applyAsInt(s, a[i]);
+                state = s;
+            }
+
+            @Override
+            public boolean isBatchable() {
+                return true;
+            }
+
             @Override
             public OptionalInt get() {
                 return empty ? OptionalInt.empty() : OptionalInt.of(state);
@@ -394,6 +430,19 @@ final class ReduceOps {
                 state = operator.applyAsLong(state, t);
             }
 
+            @Override
+            public void acceptBatch(long[] a, int from, int to) {
+                long s = state;
+                for (int i = from; i < to; i++)
+                    s = operator.applyAsLong(s, a[i]);
+                state = s;
+            }
+
+            @Override
+            public boolean isBatchable() {
+                return true;
+            }
+
             @Override
             public Long get() {
                 return state;
@@ -443,6 +492,29 @@ final class ReduceOps {
                 }
             }
 
+            @Override
+            public void acceptBatch(long[] a, int from, int to) {
+                if (from >= to)
+                    return;
+                int i = from;
+                long s;
+                if (empty) {
+                    empty = false;
+                    s = a[i++];
+                }
+                else {
+                    s = state;
+                }
+                for (; i < to; i++)
+                    s = operator.applyAsLong(s, a[i]);
+                state = s;
+            }
+
+            @Override
+            public boolean isBatchable() {
+                return true;
+            }
+
             @Override
             public OptionalLong get() {
                 return empty ? OptionalLong.empty() : OptionalLong.of(state);
@@ -530,6 +602,19 @@ final class ReduceOps {
                 state = operator.applyAsDouble(state, t);
             }
 
+            @Override
+            public void acceptBatch(double[] a, int from, int to) {
+                double s = state;
+                for (int i = from; i < to; i++)
+                    s = operator.applyAsDouble(s, a[i]);
+                state = s;
+            }
+
+            @Override
+            public boolean isBatchable() {
+                return true;
+            }
+
             @Override
             public Double get() {
                 return state;
@@ -579,6 +664,29 @@ final class ReduceOps {
                 }
             }
 
+            @Override
+            public void acceptBatch(double[] a, int from, int to) {
+                if (from >= to)
+                    return;
+                int i = from;
+                double s;
+                if (empty) {
+                    empty = false;
+                    s = a[i++];
+                }
+                else {
+                    s = state;
+                }
+                for (; i < to; i++)
+                    s = operator.applyAsDouble(s, a[i]);
+                state = s;
+            }
+
+            @Override
+            public boolean isBatchable() {
+                return true;
+            }
+
             @Override
             public OptionalDouble get() {
                 return empty ? OptionalDouble.empty() : OptionalDouble.of(state);
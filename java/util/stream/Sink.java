@@ -196,6 +196,33 @@ interface Sink<T> extends Consumer<T> {
                 Tripwire.trip(getClass(), "{0} calling Sink.OfInt.accept(Integer)");
             accept(i.intValue());
         }
+
+        /**
+         * Accepts the values {@code a[from]} through {@code a[to - 1]}, in
+         * order, as if by calling {@link #accept(int)} on each.  The sink may
+         * overwrite that range of the array, but not retain the array.
+         *
+         * @implSpec The default implementation calls {@code accept(int)} for
+         * each value.
+         */
+        default void acceptBatch(int[] a, int from, int to) {
+            for (int i = from; i < to; i++)
+                accept(a[i]);
+        }
+
+        /**
+         * Returns whether this sink, and every sink downstream of it,
+         * handles {@link #acceptBatch} with a loop over the array rather
+         * than per-element calls, so that it is worth a source collecting
+         * values into batches.  Batches are only delivered to pipelines
+         * that are not short-circuiting, so batching sinks need not check
+         * {@link #cancellationRequested}.
+         *
+         * @implSpec The default implementation returns false.
+         */
+        default boolean isBatchable() {
+            return false;
+        }
     }
 
     /**
@@ -213,6 +240,33 @@ interface Sink<T> extends Consumer<T> {
                 Tripwire.trip(getClass(), "{0} calling Sink.OfLong.accept(Long)");
             accept(i.longValue());
         }
+
+        /**
+         * Accepts the values {@code a[from]} through {@code a[to - 1]}, in
+         * order, as if by calling {@link #accept(long)} on each.  The sink may
+         * overwrite that range of the array, but not retain the array.
+         *
+         * @implSpec The default implementation calls {@code accept(long)} for
+         * each value.
+         */
+        default void acceptBatch(long[] a, int from, int to) {
+            for (int i = from; i < to; i++)
+                accept(a[i]);
+        }
+
+        /**
+         * Returns whether this sink, and every sink downstream of it,
+         * handles {@link #acceptBatch} with a loop over the array rather
+         * than per-element calls, so that it is worth a source collecting
+         * values into batches.  Batches are only delivered to pipelines
+         * that are not short-circuiting, so batching sinks need not check
+         * {@link #cancellationRequested}.
+         *
+         * @implSpec The default implementation returns false.
+         */
+        default boolean isBatchable() {
+            return false;
+        }
     }
 
     /**
@@ -230,6 +284,33 @@ interface Sink<T> extends Consumer<T> {
                 Tripwire.trip(getClass(), "{0} calling Sink.OfDouble.accept(Double)");
             accept(i.doubleValue());
         }
+
+        /**
+         * Accepts the values {@code a[from]} through {@code a[to - 1]}, in
+         * order, as if by calling {@link #accept(double)} on each.  The sink may
+         * overwrite that range of the array, but not retain the array.
+         *
+         * @implSpec The default implementation calls {@code accept(double)} for
+         * each value.
+         */
+        default void acceptBatch(double[] a, int from, int to) {
+            for (int i = from; i < to; i++)
+                accept(a[i]);
+        }
+
+        /**
+         * Returns whether this sink, and every sink downstream of it,
+         * handles {@link #acceptBatch} with a loop over the array rather
+         * than per-element calls, so that it is worth a source collecting
+         * values into batches.  Batches are only delivered to pipelines
+         * that are not short-circuiting, so batching sinks need not check
+         * {@link #cancellationRequested}.
+         *
+         * @implSpec The default implementation returns false.
+         */
+        default boolean isBatchable() {
+            return false;
+        }
     }
 
     /**
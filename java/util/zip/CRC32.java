@@ -131,6 +131,63 @@ class CRC32 implements Checksum {
         return (long)crc & 0xffffffffL;
     }
 
+    /*
+     * Returns the CRC-32 of the concatenation of two sequences of bytes,
+     * given the CRC-32 of each and the length of the second, as zlib's
+     * crc32_combine does.  Appending len2 zero bytes to the first sequence
+     * is a linear operation on its CRC, computed here by repeated squaring
+     * of the matrix over GF(2) that appends one zero bit.
+     */
+    static long combine(long crc1, long crc2, long len2) {
+        if (len2 <= 0)
+            return crc1;
+
+        int[] even = new int[32];       // operator for even powers of two
+        int[] odd = new int[32];        // operator for odd powers of two
+
+        // operator for one zero bit
+        odd[0] = 0xedb88320;            // CRC-32 polynomial
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);     // two zero bits
+        gf2MatrixSquare(odd, even);     // four zero bits
+
+        // apply len2 zero bytes to crc1, the first square of odd giving
+        // the operator for one zero byte
+        int c = (int)crc1;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0)
+                c = gf2MatrixTimes(even, c);
+            len2 >>>= 1;
+            if (len2 == 0)
+                break;
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0)
+                c = gf2MatrixTimes(odd, c);
+            len2 >>>= 1;
+        } while (len2 != 0);
+
+        return ((long)(c ^ (int)crc2)) & 0xffffffffL;
+    }
+
+    private static int gf2MatrixTimes(int[] mat, int vec) {
+        int sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0)
+                sum ^= mat[i];
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] mat) {
+        for (int n = 0; n < 32; n++)
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+    }
+
     private native static int update(int crc, int b);
     private native static int updateBytes(int crc, byte[] b, int off, int len);
 
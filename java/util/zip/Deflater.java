@@ -25,6 +25,9 @@
 
 package java.util.zip;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
 /**
  * This class provides support for general purpose compression using the
  * popular ZLIB compression library. The ZLIB compression library was
@@ -33,6 +36,11 @@ package java.util.zip;
  * the <a href="package-summary.html#package_description">java.util.zip
  * package description</a>.
  *
+ * <p>Input and output may also be given as {@link ByteBuffer}s. The
+ * contents of buffers that are not backed by an accessible array, such as
+ * direct buffers, are copied to or from the ZLIB library through an array
+ * a few kilobytes at a time.
+ *
  * <p>The following code fragment demonstrates a trivial compression
  * and decompression of a string using <tt>Deflater</tt> and
  * <tt>Inflater</tt>.
@@ -74,14 +82,25 @@ public
 class Deflater {
 
     private final ZStreamRef zsRef;
-    private byte[] buf = new byte[0];
+    private byte[] buf = defaultBuf;
     private int off, len;
+    private ByteBuffer input;   // the input buffer, whose position follows
+                                // the input consumed, or null for an array
+    private byte[] copyBuf;     // the array through which input from a
+                                // buffer without an array is copied
+    private byte[] outputBuf;   // the array through which output to a
+                                // buffer without an array is copied
     private int level, strategy;
     private boolean setParams;
     private boolean finish, finished;
     private long bytesRead;
     private long bytesWritten;
 
+    private static final byte[] defaultBuf = new byte[0];
+
+    // the most bytes copied at a time for a buffer without an array
+    private static final int COPY_SIZE = 8192;
+
     /**
      * Compression method for the deflate algorithm (the only one currently
      * supported).
@@ -207,6 +226,7 @@ class Deflater {
             this.buf = b;
             this.off = off;
             this.len = len;
+            this.input = null;
         }
     }
 
@@ -220,6 +240,39 @@ class Deflater {
         setInput(b, 0, b.length);
     }
 
+    /**
+     * Sets input data for compression. This should be called whenever
+     * needsInput() returns true indicating that more input data is required.
+     * <p>
+     * The bytes from the buffer's position to its limit are the input.
+     * The buffer's position is advanced as deflate operations consume
+     * input, up to the buffer's limit, and the buffer should not be
+     * modified or otherwise accessed while it is the input of this
+     * deflater.
+     * @param input the input data bytes
+     * @see Deflater#needsInput
+     * @since 1.8
+     */
+    public void setInput(ByteBuffer input) {
+        if (input == null) {
+            throw new NullPointerException();
+        }
+        synchronized (zsRef) {
+            int pos = input.position();
+            int rem = Math.max(input.limit() - pos, 0);
+            if (input.hasArray()) {
+                this.buf = input.array();
+                this.off = input.arrayOffset() + pos;
+            } else {
+                // copied in chunks by deflateCopy as it is consumed
+                this.buf = defaultBuf;
+                this.off = 0;
+            }
+            this.len = rem;
+            this.input = input;
+        }
+    }
+
     /**
      * Sets preset dictionary for compression. A preset dictionary is used
      * when the history buffer can be predetermined. When the data is later
@@ -259,6 +312,37 @@ class Deflater {
         setDictionary(b, 0, b.length);
     }
 
+    /**
+     * Sets preset dictionary for compression to the bytes of the given
+     * buffer, from its position to its limit. A preset dictionary is used
+     * when the history buffer can be predetermined. When the data is later
+     * uncompressed with Inflater.inflate(), Inflater.getAdler() can be called
+     * in order to get the Adler-32 value of the dictionary required for
+     * decompression.
+     * <p>
+     * The buffer's position is advanced to its limit.
+     * @param dictionary the dictionary data bytes
+     * @see Inflater#inflate
+     * @see Inflater#getAdler
+     * @since 1.8
+     */
+    public void setDictionary(ByteBuffer dictionary) {
+        synchronized (zsRef) {
+            ensureOpen();
+            int pos = dictionary.position();
+            int rem = Math.max(dictionary.limit() - pos, 0);
+            if (dictionary.hasArray()) {
+                setDictionary(zsRef.address(), dictionary.array(),
+                              dictionary.arrayOffset() + pos, rem);
+            } else {
+                byte[] b = new byte[rem];
+                dictionary.duplicate().get(b);
+                setDictionary(zsRef.address(), b, 0, rem);
+            }
+            dictionary.position(pos + rem);
+        }
+    }
+
     /**
      * Sets the compression strategy to the specified value.
      *
@@ -440,16 +524,149 @@ class Deflater {
             ensureOpen();
             if (flush == NO_FLUSH || flush == SYNC_FLUSH ||
                 flush == FULL_FLUSH) {
+                ByteBuffer input = this.input;
+                if (input != null && !input.hasArray()) {
+                    return deflateCopy(input, b, off, len, flush);
+                }
                 int thisLen = this.len;
                 int n = deflateBytes(zsRef.address(), b, off, len, flush);
                 bytesWritten += n;
                 bytesRead += (thisLen - this.len);
+                if (input != null)
+                    input.position(input.position() + (thisLen - this.len));
                 return n;
             }
             throw new IllegalArgumentException();
         }
     }
 
+    /**
+     * Compresses the input data and fills the specified buffer, from its
+     * position up to its limit, with compressed data. Returns actual number
+     * of bytes of compressed data, by which the buffer's position is
+     * advanced. A return value of 0 indicates that {@link #needsInput()
+     * needsInput} should be called in order to determine if more input data
+     * is required.
+     *
+     * <p>This method uses {@link #NO_FLUSH} as its compression flush mode.
+     * An invocation of this method of the form {@code deflater.deflate(output)}
+     * yields the same result as the invocation of
+     * {@code deflater.deflate(output, Deflater.NO_FLUSH)}.
+     *
+     * @param output the buffer for the compressed data
+     * @return the actual number of bytes of compressed data written to the
+     *         output buffer
+     * @throws ReadOnlyBufferException if the buffer is read-only
+     * @since 1.8
+     */
+    public int deflate(ByteBuffer output) {
+        return deflate(output, NO_FLUSH);
+    }
+
+    /**
+     * Compresses the input data and fills the specified buffer, from its
+     * position up to its limit, with compressed data. Returns actual number
+     * of bytes of compressed data, by which the buffer's position is
+     * advanced.
+     *
+     * <p>The compression flush modes are as for {@link
+     * #deflate(byte[], int, int, int)}. In the case of {@link #FULL_FLUSH}
+     * or {@link #SYNC_FLUSH}, if the return value is the space that was
+     * remaining in the buffer, this method should be invoked again with the
+     * same {@code flush} parameter and more output space.
+     *
+     * @param output the buffer for the compressed data
+     * @param flush the compression flush mode
+     * @return the actual number of bytes of compressed data written to
+     *         the output buffer
+     *
+     * @throws IllegalArgumentException if the flush mode is invalid
+     * @throws ReadOnlyBufferException if the buffer is read-only
+     * @since 1.8
+     */
+    public int deflate(ByteBuffer output, int flush) {
+        if (output.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (flush != NO_FLUSH && flush != SYNC_FLUSH && flush != FULL_FLUSH) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (zsRef) {
+            ensureOpen();
+            int pos = output.position();
+            int rem = Math.max(output.limit() - pos, 0);
+            if (output.hasArray()) {
+                int n = deflate(output.array(), output.arrayOffset() + pos,
+                                rem, flush);
+                output.position(pos + n);
+                return n;
+            }
+            // a direct buffer, filled through an array
+            byte[] b = outputBuf;
+            if (b == null) {
+                outputBuf = b = new byte[COPY_SIZE];
+            }
+            int n = 0, k;
+            do {
+                int m = Math.min(rem - n, b.length);
+                k = deflate(b, 0, m, flush);
+                output.put(b, 0, k);
+                n += k;
+                if (k < m)
+                    break;
+            } while (n < rem);
+            return n;
+        }
+    }
+
+    /*
+     * Deflates from an input buffer that has no accessible array, copying
+     * at most COPY_SIZE bytes of it at a time into copyBuf, from which the
+     * native method reads as it would from an input array.  The native
+     * method is called again while it consumes all of the input copied and
+     * there is output space left.  The flush mode, and finish, only apply
+     * to the last of the input, so a chunk followed by more input is
+     * deflated with NO_FLUSH and finish cleared.
+     */
+    private int deflateCopy(ByteBuffer input, byte[] b, int off, int len,
+                            int flush) {
+        assert Thread.holdsLock(zsRef);
+        byte[] copy = copyBuf;
+        if (copy == null) {
+            copyBuf = copy = new byte[COPY_SIZE];
+        }
+        boolean finish = this.finish;
+        int n = 0;
+        while (true) {
+            int remaining = this.len;
+            int chunk = Math.min(remaining, copy.length);
+            boolean last = chunk == remaining;
+            int pos = input.position();
+            input.get(copy, 0, chunk);
+            this.buf = copy;
+            this.off = 0;
+            this.len = chunk;
+            this.finish = finish && last;
+            int read = 0;
+            try {
+                n += deflateBytes(zsRef.address(), b, off + n, len - n,
+                                  last ? flush : NO_FLUSH);
+                read = chunk - this.len;
+            } finally {
+                this.finish = finish;
+                this.buf = defaultBuf;
+                this.off = 0;
+                this.len = remaining - read;
+                input.position(pos + read);
+                bytesRead += read;
+            }
+            if (read < chunk || last || n == len)
+                break;
+        }
+        bytesWritten += n;
+        return n;
+    }
+
     /**
      * Returns the ADLER-32 value of the uncompressed data.
      * @return the ADLER-32 value of the uncompressed data
@@ -523,6 +740,7 @@ class Deflater {
             reset(zsRef.address());
             finish = false;
             finished = false;
+            input = null;
             off = len = 0;
             bytesRead = bytesWritten = 0;
         }
@@ -542,6 +760,9 @@ class Deflater {
             if (addr != 0) {
                 end(addr);
                 buf = null;
+                input = null;
+                copyBuf = null;
+                outputBuf = null;
             }
         }
     }
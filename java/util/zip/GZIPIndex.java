@@ -0,0 +1,1102 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * An index of the points in a file in the GZIP format at which
+ * decompression can begin, for random access to the uncompressed data.
+ *
+ * <p> An index is built by a single pass over the file with {@link
+ * #build build}.  Each checkpoint of the index records an offset in the
+ * compressed data, the corresponding offset in the uncompressed data, and
+ * the 32K bytes of uncompressed data that precede it, with which a new
+ * {@link Inflater} is primed, as a {@linkplain Inflater#setDictionary
+ * preset dictionary}, to resume decompression there.  A {@link
+ * SeekableGZIPInputStream} uses an index to read from any position of the
+ * uncompressed data, and {@link #decompress decompress} uses it to
+ * decompress the segments between checkpoints in parallel.
+ *
+ * <p> Checkpoints are placed at the start of each GZIP member and at the
+ * start of deflate blocks, at least a given number of uncompressed bytes
+ * apart, so that a file written in one piece by {@link GZIPOutputStream}
+ * is indexed as finely as one that was flushed.  The builder decodes the
+ * deflate data itself, as an {@code Inflater} does not report where its
+ * blocks begin, and checks the CRC-32 and size in the trailer of each
+ * member.  A block may begin at any bit of a byte, while an {@code
+ * Inflater} can only be given whole bytes, so a checkpoint also records
+ * the number of bits of its byte that belong to the previous block.  To
+ * resume there, an {@code Inflater} first inflates a few fixed Huffman
+ * blocks whose last bits take the place of those bits, and whose output
+ * is discarded before the window is set as the dictionary.
+ *
+ * <p> The windows are stored compressed.  An index can be saved with
+ * {@link #writeTo writeTo} and loaded with {@link #readFrom readFrom}, so
+ * that a file need only be scanned once.  An index is immutable and may be
+ * shared by several threads.
+ *
+ * @see SeekableGZIPInputStream
+ * @since 1.8
+ */
+public final class GZIPIndex {
+
+    /*
+     * GZIP header magic number.
+     */
+    private final static int GZIP_MAGIC = 0x8b1f;
+
+    /*
+     * File header flags.
+     */
+    private final static int FHCRC      = 2;    // Header CRC
+    private final static int FEXTRA     = 4;    // Extra field
+    private final static int FNAME      = 8;    // File name
+    private final static int FCOMMENT   = 16;   // File comment
+
+    /*
+     * Trailer size in bytes.
+     */
+    private final static int TRAILER_SIZE = 8;
+
+    /*
+     * Size of the deflate window, and so of the preset dictionary.
+     */
+    private final static int WINDOW_SIZE = 32 * 1024;
+
+    /*
+     * Size of the buffers of compressed and uncompressed data.
+     */
+    private final static int BUF_SIZE = 64 * 1024;
+
+    /*
+     * Magic number ("GZIX") and version of the serialized form.  Version 1
+     * has no bit offsets, as its checkpoints are all at byte boundaries.
+     */
+    private final static int INDEX_MAGIC = 0x475a4958;
+    private final static int INDEX_VERSION = 2;
+
+    /*
+     * Deflate format constants: the numbers of literal/length and of
+     * distance symbols, the longest match, the order of the code length
+     * code lengths, and the base values and extra bits of the length and
+     * distance symbols.
+     */
+    private final static int MAX_LITERALS = 288;
+    private final static int MAX_DISTANCES = 30;
+    private final static int MAX_MATCH = 258;
+    private final static int[] CODE_LENGTH_ORDER = {
+        16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15 };
+    private final static int[] LENGTH_BASE = {
+        3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31,
+        35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258 };
+    private final static int[] LENGTH_EXTRA = {
+        0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2,
+        3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0 };
+    private final static int[] DISTANCE_BASE = {
+        1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193,
+        257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097, 6145,
+        8193, 12289, 16385, 24577 };
+    private final static int[] DISTANCE_EXTRA = {
+        0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6,
+        7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13 };
+
+    /*
+     * Decoding tables of the fixed Huffman codes.
+     */
+    private final static int[] FIXED_LITERALS;
+    private final static int[] FIXED_DISTANCES;
+
+    /*
+     * For k from 1 to 7, a run of fixed Huffman blocks whose length in bits
+     * is k more than a multiple of 8: empty blocks of 10 bits each, after a
+     * block of 19 bits holding one literal if k is odd.  Once its last byte
+     * is completed with the high bits of the byte at a checkpoint, it leaves
+     * an Inflater that has inflated it at the bit where the block of the
+     * checkpoint begins, having output at most one byte.
+     */
+    private final static byte[][] PRIMERS = new byte[8][];
+
+    static {
+        int[] lens = new int[MAX_LITERALS];
+        Arrays.fill(lens, 0, 144, 8);
+        Arrays.fill(lens, 144, 256, 9);
+        Arrays.fill(lens, 256, 280, 7);
+        Arrays.fill(lens, 280, MAX_LITERALS, 8);
+        int[] dlens = new int[MAX_DISTANCES];
+        Arrays.fill(dlens, 5);
+        try {
+            FIXED_LITERALS = table(lens, 0, MAX_LITERALS);
+            FIXED_DISTANCES = table(dlens, 0, MAX_DISTANCES);
+        } catch (ZipException x) {
+            throw new InternalError(x);
+        }
+        for (int k = 1; k < 8; k++) {
+            long v = 0;
+            int n = 0;
+            if ((k & 1) != 0) {
+                // header of a fixed block, the 9-bit code 110010000 of
+                // literal 144, and the 7-bit code 0000000 of end-of-block
+                v = 2L | (long)(Integer.reverse(0x190) >>> 23) << 3;
+                n = 19;
+            }
+            while ((n & 7) != k) {
+                v |= 2L << n;
+                n += 10;
+            }
+            byte[] b = new byte[(n + 7) >>> 3];
+            for (int i = 0; i < b.length; i++)
+                b[i] = (byte)(v >>> (i << 3));
+            PRIMERS[k] = b;
+        }
+    }
+
+    /*
+     * Largest segment decompressed by a task into an array.
+     */
+    private final static int MAX_SEGMENT = Integer.MAX_VALUE - 8;
+
+    private final static byte[] EMPTY = new byte[0];
+
+    private final long csize;           // size of the compressed file
+    private final long size;            // size of the uncompressed data
+    private final long[] coffs;         // compressed offsets of checkpoints
+    private final long[] uoffs;         // uncompressed offsets of checkpoints
+    private final byte[] bits;          // bits of coffs[i] before its block
+    private final byte[][] windows;     // deflated windows of checkpoints
+    private final int[] windowLens;     // lengths of the inflated windows
+
+    private GZIPIndex(long csize, long size, long[] coffs, long[] uoffs,
+                      byte[] bits, byte[][] windows, int[] windowLens) {
+        this.csize = csize;
+        this.size = size;
+        this.coffs = coffs;
+        this.uoffs = uoffs;
+        this.bits = bits;
+        this.windows = windows;
+        this.windowLens = windowLens;
+    }
+
+    /**
+     * Builds an index of the GZIP data read from the given input stream,
+     * which must be positioned at the start of the file.  The stream is read
+     * to its end, but is not closed.  The CRC-32 and size in the trailer of
+     * each GZIP member are checked.
+     *
+     * @param in the input stream
+     * @param spacing the least number of uncompressed bytes between
+     *        successive checkpoints
+     * @return the index
+     * @exception ZipException if a GZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     * @exception IllegalArgumentException if {@code spacing <= 0}
+     */
+    public static GZIPIndex build(InputStream in, long spacing)
+        throws IOException
+    {
+        if (in == null)
+            throw new NullPointerException("in");
+        if (spacing <= 0)
+            throw new IllegalArgumentException("spacing <= 0");
+        return new Builder(in, spacing).build();
+    }
+
+    /**
+     * Returns the number of checkpoints in this index, which is at least one.
+     *
+     * @return the number of checkpoints
+     */
+    public int getCheckpointCount() {
+        return coffs.length;
+    }
+
+    /**
+     * Returns the size of the uncompressed data.
+     *
+     * @return the number of bytes of uncompressed data
+     */
+    public long getUncompressedSize() {
+        return size;
+    }
+
+    /**
+     * Returns the size of the compressed file from which this index was
+     * built.
+     *
+     * @return the number of bytes in the compressed file
+     */
+    public long getCompressedSize() {
+        return csize;
+    }
+
+    /*
+     * Returns the index of the last checkpoint at or before the given
+     * position in the uncompressed data.
+     */
+    int checkpoint(long pos) {
+        int i = Arrays.binarySearch(uoffs, pos);
+        if (i < 0)
+            i = -i - 2;
+        return Math.max(i, 0);
+    }
+
+    long compressedOffset(int i) {
+        return coffs[i];
+    }
+
+    long uncompressedOffset(int i) {
+        return uoffs[i];
+    }
+
+    /**
+     * Decompresses the whole of the given file, which must be the file from
+     * which this index was built, to the given output stream.  The segments
+     * of the file between successive checkpoints are decompressed by tasks
+     * in the given pool, and written in order.  A bounded number of segments
+     * is held in memory at once, so the memory used is proportional to the
+     * spacing of the checkpoints and the parallelism of the pool.  The
+     * channel is read at absolute positions, and its position is unchanged.
+     *
+     * @param ch the channel of the compressed file
+     * @param out the output stream
+     * @param pool the pool in which segments are decompressed
+     * @return the number of bytes written
+     * @exception ZipException if a GZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     * @exception IllegalArgumentException if the size of the file differs
+     *            from that from which this index was built
+     */
+    public long decompress(FileChannel ch, OutputStream out, ForkJoinPool pool)
+        throws IOException
+    {
+        if (out == null)
+            throw new NullPointerException("out");
+        if (pool == null)
+            throw new NullPointerException("pool");
+        if (ch.size() != csize)
+            throw new IllegalArgumentException("Index does not match file");
+
+        int maxPending = Math.max(2, 2 * pool.getParallelism());
+        Deque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+        Deque<Cursor> cursors = new ConcurrentLinkedDeque<>();
+        try {
+            for (int i = 0; i < coffs.length; i++) {
+                long len = segmentSize(i);
+                if (len <= MAX_SEGMENT) {
+                    drain(pending, maxPending - 1, out);
+                    pending.add(pool.submit(new Segment(ch, i, (int)len, cursors)));
+                } else {
+                    // too large for an array, so stream it from this thread
+                    drain(pending, 0, out);
+                    Cursor c = new Cursor();
+                    cursors.push(c);
+                    c.start(new ChannelInput(ch, coffs[i]), this, i);
+                    byte[] b = new byte[BUF_SIZE];
+                    while (len > 0) {
+                        int n = c.read(b, 0, (int)Math.min(len, b.length));
+                        if (n < 0)
+                            throw new EOFException("Unexpected end of GZIP data");
+                        out.write(b, 0, n);
+                        len -= n;
+                    }
+                }
+            }
+            drain(pending, 0, out);
+        } finally {
+            for (ForkJoinTask<byte[]> task : pending)
+                task.cancel(false);
+            Cursor c;
+            while ((c = cursors.poll()) != null)
+                c.end();
+        }
+        return size;
+    }
+
+    private long segmentSize(int i) {
+        return ((i + 1 < uoffs.length) ? uoffs[i + 1] : size) - uoffs[i];
+    }
+
+    /*
+     * Writes out decompressed segments, in order, until at most the given
+     * number remain in progress.
+     */
+    private static void drain(Deque<ForkJoinTask<byte[]>> pending, int max,
+                              OutputStream out)
+        throws IOException
+    {
+        while (pending.size() > max) {
+            byte[] b;
+            try {
+                b = pending.peek().get();
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException x) {
+                Throwable cause = x.getCause();
+                if (cause instanceof IOException)
+                    throw (IOException)cause;
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException)cause;
+                if (cause instanceof Error)
+                    throw (Error)cause;
+                throw new IOException(cause);
+            }
+            pending.poll();
+            out.write(b);
+        }
+    }
+
+    /*
+     * The segment of the uncompressed data that starts at a checkpoint,
+     * decompressed by a task in the pool.
+     */
+    private final class Segment implements Callable<byte[]> {
+        final FileChannel ch;
+        final int i;
+        final int len;
+        final Deque<Cursor> cursors;
+
+        Segment(FileChannel ch, int i, int len, Deque<Cursor> cursors) {
+            this.ch = ch;
+            this.i = i;
+            this.len = len;
+            this.cursors = cursors;
+        }
+
+        public byte[] call() throws IOException {
+            Cursor c = cursors.poll();
+            if (c == null)
+                c = new Cursor();
+            try {
+                c.start(new ChannelInput(ch, coffs[i]), GZIPIndex.this, i);
+                byte[] b = new byte[len];
+                int n = 0;
+                while (n < len) {
+                    int k = c.read(b, n, len - n);
+                    if (k < 0)
+                        throw new EOFException("Unexpected end of GZIP data");
+                    n += k;
+                }
+                return b;
+            } finally {
+                cursors.push(c);
+            }
+        }
+    }
+
+    /*
+     * An input stream that reads a file channel from a given position,
+     * using positional reads so that several may share the channel.
+     */
+    private static final class ChannelInput extends InputStream {
+        private final FileChannel ch;
+        private long pos;
+
+        ChannelInput(FileChannel ch, long pos) {
+            this.ch = ch;
+            this.pos = pos;
+        }
+
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return (read(b, 0, 1) == -1) ? -1 : Byte.toUnsignedInt(b[0]);
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            int n = ch.read(ByteBuffer.wrap(b, off, len), pos);
+            if (n > 0)
+                pos += n;
+            return n;
+        }
+    }
+
+    /**
+     * Writes this index to the given output stream, which is flushed but not
+     * closed.
+     *
+     * @param out the output stream
+     * @exception IOException if an I/O error has occurred
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(INDEX_MAGIC);
+        dos.writeInt(INDEX_VERSION);
+        dos.writeLong(csize);
+        dos.writeLong(size);
+        dos.writeInt(coffs.length);
+        for (int i = 0; i < coffs.length; i++) {
+            dos.writeLong(coffs[i]);
+            dos.writeLong(uoffs[i]);
+            dos.writeByte(bits[i]);
+            dos.writeInt(windowLens[i]);
+            dos.writeInt(windows[i].length);
+            dos.write(windows[i]);
+        }
+        dos.flush();
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo writeTo} from the given
+     * input stream, which is not closed.
+     *
+     * @param in the input stream
+     * @return the index
+     * @exception ZipException if the data read is not a valid index
+     * @exception IOException if an I/O error has occurred
+     */
+    public static GZIPIndex readFrom(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(in);
+        if (dis.readInt() != INDEX_MAGIC)
+            throw new ZipException("Not a GZIP index");
+        int version = dis.readInt();
+        if (version != 1 && version != INDEX_VERSION)
+            throw new ZipException("Unsupported GZIP index version");
+        long csize = dis.readLong();
+        long size = dis.readLong();
+        int n = dis.readInt();
+        if (csize < 0 || size < 0 || n <= 0 || n > csize)
+            throw new ZipException("Corrupt GZIP index");
+        long[] coffs = new long[n];
+        long[] uoffs = new long[n];
+        byte[] bits = new byte[n];
+        byte[][] windows = new byte[n][];
+        int[] windowLens = new int[n];
+        for (int i = 0; i < n; i++) {
+            coffs[i] = dis.readLong();
+            uoffs[i] = dis.readLong();
+            if (version > 1)
+                bits[i] = dis.readByte();
+            windowLens[i] = dis.readInt();
+            int len = dis.readInt();
+            if (coffs[i] < 0 || coffs[i] > csize
+                || uoffs[i] < 0 || uoffs[i] > size
+                || (i == 0 ? uoffs[i] != 0
+                           : (coffs[i] <= coffs[i - 1]
+                              || uoffs[i] <= uoffs[i - 1]))
+                || bits[i] < 0 || bits[i] > 7
+                || windowLens[i] < 0 || windowLens[i] > WINDOW_SIZE
+                || len < 0 || len > WINDOW_SIZE + (WINDOW_SIZE >> 3) + 64)
+                throw new ZipException("Corrupt GZIP index");
+            windows[i] = new byte[len];
+            dis.readFully(windows[i]);
+        }
+        return new GZIPIndex(csize, size, coffs, uoffs, bits, windows,
+                             windowLens);
+    }
+
+    /*
+     * Builds an index in one pass over the GZIP data.  The deflate data is
+     * decoded here rather than by an Inflater, which does not report where
+     * its blocks begin.
+     */
+    private static final class Builder {
+        private final Input src;
+        private final long spacing;
+        private final Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final CRC32 crc = new CRC32();
+        private final byte[] history = new byte[WINDOW_SIZE];
+        private final int[] lengths = new int[MAX_LITERALS + MAX_DISTANCES];
+
+        private long uoff;              // uncompressed bytes so far
+        private long memberStart;       // uncompressed offset of the member
+        private long crcEnd;            // uncompressed offset the CRC is at
+        private long last;              // offset of the last checkpoint
+
+        // bits read ahead of the compressed data, all from src.buf before
+        // src.pos but for part of a byte
+        private long bitBuf;
+        private int bitCount;
+
+        private long[] coffs = new long[16];
+        private long[] uoffs = new long[16];
+        private byte[] bits = new byte[16];
+        private byte[][] windows = new byte[16][];
+        private int[] windowLens = new int[16];
+        private int count;
+
+        Builder(InputStream in, long spacing) {
+            this.src = new Input();
+            this.src.reset(in, 0);
+            this.spacing = spacing;
+        }
+
+        GZIPIndex build() throws IOException {
+            try {
+                readHeader(src);
+                add(src.position() << 3, 0, EMPTY);
+                for (;;) {
+                    inflateMember();
+                    readTrailer();
+                    if (!nextMember(src)) {
+                        // count any data after the last member
+                        while (src.fill())
+                            src.pos = src.lim;
+                        break;
+                    }
+                    crc.reset();
+                    memberStart = crcEnd = uoff;
+                    if (uoff - last >= spacing)
+                        add(src.position() << 3, uoff, EMPTY);
+                }
+                int n = count;
+                return new GZIPIndex(src.position(), uoff,
+                                     Arrays.copyOf(coffs, n),
+                                     Arrays.copyOf(uoffs, n),
+                                     Arrays.copyOf(bits, n),
+                                     Arrays.copyOf(windows, n),
+                                     Arrays.copyOf(windowLens, n));
+            } finally {
+                def.end();
+            }
+        }
+
+        /*
+         * Decodes the deflate data of a member, adding a checkpoint at the
+         * start of a block when one is due, and leaves the input at the
+         * trailer.
+         */
+        private void inflateMember() throws IOException {
+            int bfinal;
+            do {
+                if (uoff - last >= spacing)
+                    add((src.position() << 3) - bitCount, uoff, window());
+                bfinal = bits(1);
+                switch (bits(2)) {
+                case 0:
+                    stored();
+                    break;
+                case 1:
+                    codes(FIXED_LITERALS, FIXED_DISTANCES);
+                    break;
+                case 2:
+                    dynamic();
+                    break;
+                default:
+                    throw new ZipException("invalid block type");
+                }
+            } while (bfinal == 0);
+            updateCrc();
+            // give back the whole bytes read ahead
+            src.pos -= bitCount >>> 3;
+            bitBuf = 0;
+            bitCount = 0;
+        }
+
+        /*
+         * Returns the next n bits of the compressed data, n <= 16.
+         */
+        private int bits(int n) throws IOException {
+            while (bitCount < n) {
+                if (!src.fill())
+                    throw new EOFException("Unexpected end of ZLIB input stream");
+                bitBuf |= (long)(src.buf[src.pos++] & 0xff) << bitCount;
+                bitCount += 8;
+            }
+            int v = (int)bitBuf & ((1 << n) - 1);
+            bitBuf >>>= n;
+            bitCount -= n;
+            return v;
+        }
+
+        /*
+         * Decodes a symbol with the given table.  Bits are read ahead from
+         * the buffer as far as it goes, but it is refilled only for bits
+         * of this code.
+         */
+        private int decode(int[] t) throws IOException {
+            int mask = t.length - 1;
+            for (;;) {
+                while (bitCount < 16 && src.pos < src.lim) {
+                    bitBuf |= (long)(src.buf[src.pos++] & 0xff) << bitCount;
+                    bitCount += 8;
+                }
+                int e = t[(int)bitBuf & mask];
+                int len = e & 15;
+                if (len != 0 && len <= bitCount) {
+                    bitBuf >>>= len;
+                    bitCount -= len;
+                    return e >>> 4;
+                }
+                if ((1 << bitCount) > mask)
+                    throw new ZipException("invalid code");
+                if (!src.fill())
+                    throw new EOFException("Unexpected end of ZLIB input stream");
+            }
+        }
+
+        private void stored() throws IOException {
+            bits(bitCount & 7);         // to a byte boundary
+            int len = bits(16);
+            if (bits(16) != (~len & 0xffff))
+                throw new ZipException("invalid stored block lengths");
+            src.pos -= bitCount >>> 3;
+            bitBuf = 0;
+            bitCount = 0;
+            while (len > 0) {
+                if (!src.fill())
+                    throw new EOFException("Unexpected end of ZLIB input stream");
+                updateCrc();
+                int h = (int)uoff & (WINDOW_SIZE - 1);
+                int n = Math.min(Math.min(len, src.lim - src.pos), WINDOW_SIZE - h);
+                System.arraycopy(src.buf, src.pos, history, h, n);
+                crc.update(src.buf, src.pos, n);
+                src.pos += n;
+                uoff += n;
+                crcEnd = uoff;
+                len -= n;
+            }
+        }
+
+        private void dynamic() throws IOException {
+            int nlen = bits(5) + 257;
+            int ndist = bits(5) + 1;
+            int ncode = bits(4) + 4;
+            if (nlen > 286 || ndist > MAX_DISTANCES)
+                throw new ZipException("too many length or distance symbols");
+            int[] lens = lengths;
+            Arrays.fill(lens, 0, CODE_LENGTH_ORDER.length, 0);
+            for (int i = 0; i < ncode; i++)
+                lens[CODE_LENGTH_ORDER[i]] = bits(3);
+            int[] ct = table(lens, 0, CODE_LENGTH_ORDER.length);
+            int n = 0;
+            while (n < nlen + ndist) {
+                int sym = decode(ct);
+                if (sym < 16) {
+                    lens[n++] = sym;
+                    continue;
+                }
+                int v = 0, rep;
+                if (sym == 16) {
+                    if (n == 0)
+                        throw new ZipException("invalid bit length repeat");
+                    v = lens[n - 1];
+                    rep = 3 + bits(2);
+                } else if (sym == 17) {
+                    rep = 3 + bits(3);
+                } else {
+                    rep = 11 + bits(7);
+                }
+                if (n + rep > nlen + ndist)
+                    throw new ZipException("invalid bit length repeat");
+                while (rep-- > 0)
+                    lens[n++] = v;
+            }
+            if (lens[256] == 0)
+                throw new ZipException("invalid code -- missing end-of-block");
+            codes(table(lens, 0, nlen), table(lens, nlen, ndist));
+        }
+
+        /*
+         * Decodes the literals and matches of a block into the history.
+         */
+        private void codes(int[] lt, int[] dt) throws IOException {
+            byte[] h = history;
+            int mask = WINDOW_SIZE - 1;
+            for (;;) {
+                if (uoff - crcEnd > WINDOW_SIZE - MAX_MATCH)
+                    updateCrc();
+                int sym = decode(lt);
+                if (sym < 256) {
+                    h[(int)uoff & mask] = (byte)sym;
+                    uoff++;
+                } else if (sym == 256) {
+                    return;
+                } else {
+                    sym -= 257;
+                    if (sym >= LENGTH_BASE.length)
+                        throw new ZipException("invalid literal/length code");
+                    int len = LENGTH_BASE[sym] + bits(LENGTH_EXTRA[sym]);
+                    int ds = decode(dt);
+                    if (ds >= DISTANCE_BASE.length)
+                        throw new ZipException("invalid distance code");
+                    int d = DISTANCE_BASE[ds] + bits(DISTANCE_EXTRA[ds]);
+                    if (d > uoff - memberStart)
+                        throw new ZipException("invalid distance too far back");
+                    int w = (int)uoff & mask;
+                    int r = (w - d) & mask;
+                    for (int i = 0; i < len; i++) {
+                        h[w] = h[r];
+                        w = (w + 1) & mask;
+                        r = (r + 1) & mask;
+                    }
+                    uoff += len;
+                }
+            }
+        }
+
+        /*
+         * Updates the CRC-32 with the output not yet checked, which is all
+         * still in the history.
+         */
+        private void updateCrc() {
+            int n = (int)(uoff - crcEnd);
+            int h = (int)crcEnd & (WINDOW_SIZE - 1);
+            int k = Math.min(n, WINDOW_SIZE - h);
+            crc.update(history, h, k);
+            crc.update(history, 0, n - k);
+            crcEnd = uoff;
+        }
+
+        /*
+         * Returns a copy of the last 32K bytes of output, or of all of it.
+         */
+        private byte[] window() {
+            if (uoff < WINDOW_SIZE)
+                return Arrays.copyOf(history, (int)uoff);
+            byte[] w = new byte[WINDOW_SIZE];
+            int h = (int)uoff & (WINDOW_SIZE - 1);
+            System.arraycopy(history, h, w, 0, WINDOW_SIZE - h);
+            System.arraycopy(history, 0, w, WINDOW_SIZE - h, h);
+            return w;
+        }
+
+        /*
+         * Adds a checkpoint at the given bit offset in the compressed data.
+         */
+        private void add(long bitOff, long uoff, byte[] w) {
+            if (count == coffs.length) {
+                int n = count << 1;
+                coffs = Arrays.copyOf(coffs, n);
+                uoffs = Arrays.copyOf(uoffs, n);
+                bits = Arrays.copyOf(bits, n);
+                windows = Arrays.copyOf(windows, n);
+                windowLens = Arrays.copyOf(windowLens, n);
+            }
+            byte[] b = EMPTY;
+            if (w.length > 0) {
+                def.reset();
+                def.setInput(w);
+                def.finish();
+                b = new byte[w.length + (w.length >> 3) + 64];
+                int n = 0;
+                while (!def.finished())
+                    n += def.deflate(b, n, b.length - n);
+                b = Arrays.copyOf(b, n);
+            }
+            coffs[count] = bitOff >>> 3;
+            uoffs[count] = uoff;
+            bits[count] = (byte)(bitOff & 7);
+            windows[count] = b;
+            windowLens[count] = w.length;
+            count++;
+            last = uoff;
+        }
+
+        private void readTrailer() throws IOException {
+            long v = src.readUInt();
+            long isize = src.readUInt();
+            if (v != crc.getValue() || isize != ((uoff - memberStart) & 0xffffffffL))
+                throw new ZipException("Corrupt GZIP trailer");
+        }
+    }
+
+    /*
+     * Returns the decoding table of the canonical Huffman code with the
+     * given code lengths.  The entry for the next bits of the input, in
+     * the order they are read, holds the symbol and the length of its code,
+     * or zero if no code is a prefix of them.
+     */
+    private static int[] table(int[] lens, int off, int n) throws ZipException {
+        int[] count = new int[16];
+        int max = 0;
+        for (int i = 0; i < n; i++) {
+            int l = lens[off + i];
+            count[l]++;
+            max = Math.max(max, l);
+        }
+        count[0] = 0;
+        int left = 1;
+        for (int l = 1; l < 16; l++) {
+            left = (left << 1) - count[l];
+            if (left < 0)
+                throw new ZipException("invalid code lengths set");
+        }
+        int[] next = new int[16];
+        for (int l = 1, code = 0; l < 16; l++) {
+            code = (code + count[l - 1]) << 1;
+            next[l] = code;
+        }
+        int[] t = new int[1 << max];
+        for (int i = 0; i < n; i++) {
+            int l = lens[off + i];
+            if (l == 0)
+                continue;
+            int r = Integer.reverse(next[l]++) >>> (32 - l);
+            for (int j = r; j < t.length; j += 1 << l)
+                t[j] = (i << 4) | l;
+        }
+        return t;
+    }
+
+    /*
+     * Decompresses from a checkpoint, across the ends of GZIP members.  The
+     * CRC-32 of the data is not checked, as decompression starts part way
+     * through a member.
+     */
+    static final class Cursor {
+        private final Inflater inf = new Inflater(true);
+        private final Input src = new Input();
+        private boolean eof;
+
+        /*
+         * Starts at the given checkpoint of an index, reading the compressed
+         * data from the given stream, which is positioned at the checkpoint.
+         */
+        void start(InputStream in, GZIPIndex index, int i) throws IOException {
+            src.reset(in, index.coffs[i]);
+            eof = false;
+            inf.reset();
+            int len = index.windowLens[i];
+            byte[] w = null;
+            if (len > 0) {
+                // the window is inflated with the same inflater
+                w = new byte[len];
+                inf.setInput(index.windows[i]);
+                int n = 0;
+                while (n < len) {
+                    int k = inflate(inf, w, n, len - n);
+                    if (k == 0 && (inf.finished() || inf.needsInput()))
+                        throw new ZipException("Corrupt GZIP index");
+                    n += k;
+                }
+                inf.reset();
+            }
+            int bits = index.bits[i];
+            if (bits > 0) {
+                // bring the inflater to the bit at which the block begins,
+                // discarding the output of the primer; the window, set as
+                // the dictionary afterwards, replaces it in the history
+                byte[] p = PRIMERS[bits].clone();
+                p[p.length - 1] |= (byte)(src.readUByte() & (0xff << bits));
+                inf.setInput(p);
+                byte[] junk = new byte[8];
+                while (!inf.needsInput()) {
+                    if (inflate(inf, junk, 0, junk.length) == 0
+                        && !inf.needsInput())
+                        throw new ZipException("Corrupt GZIP index");
+                }
+            }
+            if (w != null)
+                inf.setDictionary(w);
+        }
+
+        /*
+         * Reads uncompressed data, returning -1 at the end of the last member.
+         */
+        int read(byte[] b, int off, int len) throws IOException {
+            if (eof)
+                return -1;
+            for (;;) {
+                if (inf.needsInput()) {
+                    if (!src.fill())
+                        throw new EOFException("Unexpected end of ZLIB input stream");
+                    inf.setInput(src.buf, src.pos, src.lim - src.pos);
+                    src.pos = src.lim;
+                }
+                int n = inflate(inf, b, off, len);
+                if (n > 0 || len == 0)
+                    return n;
+                if (inf.finished()) {
+                    src.pos -= inf.getRemaining();
+                    src.skip(TRAILER_SIZE);
+                    if (!nextMember(src)) {
+                        eof = true;
+                        return -1;
+                    }
+                    inf.reset();
+                } else if (inf.needsDictionary()) {
+                    throw new ZipException("Unexpected preset dictionary");
+                }
+            }
+        }
+
+        void end() {
+            inf.end();
+        }
+    }
+
+    private static int inflate(Inflater inf, byte[] b, int off, int len)
+        throws ZipException
+    {
+        try {
+            return inf.inflate(b, off, len);
+        } catch (DataFormatException e) {
+            String s = e.getMessage();
+            throw new ZipException(s != null ? s : "Invalid ZLIB data format");
+        }
+    }
+
+    /*
+     * Buffered compressed input, which keeps track of its offset in the file.
+     */
+    static final class Input {
+        final byte[] buf = new byte[BUF_SIZE];
+        int pos;                        // next byte to read in buf
+        int lim;                        // end of the data in buf
+        long base;                      // offset in the file of buf[0]
+        private InputStream in;
+
+        void reset(InputStream in, long offset) {
+            this.in = in;
+            this.base = offset;
+            this.pos = this.lim = 0;
+        }
+
+        long position() {
+            return base + pos;
+        }
+
+        /*
+         * Returns true if there is data in the buffer, reading more if it is
+         * empty, or false at the end of the stream.
+         */
+        boolean fill() throws IOException {
+            if (pos < lim)
+                return true;
+            base += lim;
+            pos = lim = 0;
+            int n = in.read(buf, 0, buf.length);
+            if (n <= 0)
+                return false;
+            lim = n;
+            return true;
+        }
+
+        int readUByte() throws IOException {
+            if (!fill())
+                throw new EOFException();
+            return buf[pos++] & 0xff;
+        }
+
+        int readUShort() throws IOException {
+            int b = readUByte();
+            return (readUByte() << 8) | b;
+        }
+
+        long readUInt() throws IOException {
+            long s = readUShort();
+            return ((long)readUShort() << 16) | s;
+        }
+
+        void skip(long n) throws IOException {
+            while (n > 0) {
+                if (!fill())
+                    throw new EOFException();
+                int k = (int)Math.min(n, lim - pos);
+                pos += k;
+                n -= k;
+            }
+        }
+    }
+
+    /*
+     * Reads a GZIP member header, leaving the input at the compressed data.
+     */
+    private static void readHeader(Input src) throws IOException {
+        CRC32 hcrc = new CRC32();
+        // Check header magic
+        if (readUShort(src, hcrc) != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        // Check compression method
+        if (readUByte(src, hcrc) != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        // Read flags
+        int flg = readUByte(src, hcrc);
+        // Skip MTIME, XFL, and OS fields
+        for (int i = 0; i < 6; i++)
+            readUByte(src, hcrc);
+        // Skip optional extra field
+        if ((flg & FEXTRA) == FEXTRA) {
+            int m = readUShort(src, hcrc);
+            for (int i = 0; i < m; i++)
+                readUByte(src, hcrc);
+        }
+        // Skip optional file name
+        if ((flg & FNAME) == FNAME) {
+            while (readUByte(src, hcrc) != 0)
+                ;
+        }
+        // Skip optional file comment
+        if ((flg & FCOMMENT) == FCOMMENT) {
+            while (readUByte(src, hcrc) != 0)
+                ;
+        }
+        // Check optional header CRC
+        if ((flg & FHCRC) == FHCRC) {
+            int v = (int)hcrc.getValue() & 0xffff;
+            if (src.readUShort() != v) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+        }
+    }
+
+    private static int readUByte(Input src, CRC32 hcrc) throws IOException {
+        int b = src.readUByte();
+        hcrc.update(b);
+        return b;
+    }
+
+    private static int readUShort(Input src, CRC32 hcrc) throws IOException {
+        int b = readUByte(src, hcrc);
+        return (readUByte(src, hcrc) << 8) | b;
+    }
+
+    /*
+     * Reads the header of the next member after a trailer, returning false
+     * at the end of the input.  As with GZIPInputStream, data after the last
+     * member that is not a GZIP header is ignored.
+     */
+    private static boolean nextMember(Input src) throws IOException {
+        if (!src.fill())
+            return false;
+        try {
+            readHeader(src);
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+}
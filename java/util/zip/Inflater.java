@@ -25,6 +25,9 @@
 
 package java.util.zip;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
 /**
  * This class provides support for general purpose decompression using the
  * popular ZLIB compression library. The ZLIB compression library was
@@ -33,6 +36,11 @@ package java.util.zip;
  * the <a href="package-summary.html#package_description">java.util.zip
  * package description</a>.
  *
+ * <p>Input and output may also be given as {@link ByteBuffer}s. The
+ * contents of buffers that are not backed by an accessible array, such as
+ * direct buffers, are copied to or from the ZLIB library through an array
+ * a few kilobytes at a time.
+ *
  * <p>The following code fragment demonstrates a trivial compression
  * and decompression of a string using <tt>Deflater</tt> and
  * <tt>Inflater</tt>.
@@ -76,6 +84,12 @@ class Inflater {
     private final ZStreamRef zsRef;
     private byte[] buf = defaultBuf;
     private int off, len;
+    private ByteBuffer input;   // the input buffer, whose position follows
+                                // the input consumed, or null for an array
+    private byte[] copyBuf;     // the array through which input from a
+                                // buffer without an array is copied
+    private byte[] outputBuf;   // the array through which output to a
+                                // buffer without an array is copied
     private boolean finished;
     private boolean needDict;
     private long bytesRead;
@@ -83,6 +97,9 @@ class Inflater {
 
     private static final byte[] defaultBuf = new byte[0];
 
+    // the most bytes copied at a time for a buffer without an array
+    private static final int COPY_SIZE = 8192;
+
     static {
         /* Zip library is loaded from System.initializeSystemClass */
         initIDs();
@@ -130,6 +147,7 @@ class Inflater {
             this.buf = b;
             this.off = off;
             this.len = len;
+            this.input = null;
         }
     }
 
@@ -144,6 +162,40 @@ class Inflater {
         setInput(b, 0, b.length);
     }
 
+    /**
+     * Sets input data for decompression. Should be called whenever
+     * needsInput() returns true indicating that more input data is
+     * required.
+     * <p>
+     * The bytes from the buffer's position to its limit are the input.
+     * The buffer's position is advanced as inflate operations consume
+     * input, up to the buffer's limit, and the buffer should not be
+     * modified or otherwise accessed while it is the input of this
+     * inflater.
+     * @param input the input data bytes
+     * @see Inflater#needsInput
+     * @since 1.8
+     */
+    public void setInput(ByteBuffer input) {
+        if (input == null) {
+            throw new NullPointerException();
+        }
+        synchronized (zsRef) {
+            int pos = input.position();
+            int rem = Math.max(input.limit() - pos, 0);
+            if (input.hasArray()) {
+                this.buf = input.array();
+                this.off = input.arrayOffset() + pos;
+            } else {
+                // copied in chunks by inflateCopy as it is consumed
+                this.buf = defaultBuf;
+                this.off = 0;
+            }
+            this.len = rem;
+            this.input = input;
+        }
+    }
+
     /**
      * Sets the preset dictionary to the given array of bytes. Should be
      * called when inflate() returns 0 and needsDictionary() returns true
@@ -182,6 +234,37 @@ class Inflater {
         setDictionary(b, 0, b.length);
     }
 
+    /**
+     * Sets the preset dictionary to the bytes of the given buffer, from its
+     * position to its limit. Should be called when inflate() returns 0 and
+     * needsDictionary() returns true indicating that a preset dictionary is
+     * required. The method getAdler() can be used to get the Adler-32 value
+     * of the dictionary needed.
+     * <p>
+     * The buffer's position is advanced to its limit.
+     * @param dictionary the dictionary data bytes
+     * @see Inflater#needsDictionary
+     * @see Inflater#getAdler
+     * @since 1.8
+     */
+    public void setDictionary(ByteBuffer dictionary) {
+        synchronized (zsRef) {
+            ensureOpen();
+            int pos = dictionary.position();
+            int rem = Math.max(dictionary.limit() - pos, 0);
+            if (dictionary.hasArray()) {
+                setDictionary(zsRef.address(), dictionary.array(),
+                              dictionary.arrayOffset() + pos, rem);
+            } else {
+                byte[] b = new byte[rem];
+                dictionary.duplicate().get(b);
+                setDictionary(zsRef.address(), b, 0, rem);
+            }
+            dictionary.position(pos + rem);
+            needDict = false;
+        }
+    }
+
     /**
      * Returns the total number of bytes remaining in the input buffer.
      * This can be used to find out what bytes still remain in the input
@@ -255,10 +338,16 @@ class Inflater {
         }
         synchronized (zsRef) {
             ensureOpen();
+            ByteBuffer input = this.input;
+            if (input != null && !input.hasArray()) {
+                return inflateCopy(input, b, off, len);
+            }
             int thisLen = this.len;
             int n = inflateBytes(zsRef.address(), b, off, len);
             bytesWritten += n;
             bytesRead += (thisLen - this.len);
+            if (input != null)
+                input.position(input.position() + (thisLen - this.len));
             return n;
         }
     }
@@ -280,6 +369,95 @@ class Inflater {
         return inflate(b, 0, b.length);
     }
 
+    /**
+     * Uncompresses bytes into the specified buffer, from its position up
+     * to its limit. Returns actual number of bytes uncompressed, by which
+     * the buffer's position is advanced. A return value of 0 indicates
+     * that needsInput() or needsDictionary() should be called in order to
+     * determine if more input data or a preset dictionary is required.
+     * In the latter case, getAdler() can be used to get the Adler-32
+     * value of the dictionary required.
+     * @param output the buffer for the uncompressed data
+     * @return the actual number of uncompressed bytes
+     * @exception DataFormatException if the compressed data format is invalid
+     * @exception ReadOnlyBufferException if the buffer is read-only
+     * @see Inflater#needsInput
+     * @see Inflater#needsDictionary
+     * @since 1.8
+     */
+    public int inflate(ByteBuffer output) throws DataFormatException {
+        if (output.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        synchronized (zsRef) {
+            ensureOpen();
+            int pos = output.position();
+            int rem = Math.max(output.limit() - pos, 0);
+            if (output.hasArray()) {
+                int n = inflate(output.array(), output.arrayOffset() + pos, rem);
+                output.position(pos + n);
+                return n;
+            }
+            // a direct buffer, filled through an array
+            byte[] b = outputBuf;
+            if (b == null) {
+                outputBuf = b = new byte[COPY_SIZE];
+            }
+            int n = 0, k;
+            do {
+                int m = Math.min(rem - n, b.length);
+                k = inflate(b, 0, m);
+                output.put(b, 0, k);
+                n += k;
+                if (k < m)
+                    break;
+            } while (n < rem);
+            return n;
+        }
+    }
+
+    /*
+     * Inflates from an input buffer that has no accessible array, copying
+     * at most COPY_SIZE bytes of it at a time into copyBuf, from which the
+     * native method reads as it would from an input array.  The native
+     * method is called again while it consumes all of the input copied and
+     * there is output space left.
+     */
+    private int inflateCopy(ByteBuffer input, byte[] b, int off, int len)
+        throws DataFormatException
+    {
+        assert Thread.holdsLock(zsRef);
+        byte[] copy = copyBuf;
+        if (copy == null) {
+            copyBuf = copy = new byte[COPY_SIZE];
+        }
+        int n = 0;
+        while (true) {
+            int remaining = this.len;
+            int chunk = Math.min(remaining, copy.length);
+            int pos = input.position();
+            input.get(copy, 0, chunk);
+            this.buf = copy;
+            this.off = 0;
+            this.len = chunk;
+            int read = 0;
+            try {
+                n += inflateBytes(zsRef.address(), b, off + n, len - n);
+                read = chunk - this.len;
+            } finally {
+                this.buf = defaultBuf;
+                this.off = 0;
+                this.len = remaining - read;
+                input.position(pos + read);
+                bytesRead += read;
+            }
+            if (read < chunk || this.len == 0 || n == len || finished || needDict)
+                break;
+        }
+        bytesWritten += n;
+        return n;
+    }
+
     /**
      * Returns the ADLER-32 value of the uncompressed data.
      * @return the ADLER-32 value of the uncompressed data
@@ -351,6 +529,7 @@ class Inflater {
             ensureOpen();
             reset(zsRef.address());
             buf = defaultBuf;
+            input = null;
             finished = false;
             needDict = false;
             off = len = 0;
@@ -372,6 +551,9 @@ class Inflater {
             if (addr != 0) {
                 end(addr);
                 buf = null;
+                input = null;
+                copyBuf = null;
+                outputBuf = null;
             }
         }
     }
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * An output stream filter that writes data in the GZIP file format,
+ * compressing it on several threads at once.
+ *
+ * <p> The data written to the stream is divided into blocks of a fixed
+ * size, and each block is compressed by a task submitted to a {@link
+ * ForkJoinPool}.  So that compression suffers little from the division,
+ * the compressor of each block is primed with the last 32K bytes of the
+ * previous block as a preset dictionary.  Every block but the last ends
+ * with a {@link Deflater#SYNC_FLUSH sync flush}, so that the compressed
+ * blocks, written in order, form a single deflate stream, and the output
+ * is one GZIP member that any GZIP reader, such as {@link
+ * GZIPInputStream}, can decompress.  The CRC-32 of each block is computed
+ * by its task too, and the values are combined for the GZIP trailer.
+ *
+ * <p> The stream keeps a bounded number of blocks in progress, so that a
+ * writer that is faster than the pool waits for the oldest block to be
+ * compressed and written.  The compressed output differs from, and is
+ * usually slightly larger than, that of {@link GZIPOutputStream}.
+ *
+ * <p> As with other output streams, an instance of this class is meant to
+ * be used by one thread at a time.
+ *
+ * @see GZIPOutputStream
+ * @since 1.8
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+
+    /*
+     * GZIP header magic number.
+     */
+    private final static int GZIP_MAGIC = 0x8b1f;
+
+    /*
+     * Trailer size in bytes.
+     */
+    private final static int TRAILER_SIZE = 8;
+
+    /*
+     * Size of the deflate window, and so of the preset dictionary.
+     */
+    private final static int DICT_SIZE = 32 * 1024;
+
+    /*
+     * Default size of a block of uncompressed data.
+     */
+    private final static int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private final int level;
+    private final int maxPending;
+
+    // blocks submitted for compression and not yet written, oldest first
+    private final Deque<ForkJoinTask<Block>> pending = new ArrayDeque<>();
+
+    // input buffers of blocks that have been written, for reuse
+    private final Deque<byte[]> freeBuffers = new ArrayDeque<>();
+
+    // deflaters not in use by any task
+    private final Deque<Deflater> deflaters = new ConcurrentLinkedDeque<>();
+
+    private byte[] buf;             // input of the current block
+    private int count;              // number of bytes in buf
+    private byte[] dict;            // the tail of the previous block, or null
+
+    private long crc;               // CRC-32 of the data written out
+    private long totalIn;           // number of bytes written out
+
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Creates a new output stream that compresses blocks of a default size
+     * with the default compression level, using the {@linkplain
+     * ForkJoinPool#commonPool() common pool}.
+     *
+     * @param out the output stream
+     * @exception IOException If an I/O error has occurred.
+     */
+    public ParallelGZIPOutputStream(OutputStream out) throws IOException {
+        this(out, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION,
+             ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new output stream that compresses blocks of the given size
+     * with the given compression level, using the given pool.
+     *
+     * @param out the output stream
+     * @param blockSize the number of bytes of uncompressed data in each
+     *        block, which should be well above 32K bytes
+     * @param level the compression level (0-9), or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @param pool the pool in which blocks are compressed
+     * @exception IOException If an I/O error has occurred.
+     * @exception IllegalArgumentException if {@code blockSize <= 0} or the
+     *            compression level is invalid
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int blockSize,
+                                    int level, ForkJoinPool pool)
+        throws IOException
+    {
+        super(out);
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize <= 0");
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("invalid compression level");
+        if (pool == null)
+            throw new NullPointerException("pool");
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.maxPending = Math.max(2, 2 * pool.getParallelism());
+        this.buf = new byte[blockSize];
+        writeHeader();
+    }
+
+    /**
+     * Writes a byte to the compressed output stream.
+     *
+     * @param b the byte to be written
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void write(int b) throws IOException {
+        byte[] one = new byte[1];
+        one[0] = (byte)(b & 0xff);
+        write(one, 0, 1);
+    }
+
+    /**
+     * Writes an array of bytes to the compressed output stream, submitting
+     * each block for compression as it is filled. This method may block
+     * while earlier blocks are compressed and written.
+     *
+     * @param b the data to be written
+     * @param off the start offset of the data
+     * @param len the length of the data
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (finished)
+            throw new IOException("write beyond end of stream");
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize)
+                submit(false);
+        }
+    }
+
+    /**
+     * Flushes the compressed output stream. The data written so far is
+     * compressed and written to the underlying stream, ending with a sync
+     * flush, before the underlying stream is flushed.
+     *
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        if (finished)
+            throw new IOException("write beyond end of stream");
+        if (count > 0)
+            submit(false);
+        drain(0);
+        out.flush();
+    }
+
+    /**
+     * Finishes writing compressed data to the output stream without closing
+     * the underlying stream. Use this method when applying multiple filters
+     * in succession to the same output stream.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        if (finished)
+            return;
+        submit(true);
+        drain(0);
+        finished = true;
+        byte[] trailer = new byte[TRAILER_SIZE];
+        writeInt((int)crc, trailer, 0);         // CRC-32 of uncompr. data
+        writeInt((int)totalIn, trailer, 4);     // Number of uncompr. bytes
+        out.write(trailer);
+    }
+
+    /**
+     * Writes remaining compressed data to the output stream and closes the
+     * underlying stream.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void close() throws IOException {
+        if (closed)
+            return;
+        try {
+            finish();
+        } finally {
+            closed = true;
+            for (ForkJoinTask<Block> task : pending)
+                task.cancel(false);
+            pending.clear();
+            Deflater def;
+            while ((def = deflaters.poll()) != null)
+                def.end();
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+    }
+
+    /*
+     * Submits the current block for compression, first waiting for
+     * the oldest blocks if too many are in progress.
+     */
+    private void submit(boolean last) throws IOException {
+        drain(maxPending - 1);
+        Block block = new Block(buf, count, dict, last);
+        pending.add(pool.submit(block));
+        if (!last) {
+            // the last 32K of input, which may span this and earlier blocks
+            byte[] d;
+            if (count >= DICT_SIZE) {
+                d = new byte[DICT_SIZE];
+                System.arraycopy(buf, count - DICT_SIZE, d, 0, DICT_SIZE);
+            } else {
+                int keep = (dict == null) ? 0
+                                          : Math.min(dict.length, DICT_SIZE - count);
+                d = new byte[keep + count];
+                if (keep > 0)
+                    System.arraycopy(dict, dict.length - keep, d, 0, keep);
+                System.arraycopy(buf, 0, d, keep, count);
+            }
+            dict = d;
+            buf = freeBuffers.isEmpty() ? new byte[blockSize]
+                                        : freeBuffers.pop();
+            count = 0;
+        }
+    }
+
+    /*
+     * Writes out compressed blocks, in order, until at most the given
+     * number remain in progress.
+     */
+    private void drain(int max) throws IOException {
+        while (pending.size() > max) {
+            Block block;
+            try {
+                block = pending.peek().get();
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException x) {
+                Throwable cause = x.getCause();
+                if (cause instanceof IOException)
+                    throw (IOException)cause;
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException)cause;
+                if (cause instanceof Error)
+                    throw (Error)cause;
+                throw new IOException(cause);
+            }
+            pending.poll();
+            out.write(block.out, 0, block.outLen);
+            crc = CRC32.combine(crc, block.crc, block.len);
+            totalIn += block.len;
+            if (block.in != buf)
+                freeBuffers.push(block.in);
+        }
+    }
+
+    /*
+     * A block of input, compressed by a task in the pool.
+     */
+    private final class Block implements Callable<Block> {
+        final byte[] in;
+        final int len;
+        final byte[] dict;
+        final boolean last;
+
+        byte[] out;
+        int outLen;
+        long crc;
+
+        Block(byte[] in, int len, byte[] dict, boolean last) {
+            this.in = in;
+            this.len = len;
+            this.dict = dict;
+            this.last = last;
+        }
+
+        public Block call() {
+            CRC32 c = new CRC32();
+            c.update(in, 0, len);
+            crc = c.getValue();
+
+            Deflater def = deflaters.poll();
+            if (def == null)
+                def = new Deflater(level, true);
+            try {
+                if (dict != null)
+                    def.setDictionary(dict);
+                def.setInput(in, 0, len);
+                if (last)
+                    def.finish();
+                // room for the worst case of a stored block, and more
+                byte[] b = new byte[len + (len >> 3) + 64];
+                int n = 0;
+                for (;;) {
+                    if (n == b.length)
+                        b = Arrays.copyOf(b, b.length << 1);
+                    int flush = last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+                    n += def.deflate(b, n, b.length - n, flush);
+                    // done when finished, or when a sync flush has room
+                    // left over, as it then has emitted all of its output
+                    if (last ? def.finished() : n < b.length)
+                        break;
+                }
+                out = b;
+                outLen = n;
+            } finally {
+                def.reset();
+                deflaters.push(def);
+            }
+            return this;
+        }
+    }
+
+    /*
+     * Writes GZIP member header.
+     */
+    private void writeHeader() throws IOException {
+        out.write(new byte[] {
+                      (byte) GZIP_MAGIC,        // Magic number (short)
+                      (byte)(GZIP_MAGIC >> 8),  // Magic number (short)
+                      Deflater.DEFLATED,        // Compression method (CM)
+                      0,                        // Flags (FLG)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Modification time MTIME (int)
+                      0,                        // Extra flags (XFLG)
+                      0                         // Operating system (OS)
+                  });
+    }
+
+    /*
+     * Writes integer in Intel byte order to a byte array, starting at a
+     * given offset.
+     */
+    private static void writeInt(int i, byte[] buf, int offset) {
+        buf[offset] = (byte)i;
+        buf[offset + 1] = (byte)(i >> 8);
+        buf[offset + 2] = (byte)(i >> 16);
+        buf[offset + 3] = (byte)(i >> 24);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * An input stream for reading the uncompressed data of a file in the GZIP
+ * format from any position, using a {@link GZIPIndex} of the file.
+ *
+ * <p> To {@linkplain #seek seek} to a position, the stream resumes
+ * decompression at the last checkpoint of the index at or before it, and
+ * decompresses and discards the data from there to the position, unless
+ * the current position is already between them.  The cost of a seek is so
+ * bounded by the spacing of the checkpoints.  A large {@link #skip skip} is
+ * a seek.
+ *
+ * <p> As decompression may start part way through a GZIP member, the
+ * CRC-32 in the member trailers is not checked; it is checked when the
+ * index is {@linkplain GZIPIndex#build built}.
+ *
+ * @see GZIPIndex
+ * @see GZIPInputStream
+ * @since 1.8
+ */
+public class SeekableGZIPInputStream extends InputStream {
+
+    private final SeekableByteChannel ch;
+    private final GZIPIndex index;
+    private final GZIPIndex.Cursor cursor = new GZIPIndex.Cursor();
+
+    private long pos;                   // position in the uncompressed data
+    private boolean closed;
+
+    private byte[] singleByteBuf = new byte[1];
+    private byte[] skipBuf;
+
+    /**
+     * Creates a new input stream that reads the GZIP file of the given
+     * channel using the given index, starting at the beginning of the
+     * uncompressed data.
+     *
+     * @param ch the channel of the compressed file
+     * @param index the index of the file
+     * @exception IOException if an I/O error has occurred
+     * @exception IllegalArgumentException if the size of the file differs
+     *            from that from which the index was built
+     */
+    public SeekableGZIPInputStream(SeekableByteChannel ch, GZIPIndex index)
+        throws IOException
+    {
+        if (index == null)
+            throw new NullPointerException("index");
+        if (ch.size() != index.getCompressedSize())
+            throw new IllegalArgumentException("Index does not match file");
+        this.ch = ch;
+        this.index = index;
+        restart(0);
+    }
+
+    /**
+     * Returns the current position in the uncompressed data.
+     *
+     * @return the number of bytes from the start of the uncompressed data
+     */
+    public long position() {
+        return pos;
+    }
+
+    /**
+     * Returns the size of the uncompressed data.
+     *
+     * @return the number of bytes of uncompressed data
+     */
+    public long size() {
+        return index.getUncompressedSize();
+    }
+
+    /**
+     * Sets the position in the uncompressed data from which the next byte
+     * is read.  A position past the end of the data is taken to be the end.
+     *
+     * @param newPos the new position
+     * @exception ZipException if a GZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     * @exception IllegalArgumentException if {@code newPos} is negative
+     */
+    public void seek(long newPos) throws IOException {
+        ensureOpen();
+        if (newPos < 0)
+            throw new IllegalArgumentException("Negative position");
+        newPos = Math.min(newPos, size());
+        int i = index.checkpoint(newPos);
+        if (newPos < pos || index.uncompressedOffset(i) > pos)
+            restart(i);
+        long n = newPos - pos;
+        if (n > 0 && skipBuf == null)
+            skipBuf = new byte[8192];
+        while (n > 0) {
+            int k = cursor.read(skipBuf, 0, (int)Math.min(n, skipBuf.length));
+            if (k < 0)
+                break;
+            pos += k;
+            n -= k;
+        }
+    }
+
+    /*
+     * Resumes decompression at the given checkpoint.
+     */
+    private void restart(int i) throws IOException {
+        long coff = index.compressedOffset(i);
+        ch.position(coff);
+        cursor.start(Channels.newInputStream(ch), index, i);
+        pos = index.uncompressedOffset(i);
+    }
+
+    /**
+     * Reads a byte of uncompressed data. This method will block until
+     * enough input is available for decompression.
+     *
+     * @return the byte read, or -1 if the end of the uncompressed data is
+     *         reached
+     * @exception IOException if an I/O error has occurred
+     */
+    public int read() throws IOException {
+        return read(singleByteBuf, 0, 1) == -1 ? -1 : Byte.toUnsignedInt(singleByteBuf[0]);
+    }
+
+    /**
+     * Reads uncompressed data into an array of bytes. If <code>len</code>
+     * is not zero, the method will block until some input can be
+     * decompressed; otherwise, no bytes are read and <code>0</code> is
+     * returned.
+     *
+     * @param b the buffer into which the data is read
+     * @param off the start offset in the destination array <code>b</code>
+     * @param len the maximum number of bytes read
+     * @return the actual number of bytes read, or -1 if the end of the
+     *         uncompressed data is reached
+     * @exception ZipException if a GZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (b == null) {
+            throw new NullPointerException();
+        } else if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        }
+        int n = cursor.read(b, off, len);
+        if (n > 0)
+            pos += n;
+        return n;
+    }
+
+    /**
+     * Skips over and discards <code>n</code> bytes of uncompressed data, by
+     * {@linkplain #seek seeking} forward.
+     *
+     * @param n the number of bytes to skip
+     * @return the actual number of bytes skipped
+     * @exception IOException if an I/O error has occurred
+     */
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        if (n <= 0)
+            return 0;
+        long start = pos;
+        seek(n > size() - pos ? size() : pos + n);
+        return pos - start;
+    }
+
+    /**
+     * Closes this input stream and its channel.
+     *
+     * @exception IOException if an I/O error has occurred
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            cursor.end();
+            ch.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -34,6 +34,7 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 import sun.nio.cs.ArrayDecoder;
 import sun.nio.cs.ArrayEncoder;
 
@@ -43,63 +44,75 @@ import sun.nio.cs.ArrayEncoder;
 
 final class ZipCoder {
 
-    String toString(byte[] ba, int length) {
-        CharsetDecoder cd = decoder().reset();
-        int len = (int)(length * cd.maxCharsPerByte());
-        char[] ca = new char[len];
-        if (len == 0)
-            return new String(ca);
-        // UTF-8 only for now. Other ArrayDeocder only handles
-        // CodingErrorAction.REPLACE mode. ZipCoder uses
-        // REPORT mode.
-        if (isUTF8 && cd instanceof ArrayDecoder) {
-            int clen = ((ArrayDecoder)cd).decode(ba, 0, length, ca);
-            if (clen == -1)    // malformed
-                throw new IllegalArgumentException("MALFORMED");
-            return new String(ca, 0, clen);
+    String toString(byte[] ba, int off, int length) {
+        CharsetDecoder cd = decoder();
+        try {
+            int len = (int)(length * cd.maxCharsPerByte());
+            char[] ca = new char[len];
+            if (len == 0)
+                return new String(ca);
+            // UTF-8 only for now. Other ArrayDeocder only handles
+            // CodingErrorAction.REPLACE mode. ZipCoder uses
+            // REPORT mode.
+            if (isUTF8 && cd instanceof ArrayDecoder) {
+                int clen = ((ArrayDecoder)cd).decode(ba, off, length, ca);
+                if (clen == -1)    // malformed
+                    throw new IllegalArgumentException("MALFORMED");
+                return new String(ca, 0, clen);
+            }
+            ByteBuffer bb = ByteBuffer.wrap(ba, off, length);
+            CharBuffer cb = CharBuffer.wrap(ca);
+            CoderResult cr = cd.decode(bb, cb, true);
+            if (!cr.isUnderflow())
+                throw new IllegalArgumentException(cr.toString());
+            cr = cd.flush(cb);
+            if (!cr.isUnderflow())
+                throw new IllegalArgumentException(cr.toString());
+            return new String(ca, 0, cb.position());
+        } finally {
+            dec.lazySet(cd);
         }
-        ByteBuffer bb = ByteBuffer.wrap(ba, 0, length);
-        CharBuffer cb = CharBuffer.wrap(ca);
-        CoderResult cr = cd.decode(bb, cb, true);
-        if (!cr.isUnderflow())
-            throw new IllegalArgumentException(cr.toString());
-        cr = cd.flush(cb);
-        if (!cr.isUnderflow())
-            throw new IllegalArgumentException(cr.toString());
-        return new String(ca, 0, cb.position());
+    }
+
+    String toString(byte[] ba, int length) {
+        return toString(ba, 0, length);
     }
 
     String toString(byte[] ba) {
-        return toString(ba, ba.length);
+        return toString(ba, 0, ba.length);
     }
 
     byte[] getBytes(String s) {
-        CharsetEncoder ce = encoder().reset();
-        char[] ca = s.toCharArray();
-        int len = (int)(ca.length * ce.maxBytesPerChar());
-        byte[] ba = new byte[len];
-        if (len == 0)
-            return ba;
-        // UTF-8 only for now. Other ArrayDeocder only handles
-        // CodingErrorAction.REPLACE mode.
-        if (isUTF8 && ce instanceof ArrayEncoder) {
-            int blen = ((ArrayEncoder)ce).encode(ca, 0, ca.length, ba);
-            if (blen == -1)    // malformed
-                throw new IllegalArgumentException("MALFORMED");
-            return Arrays.copyOf(ba, blen);
+        CharsetEncoder ce = encoder();
+        try {
+            char[] ca = s.toCharArray();
+            int len = (int)(ca.length * ce.maxBytesPerChar());
+            byte[] ba = new byte[len];
+            if (len == 0)
+                return ba;
+            // UTF-8 only for now. Other ArrayDeocder only handles
+            // CodingErrorAction.REPLACE mode.
+            if (isUTF8 && ce instanceof ArrayEncoder) {
+                int blen = ((ArrayEncoder)ce).encode(ca, 0, ca.length, ba);
+                if (blen == -1)    // malformed
+                    throw new IllegalArgumentException("MALFORMED");
+                return Arrays.copyOf(ba, blen);
+            }
+            ByteBuffer bb = ByteBuffer.wrap(ba);
+            CharBuffer cb = CharBuffer.wrap(ca);
+            CoderResult cr = ce.encode(cb, bb, true);
+            if (!cr.isUnderflow())
+                throw new IllegalArgumentException(cr.toString());
+            cr = ce.flush(bb);
+            if (!cr.isUnderflow())
+                throw new IllegalArgumentException(cr.toString());
+            if (bb.position() == ba.length)  // defensive copy?
+                return ba;
+            else
+                return Arrays.copyOf(ba, bb.position());
+        } finally {
+            enc.lazySet(ce);
         }
-        ByteBuffer bb = ByteBuffer.wrap(ba);
-        CharBuffer cb = CharBuffer.wrap(ca);
-        CoderResult cr = ce.encode(cb, bb, true);
-        if (!cr.isUnderflow())
-            throw new IllegalArgumentException(cr.toString());
-        cr = ce.flush(bb);
-        if (!cr.isUnderflow())
-            throw new IllegalArgumentException(cr.toString());
-        if (bb.position() == ba.length)  // defensive copy?
-            return ba;
-        else
-            return Arrays.copyOf(ba, bb.position());
     }
 
     // assume invoked only if "this" is not utf8
@@ -112,23 +125,30 @@ final class ZipCoder {
     }
 
 
-    String toStringUTF8(byte[] ba, int len) {
+    String toStringUTF8(byte[] ba, int off, int len) {
         if (isUTF8)
-            return toString(ba, len);
+            return toString(ba, off, len);
         if (utf8 == null)
             utf8 = new ZipCoder(StandardCharsets.UTF_8);
-        return utf8.toString(ba, len);
+        return utf8.toString(ba, off, len);
+    }
+
+    String toStringUTF8(byte[] ba, int len) {
+        return toStringUTF8(ba, 0, len);
     }
 
     boolean isUTF8() {
         return isUTF8;
     }
 
-    private Charset cs;
-    private CharsetDecoder dec;
-    private CharsetEncoder enc;
-    private boolean isUTF8;
-    private ZipCoder utf8;
+    // A ZipCoder is shared by the threads using a ZipFile.  Each coder
+    // below is taken by the thread that uses it, and put back afterwards;
+    // a thread that finds it taken uses a new one.
+    private final Charset cs;
+    private final AtomicReference<CharsetDecoder> dec = new AtomicReference<>();
+    private final AtomicReference<CharsetEncoder> enc = new AtomicReference<>();
+    private final boolean isUTF8;
+    private volatile ZipCoder utf8;
 
     private ZipCoder(Charset cs) {
         this.cs = cs;
@@ -140,20 +160,22 @@ final class ZipCoder {
     }
 
     private CharsetDecoder decoder() {
-        if (dec == null) {
-            dec = cs.newDecoder()
+        CharsetDecoder cd = dec.getAndSet(null);
+        if (cd == null) {
+            return cs.newDecoder()
               .onMalformedInput(CodingErrorAction.REPORT)
               .onUnmappableCharacter(CodingErrorAction.REPORT);
         }
-        return dec;
+        return cd.reset();
     }
 
     private CharsetEncoder encoder() {
-        if (enc == null) {
-            enc = cs.newEncoder()
+        CharsetEncoder ce = enc.getAndSet(null);
+        if (ce == null) {
+            return cs.newEncoder()
               .onMalformedInput(CodingErrorAction.REPORT)
               .onUnmappableCharacter(CodingErrorAction.REPORT);
         }
-        return enc;
+        return ce.reset();
     }
 }
@@ -30,9 +30,13 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedMemorySegment;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -42,10 +46,13 @@ import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import sun.misc.SharedSecrets;
 
 import static java.util.zip.ZipConstants64.*;
+import static java.util.zip.ZipUtils.*;
 
 /**
  * This class is used to read entries from a zip file.
@@ -58,7 +65,8 @@ import static java.util.zip.ZipConstants64.*;
  */
 public
 class ZipFile implements ZipConstants, Closeable {
-    private long jzfile;  // address of jzfile data
+    private final Source zsrc;     // the open zip file, shared
+    private boolean released;      // if zsrc has been released
     private final String name;     // zip file name
     private final int total;       // total number of entries
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
@@ -81,13 +89,6 @@ class ZipFile implements ZipConstants, Closeable {
      */
     public static final int OPEN_DELETE = 0x4;
 
-    static {
-        /* Zip library is loaded from System.initializeSystemClass */
-        initIDs();
-    }
-
-    private static native void initIDs();
-
     private static final boolean usemmap;
 
     private static final boolean ensuretrailingslash;
@@ -222,12 +223,12 @@ class ZipFile implements ZipConstants, Closeable {
             throw new NullPointerException("charset is null");
         this.zc = ZipCoder.get(charset);
         long t0 = System.nanoTime();
-        jzfile = open(name, mode, file.lastModified(), usemmap);
+        this.zsrc = Source.get(file, (mode & OPEN_DELETE) != 0);
         sun.misc.PerfCounter.getZipFileOpenTime().addElapsedTimeFrom(t0);
         sun.misc.PerfCounter.getZipFileCount().increment();
         this.name = name;
-        this.total = getTotal(jzfile);
-        this.locsig = startsWithLOC(jzfile);
+        this.total = zsrc.total;
+        this.locsig = zsrc.locsig;
     }
 
     /**
@@ -289,13 +290,11 @@ class ZipFile implements ZipConstants, Closeable {
      * Since 1.7
      */
     public String getComment() {
-        synchronized (this) {
-            ensureOpen();
-            byte[] bcomm = getCommentBytes(jzfile);
-            if (bcomm == null)
-                return null;
-            return zc.toString(bcomm, bcomm.length);
-        }
+        ensureOpen();
+        byte[] bcomm = zsrc.comment;
+        if (bcomm == null)
+            return null;
+        return zc.toString(bcomm, bcomm.length);
     }
 
     /**
@@ -310,34 +309,23 @@ class ZipFile implements ZipConstants, Closeable {
         if (name == null) {
             throw new NullPointerException("name");
         }
-        long jzentry = 0;
-        synchronized (this) {
-            ensureOpen();
-            jzentry = getEntry(jzfile, zc.getBytes(name), true);
-            if (jzentry != 0) {
-                // If no entry is found for the specified 'name' and
-                // the 'name' does not end with a forward slash '/',
-                // the implementation tries to find the entry with a
-                // slash '/' appended to the end of the 'name', before
-                // returning null. When such entry is found, the name
-                // that actually is found (with a slash '/' attached)
-                // is used
-                // (disabled if jdk.util.zip.ensureTrailingSlash=false)
-                ZipEntry ze = ensuretrailingslash ? getZipEntry(null, jzentry)
-                                                  : getZipEntry(name, jzentry);
-                freeEntry(jzfile, jzentry);
-                return ze;
-            }
+        ensureOpen();
+        int pos = zsrc.getEntryPos(zc.getBytes(name), true);
+        if (pos != -1) {
+            // If no entry is found for the specified 'name' and
+            // the 'name' does not end with a forward slash '/',
+            // the implementation tries to find the entry with a
+            // slash '/' appended to the end of the 'name', before
+            // returning null. When such entry is found, the name
+            // that actually is found (with a slash '/' attached)
+            // is used
+            // (disabled if jdk.util.zip.ensureTrailingSlash=false)
+            return ensuretrailingslash ? getZipEntry(null, pos)
+                                       : getZipEntry(name, pos);
         }
         return null;
     }
 
-    private static native long getEntry(long jzfile, byte[] name,
-                                        boolean addSlash);
-
-    // freeEntry releases the C jzentry struct.
-    private static native void freeEntry(long jzfile, long jzentry);
-
     // the outstanding inputstreams that need to be closed,
     // mapped to the inflater objects they use.
     private final Map<InputStream, Inflater> streams = new WeakHashMap<>();
@@ -360,41 +348,38 @@ class ZipFile implements ZipConstants, Closeable {
         if (entry == null) {
             throw new NullPointerException("entry");
         }
-        long jzentry = 0;
-        ZipFileInputStream in = null;
-        synchronized (this) {
-            ensureOpen();
-            if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
-                jzentry = getEntry(jzfile, zc.getBytesUTF8(entry.name), false);
-            } else {
-                jzentry = getEntry(jzfile, zc.getBytes(entry.name), false);
-            }
-            if (jzentry == 0) {
-                return null;
-            }
-            in = new ZipFileInputStream(jzentry);
+        ensureOpen();
+        int pos;
+        if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
+            pos = zsrc.getEntryPos(zc.getBytesUTF8(entry.name), false);
+        } else {
+            pos = zsrc.getEntryPos(zc.getBytes(entry.name), false);
+        }
+        if (pos == -1) {
+            return null;
+        }
+        ZipFileInputStream in = new ZipFileInputStream(pos);
 
-            switch (getEntryMethod(jzentry)) {
-            case STORED:
-                synchronized (streams) {
-                    streams.put(in, null);
-                }
-                return in;
-            case DEFLATED:
-                // MORE: Compute good size for inflater stream:
-                long size = getEntrySize(jzentry) + 2; // Inflater likes a bit of slack
-                if (size > 65536) size = 8192;
-                if (size <= 0) size = 4096;
-                Inflater inf = getInflater();
-                InputStream is =
-                    new ZipFileInflaterInputStream(in, inf, (int)size);
-                synchronized (streams) {
-                    streams.put(is, inf);
-                }
-                return is;
-            default:
-                throw new ZipException("invalid compression method");
+        switch (CENHOW(zsrc.cen, pos)) {
+        case STORED:
+            synchronized (streams) {
+                streams.put(in, null);
             }
+            return in;
+        case DEFLATED:
+            // MORE: Compute good size for inflater stream:
+            long size = in.size() + 2; // Inflater likes a bit of slack
+            if (size > 65536) size = 8192;
+            if (size <= 0) size = 4096;
+            Inflater inf = getInflater();
+            InputStream is =
+                new ZipFileInflaterInputStream(in, inf, (int)size);
+            synchronized (streams) {
+                streams.put(is, inf);
+            }
+            return is;
+        default:
+            throw new ZipException("invalid compression method");
         }
     }
 
@@ -431,6 +416,14 @@ class ZipFile implements ZipConstants, Closeable {
             if (eof) {
                 throw new EOFException("Unexpected end of ZLIB input stream");
             }
+            ByteBuffer bb = zfin.readMapped();
+            if (bb != null) {
+                // inflate from the mapped file, which the inflater copies
+                // in chunks rather than through a read into buf
+                len = bb.remaining();
+                inf.setInput(bb);
+                return;
+            }
             len = in.read(buf, 0, buf.length);
             if (len == -1) {
                 buf[0] = 0;
@@ -459,11 +452,9 @@ class ZipFile implements ZipConstants, Closeable {
      */
     private Inflater getInflater() {
         Inflater inf;
-        synchronized (inflaterCache) {
-            while (null != (inf = inflaterCache.poll())) {
-                if (false == inf.ended()) {
-                    return inf;
-                }
+        while (null != (inf = inflaterCache.poll())) {
+            if (false == inf.ended()) {
+                return inf;
             }
         }
         return new Inflater(true);
@@ -475,14 +466,14 @@ class ZipFile implements ZipConstants, Closeable {
     private void releaseInflater(Inflater inf) {
         if (false == inf.ended()) {
             inf.reset();
-            synchronized (inflaterCache) {
-                inflaterCache.add(inf);
-            }
+            inflaterCache.push(inf);
         }
     }
 
-    // List of available Inflater objects for decompression
-    private Deque<Inflater> inflaterCache = new ArrayDeque<>();
+    // Stack of available Inflater objects for decompression. The most
+    // recently released inflater is reused first, while its buffers are
+    // likely to be in the cache of the thread that released it.
+    private final Deque<Inflater> inflaterCache = new ConcurrentLinkedDeque<>();
 
     /**
      * Returns the path name of the ZIP file.
@@ -494,6 +485,7 @@ class ZipFile implements ZipConstants, Closeable {
 
     private class ZipEntryIterator implements Enumeration<ZipEntry>, Iterator<ZipEntry> {
         private int i = 0;
+        private int pos = 0;    // position in the CEN of entry i
 
         public ZipEntryIterator() {
             ensureOpen();
@@ -504,10 +496,8 @@ class ZipFile implements ZipConstants, Closeable {
         }
 
         public boolean hasNext() {
-            synchronized (ZipFile.this) {
-                ensureOpen();
-                return i < total;
-            }
+            ensureOpen();
+            return i < total;
         }
 
         public ZipEntry nextElement() {
@@ -515,31 +505,14 @@ class ZipFile implements ZipConstants, Closeable {
         }
 
         public ZipEntry next() {
-            synchronized (ZipFile.this) {
-                ensureOpen();
-                if (i >= total) {
-                    throw new NoSuchElementException();
-                }
-                long jzentry = getNextEntry(jzfile, i++);
-                if (jzentry == 0) {
-                    String message;
-                    if (closeRequested) {
-                        message = "ZipFile concurrently closed";
-                    } else {
-                        message = getZipMessage(ZipFile.this.jzfile);
-                    }
-                    throw new ZipError("jzentry == 0" +
-                                       ",\n jzfile = " + ZipFile.this.jzfile +
-                                       ",\n total = " + ZipFile.this.total +
-                                       ",\n name = " + ZipFile.this.name +
-                                       ",\n i = " + i +
-                                       ",\n message = " + message
-                        );
-                }
-                ZipEntry ze = getZipEntry(null, jzentry);
-                freeEntry(jzfile, jzentry);
-                return ze;
+            ensureOpen();
+            if (i >= total) {
+                throw new NoSuchElementException();
             }
+            int p = pos;
+            pos = Source.nextEntryPos(zsrc.cen, p);
+            i++;
+            return getZipEntry(null, p);
         }
     }
 
@@ -568,42 +541,51 @@ class ZipFile implements ZipConstants, Closeable {
                         Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
     }
 
-    private ZipEntry getZipEntry(String name, long jzentry) {
+    private String getEntryName(int pos) {
+        byte[] cen = zsrc.cen;
+        int nlen = CENNAM(cen, pos);
+        if (nlen == 0) {
+            return "";             // length 0 empty name
+        } else if (!zc.isUTF8() && (CENFLG(cen, pos) & EFS) != 0) {
+            return zc.toStringUTF8(cen, pos + CENHDR, nlen);
+        } else {
+            return zc.toString(cen, pos + CENHDR, nlen);
+        }
+    }
+
+    private ZipEntry getZipEntry(String name, int pos) {
+        byte[] cen = zsrc.cen;
         ZipEntry e = new ZipEntry();
-        e.flag = getEntryFlag(jzentry);  // get the flag first
-        if (name != null) {
-            e.name = name;
+        e.flag = CENFLG(cen, pos);  // get the flag first
+        e.name = (name != null) ? name : getEntryName(pos);
+        e.xdostime = CENTIM(cen, pos);
+        e.crc = CENCRC(cen, pos);
+        e.size = zsrc.getEntrySize(pos);
+        e.csize = zsrc.getEntryCSize(pos);
+        e.method = CENHOW(cen, pos);
+        int nlen = CENNAM(cen, pos);
+        int elen = CENEXT(cen, pos);
+        int clen = CENCOM(cen, pos);
+        if (elen == 0) {
+            e.setExtra0(null, false);
         } else {
-            byte[] bname = getEntryBytes(jzentry, JZENTRY_NAME);
-            if (bname == null) {
-                e.name = "";             // length 0 empty name
-            } else if (!zc.isUTF8() && (e.flag & EFS) != 0) {
-                e.name = zc.toStringUTF8(bname, bname.length);
-            } else {
-                e.name = zc.toString(bname, bname.length);
-            }
+            int off = pos + CENHDR + nlen;
+            // the sizes from the ZIP64 extra field are already applied
+            e.setExtra0(Arrays.copyOfRange(cen, off, off + elen), false);
         }
-        e.xdostime = getEntryTime(jzentry);
-        e.crc = getEntryCrc(jzentry);
-        e.size = getEntrySize(jzentry);
-        e.csize = getEntryCSize(jzentry);
-        e.method = getEntryMethod(jzentry);
-        e.setExtra0(getEntryBytes(jzentry, JZENTRY_EXTRA), false);
-        byte[] bcomm = getEntryBytes(jzentry, JZENTRY_COMMENT);
-        if (bcomm == null) {
+        if (clen == 0) {
             e.comment = null;
         } else {
+            int off = pos + CENHDR + nlen + elen;
             if (!zc.isUTF8() && (e.flag & EFS) != 0) {
-                e.comment = zc.toStringUTF8(bcomm, bcomm.length);
+                e.comment = zc.toStringUTF8(cen, off, clen);
             } else {
-                e.comment = zc.toString(bcomm, bcomm.length);
+                e.comment = zc.toString(cen, off, clen);
             }
         }
         return e;
     }
 
-    private static native long getNextEntry(long jzfile, int i);
-
     /**
      * Returns the number of entries in the ZIP file.
      * @return the number of entries in the ZIP file
@@ -645,18 +627,14 @@ class ZipFile implements ZipConstants, Closeable {
 
             // Release cached inflaters
             Inflater inf;
-            synchronized (inflaterCache) {
-                while (null != (inf = inflaterCache.poll())) {
-                    inf.end();
-                }
+            while (null != (inf = inflaterCache.poll())) {
+                inf.end();
             }
 
-            if (jzfile != 0) {
-                // Close the zip file
-                long zf = this.jzfile;
-                jzfile = 0;
-
-                close(zf);
+            if (zsrc != null && !released) {
+                // Release the zip file
+                released = true;
+                Source.release(zsrc);
             }
         }
     }
@@ -679,14 +657,12 @@ class ZipFile implements ZipConstants, Closeable {
         close();
     }
 
-    private static native void close(long jzfile);
-
     private void ensureOpen() {
         if (closeRequested) {
             throw new IllegalStateException("zip file closed");
         }
 
-        if (jzfile == 0) {
+        if (zsrc == null) {
             throw new IllegalStateException("The object is not initialized.");
         }
     }
@@ -703,47 +679,78 @@ class ZipFile implements ZipConstants, Closeable {
      */
    private class ZipFileInputStream extends InputStream {
         private volatile boolean zfisCloseRequested = false;
-        protected long jzentry; // address of jzentry data
-        private   long pos;     // current position within entry data
+        private   long pos;     // current position within the zip file,
+                                // or -1 until the LOC header has been read
+        private final long locoff; // position of the LOC header
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
 
-        ZipFileInputStream(long jzentry) {
-            pos = 0;
-            rem = getEntryCSize(jzentry);
-            size = getEntrySize(jzentry);
-            this.jzentry = jzentry;
+        ZipFileInputStream(int cenpos) {
+            pos = -1;
+            locoff = zsrc.getEntryLocOffset(cenpos);
+            rem = zsrc.getEntryCSize(cenpos);
+            size = zsrc.getEntrySize(cenpos);
         }
 
-        public int read(byte b[], int off, int len) throws IOException {
-            synchronized (ZipFile.this) {
-                long rem = this.rem;
-                long pos = this.pos;
-                if (rem == 0) {
-                    return -1;
-                }
-                if (len <= 0) {
-                    return 0;
-                }
-                if (len > rem) {
-                    len = (int) rem;
-                }
+        private long position() throws IOException {
+            long pos = this.pos;
+            if (pos < 0) {
+                pos = this.pos = zsrc.getDataOffset(locoff);
+            }
+            return pos;
+        }
 
-                // Check if ZipFile open
-                ensureOpenOrZipException();
-                len = ZipFile.read(ZipFile.this.jzfile, jzentry, pos, b,
-                                   off, len);
-                if (len > 0) {
-                    this.pos = (pos + len);
-                    this.rem = (rem - len);
-                }
+        public int read(byte b[], int off, int len) throws IOException {
+            if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+                throw new IndexOutOfBoundsException();
             }
+            long rem = this.rem;
             if (rem == 0) {
+                return -1;
+            }
+            if (len <= 0) {
+                return 0;
+            }
+            if (len > rem) {
+                len = (int) rem;
+            }
+
+            // Check if ZipFile open
+            ensureOpenOrZipException();
+            long pos = position();
+            zsrc.readFullyAt(pos, b, off, len);
+            this.pos = pos + len;
+            this.rem = rem - len;
+            if (this.rem == 0) {
                 close();
             }
             return len;
         }
 
+        /*
+         * Returns a view of the rest of the entry data in the mapped file,
+         * up to Integer.MAX_VALUE bytes, and skips over it, or returns null
+         * at the end of the data or if the file is not mapped.
+         */
+        ByteBuffer readMapped() throws IOException {
+            long rem = this.rem;
+            if (rem == 0) {
+                return null;
+            }
+            ensureOpenOrZipException();
+            long pos = position();
+            int len = (int) Math.min(rem, Integer.MAX_VALUE);
+            ByteBuffer bb = zsrc.mappedView(pos, len);
+            if (bb != null) {
+                this.pos = pos + len;
+                this.rem = rem - len;
+                if (this.rem == 0) {
+                    close();
+                }
+            }
+            return bb;
+        }
+
         public int read() throws IOException {
             byte[] b = new byte[1];
             if (read(b, 0, 1) == 1) {
@@ -753,10 +760,13 @@ class ZipFile implements ZipConstants, Closeable {
             }
         }
 
-        public long skip(long n) {
+        public long skip(long n) throws IOException {
             if (n > rem)
                 n = rem;
-            pos += n;
+            if (n <= 0)
+                return 0;
+            ensureOpenOrZipException();
+            pos = position() + n;
             rem -= n;
             if (rem == 0) {
                 close();
@@ -778,12 +788,6 @@ class ZipFile implements ZipConstants, Closeable {
             zfisCloseRequested = true;
 
             rem = 0;
-            synchronized (ZipFile.this) {
-                if (jzentry != 0 && ZipFile.this.jzfile != 0) {
-                    freeEntry(ZipFile.this.jzfile, jzentry);
-                    jzentry = 0;
-                }
-            }
             synchronized (streams) {
                 streams.remove(this);
             }
@@ -800,6 +804,9 @@ class ZipFile implements ZipConstants, Closeable {
                 public boolean startsWithLocHeader(ZipFile zip) {
                     return zip.startsWithLocHeader();
                 }
+                public String[] getMetaInfEntryNames(ZipFile zip) {
+                    return zip.getMetaInfEntryNames();
+                }
              }
         );
     }
@@ -812,26 +819,530 @@ class ZipFile implements ZipConstants, Closeable {
         return locsig;
     }
 
-    private static native long open(String name, int mode, long lastModified,
-                                    boolean usemmap) throws IOException;
-    private static native int getTotal(long jzfile);
-    private static native boolean startsWithLOC(long jzfile);
-    private static native int read(long jzfile, long jzentry,
-                                   long pos, byte[] b, int off, int len);
-
-    // access to the native zentry object
-    private static native long getEntryTime(long jzentry);
-    private static native long getEntryCrc(long jzentry);
-    private static native long getEntryCSize(long jzentry);
-    private static native long getEntrySize(long jzentry);
-    private static native int getEntryMethod(long jzentry);
-    private static native int getEntryFlag(long jzentry);
-    private static native byte[] getCommentBytes(long jzfile);
-
-    private static final int JZENTRY_NAME = 0;
-    private static final int JZENTRY_EXTRA = 1;
-    private static final int JZENTRY_COMMENT = 2;
-    private static native byte[] getEntryBytes(long jzentry, int type);
-
-    private static native String getZipMessage(long jzfile);
+    /**
+     * Returns the names of the entries whose names begin with "META-INF/",
+     * ignoring case, or null if there are none.
+     */
+    private String[] getMetaInfEntryNames() {
+        ensureOpen();
+        int[] metanames = zsrc.metanames;
+        if (metanames.length == 0) {
+            return null;
+        }
+        String[] names = new String[metanames.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = getEntryName(metanames[i]);
+        }
+        return names;
+    }
+
+    // fields of a CEN header, which are in little-endian byte order
+
+    private static final int CENFLG(byte[] b, int pos) {
+        return get16(b, pos + ZipConstants.CENFLG);
+    }
+    private static final int CENHOW(byte[] b, int pos) {
+        return get16(b, pos + ZipConstants.CENHOW);
+    }
+    private static final long CENTIM(byte[] b, int pos) {
+        return get32(b, pos + ZipConstants.CENTIM);
+    }
+    private static final long CENCRC(byte[] b, int pos) {
+        return get32(b, pos + ZipConstants.CENCRC);
+    }
+    private static final long CENSIZ(byte[] b, int pos) {
+        return get32(b, pos + ZipConstants.CENSIZ);
+    }
+    private static final long CENLEN(byte[] b, int pos) {
+        return get32(b, pos + ZipConstants.CENLEN);
+    }
+    private static final int CENNAM(byte[] b, int pos) {
+        return get16(b, pos + ZipConstants.CENNAM);
+    }
+    private static final int CENEXT(byte[] b, int pos) {
+        return get16(b, pos + ZipConstants.CENEXT);
+    }
+    private static final int CENCOM(byte[] b, int pos) {
+        return get16(b, pos + ZipConstants.CENCOM);
+    }
+    private static final long CENOFF(byte[] b, int pos) {
+        return get32(b, pos + ZipConstants.CENOFF);
+    }
+
+    /*
+     * The content of an open zip file: its central directory (CEN), and
+     * the means of reading entry data.  A Source is shared by the ZipFile
+     * objects that open the same file, as identified by its path name and
+     * last modification time, and is closed when the last of them is.
+     *
+     * Unless disabled by the sun.zip.disableMemoryMapping property, the
+     * whole file is mapped into memory as a MappedMemorySegment, so that
+     * the data of STORED entries is copied from the mapping straight into
+     * the reader's array without a system call or a lock, and a view of
+     * the data of DEFLATED entries is given to the inflater as its input.
+     * The segment remains safe to use if the Source is closed while a read
+     * is in progress.  The CEN is copied from the mapping into an array
+     * once, as comparing entry names against the mapping would
+     * incur the segment's access bookkeeping for every field, and is
+     * indexed by an open-addressed hash table of entry names.  Neither the
+     * CEN nor the table is modified after the Source has been created, so
+     * that entries are looked up without locking.
+     */
+    private static final class Source {
+
+        private static final class Key {
+            final String name;
+            final long lastModified;
+
+            Key(String name, long lastModified) {
+                this.name = name;
+                this.lastModified = lastModified;
+            }
+
+            public int hashCode() {
+                return name.hashCode() + Long.hashCode(lastModified);
+            }
+
+            public boolean equals(Object obj) {
+                if (!(obj instanceof Key))
+                    return false;
+                Key key = (Key)obj;
+                return name.equals(key.name) &&
+                       lastModified == key.lastModified;
+            }
+        }
+
+        // the open sources that may be shared, guarded by itself
+        private static final HashMap<Key, Source> files = new HashMap<>();
+
+        private final Key key;                  // null if not shared
+        private int refs = 1;                   // guarded by files
+
+        private final MappedMemorySegment seg;  // null if not mapped
+        private final RandomAccessFile zfile;   // null if mapped
+        private final long length;              // length of the file
+
+        final byte[] cen;                       // the CEN
+        final int total;                        // number of entries
+        final boolean locsig;                   // if starts with LOCSIG
+        final byte[] comment;                   // zip file comment, or null
+        final int[] metanames;                  // positions of META-INF/ names
+        private long locpos;                    // position of first LOC header
+
+        // The hash table, of a power of two number of slots, where slot i
+        // holds the hash of an entry name at table[2 * i] and its CEN
+        // position plus one at table[2 * i + 1], the latter being zero if
+        // the slot is empty.  Collisions are resolved by linear probing.
+        private final int[] table;
+        private final int tableMask;
+
+        static Source get(File file, boolean toDelete) throws IOException {
+            if (toDelete) {
+                // not shared, and removed from the file system once open
+                Source src = new Source(null, file);
+                file.delete();
+                return src;
+            }
+            Key key = new Key(file.getPath(), file.lastModified());
+            synchronized (files) {
+                Source src = files.get(key);
+                if (src != null) {
+                    src.refs++;
+                    return src;
+                }
+            }
+            // read the CEN without holding the lock
+            Source src = new Source(key, file);
+            Source prev;
+            synchronized (files) {
+                prev = files.putIfAbsent(key, src);
+                if (prev == null) {
+                    return src;
+                }
+                prev.refs++;
+            }
+            src.close();
+            return prev;
+        }
+
+        static void release(Source src) throws IOException {
+            if (src.key != null) {
+                synchronized (files) {
+                    if (--src.refs > 0) {
+                        return;
+                    }
+                    files.remove(src.key);
+                }
+            }
+            src.close();
+        }
+
+        private Source(Key key, File file) throws IOException {
+            this.key = key;
+            this.seg = usemmap ? map(file) : null;
+            this.zfile = (seg == null) ? new RandomAccessFile(file, "r") : null;
+            try {
+                length = (seg != null) ? seg.byteSize() : zfile.length();
+                if (length == 0) {
+                    throw new ZipException("zip file is empty");
+                }
+
+                // find the END header, and the CEN that precedes it
+                int n = (int)Math.min(length, ENDHDR + 0xFFFF);
+                byte[] buf = new byte[n];
+                readFullyAt(length - n, buf, 0, n);
+                int endoff = findEND(buf);
+                int centot = get16(buf, endoff + ENDTOT);
+                long cenlen = get32(buf, endoff + ENDSIZ);
+                long cenoff = get32(buf, endoff + ENDOFF);
+                long endpos = length - n + endoff;
+                int comlen = Math.min(get16(buf, endoff + ENDCOM),
+                                      n - endoff - ENDHDR);
+                comment = (comlen == 0) ? null
+                    : Arrays.copyOfRange(buf, endoff + ENDHDR,
+                                         endoff + ENDHDR + comlen);
+
+                // ZIP64 end record, if any
+                if (endpos >= ZIP64_LOCHDR) {
+                    byte[] loc = new byte[ZIP64_LOCHDR];
+                    readFullyAt(endpos - ZIP64_LOCHDR, loc, 0, ZIP64_LOCHDR);
+                    long end64pos = get64(loc, ZIP64_LOCOFF);
+                    if (get32(loc, 0) == ZIP64_LOCSIG && end64pos >= 0 &&
+                        end64pos <= endpos - ZIP64_LOCHDR - ZIP64_ENDHDR) {
+                        byte[] end64 = new byte[ZIP64_ENDHDR];
+                        readFullyAt(end64pos, end64, 0, ZIP64_ENDHDR);
+                        if (get32(end64, 0) == ZIP64_ENDSIG) {
+                            cenlen = get64(end64, ZIP64_ENDSIZ);
+                            cenoff = get64(end64, ZIP64_ENDOFF);
+                            centot = (int)Math.min(get64(end64, ZIP64_ENDTOT),
+                                                   Integer.MAX_VALUE);
+                            endpos = end64pos;
+                        }
+                    }
+                }
+
+                if (cenlen > endpos || cenlen < 0) {
+                    throw new ZipException(
+                        "invalid END header (bad central directory size)");
+                }
+                long cenpos = endpos - cenlen;
+                locpos = cenpos - cenoff;
+                if (locpos < 0) {
+                    throw new ZipException(
+                        "invalid END header (bad central directory offset)");
+                }
+                if (cenlen > Integer.MAX_VALUE - 8) {
+                    throw new ZipException(
+                        "invalid END header (central directory too large)");
+                }
+                cen = new byte[(int)cenlen];
+                readFullyAt(cenpos, cen, 0, cen.length);
+
+                byte[] sig = new byte[4];
+                readFullyAt(0, sig, 0, 4);
+                locsig = (get32(sig, 0) == LOCSIG);
+
+                // Validate the CEN headers and record their positions. The
+                // total from the END header is only a hint, as it wraps
+                // for zip files of more than 65535 entries without ZIP64.
+                int[] entries = new int[Math.max(Math.min(centot,
+                                                 cen.length / CENHDR), 16)];
+                int[] metas = new int[4];
+                int count = 0, metacount = 0;
+                int pos = 0;
+                int limit = cen.length;
+                while (pos + CENHDR <= limit) {
+                    if (get32(cen, pos) != CENSIG) {
+                        throw new ZipException(
+                            "invalid CEN header (bad signature)");
+                    }
+                    int method = CENHOW(cen, pos);
+                    if ((CENFLG(cen, pos) & 1) != 0) {
+                        throw new ZipException(
+                            "invalid CEN header (encrypted entry)");
+                    }
+                    if (method != STORED && method != DEFLATED) {
+                        throw new ZipException(
+                            "invalid CEN header (bad compression method)");
+                    }
+                    int next = nextEntryPos(cen, pos);
+                    if (next > limit) {
+                        throw new ZipException(
+                            "invalid CEN header (bad header size)");
+                    }
+                    if (count == entries.length) {
+                        entries = Arrays.copyOf(entries, count << 1);
+                    }
+                    entries[count++] = pos;
+                    if (isMetaName(cen, pos + CENHDR, CENNAM(cen, pos))) {
+                        if (metacount == metas.length) {
+                            metas = Arrays.copyOf(metas, metacount << 1);
+                        }
+                        metas[metacount++] = pos;
+                    }
+                    pos = next;
+                }
+                if (pos != limit) {
+                    throw new ZipException(
+                        "invalid CEN header (bad header size)");
+                }
+                total = count;
+                metanames = Arrays.copyOf(metas, metacount);
+
+                // Build the hash table with at most half of its slots
+                // used. The entries are added in reverse, so that of
+                // entries with the same name the last one in the CEN is
+                // found first, as in earlier releases.
+                int slots = 1;
+                while (slots < 2 * count && slots < (1 << 30))
+                    slots <<= 1;
+                table = new int[slots * 2];
+                tableMask = slots - 1;
+                for (int i = count - 1; i >= 0; i--) {
+                    int p = entries[i];
+                    int h = hash(cen, p + CENHDR, CENNAM(cen, p));
+                    int j = spread(h) & tableMask;
+                    while (table[2 * j + 1] != 0)
+                        j = (j + 1) & tableMask;
+                    table[2 * j] = h;
+                    table[2 * j + 1] = p + 1;
+                }
+            } catch (IOException | RuntimeException x) {
+                close();
+                throw x;
+            }
+        }
+
+        /*
+         * Maps the whole file, or returns null if it cannot be mapped, in
+         * which case the file is read instead.  A separate file is opened
+         * for the purpose, as the mapping outlives the channel, and as an
+         * interrupt during the mapping closes the channel.
+         */
+        private static MappedMemorySegment map(File file) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                long size = raf.length();
+                if (size == 0)
+                    return null;
+                return raf.getChannel().mapSegment(
+                    FileChannel.MapMode.READ_ONLY, 0, size);
+            } catch (IOException | UnsupportedOperationException x) {
+                return null;
+            }
+        }
+
+        private void close() throws IOException {
+            if (seg != null) {
+                seg.close();
+            }
+            if (zfile != null) {
+                zfile.close();
+            }
+        }
+
+        /*
+         * Returns the offset in buf of the END header, which is the last
+         * ENDSIG whose comment length accounts for the rest of the file,
+         * or otherwise one that points at valid CEN and LOC headers.
+         */
+        private int findEND(byte[] buf) throws IOException {
+            long base = length - buf.length;
+            byte[] sig = new byte[4];
+            for (int i = buf.length - ENDHDR; i >= 0; i--) {
+                if (get32(buf, i) != ENDSIG)
+                    continue;
+                if (i + ENDHDR + get16(buf, i + ENDCOM) == buf.length)
+                    return i;
+                // The comment length does not match, as when bytes have
+                // been appended to the file, so check where it leads.
+                long cenpos = base + i - get32(buf, i + ENDSIZ);
+                long locpos = cenpos - get32(buf, i + ENDOFF);
+                if (cenpos < 0 || locpos < 0)
+                    continue;
+                readFullyAt(cenpos, sig, 0, 4);
+                if (get32(sig, 0) != CENSIG)
+                    continue;
+                readFullyAt(locpos, sig, 0, 4);
+                if (get32(sig, 0) != LOCSIG)
+                    continue;
+                return i;
+            }
+            throw new ZipException("zip END header not found");
+        }
+
+        /*
+         * Reads len bytes of the file at the given position into b.
+         */
+        void readFullyAt(long pos, byte[] b, int off, int len)
+            throws IOException
+        {
+            if (pos < 0 || len > length - pos) {
+                throw new EOFException();
+            }
+            if (seg != null) {
+                try {
+                    seg.get(pos, b, off, len);
+                } catch (IllegalStateException x) {
+                    throw new ZipException("ZipFile closed");
+                }
+            } else {
+                synchronized (zfile) {
+                    zfile.seek(pos);
+                    zfile.readFully(b, off, len);
+                }
+            }
+        }
+
+        /*
+         * Returns a read-only buffer over len bytes of the mapped file at
+         * the given position, or null if the file is not mapped.  Reads
+         * through the buffer are not tracked by the segment, so it is only
+         * given as input to the inflater of a stream of a ZipFile, which
+         * reads it while holding its lock.  Before releasing the Source,
+         * ZipFile.close() ends the inflaters of its streams, which waits for
+         * an inflate in progress, and a stream's inflater is reset, dropping
+         * its input, when the stream is closed.
+         */
+        ByteBuffer mappedView(long pos, int len) throws IOException {
+            if (seg == null) {
+                return null;
+            }
+            if (pos < 0 || len > length - pos) {
+                throw new EOFException();
+            }
+            try {
+                return SharedSecrets.getJavaNioAccess()
+                    .newMappedMemorySegmentView(seg, pos, len);
+            } catch (IllegalStateException x) {
+                throw new ZipException("ZipFile closed");
+            }
+        }
+
+        /*
+         * Returns the position of the data of the entry whose LOC header
+         * is at the given position.
+         */
+        long getDataOffset(long locoff) throws IOException {
+            byte[] loc = new byte[LOCHDR];
+            readFullyAt(locoff, loc, 0, LOCHDR);
+            if (get32(loc, 0) != LOCSIG) {
+                throw new ZipException("invalid LOC header (bad signature)");
+            }
+            return locoff + LOCHDR + get16(loc, LOCNAM) + get16(loc, LOCEXT);
+        }
+
+        static int nextEntryPos(byte[] cen, int pos) {
+            return pos + CENHDR + CENNAM(cen, pos) + CENEXT(cen, pos) +
+                   CENCOM(cen, pos);
+        }
+
+        long getEntrySize(int pos) {
+            long size = CENLEN(cen, pos);
+            return (size == ZIP64_MAGICVAL) ? zip64Value(pos, 0, size) : size;
+        }
+
+        long getEntryCSize(int pos) {
+            long csize = CENSIZ(cen, pos);
+            return (csize == ZIP64_MAGICVAL) ? zip64Value(pos, 1, csize) : csize;
+        }
+
+        long getEntryLocOffset(int pos) {
+            long off = CENOFF(cen, pos);
+            return locpos +
+                ((off == ZIP64_MAGICVAL) ? zip64Value(pos, 2, off) : off);
+        }
+
+        /*
+         * Returns the given field (0 for the size, 1 for the compressed
+         * size and 2 for the LOC offset) from the ZIP64 extra field of the
+         * entry at pos, or value if there is none.  The ZIP64 extra field
+         * of a CEN header holds, in that order, only the fields whose value
+         * in the header is ZIP64_MAGICVAL.
+         */
+        private long zip64Value(int pos, int field, long value) {
+            int off = pos + CENHDR + CENNAM(cen, pos);
+            int end = off + CENEXT(cen, pos);
+            while (off + 4 <= end) {
+                int tag = get16(cen, off);
+                int sz = get16(cen, off + 2);
+                off += 4;
+                if (off + sz > end)         // invalid data
+                    break;
+                if (tag == EXTID_ZIP64) {
+                    int p = off;
+                    if (field > 0 && CENLEN(cen, pos) == ZIP64_MAGICVAL)
+                        p += 8;
+                    if (field > 1 && CENSIZ(cen, pos) == ZIP64_MAGICVAL)
+                        p += 8;
+                    return (p + 8 <= off + sz) ? get64(cen, p) : value;
+                }
+                off += sz;
+            }
+            return value;
+        }
+
+        /*
+         * Returns the CEN position of the entry with the given name, or
+         * -1 if there is none.  If addSlash is true and the name does not
+         * end with '/' then an entry with '/' appended to the name is
+         * looked up if there is no entry with the name itself.
+         */
+        int getEntryPos(byte[] name, boolean addSlash) {
+            int len = name.length;
+            int h = hash(name, 0, len);
+            int pos = find(h, name, false);
+            if (pos == -1 && addSlash && (len == 0 || name[len - 1] != '/')) {
+                pos = find(31 * h + '/', name, true);
+            }
+            return pos;
+        }
+
+        private int find(int h, byte[] name, boolean slash) {
+            final byte[] cen = this.cen;
+            final int[] table = this.table;
+            final int mask = tableMask;
+            int len = name.length;
+            int nlen = slash ? len + 1 : len;
+            for (int i = spread(h) & mask; ; i = (i + 1) & mask) {
+                int pos = table[2 * i + 1] - 1;
+                if (pos < 0)
+                    return -1;
+                if (table[2 * i] != h || CENNAM(cen, pos) != nlen)
+                    continue;
+                int off = pos + CENHDR;
+                int k = 0;
+                while (k < len && cen[off + k] == name[k])
+                    k++;
+                if (k == len && (!slash || cen[off + k] == '/'))
+                    return pos;
+            }
+        }
+
+        private static int hash(byte[] b, int off, int len) {
+            int h = 0;
+            for (int end = off + len; off < end; off++)
+                h = 31 * h + b[off];
+            return h;
+        }
+
+        // spreads the high bits of a hash into the bits used as an index
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+
+        // Returns true if the name begins with "META-INF/", ignoring case
+        private static boolean isMetaName(byte[] b, int off, int len) {
+            final String meta = "META-INF/";
+            if (len < meta.length())
+                return false;
+            for (int i = 0; i < meta.length(); i++) {
+                int c = b[off + i];
+                if (c >= 'a' && c <= 'z')
+                    c -= 'a' - 'A';
+                if (c != meta.charAt(i))
+                    return false;
+            }
+            return true;
+        }
+    }
 }
@@ -57,4 +57,17 @@ public final class ExtendedSocketOptions {
      */
     public static final SocketOption<SocketFlow> SO_FLOW_SLA = new
         ExtSocketOption<SocketFlow>("SO_FLOW_SLA", SocketFlow.class);
+
+    /**
+     * Re-use port.  When enabled on each of several sockets before they
+     * are bound, the sockets may all bind to the same address and port,
+     * and the operating system distributes incoming connections or
+     * datagrams among them.  This allows several threads, each with its
+     * own {@link java.nio.channels.Selector}, to accept connections on one
+     * port.  This option is supported on Linux 3.9 and later.
+     *
+     * @since 1.8
+     */
+    public static final SocketOption<Boolean> SO_REUSEPORT = new
+        ExtSocketOption<Boolean>("SO_REUSEPORT", Boolean.class);
 }
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.misc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/*
+ * ClassPathIndex is a persistent index of the JAR files on a URLClassPath,
+ * which maps each package, that is each directory of entries, to the
+ * loaders that may contain resources in it.  It serves the same purpose as
+ * the VM's shared lookup cache when the latter is not available: a lookup
+ * opens and probes only the JAR files that contain the package of the
+ * resource, and a lookup of a resource in no package of the index only
+ * probes the loaders that are not JAR files.
+ *
+ * The index of the application class path is enabled by setting the
+ * sun.misc.URLClassPath.classPathIndex property to the name of the index
+ * file.  If the file is missing or out of date, the index is built on the
+ * first lookup, by opening every JAR file on the expanded class path, and
+ * written to the file for the next run.  The index records:
+ *
+ *   - the original search path, which must be unchanged;
+ *   - the URL of each loader on the search path as expanded by the
+ *     Class-Path attributes of the JAR files, with the size and time of
+ *     last modification of each local JAR file, which must be unchanged;
+ *   - the local files on the expanded search path that could not be
+ *     opened, which must still not exist;
+ *   - for each package, the indices of the JAR files containing it.
+ *
+ * As the contents of the JAR files, and so their Class-Path attributes,
+ * are unchanged, the expanded search path is as recorded, and the loaders
+ * are created for it without opening the JAR files.  Directories and
+ * remote URLs cannot be validated, so their loaders are searched for every
+ * resource.  No index is built for a class path with a JAR file that has a
+ * JarIndex, which links to JAR files off the search path, or with a remote
+ * URL that could not be opened.
+ *
+ * Since a ZipFile finds a directory entry "a/b/" when asked for "a/b", a
+ * directory entry is indexed under its parent package too.
+ */
+final class ClassPathIndex {
+    private static final int MAGIC = 0x43504958;    // "CPIX"
+    private static final int VERSION = 1;
+
+    // Kinds of loaders
+    static final byte JAR = 0;          // local JAR file, whose entries are indexed
+    static final byte OTHER = 1;        // directory or remote URL, always searched
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] path;        // the original search path
+    private final String[] urls;        // URLs of the loaders, in order
+    private final byte[] kinds;         // kinds of the loaders
+    private final long[] lengths;       // sizes of JAR files
+    private final long[] lastModified;  // modification times of JAR files
+    private final String[] missing;     // local files that could not be opened
+    private final Map<String, int[]> packages; // package to JAR indices
+
+    // loaders to search for a resource in a package, including the OTHER
+    // loaders, and for one in no indexed package
+    private final Map<String, int[]> lookups;
+    private final int[] others;
+
+    private ClassPathIndex(String[] path, String[] urls, byte[] kinds,
+                           long[] lengths, long[] lastModified,
+                           String[] missing, Map<String, int[]> packages) {
+        this.path = path;
+        this.urls = urls;
+        this.kinds = kinds;
+        this.lengths = lengths;
+        this.lastModified = lastModified;
+        this.missing = missing;
+        this.packages = packages;
+
+        int n = 0;
+        int[] others = new int[kinds.length];
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] != JAR) {
+                others[n++] = i;
+            }
+        }
+        this.others = Arrays.copyOf(others, n);
+        if (n == 0) {
+            this.lookups = packages;
+        } else {
+            this.lookups = new HashMap<String, int[]>(packages.size() * 2);
+            for (Map.Entry<String, int[]> e : packages.entrySet()) {
+                lookups.put(e.getKey(), merge(e.getValue(), this.others));
+            }
+        }
+    }
+
+    /*
+     * Returns the indices of the loaders that may contain the resource of
+     * the given name, in ascending order.  The array must not be modified.
+     */
+    int[] lookup(String name) {
+        int[] cache = lookups.get(packageOf(name));
+        return (cache != null) ? cache : others;
+    }
+
+    int size() {
+        return urls.length;
+    }
+
+    String getURL(int index) {
+        return urls[index];
+    }
+
+    boolean isJar(int index) {
+        return kinds[index] == JAR;
+    }
+
+    private static String packageOf(String name) {
+        int pos = name.lastIndexOf('/');
+        return (pos == -1) ? "" : name.substring(0, pos);
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        int[] c = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            c[k++] = (a[i] < b[j]) ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            c[k++] = a[i++];
+        }
+        while (j < b.length) {
+            c[k++] = b[j++];
+        }
+        return c;
+    }
+
+    //----------------------------------------------------------------------
+    // Building
+
+    static final class Builder {
+        private final String[] path;
+        private final List<String> urls = new ArrayList<String>();
+        private final List<Byte> kinds = new ArrayList<Byte>();
+        private final List<Long> lengths = new ArrayList<Long>();
+        private final List<Long> lastModified = new ArrayList<Long>();
+        private final Map<String, int[]> packages = new HashMap<String, int[]>();
+
+        Builder(String[] path) {
+            this.path = path;
+        }
+
+        /*
+         * Adds the next loader, for the local JAR file of the given URL.
+         */
+        void addJar(String url, File file, JarFile jar) {
+            int index = urls.size();
+            urls.add(url);
+            kinds.add(JAR);
+            lengths.add(file.length());
+            lastModified.add(file.lastModified());
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                add(packageOf(name), index);
+                if (name.endsWith("/")) {
+                    add(packageOf(name.substring(0, name.length() - 1)), index);
+                }
+            }
+        }
+
+        /*
+         * Adds the next loader, which is searched for every resource.
+         */
+        void addOther(String url) {
+            urls.add(url);
+            kinds.add(OTHER);
+            lengths.add(-1L);
+            lastModified.add(-1L);
+        }
+
+        private void add(String pkg, int index) {
+            int[] a = packages.get(pkg);
+            if (a == null) {
+                packages.put(pkg, new int[] { index });
+            } else if (a[a.length - 1] != index) {
+                a = Arrays.copyOf(a, a.length + 1);
+                a[a.length - 1] = index;
+                packages.put(pkg, a);
+            }
+        }
+
+        ClassPathIndex build(List<String> missing) {
+            int n = urls.size();
+            byte[] k = new byte[n];
+            long[] len = new long[n];
+            long[] mod = new long[n];
+            for (int i = 0; i < n; i++) {
+                k[i] = kinds.get(i);
+                len[i] = lengths.get(i);
+                mod[i] = lastModified.get(i);
+            }
+            return new ClassPathIndex(path, urls.toArray(new String[n]), k,
+                                      len, mod,
+                                      missing.toArray(new String[missing.size()]),
+                                      packages);
+        }
+    }
+
+    //----------------------------------------------------------------------
+    // Persistence, which must be invoked from a privileged context
+
+    /*
+     * Reads the index from the given file, returning null if there is
+     * none, or if it is not for the given search path or out of date.
+     */
+    static ClassPathIndex load(File file, String[] path) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int n = in.readInt();
+            if (n != path.length) {
+                return null;
+            }
+            for (int i = 0; i < n; i++) {
+                if (!in.readUTF().equals(path[i])) {
+                    return null;
+                }
+            }
+
+            n = in.readInt();
+            String[] urls = new String[n];
+            byte[] kinds = new byte[n];
+            long[] lengths = new long[n];
+            long[] lastModified = new long[n];
+            for (int i = 0; i < n; i++) {
+                urls[i] = in.readUTF();
+                kinds[i] = in.readByte();
+                lengths[i] = in.readLong();
+                lastModified[i] = in.readLong();
+                if (kinds[i] == JAR) {
+                    File f = new File(in.readUTF());
+                    if (f.length() != lengths[i]
+                        || f.lastModified() != lastModified[i]) {
+                        return null;
+                    }
+                } else if (kinds[i] != OTHER) {
+                    return null;
+                }
+            }
+
+            String[] missing = new String[in.readInt()];
+            for (int i = 0; i < missing.length; i++) {
+                missing[i] = in.readUTF();
+                if (new File(missing[i]).exists()) {
+                    return null;
+                }
+            }
+
+            int m = in.readInt();
+            Map<String, int[]> packages = new HashMap<String, int[]>(m * 2);
+            for (int i = 0; i < m; i++) {
+                String pkg = in.readUTF();
+                int[] a = new int[in.readInt()];
+                for (int j = 0; j < a.length; j++) {
+                    a[j] = in.readInt();
+                    if (a[j] < 0 || a[j] >= n || kinds[a[j]] != JAR
+                        || (j > 0 && a[j] <= a[j - 1])) {
+                        return null;
+                    }
+                }
+                packages.put(pkg, a);
+            }
+            return new ClassPathIndex(path, urls, kinds, lengths,
+                                      lastModified, missing, packages);
+        } catch (IOException | RuntimeException e) {
+            // A corrupt index is rebuilt
+            return null;
+        }
+    }
+
+    /*
+     * Writes the index to the given file, replacing it atomically where
+     * the platform allows.
+     */
+    void save(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(path.length);
+                for (String p : path) {
+                    out.writeUTF(p);
+                }
+                out.writeInt(urls.length);
+                for (int i = 0; i < urls.length; i++) {
+                    out.writeUTF(urls[i]);
+                    out.writeByte(kinds[i]);
+                    out.writeLong(lengths[i]);
+                    out.writeLong(lastModified[i]);
+                    if (kinds[i] == JAR) {
+                        out.writeUTF(jarPath(urls[i]));
+                    }
+                }
+                out.writeInt(missing.length);
+                for (String m : missing) {
+                    out.writeUTF(m);
+                }
+                out.writeInt(packages.size());
+                for (Map.Entry<String, int[]> e : packages.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    int[] a = e.getValue();
+                    out.writeInt(a.length);
+                    for (int i : a) {
+                        out.writeInt(i);
+                    }
+                }
+            }
+            if (!tmp.renameTo(file)) {
+                // the target may have to be removed first
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    throw new IOException("Cannot rename " + tmp + " to " + file);
+                }
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    /*
+     * Returns the path of the local file of a JAR file URL.
+     */
+    static String jarPath(String url) throws IOException {
+        return new FileURLMapper(new java.net.URL(url)).getPath();
+    }
+}
@@ -25,8 +25,10 @@
 
 package sun.misc;
 
+import java.io.FileDescriptor;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.MappedMemorySegment;
 
 public interface JavaNioAccess {
     /**
@@ -40,6 +42,12 @@ public interface JavaNioAccess {
     }
     BufferPool getDirectBufferPool();
 
+    /**
+     * Returns the pool of direct buffers managed by
+     * {@link java.nio.ByteBufferPool}.
+     */
+    BufferPool getPooledBufferPool();
+
     /**
      * Constructs a direct ByteBuffer referring to the block of memory starting
      * at the given memory address and and extending {@code cap} bytes.
@@ -48,6 +56,26 @@ public interface JavaNioAccess {
      */
     ByteBuffer newDirectByteBuffer(long addr, int cap, Object ob);
 
+    /**
+     * Constructs a mapped memory segment referring to the region of memory
+     * starting at the given address and extending {@code size} bytes. The
+     * {@code unmapper}, if not {@code null}, is run once to release the
+     * mapping when the segment is closed or becomes unreachable.
+     */
+    MappedMemorySegment newMappedMemorySegment(long addr, long size,
+                                               boolean readOnly,
+                                               FileDescriptor fd,
+                                               Runnable unmapper);
+
+    /**
+     * Returns a read-only direct buffer over {@code length} bytes of a mapped
+     * memory segment, starting at the given offset. Accesses through the
+     * buffer are not tracked by the segment, so the caller must ensure that
+     * the segment is not closed while the buffer is in use.
+     */
+    ByteBuffer newMappedMemorySegmentView(MappedMemorySegment seg,
+                                          long offset, int length);
+
     /**
      * Truncates a buffer by changing its capacity to 0.
      */
@@ -317,6 +317,7 @@ public class Launcher {
             super(urls, parent, factory);
             ucp = SharedSecrets.getJavaNetAccess().getURLClassPath(this);
             ucp.initLookupCache(this);
+            ucp.initClassPathIndex();
         }
 
         /**
@@ -72,6 +72,7 @@ public class URLClassPath {
     private static final boolean DISABLE_ACC_CHECKING;
     private static final boolean DISABLE_CP_URL_CHECK;
     private static final boolean DEBUG_CP_URL_CHECK;
+    private static final String CLASS_PATH_INDEX;
 
     static {
         JAVA_VERSION = java.security.AccessController.doPrivileged(
@@ -94,6 +95,9 @@ public class URLClassPath {
 
         DISABLE_CP_URL_CHECK = p != null ? p.equals("true") || p.isEmpty() : false;
         DEBUG_CP_URL_CHECK = "debug".equals(p);
+
+        CLASS_PATH_INDEX = AccessController.doPrivileged(
+            new GetPropertyAction("sun.misc.URLClassPath.classPathIndex"));
     }
 
     /* The original search path of URLs. */
@@ -197,6 +201,10 @@ public class URLClassPath {
                 // does not consider the newly added url.
                 disableAllLookupCaches();
             }
+            if (classPathIndexFile != null) {
+                // Nor is the class path index
+                disableClassPathIndex();
+            }
         }
     }
 
@@ -404,7 +412,7 @@ public class URLClassPath {
      */
     private synchronized int[] getLookupCache(String name) {
         if (lookupCacheURLs == null || !lookupCacheEnabled) {
-            return null;
+            return getClassPathIndexCache(name);
         }
 
         int[] cache = getLookupCacheForClassLoader(lookupCacheLoader, name);
@@ -422,6 +430,192 @@ public class URLClassPath {
         return cache;
     }
 
+    /* The file of the persistent class path index, if it is enabled */
+    private File classPathIndexFile;
+
+    /* The class path index, or null until it is loaded or built */
+    private ClassPathIndex classPathIndex;
+
+    /* The local files on the expanded search path that could not be
+     * opened, and whether a remote URL could not be, recorded while the
+     * class path index is enabled */
+    private ArrayList<String> missingFiles;
+    private boolean remoteMissing;
+
+    /*
+     * Enables the persistent class path index, if a file is configured for
+     * it and the VM's lookup cache is not in use. If the file holds a valid
+     * index then the loaders of the expanded search path are created from
+     * it, without opening the JAR files; otherwise the index is built on
+     * the first lookup. See ClassPathIndex.
+     */
+    synchronized void initClassPathIndex() {
+        if (CLASS_PATH_INDEX == null || CLASS_PATH_INDEX.isEmpty()
+            || (lookupCacheURLs != null && lookupCacheEnabled)
+            || closed || !loaders.isEmpty()) {
+            return;
+        }
+        final File file = new File(CLASS_PATH_INDEX);
+        final String[] p = getPathStrings();
+        ClassPathIndex index = AccessController.doPrivileged(
+            new PrivilegedAction<ClassPathIndex>() {
+                public ClassPathIndex run() {
+                    return ClassPathIndex.load(file, p);
+                }
+            });
+        classPathIndexFile = file;
+        missingFiles = new ArrayList<String>();
+        if (index != null && installLoaders(index)) {
+            classPathIndex = index;
+        }
+        if (DEBUG) {
+            System.err.println("URLClassPath.initClassPathIndex: " +
+                               (classPathIndex != null ? "loaded " : "will build ") +
+                               file);
+        }
+    }
+
+    private synchronized void disableClassPathIndex() {
+        classPathIndexFile = null;
+        classPathIndex = null;
+        missingFiles = null;
+    }
+
+    private String[] getPathStrings() {
+        synchronized (urls) {
+            String[] s = new String[path.size()];
+            for (int i = 0; i < s.length; i++) {
+                s[i] = path.get(i).toString();
+            }
+            return s;
+        }
+    }
+
+    /*
+     * Creates the loaders of the expanded search path recorded in the
+     * given index, with JarLoaders that open their JAR files on first use.
+     */
+    private boolean installLoaders(ClassPathIndex index) {
+        int n = index.size();
+        URL[] us = new URL[n];
+        Loader[] ls = new Loader[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                us[i] = new URL(index.getURL(i));
+                ls[i] = getLoader(us[i], index.isJar(i));
+            }
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+        synchronized (urls) {
+            urls.clear();
+        }
+        for (int i = 0; i < n; i++) {
+            loaders.add(ls[i]);
+            lmap.put(URLUtil.urlNoFragString(us[i]), ls[i]);
+        }
+        return true;
+    }
+
+    /*
+     * Returns the indices of the loaders that may contain the specified
+     * resource according to the class path index, building the index if
+     * needed, or null if there is none.
+     */
+    private int[] getClassPathIndexCache(String name) {
+        if (classPathIndexFile == null) {
+            return null;
+        }
+        if (classPathIndex == null) {
+            ClassPathIndex index = buildClassPathIndex();
+            if (index == null) {
+                disableClassPathIndex();
+                return null;
+            }
+            classPathIndex = index;
+        }
+        return classPathIndex.lookup(name);
+    }
+
+    /*
+     * Opens all loaders of the expanded search path and builds the class
+     * path index from them, writing it to the index file. Returns null if
+     * the class path cannot be indexed.
+     */
+    private ClassPathIndex buildClassPathIndex() {
+        getLoader(Integer.MAX_VALUE - 1);
+        if (closed || remoteMissing) {
+            return null;
+        }
+        final ClassPathIndex.Builder builder =
+            new ClassPathIndex.Builder(getPathStrings());
+        final ArrayList<String> missing = missingFiles;
+        final File file = classPathIndexFile;
+        try {
+            return AccessController.doPrivileged(
+                new PrivilegedExceptionAction<ClassPathIndex>() {
+                    public ClassPathIndex run() throws IOException {
+                        // a file that exists but could not be opened
+                        // would never validate
+                        for (String m : missing) {
+                            if (new File(m).exists()) {
+                                return null;
+                            }
+                        }
+                        for (Loader loader : loaders) {
+                            if (loader instanceof JarLoader) {
+                                JarLoader jl = (JarLoader)loader;
+                                if (!jl.isOptimizable(jl.csu)) {
+                                    builder.addOther(jl.csu.toString());
+                                    continue;
+                                }
+                                jl.ensureOpen();
+                                if (jl.index != null) {
+                                    return null;
+                                }
+                                String url = jl.csu.toString();
+                                builder.addJar(url,
+                                               new File(ClassPathIndex.jarPath(url)),
+                                               jl.jar);
+                            } else {
+                                builder.addOther(loader.getBaseURL().toString());
+                            }
+                        }
+                        ClassPathIndex index = builder.build(missing);
+                        try {
+                            index.save(file);
+                        } catch (IOException e) {
+                            // still usable for this run
+                            if (DEBUG) {
+                                System.err.println("Failed to write " + file + ", " + e);
+                            }
+                        }
+                        return index;
+                    }
+                });
+        } catch (java.security.PrivilegedActionException pae) {
+            if (DEBUG) {
+                System.err.println("Failed to build class path index, " +
+                                   pae.getException());
+            }
+            return null;
+        }
+    }
+
+    /*
+     * Records a URL on the expanded search path that could not be opened,
+     * if the class path index is enabled.
+     */
+    private void noteMissing(URL url) {
+        if (missingFiles != null) {
+            if ("file".equals(url.getProtocol())) {
+                missingFiles.add(new FileURLMapper(url).getPath());
+            } else {
+                remoteMissing = true;
+            }
+        }
+    }
+
     private boolean ensureLoaderOpened(int index) {
         if (loaders.size() <= index) {
             // Open all Loaders up to, and including, index
@@ -535,6 +729,7 @@ public class URLClassPath {
                 }
             } catch (IOException e) {
                 // Silently ignore for now...
+                noteMissing(url);
                 continue;
             } catch (SecurityException se) {
                 // Always silently ignore. The context, if there is one, that
@@ -543,6 +738,7 @@ public class URLClassPath {
                 if (DEBUG) {
                     System.err.println("Failed to access " + url + ", " + se );
                 }
+                noteMissing(url);
                 continue;
             }
             // Finally, add the Loader to the search path.
@@ -560,6 +756,16 @@ public class URLClassPath {
      * Returns the Loader for the specified base URL.
      */
     private Loader getLoader(final URL url) throws IOException {
+        return getLoader(url, false);
+    }
+
+    /*
+     * Returns the Loader for the specified base URL, which for a local JAR
+     * file, if indexed is true, opens the file on first use.
+     */
+    private Loader getLoader(final URL url, final boolean indexed)
+        throws IOException
+    {
         try {
             return java.security.AccessController.doPrivileged(
                 new java.security.PrivilegedExceptionAction<Loader>() {
@@ -572,7 +778,8 @@ public class URLClassPath {
                             return new Loader(url);
                         }
                     } else {
-                        return new JarLoader(url, jarHandler, lmap, acc);
+                        return new JarLoader(url, jarHandler, lmap, acc,
+                                             indexed);
                     }
                 }
             }, acc);
@@ -818,6 +1025,20 @@ public class URLClassPath {
                   HashMap<String, Loader> loaderMap,
                   AccessControlContext acc)
             throws IOException
+        {
+            this(url, jarHandler, loaderMap, acc, false);
+        }
+
+        /*
+         * Creates a new JarLoader for the specified URL referring to a JAR
+         * file, which if indexed is true is a local file that is opened on
+         * first use, the class path index telling which resources it may
+         * contain.
+         */
+        JarLoader(URL url, URLStreamHandler jarHandler,
+                  HashMap<String, Loader> loaderMap,
+                  AccessControlContext acc, boolean indexed)
+            throws IOException
         {
             super(new URL("jar", "", -1, url + "!/", jarHandler));
             csu = url;
@@ -827,7 +1048,7 @@ public class URLClassPath {
 
             if (!isOptimizable(url)) {
                 ensureOpen();
-            } else {
+            } else if (!indexed) {
                  String fileName = url.getFile();
                 if (fileName != null) {
                     fileName = ParseUtil.decode(fileName);
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Runs blocking channel operations so that a {@link ForkJoinPool} worker
+ * that blocks does not take a unit of parallelism out of its pool.
+ *
+ * <p>When the calling thread is a fork/join worker and the channel is in
+ * blocking mode, the operation is run by {@link ForkJoinPool#managedBlock}
+ * and the pool may activate or create a spare worker for as long as the
+ * operation blocks.  This lets a pool such as the one returned by {@link
+ * java.util.concurrent.Executors#newManagedBlockingPool} keep its target
+ * number of threads busy while other tasks block in socket I/O.  In any
+ * other case the operation is simply run in the calling thread.
+ */
+
+class Blocking {
+
+    private Blocking() { }
+
+    /**
+     * A channel operation, returning an {@link IOStatus} code or a count.
+     */
+    interface IOOperation {
+        long run() throws IOException;
+    }
+
+    private static final class Blocker implements ForkJoinPool.ManagedBlocker {
+        private final IOOperation op;
+        private boolean done;
+        long result;
+        IOException exc;
+
+        Blocker(IOOperation op) {
+            this.op = op;
+        }
+
+        public boolean block() {
+            try {
+                result = op.run();
+            } catch (IOException x) {
+                exc = x;
+            }
+            done = true;
+            return true;
+        }
+
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    /**
+     * Tells whether an operation on the given channel by the current thread
+     * should be run through {@link #run}, that is, whether the thread is a
+     * fork/join worker and the channel is in blocking mode.  Callers check
+     * this first so that no operation is created on other threads.
+     */
+    static boolean isManaged(SelectableChannel ch) {
+        return (Thread.currentThread() instanceof ForkJoinWorkerThread) &&
+            ch.isBlocking();
+    }
+
+    /**
+     * Runs the given operation on behalf of the given channel, allowing
+     * the current thread's fork/join pool to compensate while it blocks.
+     * The operation is run directly if {@link #isManaged} is false.
+     */
+    static long run(SelectableChannel ch, IOOperation op) throws IOException {
+        if (!isManaged(ch))
+            return op.run();
+        Blocker b = new Blocker(op);
+        try {
+            ForkJoinPool.managedBlock(b);
+        } catch (InterruptedException x) {
+            // not thrown by Blocker.block; preserve the status regardless
+            Thread.currentThread().interrupt();
+        }
+        if (b.exc != null)
+            throw b.exc;
+        return b.result;
+    }
+}
@@ -29,6 +29,7 @@ import java.io.FileDescriptor;
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.ByteBufferPool;
 import java.nio.channels.*;
 import java.nio.channels.spi.*;
 import java.util.*;
@@ -313,6 +314,9 @@ class DatagramChannelImpl
             if (ExtendedOptionsImpl.flowSupported()) {
                 set.add(jdk.net.ExtendedSocketOptions.SO_FLOW_SLA);
             }
+            if (Net.isReusePortAvailable()) {
+                set.add(jdk.net.ExtendedSocketOptions.SO_REUSEPORT);
+            }
             return Collections.unmodifiableSet(set);
         }
     }
@@ -354,7 +358,7 @@ class DatagramChannelImpl
                     if (n == IOStatus.UNAVAILABLE)
                         return null;
                 } else {
-                    bb = Util.getTemporaryDirectBuffer(dst.remaining());
+                    bb = ByteBufferPool.acquire(dst.remaining());
                     for (;;) {
                         do {
                             n = receive(fd, bb);
@@ -369,6 +373,7 @@ class DatagramChannelImpl
                         } catch (SecurityException se) {
                             // Ignore packet
                             bb.clear();
+                            bb.limit(dst.remaining());
                             n = 0;
                             continue;
                         }
@@ -380,7 +385,7 @@ class DatagramChannelImpl
                 return sender;
             } finally {
                 if (bb != null)
-                    Util.releaseTemporaryDirectBuffer(bb);
+                    ByteBufferPool.release(bb);
                 readerThread = 0;
                 end((n > 0) || (n == IOStatus.UNAVAILABLE));
                 assert IOStatus.check(n);
@@ -402,7 +407,7 @@ class DatagramChannelImpl
         // we must instead use a nonempty buffer, otherwise the call
         // will not block waiting for a datagram on some platforms.
         int newSize = Math.max(rem, 1);
-        ByteBuffer bb = Util.getTemporaryDirectBuffer(newSize);
+        ByteBuffer bb = ByteBufferPool.acquire(newSize);
         try {
             int n = receiveIntoNativeBuffer(fd, bb, newSize, 0);
             bb.flip();
@@ -410,7 +415,7 @@ class DatagramChannelImpl
                 dst.put(bb);
             return n;
         } finally {
-            Util.releaseTemporaryDirectBuffer(bb);
+            ByteBufferPool.release(bb);
         }
     }
 
@@ -495,7 +500,7 @@ class DatagramChannelImpl
         assert (pos <= lim);
         int rem = (pos <= lim ? lim - pos : 0);
 
-        ByteBuffer bb = Util.getTemporaryDirectBuffer(rem);
+        ByteBuffer bb = ByteBufferPool.acquire(rem);
         try {
             bb.put(src);
             bb.flip();
@@ -509,7 +514,7 @@ class DatagramChannelImpl
             }
             return n;
         } finally {
-            Util.releaseTemporaryDirectBuffer(bb);
+            ByteBufferPool.release(bb);
         }
     }
 
@@ -59,6 +59,7 @@ import sun.security.action.GetIntegerAction;
 class EPollArrayWrapper {
     // EPOLL_EVENTS
     private static final int EPOLLIN      = 0x001;
+    private static final int EPOLLET      = 0x80000000;
 
     // opcodes
     private static final int EPOLL_CTL_ADD      = 1;
@@ -86,6 +87,9 @@ class EPollArrayWrapper {
     // The fd of the epoll driver
     private final int epfd;
 
+    // True if file descriptors are registered for edge-triggered events
+    private final boolean edgeTriggered;
+
      // The epoll_event array for results from epoll_wait
     private final AllocatedNativeObject pollArray;
 
@@ -125,9 +129,10 @@ class EPollArrayWrapper {
     private final BitSet registered = new BitSet();
 
 
-    EPollArrayWrapper() throws IOException {
+    EPollArrayWrapper(boolean edgeTriggered) throws IOException {
         // creates the epoll file descriptor
         epfd = epollCreate();
+        this.edgeTriggered = edgeTriggered;
 
         // the epoll_event array passed to epoll_wait
         int allocationSize = NUM_EPOLLEVENTS * SIZE_EPOLLEVENT;
@@ -207,7 +212,8 @@ class EPollArrayWrapper {
     }
 
     /**
-     * Update the events for a given file descriptor
+     * Update the events for a given file descriptor.  Invoked by the
+     * selecting thread only, so the lock is uncontended.
      */
     void setInterest(int fd, int mask) {
         synchronized (updateLock) {
@@ -296,7 +302,8 @@ class EPollArrayWrapper {
                         opcode = (events != 0) ? EPOLL_CTL_ADD : 0;
                     }
                     if (opcode != 0) {
-                        epollCtl(epfd, opcode, fd, events);
+                        epollCtl(epfd, opcode, fd,
+                                 edgeTriggered ? events | EPOLLET : events);
                         if (opcode == EPOLL_CTL_ADD) {
                             registered.set(fd);
                         } else if (opcode == EPOLL_CTL_DEL) {
@@ -28,16 +28,38 @@ package sun.nio.ch;
 import java.io.IOException;
 import java.nio.channels.*;
 import java.nio.channels.spi.*;
+import java.security.AccessController;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import sun.misc.*;
+import sun.security.action.GetPropertyAction;
 
 /**
  * An implementation of Selector for Linux 2.6+ kernels that uses
  * the epoll event notification facility.
+ *
+ * <p> Changes to a key's interest set are queued without locking and
+ * applied by the selecting thread before it next polls.  If the system
+ * property {@code sun.nio.ch.epollEdgeTriggered} is {@code true},
+ * channels are registered for edge-triggered notification: a channel is
+ * selected again only after new data arrives or its interest set is
+ * changed, so it must be read or written until the operation would block.
  */
 class EPollSelectorImpl
     extends SelectorImpl
 {
+    // True if channels are registered for edge-triggered events
+    private static final boolean EDGE_TRIGGERED =
+        Boolean.parseBoolean(AccessController.doPrivileged(
+            new GetPropertyAction("sun.nio.ch.epollEdgeTriggered")));
+
+    // Initial size of the fd-to-key table
+    private static final int INITIAL_FD_TO_KEY_SIZE = 1024;
+
+    private static final AtomicIntegerFieldUpdater<SelectionKeyImpl> UPDATE_PENDING =
+        AtomicIntegerFieldUpdater.newUpdater(SelectionKeyImpl.class, "updatePending");
 
     // File descriptors used for interrupt
     protected int fd0;
@@ -46,8 +68,13 @@ class EPollSelectorImpl
     // The poll object
     EPollArrayWrapper pollWrapper;
 
-    // Maps from file descriptors to keys
-    private Map<Integer,SelectionKeyImpl> fdToKey;
+    // Maps from file descriptors to keys, indexed by file descriptor
+    private SelectionKeyImpl[] fdToKey;
+
+    // Keys with pending interest-set changes, linked through
+    // SelectionKeyImpl.nextUpdate
+    private final AtomicReference<SelectionKeyImpl> updateKeys =
+        new AtomicReference<>();
 
     // True if this Selector has been closed
     private volatile boolean closed = false;
@@ -66,9 +93,9 @@ class EPollSelectorImpl
         fd0 = (int) (pipeFds >>> 32);
         fd1 = (int) pipeFds;
         try {
-            pollWrapper = new EPollArrayWrapper();
+            pollWrapper = new EPollArrayWrapper(EDGE_TRIGGERED);
             pollWrapper.initInterrupt(fd0, fd1);
-            fdToKey = new HashMap<>();
+            fdToKey = new SelectionKeyImpl[INITIAL_FD_TO_KEY_SIZE];
         } catch (Throwable t) {
             try {
                 FileDispatcherImpl.closeIntFD(fd0);
@@ -85,9 +112,17 @@ class EPollSelectorImpl
     }
 
     protected int doSelect(long timeout) throws IOException {
+        return doSelect(null, timeout);
+    }
+
+    @Override
+    protected int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
         if (closed)
             throw new ClosedSelectorException();
         processDeregisterQueue();
+        processUpdateQueue();
         try {
             begin();
             pollWrapper.poll(timeout);
@@ -95,7 +130,7 @@ class EPollSelectorImpl
             end();
         }
         processDeregisterQueue();
-        int numKeysUpdated = updateSelectedKeys();
+        int numKeysUpdated = updateSelectedKeys(action);
         if (pollWrapper.interrupted()) {
             // Clear the wakeup pipe
             pollWrapper.putEventOps(pollWrapper.interruptedIndex(), 0);
@@ -110,18 +145,27 @@ class EPollSelectorImpl
 
     /**
      * Update the keys whose fd's have been selected by the epoll.
-     * Add the ready keys to the ready queue.
+     * Add the ready keys to the ready queue, or if an action is given,
+     * set their ready sets and perform the action on them instead.
      */
-    private int updateSelectedKeys() {
+    private int updateSelectedKeys(Consumer<SelectionKey> action) {
         int entries = pollWrapper.updated;
         int numKeysUpdated = 0;
         for (int i=0; i<entries; i++) {
             int nextFD = pollWrapper.getDescriptor(i);
-            SelectionKeyImpl ski = fdToKey.get(Integer.valueOf(nextFD));
+            SelectionKeyImpl ski = getKey(nextFD);
             // ski is null in the case of an interrupt
             if (ski != null) {
                 int rOps = pollWrapper.getEventOps(i);
-                if (selectedKeys.contains(ski)) {
+                if (action != null) {
+                    ski.channel.translateAndSetReadyOps(rOps, ski);
+                    if ((ski.nioReadyOps() & ski.nioInterestOps()) != 0) {
+                        action.accept(ski);
+                        if (closed)
+                            throw new ClosedSelectorException();
+                        numKeysUpdated++;
+                    }
+                } else if (selectedKeys.contains(ski)) {
                     if (ski.channel.translateAndSetReadyOps(rOps, ski)) {
                         numKeysUpdated++;
                     }
@@ -169,12 +213,18 @@ class EPollSelectorImpl
         fd1 = -1;
     }
 
+    private SelectionKeyImpl getKey(int fd) {
+        return (fd < fdToKey.length) ? fdToKey[fd] : null;
+    }
+
     protected void implRegister(SelectionKeyImpl ski) {
         if (closed)
             throw new ClosedSelectorException();
         SelChImpl ch = ski.channel;
-        int fd = Integer.valueOf(ch.getFDVal());
-        fdToKey.put(fd, ski);
+        int fd = ch.getFDVal();
+        if (fd >= fdToKey.length)
+            fdToKey = Arrays.copyOf(fdToKey, Math.max(fd + 1, fdToKey.length * 2));
+        fdToKey[fd] = ski;
         pollWrapper.add(fd);
         keys.add(ski);
     }
@@ -183,7 +233,8 @@ class EPollSelectorImpl
         assert (ski.getIndex() >= 0);
         SelChImpl ch = ski.channel;
         int fd = ch.getFDVal();
-        fdToKey.remove(Integer.valueOf(fd));
+        if (getKey(fd) == ski)
+            fdToKey[fd] = null;
         pollWrapper.remove(fd);
         ski.setIndex(-1);
         keys.remove(ski);
@@ -194,11 +245,41 @@ class EPollSelectorImpl
             ((SelChImpl)selch).kill();
     }
 
+    /**
+     * Queues a change to the key's interest set, to be applied before the
+     * next poll.  A key is queued at most once; later changes made before
+     * the queue is processed only replace its pending events.
+     */
     public void putEventOps(SelectionKeyImpl ski, int ops) {
         if (closed)
             throw new ClosedSelectorException();
-        SelChImpl ch = ski.channel;
-        pollWrapper.setInterest(ch.getFDVal(), ops);
+        ski.updateEvents = ops;
+        if (UPDATE_PENDING.compareAndSet(ski, 0, 1)) {
+            SelectionKeyImpl h;
+            do {
+                h = updateKeys.get();
+                ski.nextUpdate = h;
+            } while (!updateKeys.compareAndSet(h, ski));
+        }
+    }
+
+    /**
+     * Applies the queued interest-set changes of keys that are still
+     * registered.
+     */
+    private void processUpdateQueue() {
+        SelectionKeyImpl ski = updateKeys.getAndSet(null);
+        while (ski != null) {
+            SelectionKeyImpl next = ski.nextUpdate;
+            ski.nextUpdate = null;
+            // clear before reading the events, so that a change made
+            // after the read queues the key again
+            UPDATE_PENDING.set(ski, 0);
+            int fd = ski.channel.getFDVal();
+            if (getKey(fd) == ski)
+                pollWrapper.setInterest(fd, ski.updateEvents);
+            ski = next;
+        }
     }
 
     public Selector wakeup() {
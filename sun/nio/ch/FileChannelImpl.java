@@ -28,7 +28,9 @@ package sun.nio.ch;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteBufferPool;
 import java.nio.MappedByteBuffer;
+import java.nio.MappedMemorySegment;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
@@ -42,9 +44,11 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.WritableByteChannel;
 import java.security.AccessController;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import sun.misc.Cleaner;
+import sun.misc.SharedSecrets;
 import sun.security.action.GetPropertyAction;
 
 public class FileChannelImpl
@@ -549,14 +553,17 @@ public class FileChannelImpl
                                             WritableByteChannel target)
         throws IOException
     {
-        // Untrusted target: Use a newly-erased buffer
-        int c = Math.min(icount, TRANSFER_SIZE);
-        ByteBuffer bb = ByteBuffer.allocate(c);
+        // Untrusted target: Use a newly-erased buffer.  A selectable
+        // channel of this implementation is trusted, and is given a pooled
+        // native buffer so that neither side copies through the heap.
+        boolean trusted = target instanceof SelChImpl;
+        int c = Math.min(icount, trusted ? SOCKET_TRANSFER_SIZE : TRANSFER_SIZE);
+        ByteBuffer bb = trusted ? ByteBufferPool.acquire(c) : ByteBuffer.allocate(c);
         long tw = 0;                    // Total bytes written
         long pos = position;
         try {
             while (tw < icount) {
-                bb.limit(Math.min((int)(icount - tw), TRANSFER_SIZE));
+                bb.limit(Math.min((int)(icount - tw), c));
                 int nr = read(bb, pos);
                 if (nr <= 0)
                     break;
@@ -575,6 +582,9 @@ public class FileChannelImpl
             if (tw > 0)
                 return tw;
             throw x;
+        } finally {
+            if (trusted)
+                ByteBufferPool.release(bb);
         }
     }
 
@@ -652,18 +662,24 @@ public class FileChannelImpl
 
     private static final int TRANSFER_SIZE = 8192;
 
+    // Size of the native buffer used to transfer to or from a socket
+    private static final int SOCKET_TRANSFER_SIZE = 64 * 1024;
+
     private long transferFromArbitraryChannel(ReadableByteChannel src,
                                               long position, long count)
         throws IOException
     {
-        // Untrusted target: Use a newly-erased buffer
-        int c = (int)Math.min(count, TRANSFER_SIZE);
-        ByteBuffer bb = ByteBuffer.allocate(c);
+        // Untrusted source: Use a newly-erased buffer.  A selectable
+        // channel of this implementation is trusted, and reads straight
+        // into a pooled native buffer.
+        boolean trusted = src instanceof SelChImpl;
+        int c = (int)Math.min(count, trusted ? SOCKET_TRANSFER_SIZE : TRANSFER_SIZE);
+        ByteBuffer bb = trusted ? ByteBufferPool.acquire(c) : ByteBuffer.allocate(c);
         long tw = 0;                    // Total bytes written
         long pos = position;
         try {
             while (tw < count) {
-                bb.limit((int)Math.min((count - tw), (long)TRANSFER_SIZE));
+                bb.limit((int)Math.min((count - tw), (long)c));
                 // ## Bug: Will block reading src if this channel
                 // ##      is asynchronously closed
                 int nr = src.read(bb);
@@ -682,6 +698,9 @@ public class FileChannelImpl
             if (tw > 0)
                 return tw;
             throw x;
+        } finally {
+            if (trusted)
+                ByteBufferPool.release(bb);
         }
     }
 
@@ -742,6 +761,115 @@ public class FileChannelImpl
         }
     }
 
+    // Reads in a batch whose regions are at most this far apart are
+    // combined into a single read of the enclosing region, which is
+    // limited to MAX_BATCH_RUN bytes
+    private static final int MAX_BATCH_GAP = 4096;
+    private static final int MAX_BATCH_RUN = 256 * 1024;
+
+    public long readBatch(ByteBuffer[] dsts, long[] positions)
+        throws IOException
+    {
+        if (positions.length != dsts.length)
+            throw new IllegalArgumentException("Length mismatch");
+        for (int i = 0; i < dsts.length; i++) {
+            if (dsts[i] == null)
+                throw new NullPointerException();
+            if (dsts[i].isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+            if (positions[i] < 0)
+                throw new IllegalArgumentException("Negative position");
+        }
+        // combined reads would copy into shared content in file order
+        if (Util.overlaps(dsts))
+            throw new IllegalArgumentException("Overlapping buffers");
+        if (!readable)
+            throw new NonReadableChannelException();
+        ensureOpen();
+        if (nd.needsPositionLock()) {
+            synchronized (positionLock) {
+                return readBatchInternal(dsts, positions);
+            }
+        } else {
+            return readBatchInternal(dsts, positions);
+        }
+    }
+
+    private long readBatchInternal(ByteBuffer[] dsts, final long[] positions)
+        throws IOException
+    {
+        assert !nd.needsPositionLock() || Thread.holdsLock(positionLock);
+        int count = dsts.length;
+        Integer[] order = new Integer[count];
+        boolean sorted = true;
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            if (i > 0 && positions[i] < positions[i - 1])
+                sorted = false;
+        }
+        if (!sorted)
+            Arrays.sort(order, (a, b) -> Long.compare(positions[a], positions[b]));
+
+        long total = 0;
+        int n = 0;
+        int ti = -1;
+        try {
+            begin();
+            ti = threads.add();
+            if (!isOpen())
+                return 0;
+            for (int i = 0, j; i < count && n != IOStatus.INTERRUPTED; i = j) {
+                // find the run of requests that can be read together
+                long start = positions[order[i]];
+                long end = start + dsts[order[i]].remaining();
+                for (j = i + 1; j < count; j++) {
+                    long p = positions[order[j]];
+                    long e = Math.max(end, p + dsts[order[j]].remaining());
+                    if (p - end > MAX_BATCH_GAP || e - start > MAX_BATCH_RUN)
+                        break;
+                    end = e;
+                }
+                if (j == i + 1) {
+                    do {
+                        n = IOUtil.read(fd, dsts[order[i]], start, nd);
+                    } while ((n == IOStatus.INTERRUPTED) && isOpen());
+                    if (n > 0)
+                        total += n;
+                    continue;
+                }
+
+                ByteBuffer bb = ByteBufferPool.acquire((int)(end - start));
+                try {
+                    while (bb.hasRemaining()) {
+                        do {
+                            n = IOUtil.read(fd, bb, start + bb.position(), nd);
+                        } while ((n == IOStatus.INTERRUPTED) && isOpen());
+                        if (n <= 0)
+                            break;
+                    }
+                    int got = bb.position();
+                    for (int k = i; k < j; k++) {
+                        ByteBuffer dst = dsts[order[k]];
+                        int off = (int)(positions[order[k]] - start);
+                        int len = Math.min(dst.remaining(), got - off);
+                        if (len > 0) {
+                            bb.limit(off + len).position(off);
+                            dst.put(bb);
+                            total += len;
+                        }
+                    }
+                } finally {
+                    ByteBufferPool.release(bb);
+                }
+            }
+            return total;
+        } finally {
+            threads.remove(ti);
+            end(total > 0);
+            assert IOStatus.check(n);
+        }
+    }
+
     public int write(ByteBuffer src, long position) throws IOException {
         if (src == null)
             throw new NullPointerException();
@@ -795,17 +923,19 @@ public class FileChannelImpl
 
         private volatile long address;
         private final long size;
-        private final int cap;
+        private final long cap;
         private final FileDescriptor fd;
+        private final int pagePosition;
 
-        private Unmapper(long address, long size, int cap,
-                         FileDescriptor fd)
+        private Unmapper(long address, long size, long cap,
+                         FileDescriptor fd, int pagePosition)
         {
             assert (address != 0);
             this.address = address;
             this.size = size;
             this.cap = cap;
             this.fd = fd;
+            this.pagePosition = pagePosition;
 
             synchronized (Unmapper.class) {
                 count++;
@@ -849,6 +979,53 @@ public class FileChannelImpl
 
     public MappedByteBuffer map(MapMode mode, long position, long size)
         throws IOException
+    {
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE");
+        Unmapper um = mapInternal(mode, position, size);
+        int isize = (int)size;
+        if (um == null) {
+            // a valid file descriptor is not required
+            FileDescriptor dummy = new FileDescriptor();
+            if ((!writable) || (mode == MapMode.READ_ONLY))
+                return Util.newMappedByteBufferR(0, 0, dummy, null);
+            else
+                return Util.newMappedByteBuffer(0, 0, dummy, null);
+        }
+        if ((!writable) || (mode == MapMode.READ_ONLY)) {
+            return Util.newMappedByteBufferR(isize,
+                                             um.address + um.pagePosition,
+                                             um.fd,
+                                             um);
+        } else {
+            return Util.newMappedByteBuffer(isize,
+                                            um.address + um.pagePosition,
+                                            um.fd,
+                                            um);
+        }
+    }
+
+    @Override
+    public MappedMemorySegment mapSegment(MapMode mode, long position, long size)
+        throws IOException
+    {
+        Unmapper um = mapInternal(mode, position, size);
+        boolean readOnly = (!writable) || (mode == MapMode.READ_ONLY);
+        if (um == null) {
+            return SharedSecrets.getJavaNioAccess()
+                .newMappedMemorySegment(0L, 0L, readOnly, new FileDescriptor(), null);
+        }
+        return SharedSecrets.getJavaNioAccess()
+            .newMappedMemorySegment(um.address + um.pagePosition, size, readOnly,
+                                    um.fd, um);
+    }
+
+    /**
+     * Maps a region of the file, returning the Unmapper that owns the
+     * mapping, or {@code null} if the region is empty and so not mapped.
+     */
+    private Unmapper mapInternal(MapMode mode, long position, long size)
+        throws IOException
     {
         ensureOpen();
         if (mode == null)
@@ -859,8 +1036,6 @@ public class FileChannelImpl
             throw new IllegalArgumentException("Negative size");
         if (position + size < 0)
             throw new IllegalArgumentException("Position + size overflow");
-        if (size > Integer.MAX_VALUE)
-            throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE");
 
         int imode = -1;
         if (mode == MapMode.READ_ONLY)
@@ -908,12 +1083,7 @@ public class FileChannelImpl
 
                 if (size == 0) {
                     addr = 0;
-                    // a valid file descriptor is not required
-                    FileDescriptor dummy = new FileDescriptor();
-                    if ((!writable) || (imode == MAP_RO))
-                        return Util.newMappedByteBufferR(0, 0, dummy, null);
-                    else
-                        return Util.newMappedByteBuffer(0, 0, dummy, null);
+                    return null;
                 }
 
                 pagePosition = (int)(position % allocationGranularity);
@@ -952,19 +1122,7 @@ public class FileChannelImpl
 
             assert (IOStatus.checkAll(addr));
             assert (addr % allocationGranularity == 0);
-            int isize = (int)size;
-            Unmapper um = new Unmapper(addr, mapSize, isize, mfd);
-            if ((!writable) || (imode == MAP_RO)) {
-                return Util.newMappedByteBufferR(isize,
-                                                 addr + pagePosition,
-                                                 mfd,
-                                                 um);
-            } else {
-                return Util.newMappedByteBuffer(isize,
-                                                addr + pagePosition,
-                                                mfd,
-                                                um);
-            }
+            return new Unmapper(addr, mapSize, size, mfd, pagePosition);
         } finally {
             threads.remove(ti);
             end(IOStatus.checkAll(addr));
@@ -28,6 +28,7 @@ package sun.nio.ch;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteBufferPool;
 
 
 /**
@@ -55,7 +56,7 @@ public class IOUtil {
         int lim = src.limit();
         assert (pos <= lim);
         int rem = (pos <= lim ? lim - pos : 0);
-        ByteBuffer bb = Util.getTemporaryDirectBuffer(rem);
+        ByteBuffer bb = ByteBufferPool.acquire(rem);
         try {
             bb.put(src);
             bb.flip();
@@ -69,7 +70,7 @@ public class IOUtil {
             }
             return n;
         } finally {
-            Util.offerFirstTemporaryDirectBuffer(bb);
+            ByteBufferPool.release(bb);
         }
     }
 
@@ -97,6 +98,36 @@ public class IOUtil {
         return written;
     }
 
+    // Dispatchers for the java.io and java.net streams, created lazily
+    private static class StreamDispatchers {
+        static final NativeDispatcher FILE = new FileDispatcherImpl();
+        static final NativeDispatcher SOCKET = new SocketDispatcher();
+    }
+
+    /**
+     * Writes all remaining bytes of the given buffers to a file or socket
+     * in blocking mode, with gathering writes. Used by the streams of
+     * java.io and java.net that implement java.io.GatheringOutputStream, as
+     * they have no channel of their own to write with.
+     */
+    public static void writeFully(FileDescriptor fd, ByteBuffer[] bufs,
+                                  int offset, int length, boolean isSocket)
+        throws IOException
+    {
+        NativeDispatcher nd = isSocket ? StreamDispatchers.SOCKET
+                                       : StreamDispatchers.FILE;
+        int end = offset + length;
+        for (;;) {
+            while (offset < end && !bufs[offset].hasRemaining())
+                offset++;
+            if (offset == end)
+                return;
+            long n = write(fd, bufs, offset, end - offset, nd);
+            if (n == IOStatus.UNAVAILABLE)
+                throw new IOException("Resource temporarily unavailable");
+        }
+    }
+
     static long write(FileDescriptor fd, ByteBuffer[] bufs, NativeDispatcher nd)
         throws IOException
     {
@@ -127,7 +158,7 @@ public class IOUtil {
 
                     // allocate shadow buffer to ensure I/O is done with direct buffer
                     if (!(buf instanceof DirectBuffer)) {
-                        ByteBuffer shadow = Util.getTemporaryDirectBuffer(rem);
+                        ByteBuffer shadow = ByteBufferPool.acquire(rem);
                         shadow.put(buf);
                         shadow.flip();
                         vec.setShadow(iov_len, shadow);
@@ -161,7 +192,7 @@ public class IOUtil {
                 // return shadow buffers to buffer pool
                 ByteBuffer shadow = vec.getShadow(j);
                 if (shadow != null)
-                    Util.offerLastTemporaryDirectBuffer(shadow);
+                    ByteBufferPool.release(shadow);
                 vec.clearRefs(j);
             }
 
@@ -175,7 +206,7 @@ public class IOUtil {
                 for (int j=0; j<iov_len; j++) {
                     ByteBuffer shadow = vec.getShadow(j);
                     if (shadow != null)
-                        Util.offerLastTemporaryDirectBuffer(shadow);
+                        ByteBufferPool.release(shadow);
                     vec.clearRefs(j);
                 }
             }
@@ -192,7 +223,7 @@ public class IOUtil {
             return readIntoNativeBuffer(fd, dst, position, nd);
 
         // Substitute a native buffer
-        ByteBuffer bb = Util.getTemporaryDirectBuffer(dst.remaining());
+        ByteBuffer bb = ByteBufferPool.acquire(dst.remaining());
         try {
             int n = readIntoNativeBuffer(fd, bb, position, nd);
             bb.flip();
@@ -200,7 +231,7 @@ public class IOUtil {
                 dst.put(bb);
             return n;
         } finally {
-            Util.offerFirstTemporaryDirectBuffer(bb);
+            ByteBufferPool.release(bb);
         }
     }
 
@@ -260,7 +291,7 @@ public class IOUtil {
 
                     // allocate shadow buffer to ensure I/O is done with direct buffer
                     if (!(buf instanceof DirectBuffer)) {
-                        ByteBuffer shadow = Util.getTemporaryDirectBuffer(rem);
+                        ByteBuffer shadow = ByteBufferPool.acquire(rem);
                         vec.setShadow(iov_len, shadow);
                         buf = shadow;
                         pos = shadow.position();
@@ -295,7 +326,7 @@ public class IOUtil {
                     left -= n;
                 }
                 if (shadow != null)
-                    Util.offerLastTemporaryDirectBuffer(shadow);
+                    ByteBufferPool.release(shadow);
                 vec.clearRefs(j);
             }
 
@@ -309,7 +340,7 @@ public class IOUtil {
                 for (int j=0; j<iov_len; j++) {
                     ByteBuffer shadow = vec.getShadow(j);
                     if (shadow != null)
-                        Util.offerLastTemporaryDirectBuffer(shadow);
+                        ByteBufferPool.release(shadow);
                     vec.clearRefs(j);
                 }
             }
@@ -268,6 +268,14 @@ public class Net {
 
     // -- Socket options
 
+    /**
+     * Tells whether the platform supports SO_REUSEPORT.
+     */
+    static boolean isReusePortAvailable() {
+        return SocketOptionRegistry.findOption(
+            jdk.net.ExtendedSocketOptions.SO_REUSEPORT, UNSPEC) != null;
+    }
+
     static void setSocketOption(FileDescriptor fd, ProtocolFamily family,
                                 SocketOption<?> name, Object value)
         throws IOException
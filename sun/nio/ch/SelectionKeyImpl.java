@@ -47,6 +47,14 @@ public class SelectionKeyImpl
     private volatile int interestOps;
     private int readyOps;
 
+    // Pending registration change, for selectors that take interest-set
+    // updates from other threads without locking (EPollSelectorImpl): the
+    // translated events, whether the key is queued, and the next key in
+    // the selector's queue of pending updates
+    volatile int updateEvents;
+    volatile int updatePending;
+    SelectionKeyImpl nextUpdate;
+
     SelectionKeyImpl(SelChImpl ch, SelectorImpl sel) {
         channel = ch;
         selector = sel;
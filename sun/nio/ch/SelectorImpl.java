@@ -30,6 +30,7 @@ import java.nio.channels.*;
 import java.nio.channels.spi.*;
 import java.net.SocketException;
 import java.util.*;
+import java.util.function.Consumer;
 
 
 /**
@@ -105,6 +106,64 @@ public abstract class SelectorImpl
         return lockAndDoSelect(0);
     }
 
+    /**
+     * Selects keys and performs the action on each key whose channel is
+     * ready, without adding it to the selected-key set.  Implementations
+     * that can deliver keys directly from the operating system's results
+     * override this method; this version selects into the selected-key set
+     * and then drains it.
+     */
+    protected int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        selectedKeys.clear();
+        int numKeySelected = doSelect(timeout);
+        SelectionKey[] keysToConsume =
+            selectedKeys.toArray(new SelectionKey[selectedKeys.size()]);
+        selectedKeys.clear();
+        for (SelectionKey k : keysToConsume) {
+            action.accept(k);
+            if (!isOpen())
+                throw new ClosedSelectorException();
+        }
+        return numKeySelected;
+    }
+
+    private int lockAndDoSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        synchronized (this) {
+            if (!isOpen())
+                throw new ClosedSelectorException();
+            synchronized (publicKeys) {
+                synchronized (publicSelectedKeys) {
+                    return doSelect(action, timeout);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        Objects.requireNonNull(action);
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return lockAndDoSelect(action, (timeout == 0) ? -1 : timeout);
+    }
+
+    @Override
+    public int select(Consumer<SelectionKey> action) throws IOException {
+        return select(action, 0);
+    }
+
+    @Override
+    public int selectNow(Consumer<SelectionKey> action) throws IOException {
+        Objects.requireNonNull(action);
+        return lockAndDoSelect(action, 0);
+    }
+
     public void implCloseSelector() throws IOException {
         wakeup();
         synchronized (this) {
@@ -183,6 +183,9 @@ class ServerSocketChannelImpl
             set.add(StandardSocketOptions.SO_RCVBUF);
             set.add(StandardSocketOptions.SO_REUSEADDR);
             set.add(StandardSocketOptions.IP_TOS);
+            if (Net.isReusePortAvailable()) {
+                set.add(jdk.net.ExtendedSocketOptions.SO_REUSEPORT);
+            }
             return Collections.unmodifiableSet(set);
         }
     }
@@ -243,12 +246,9 @@ class ServerSocketChannelImpl
                 if (!isOpen())
                     return null;
                 thread = NativeThread.current();
-                for (;;) {
-                    n = accept(this.fd, newfd, isaa);
-                    if ((n == IOStatus.INTERRUPTED) && isOpen())
-                        continue;
-                    break;
-                }
+                n = Blocking.isManaged(this)
+                    ? (int)Blocking.run(this, () -> acceptLoop(newfd, isaa))
+                    : acceptLoop(newfd, isaa);
             } finally {
                 thread = 0;
                 end(n > 0);
@@ -419,6 +419,22 @@ class ServerSocketChannelImpl
         return accept0(ssfd, newfd, isaa);
     }
 
+    /**
+     * Accepts a connection on this channel's socket, retrying while the
+     * call is interrupted and the channel is still open. Run through
+     * {@code Blocking} when a fork/join pool is to compensate.
+     */
+    private int acceptLoop(FileDescriptor newfd, InetSocketAddress[] isaa)
+        throws IOException
+    {
+        for (;;) {
+            int n = accept(this.fd, newfd, isaa);
+            if ((n == IOStatus.INTERRUPTED) && isOpen())
+                continue;
+            return n;
+        }
+    }
+
     // -- Native methods --
 
     // Accepts a new connection, setting the given file descriptor to refer to
@@ -29,6 +29,7 @@ import java.io.FileDescriptor;
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.ByteBufferPool;
 import java.nio.channels.*;
 import java.nio.channels.spi.*;
 import java.util.*;
@@ -288,6 +289,83 @@ class SocketChannelImpl
         }
     }
 
+    // -- Blocking system calls, retried while interrupted and still open;
+    //    run through Blocking when a fork/join pool is to compensate --
+
+    private int readLoop(ByteBuffer buf) throws IOException {
+        for (;;) {
+            int n = IOUtil.read(fd, buf, -1, nd);
+            if ((n == IOStatus.INTERRUPTED) && isOpen()) {
+                // The system call was interrupted but the channel
+                // is still open, so retry
+                continue;
+            }
+            return n;
+        }
+    }
+
+    private long readLoop(ByteBuffer[] dsts, int offset, int length)
+        throws IOException
+    {
+        for (;;) {
+            long n = IOUtil.read(fd, dsts, offset, length, nd);
+            if ((n == IOStatus.INTERRUPTED) && isOpen())
+                continue;
+            return n;
+        }
+    }
+
+    private int writeLoop(ByteBuffer buf) throws IOException {
+        for (;;) {
+            int n = IOUtil.write(fd, buf, -1, nd);
+            if ((n == IOStatus.INTERRUPTED) && isOpen())
+                continue;
+            return n;
+        }
+    }
+
+    private long writeLoop(ByteBuffer[] srcs, int offset, int length)
+        throws IOException
+    {
+        for (;;) {
+            long n = IOUtil.write(fd, srcs, offset, length, nd);
+            if ((n == IOStatus.INTERRUPTED) && isOpen())
+                continue;
+            return n;
+        }
+    }
+
+    private int connectLoop(InetSocketAddress isa) throws IOException {
+        for (;;) {
+            InetAddress ia = isa.getAddress();
+            if (ia.isAnyLocalAddress())
+                ia = InetAddress.getLocalHost();
+            int n = Net.connect(fd,
+                                ia,
+                                isa.getPort());
+            if (  (n == IOStatus.INTERRUPTED)
+                  && isOpen())
+                continue;
+            return n;
+        }
+    }
+
+    private int finishConnectLoop() throws IOException {
+        for (;;) {
+            int n = checkConnect(fd, true,
+                                 readyToConnect);
+            if (n == 0) {
+                // Loop in case of
+                // spurious notifications
+                continue;
+            }
+            if (  (n == IOStatus.INTERRUPTED)
+                  && isOpen())
+                continue;
+            return n;
+        }
+    }
+
     public int read(ByteBuffer buf) throws IOException {
 
         if (buf == null)
@@ -373,15 +451,10 @@ class SocketChannelImpl
                 // closed.  This is analogous to the first two cases above,
                 // except that the shutdown operation plays the role of
                 // nd.preClose().
-                for (;;) {
-                    n = IOUtil.read(fd, buf, -1, nd);
-                    if ((n == IOStatus.INTERRUPTED) && isOpen()) {
-                        // The system call was interrupted but the channel
-                        // is still open, so retry
-                        continue;
-                    }
-                    return IOStatus.normalize(n);
-                }
+                n = Blocking.isManaged(this)
+                    ? (int)Blocking.run(this, () -> readLoop(buf))
+                    : readLoop(buf);
+                return IOStatus.normalize(n);
 
             } finally {
                 readerCleanup();        // Clear reader thread
@@ -433,12 +506,10 @@ class SocketChannelImpl
                     readerThread = NativeThread.current();
                 }
 
-                for (;;) {
-                    n = IOUtil.read(fd, dsts, offset, length, nd);
-                    if ((n == IOStatus.INTERRUPTED) && isOpen())
-                        continue;
-                    return IOStatus.normalize(n);
-                }
+                n = Blocking.isManaged(this)
+                    ? Blocking.run(this, () -> readLoop(dsts, offset, length))
+                    : readLoop(dsts, offset, length);
+                return IOStatus.normalize(n);
             } finally {
                 readerCleanup();
                 end(n > 0 || (n == IOStatus.UNAVAILABLE));
@@ -464,12 +535,10 @@ class SocketChannelImpl
                         return 0;
                     writerThread = NativeThread.current();
                 }
-                for (;;) {
-                    n = IOUtil.write(fd, buf, -1, nd);
-                    if ((n == IOStatus.INTERRUPTED) && isOpen())
-                        continue;
-                    return IOStatus.normalize(n);
-                }
+                n = Blocking.isManaged(this)
+                    ? (int)Blocking.run(this, () -> writeLoop(buf))
+                    : writeLoop(buf);
+                return IOStatus.normalize(n);
             } finally {
                 writerCleanup();
                 end(n > 0 || (n == IOStatus.UNAVAILABLE));
@@ -497,12 +566,10 @@ class SocketChannelImpl
                         return 0;
                     writerThread = NativeThread.current();
                 }
-                for (;;) {
-                    n = IOUtil.write(fd, srcs, offset, length, nd);
-                    if ((n == IOStatus.INTERRUPTED) && isOpen())
-                        continue;
-                    return IOStatus.normalize(n);
-                }
+                n = Blocking.isManaged(this)
+                    ? Blocking.run(this, () -> writeLoop(srcs, offset, length))
+                    : writeLoop(srcs, offset, length);
+                return IOStatus.normalize(n);
             } finally {
                 writerCleanup();
                 end((n > 0) || (n == IOStatus.UNAVAILABLE));
@@ -515,6 +582,65 @@ class SocketChannelImpl
         }
     }
 
+    // Size of the native buffer used to relay bytes to another socket
+    private static final int TRANSFER_SIZE = 64 * 1024;
+
+    @Override
+    public long transferTo(SocketChannel target, long count)
+        throws IOException
+    {
+        if (!(target instanceof SocketChannelImpl))
+            return super.transferTo(target, count);
+        if (count < 0)
+            throw new IllegalArgumentException("Negative count");
+        SocketChannelImpl sc = (SocketChannelImpl)target;
+        ByteBuffer bb = ByteBufferPool.acquire((int)Math.min(count, TRANSFER_SIZE));
+        try {
+            long tw = 0;
+            while (tw < count) {
+                bb.clear();
+                bb.limit((int)Math.min(count - tw, bb.capacity()));
+                int nr = read(bb);
+                if (nr < 0 && tw == 0)
+                    return -1;
+                if (nr <= 0)
+                    break;
+                bb.flip();
+                while (bb.hasRemaining()) {
+                    if (sc.write(bb) == 0)
+                        sc.awaitWritable();
+                }
+                tw += nr;
+            }
+            return tw;
+        } finally {
+            ByteBufferPool.release(bb);
+        }
+    }
+
+    /**
+     * Waits until the socket can accept more bytes.  Used by transferTo
+     * when this channel, the target, is in non-blocking mode.
+     */
+    private void awaitWritable() throws IOException {
+        synchronized (writeLock) {
+            ensureWriteOpen();
+            int n = 0;
+            try {
+                begin();
+                synchronized (stateLock) {
+                    if (!isOpen())
+                        return;
+                    writerThread = NativeThread.current();
+                }
+                n = Net.poll(fd, Net.POLLOUT, -1);
+            } finally {
+                writerCleanup();
+                end(n > 0);
+            }
+        }
+    }
+
     // package-private
     int sendOutOfBandData(byte b) throws IOException {
         synchronized (writeLock) {
@@ -638,18 +764,10 @@ class SocketChannelImpl
                                 }
                                 readerThread = NativeThread.current();
                             }
-                            for (;;) {
-                                InetAddress ia = isa.getAddress();
-                                if (ia.isAnyLocalAddress())
-                                    ia = InetAddress.getLocalHost();
-                                n = Net.connect(fd,
-                                                ia,
-                                                isa.getPort());
-                                if (  (n == IOStatus.INTERRUPTED)
-                                      && isOpen())
-                                    continue;
-                                break;
-                            }
+                            n = Blocking.isManaged(this)
+                                ? (int)Blocking.run(this,
+                                                    () -> connectLoop(isa))
+                                : connectLoop(isa);
 
                         } finally {
                             readerCleanup();
@@ -719,19 +837,10 @@ class SocketChannelImpl
                                     break;
                                 }
                             } else {
-                                for (;;) {
-                                    n = checkConnect(fd, true,
-                                                     readyToConnect);
-                                    if (n == 0) {
-                                        // Loop in case of
-                                        // spurious notifications
-                                        continue;
-                                    }
-                                    if (  (n == IOStatus.INTERRUPTED)
-                                          && isOpen())
-                                        continue;
-                                    break;
-                                }
+                                n = Blocking.isManaged(this)
+                                    ? (int)Blocking.run(this,
+                                                        this::finishConnectLoop)
+                                    : finishConnectLoop();
                             }
                         }
                     } finally {
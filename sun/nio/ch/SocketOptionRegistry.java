@@ -74,6 +74,7 @@ class SocketOptionRegistry {
             map.put(new RegistryKey(StandardSocketOptions.IP_MULTICAST_TTL, StandardProtocolFamily.INET6), new OptionKey(41, 18));
             map.put(new RegistryKey(StandardSocketOptions.IP_MULTICAST_LOOP, StandardProtocolFamily.INET6), new OptionKey(41, 19));
             map.put(new RegistryKey(ExtendedSocketOption.SO_OOBINLINE, Net.UNSPEC), new OptionKey(1, 10));
+            map.put(new RegistryKey(jdk.net.ExtendedSocketOptions.SO_REUSEPORT, Net.UNSPEC), new OptionKey(1, 15));
             return map;                                                        
         }                                                                      
     }                                                                          
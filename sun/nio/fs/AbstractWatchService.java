@@ -26,6 +26,8 @@
 package sun.nio.fs;
 
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 import java.io.IOException;
 
@@ -120,6 +122,41 @@ abstract class AbstractWatchService implements WatchService {
         return key;
     }
 
+    /**
+     * Drains the pending keys into a list, taking the queue's lock once.
+     */
+    private List<WatchKey> drainKeys(WatchKey first) {
+        List<WatchKey> keys = new ArrayList<>();
+        if (first != null)
+            keys.add(first);
+        pendingKeys.drainTo(keys);
+        if (keys.contains(CLOSE_KEY)) {
+            // re-queue in case there are other threads blocked in take/poll
+            enqueueKey(CLOSE_KEY);
+            throw new ClosedWatchServiceException();
+        }
+        return keys;
+    }
+
+    @Override
+    public final List<WatchKey> pollAll() {
+        checkOpen();
+        return drainKeys(null);
+    }
+
+    @Override
+    public final List<WatchKey> pollAll(long timeout, TimeUnit unit)
+        throws InterruptedException
+    {
+        checkOpen();
+        WatchKey key = pendingKeys.poll(timeout, unit);
+        if (key == null) {
+            checkOpen();
+            return new ArrayList<>();
+        }
+        return drainKeys(key);
+    }
+
     /**
      * Tells whether or not this watch service is open.
      */
@@ -26,6 +26,7 @@
 package sun.nio.fs;
 
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.*;
@@ -42,6 +43,11 @@ import static sun.nio.fs.UnixConstants.*;
  * mechanism. Requests to add or remove a watch, or close the watch service,
  * cause the thread to wakeup and process the request. Events are processed
  * by the thread which causes it to signal/queue the corresponding watch keys.
+ *
+ * inotify has no recursive watch so the FILE_TREE modifier is implemented by
+ * adding a watch for each directory in the tree, all mapped to the same key.
+ * Directories created in or moved into the tree are watched as they appear,
+ * and the watches of directories moved out of the tree are removed.
  */
 
 class LinuxWatchService
@@ -105,6 +111,14 @@ class LinuxWatchService
         // watch descriptor
         private volatile int wd;
 
+        // the following are only accessed by the poller thread
+
+        // inotify events requested by the registration
+        private int mask;
+        // watch descriptors of the directories below the root, mapped to
+        // their path relative to the root; null if not watching a file tree
+        private Map<Integer,UnixPath> subdirs;
+
         LinuxWatchKey(UnixPath dir, LinuxWatchService watcher, int ifd, int wd) {
             super(dir, watcher);
             this.ifd = ifd;
@@ -115,6 +129,31 @@ class LinuxWatchService
             return wd;
         }
 
+        int mask() {
+            return mask;
+        }
+
+        void setMask(int mask) {
+            this.mask = mask;
+        }
+
+        boolean isFileTree() {
+            return subdirs != null;
+        }
+
+        Map<Integer,UnixPath> subdirs() {
+            return subdirs;
+        }
+
+        void setFileTree(boolean fileTree) {
+            if (fileTree) {
+                if (subdirs == null)
+                    subdirs = new HashMap<Integer,UnixPath>();
+            } else {
+                subdirs = null;
+            }
+        }
+
         void invalidate(boolean remove) {
             if (remove) {
                 try {
@@ -170,6 +209,13 @@ class LinuxWatchService
         private static final int IN_Q_OVERFLOW      = 0x00004000;
         private static final int IN_IGNORED         = 0x00008000;
 
+        private static final int IN_MASK_ADD        = 0x20000000;
+        private static final int IN_ISDIR           = 0x40000000;
+
+        // events needed on each directory of a file tree to track its shape
+        private static final int FILE_TREE_MASK     = IN_CREATE | IN_MOVED_TO |
+                                                      IN_MOVED_FROM;
+
         // sizeof buffer for when polling inotify
         private static final int BUFFER_SIZE = 8192;
 
@@ -185,6 +231,12 @@ class LinuxWatchService
         // address of read buffer
         private final long address;
 
+        // the context of the last event signalled, reused while the same
+        // event repeats
+        private int lastWd = -1;
+        private UnixPath lastName;
+        private UnixPath lastContext;
+
         Poller(UnixFileSystem fs, LinuxWatchService watcher, int ifd, int[] sp) {
             this.fs = fs;
             this.watcher = watcher;
@@ -227,11 +279,16 @@ class LinuxWatchService
                 }
             }
 
-            // no modifiers supported at this time
+            // check modifiers
+            boolean watchSubtree = false;
             if (modifiers.length > 0) {
                 for (WatchEvent.Modifier modifier: modifiers) {
                     if (modifier == null)
                         return new NullPointerException();
+                    if (modifier == com.sun.nio.file.ExtendedWatchEventModifier.FILE_TREE) {
+                        watchSubtree = true;
+                        continue;
+                    }
                     if (modifier instanceof com.sun.nio.file.SensitivityWatchEventModifier)
                         continue; // ignore
                     return new UnsupportedOperationException("Modifier not supported");
@@ -252,13 +309,7 @@ class LinuxWatchService
             // register with inotify (replaces existing mask if already registered)
             int wd = -1;
             try {
-                NativeBuffer buffer =
-                    NativeBuffers.asNativeBuffer(dir.getByteArrayForSysCalls());
-                try {
-                    wd = inotifyAddWatch(ifd, buffer.address(), mask);
-                } finally {
-                    buffer.release();
-                }
+                wd = addWatch(dir, watchSubtree ? (mask | FILE_TREE_MASK) : mask);
             } catch (UnixException x) {
                 if (x.errno() == ENOSPC) {
                     return new IOException("User limit of inotify watches reached");
@@ -266,20 +317,125 @@ class LinuxWatchService
                 return x.asIOException(dir);
             }
 
-            // ensure watch descriptor is in map
+            // ensure watch descriptor is in map; if the directory is watched
+            // as part of another key's file tree then it now has its own key
             LinuxWatchKey key = wdToKey.get(wd);
+            if (key != null && key.descriptor() != wd) {
+                key.subdirs().remove(wd);
+                key = null;
+            }
             if (key == null) {
                 key = new LinuxWatchKey(dir, watcher, ifd, wd);
                 wdToKey.put(wd, key);
             }
+            key.setMask(mask);
+
+            // (re)build the watches for the rest of the tree
+            if (key.isFileTree())
+                removeSubtree(key, null);
+            key.setFileTree(watchSubtree);
+            if (watchSubtree) {
+                try {
+                    watchSubtree(key, dir);
+                } catch (IOException x) {
+                    removeSubtree(key, null);
+                    if (wdToKey.remove(wd) != null)
+                        key.invalidate(true);
+                    return x;
+                }
+            }
             return key;
         }
 
+        /**
+         * Adds or replaces the inotify watch for the given directory.
+         */
+        private int addWatch(UnixPath dir, int mask) throws UnixException {
+            NativeBuffer buffer =
+                NativeBuffers.asNativeBuffer(dir.getByteArrayForSysCalls());
+            try {
+                return inotifyAddWatch(ifd, buffer.address(), mask);
+            } finally {
+                buffer.release();
+            }
+        }
+
+        /**
+         * Watches each directory below {@code start}, and {@code start}
+         * itself unless it is the key's root, on behalf of a file tree key.
+         * Symbolic links are not followed. Directories that cannot be read,
+         * or that disappear during the walk, are skipped.
+         */
+        private void watchSubtree(final LinuxWatchKey key, final UnixPath start)
+            throws IOException
+        {
+            final UnixPath root = (UnixPath)key.watchable();
+            final int subMask = key.mask() | FILE_TREE_MASK | IN_MASK_ADD;
+            Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class),
+                Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path obj,
+                                                             BasicFileAttributes attrs)
+                        throws IOException
+                    {
+                        UnixPath dir = (UnixPath)obj;
+                        if (dir.equals(root))
+                            return FileVisitResult.CONTINUE;
+                        int wd;
+                        try {
+                            wd = addWatch(dir, subMask);
+                        } catch (UnixException x) {
+                            if (x.errno() == ENOSPC)
+                                throw new IOException("User limit of inotify watches reached");
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        LinuxWatchKey other = wdToKey.get(wd);
+                        if (other == null) {
+                            wdToKey.put(wd, key);
+                        } else if (other != key) {
+                            // already watched by another key
+                            return FileVisitResult.CONTINUE;
+                        }
+                        key.subdirs().put(wd, root.relativize(dir));
+                        return FileVisitResult.CONTINUE;
+                    }
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        }
+
+        /**
+         * Removes the watches of the directories at or below the given path,
+         * relative to the key's root, or all of the key's sub-directory
+         * watches if the path is {@code null}.
+         */
+        private void removeSubtree(LinuxWatchKey key, UnixPath rel) {
+            Iterator<Map.Entry<Integer,UnixPath>> it =
+                key.subdirs().entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer,UnixPath> entry = it.next();
+                if (rel == null || entry.getValue().startsWith(rel)) {
+                    int wd = entry.getKey();
+                    it.remove();
+                    wdToKey.remove(wd);
+                    try {
+                        inotifyRmWatch(ifd, wd);
+                    } catch (UnixException x) {
+                        // ignore
+                    }
+                }
+            }
+        }
+
         // cancel single key
         @Override
         void implCancelKey(WatchKey obj) {
             LinuxWatchKey key = (LinuxWatchKey)obj;
             if (key.isValid()) {
+                if (key.isFileTree())
+                    removeSubtree(key, null);
                 wdToKey.remove(key.descriptor());
                 key.invalidate(true);
             }
@@ -288,9 +444,12 @@ class LinuxWatchService
         // close watch service
         @Override
         void implCloseAll() {
-            // invalidate all keys
+            // invalidate all keys (the watches of file tree sub-directories
+            // are released when inotify is closed)
             for (Map.Entry<Integer,LinuxWatchKey> entry: wdToKey.entrySet()) {
-                entry.getValue().invalidate(true);
+                LinuxWatchKey key = entry.getValue();
+                if (key.descriptor() == entry.getKey())
+                    key.invalidate(true);
             }
             wdToKey.clear();
 
@@ -324,15 +483,21 @@ class LinuxWatchService
 
                     // iterate over buffer to decode events
                     int offset = 0;
+                    long prev = 0L;
+                    UnixPath name = null;
                     while (offset < bytesRead) {
                         long event = address + offset;
                         int wd = unsafe.getInt(event + OFFSETOF_WD);
                         int mask = unsafe.getInt(event + OFFSETOF_MASK);
                         int len = unsafe.getInt(event + OFFSETOF_LEN);
 
-                        // file name
-                        UnixPath name = null;
-                        if (len > 0) {
+                        // file name; a burst of writes to a file produces a
+                        // run of identical events so the previous name is
+                        // reused when the event repeats
+                        if (prev != 0L && isRepeat(prev, event, len)) {
+                            // name unchanged
+                        } else if (len > 0) {
+                            name = null;
                             int actual = len;
 
                             // null-terminated and maybe additional null bytes to
@@ -349,11 +514,14 @@ class LinuxWatchService
                                     buf, Unsafe.ARRAY_BYTE_BASE_OFFSET, actual);
                                 name = new UnixPath(fs, buf);
                             }
+                        } else {
+                            name = null;
                         }
 
                         // process event
                         processEvent(wd, mask, name);
 
+                        prev = event;
                         offset += (SIZEOF_INOTIFY_EVENT + len);
                     }
 
@@ -375,6 +543,28 @@ class LinuxWatchService
             }
         }
 
+        /**
+         * Tells if the event at the given address has the same watch
+         * descriptor, mask and name as the previous event.
+         */
+        private static boolean isRepeat(long prev, long event, int len) {
+            if (unsafe.getInt(prev + OFFSETOF_WD) != unsafe.getInt(event + OFFSETOF_WD) ||
+                unsafe.getInt(prev + OFFSETOF_MASK) != unsafe.getInt(event + OFFSETOF_MASK) ||
+                unsafe.getInt(prev + OFFSETOF_LEN) != len)
+                return false;
+            long p = prev + OFFSETOF_NAME;
+            long e = event + OFFSETOF_NAME;
+            int i = 0;
+            for (; i + 8 <= len; i += 8) {
+                if (unsafe.getLong(p + i) != unsafe.getLong(e + i))
+                    return false;
+            }
+            for (; i < len; i++) {
+                if (unsafe.getByte(p + i) != unsafe.getByte(e + i))
+                    return false;
+            }
+            return true;
+        }
 
         /**
          * map inotify event to WatchEvent.Kind
@@ -412,9 +602,18 @@ class LinuxWatchService
             LinuxWatchKey key = wdToKey.get(wd);
             if (key == null)
                 return; // should not happen
+            boolean isRoot = (wd == key.descriptor());
 
             // file deleted
             if ((mask & IN_IGNORED) > 0) {
+                if (!isRoot) {
+                    // sub-directory of a file tree deleted or unmounted
+                    key.subdirs().remove(wd);
+                    wdToKey.remove(wd);
+                    return;
+                }
+                if (key.isFileTree())
+                    removeSubtree(key, null);
                 wdToKey.remove(wd);
                 key.invalidate(false);
                 key.signal();
@@ -425,10 +624,40 @@ class LinuxWatchService
             if (name == null)
                 return;
 
+            // context is relative to the root of a file tree
+            UnixPath context;
+            if (isRoot) {
+                context = name;
+            } else if (wd == lastWd && name == lastName) {
+                context = lastContext;
+            } else {
+                context = key.subdirs().get(wd).resolve(name);
+            }
+            lastWd = wd;
+            lastName = name;
+            lastContext = context;
+
+            // track directories entering or leaving the file tree
+            if (key.isFileTree() && (mask & IN_ISDIR) != 0) {
+                if ((mask & (IN_CREATE | IN_MOVED_TO)) != 0) {
+                    UnixPath dir = ((UnixPath)key.watchable()).resolve(context);
+                    try {
+                        watchSubtree(key, dir);
+                    } catch (IOException x) {
+                        // out of watches; signal overflow as events will be missed
+                        key.signalEvent(StandardWatchEventKinds.OVERFLOW, null);
+                    }
+                } else if ((mask & IN_MOVED_FROM) != 0) {
+                    removeSubtree(key, context);
+                }
+            }
+
             // map to event and queue to key
+            if ((mask & key.mask()) == 0)
+                return;
             WatchEvent.Kind<?> kind = maskToEventKind(mask);
             if (kind != null) {
-                key.signalEvent(kind, name);
+                key.signalEvent(kind, context);
             }
         }
     }
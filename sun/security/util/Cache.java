@@ -26,6 +26,8 @@
 package sun.security.util;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentCache;
+import java.util.concurrent.TimeUnit;
 import java.lang.ref.*;
 
 /**
@@ -57,7 +59,12 @@ import java.lang.ref.*;
  * eagerly. Performance may be improved if the Java heap size is set to larger
  * value using e.g. java -ms64M -mx128M foo.Test
  *
- * Cache sizing: the memory cache is implemented on top of a LinkedHashMap.
+ * The soft memory caches are implemented on top of a
+ * java.util.concurrent.ConcurrentCache, so lookups do not contend on a
+ * lock and replacements follow its frequency-aware policy rather than
+ * strict LRU order. The hard memory caches are described below.
+ *
+ * Cache sizing: the hard memory cache is implemented on top of a LinkedHashMap.
  * In its current implementation, the number of buckets (NOT entries) in
  * (Linked)HashMaps is always a power of two. It is recommended to set the
  * maximum cache size to value that uses those buckets fully. For example,
@@ -120,7 +127,7 @@ public abstract class Cache<K,V> {
      * lifetime for entries, with the values held by SoftReferences.
      */
     public static <K,V> Cache<K,V> newSoftMemoryCache(int size) {
-        return new MemoryCache<>(true, size);
+        return new ConcurrentMemoryCache<>(size, 0);
     }
 
     /**
@@ -129,7 +136,7 @@ public abstract class Cache<K,V> {
      * by SoftReferences.
      */
     public static <K,V> Cache<K,V> newSoftMemoryCache(int size, int timeout) {
-        return new MemoryCache<>(true, size, timeout);
+        return new ConcurrentMemoryCache<>(size, timeout);
     }
 
     /**
@@ -550,3 +557,112 @@ class MemoryCache<K,V> extends Cache<K,V> {
     }
 
 }
+
+/**
+ * A memory cache with softly referenced values that is safe for
+ * concurrent use without a global lock.  Lookups and updates go to a
+ * ConcurrentCache; values cleared by the garbage collector are removed
+ * as their references are enqueued.
+ */
+class ConcurrentMemoryCache<K,V> extends Cache<K,V> {
+
+    private final ConcurrentCache<K,SoftValue<K,V>> cache;
+    private final ReferenceQueue<V> queue;
+
+    ConcurrentMemoryCache(int maxSize, int lifetime) {
+        this.cache = new ConcurrentCache<>(
+                maxSize > 0 ? maxSize : Long.MAX_VALUE,
+                lifetime > 0 ? lifetime : 0, 0, TimeUnit.SECONDS);
+        this.queue = new ReferenceQueue<>();
+    }
+
+    /**
+     * Remove the entries whose values have been cleared by the GC.
+     * ReferenceQueue.poll() returns without locking when the queue is
+     * empty, so this is cheap to call from every public method.
+     */
+    private void emptyQueue() {
+        while (true) {
+            @SuppressWarnings("unchecked")
+            SoftValue<K,V> ref = (SoftValue<K,V>)queue.poll();
+            if (ref == null) {
+                break;
+            }
+            cache.remove(ref.key, ref);
+        }
+    }
+
+    public int size() {
+        emptyQueue();
+        cache.cleanUp();
+        return (int)Math.min(cache.estimatedSize(), Integer.MAX_VALUE);
+    }
+
+    public void clear() {
+        cache.clear();
+        while (queue.poll() != null) {
+            // empty
+        }
+    }
+
+    public void put(K key, V value) {
+        emptyQueue();
+        SoftValue<K,V> old = cache.put(key, new SoftValue<>(key, value, queue));
+        if (old != null) {
+            old.clear();
+        }
+    }
+
+    public V get(Object key) {
+        emptyQueue();
+        SoftValue<K,V> ref = cache.get(key);
+        if (ref == null) {
+            return null;
+        }
+        V value = ref.get();
+        if (value == null) {
+            cache.remove(key, ref);
+        }
+        return value;
+    }
+
+    public void remove(Object key) {
+        emptyQueue();
+        SoftValue<K,V> old = cache.remove(key);
+        if (old != null) {
+            old.clear();
+        }
+    }
+
+    public void setCapacity(int size) {
+        emptyQueue();
+        cache.setMaximumSize(size > 0 ? size : Long.MAX_VALUE);
+    }
+
+    public void setTimeout(int timeout) {
+        emptyQueue();
+        cache.setExpireAfterWrite(timeout > 0 ? timeout : 0, TimeUnit.SECONDS);
+    }
+
+    public void accept(CacheVisitor<K,V> visitor) {
+        emptyQueue();
+        Map<K,V> cached = new HashMap<>();
+        cache.forEach((k, ref) -> {
+            V value = ref.get();
+            if (value != null) {
+                cached.put(k, value);
+            }
+        });
+        visitor.visit(cached);
+    }
+
+    private static class SoftValue<K,V> extends SoftReference<V> {
+
+        final K key;
+
+        SoftValue(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+}